@@ -0,0 +1,177 @@
+package pingball;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A control channel for the server's topology, for tools and scripts instead of people at the command line.
+ * Listens on a port of the loopback address only, so it can't be reached from other machines.
+ * It can also be used in the same process through apply() and status().
+ *
+ * Merges sent here are applied in batches by BlockingQueueThread, see TopologyBatch. A whole batch, for example
+ * a 10 x 10 grid of boards, takes one message on the server's queue, is applied between two ball messages,
+ * and either every merge of the batch is applied or none are. Each player is told once about every wall that changed.
+A merge with a board owned by another server of the cluster is passed on to it like a MERGE message.
+ *
+ * Protocol, one line per request and one line per reply:
+ *      BEGIN           start a batch, the following commands are collected until COMMIT
+ *      COMMIT          apply the collected commands as one batch, replies with the status of the batch
+ *      ABORT           forget the collected commands, replies OK
+ *      STATUS          replies OK players=P joined=J queued=Q, J the number of joined walls
+ *      h a b, v a b, grid ROWS COLUMNS names...
+ *                      inside a batch: collected, no reply.
+ *                      outside a batch: applied as a batch of its own, replies with the status of the batch
+ *      anything else   replies ERROR ...
+ * The status of a batch is "OK merges=M changed=C" or "ERROR ...", see BlockingQueueThread.applyTopology.
+ *
+ * Thread Safety Argument:
+ *      serverSocket: immutable, only accepted from by the thread running the channel
+ *      every admin connection is confined to its own thread
+ *      blockingQueueThread: a batch is handed to it and applied on its own thread, see BlockingQueueThread
+ *      players, neighbors, mainQueue: thread safe types, only read here
+ *
+ * @author sdrammis
+ */
+public class AdminChannel implements Runnable {
+    /**
+     * Invariants:
+     *      serverSocket: bound to the loopback address
+     *      players, neighbors, mainQueue: the server's
+     * @author sdrammis
+     */
+    private final ServerSocket serverSocket;
+    private final BlockingQueueThread blockingQueueThread;
+    private final ConcurrentHashMap<String, PingballClientThread> players;
+    private final ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>> neighbors;
+    private final BlockingQueue<String> mainQueue;
+
+    /**
+     * Make an admin channel for a server
+     * @param port loopback port to listen on, 0 for any free port
+     * @param blockingQueueThread the server's thread that applies merges
+     * @param players the server's players
+     * @param neighbors the server's adjacency of the players
+     * @param mainQueue the server's queue
+     * @throws IOException if the port can't be listened on
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public AdminChannel(int port, BlockingQueueThread blockingQueueThread,
+            ConcurrentHashMap<String, PingballClientThread> players,
+            ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>> neighbors,
+            BlockingQueue<String> mainQueue) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.blockingQueueThread = blockingQueueThread;
+        this.players = players;
+        this.neighbors = neighbors;
+        this.mainQueue = mainQueue;
+    }
+
+    /**
+     * Get the port the channel listens on
+     * @return loopback port
+     */
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accept admin connections and serve each on its own thread, until the channel is closed
+     * Implemented by: sdrammis
+     */
+    @Override
+    public void run() {
+        while (true) {
+            final Socket socket;
+            try {
+                socket = this.serverSocket.accept();
+            } catch (IOException e) {
+                // the channel was closed
+                return;
+            }
+            new Thread(new Runnable() {
+                public void run() { serve(socket); }
+            }).start();
+        }
+    }
+
+    /**
+     * Answer the requests of one admin connection until it closes
+     * @param socket the connection
+     */
+    private void serve(Socket socket) {
+        try (Socket connection = socket;
+                BufferedReader input = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+                PrintWriter output = new PrintWriter(connection.getOutputStream(), true)) {
+            List<String> batch = null; //the commands collected since BEGIN, null outside a batch
+            String line;
+            while ((line = input.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) { continue; }
+                if (line.equals("BEGIN")) {
+                    batch = new ArrayList<String>();
+                } else if (line.equals("COMMIT")) {
+                    output.println(batch == null ? "ERROR no batch to commit" : apply(batch));
+                    batch = null;
+                } else if (line.equals("ABORT")) {
+                    batch = null;
+                    output.println("OK");
+                } else if (line.equals("STATUS")) {
+                    output.println(status());
+                } else if (batch != null) {
+                    batch.add(line);
+                } else {
+                    output.println(apply(Arrays.asList(line)));
+                }
+            }
+        } catch (IOException e) {
+            // the admin went away
+        } catch (InterruptedException e) {
+            // the server is stopping
+        }
+    }
+
+    /**
+     * Apply topology commands as one batch, see TopologyBatch for the commands
+     * @param commands the commands of the batch
+     * @return "OK merges=M changed=C" if every merge was applied, "ERROR ..." if none were
+     * @throws InterruptedException if interrupted while waiting for the batch to be applied
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public String apply(List<String> commands) throws InterruptedException {
+        TopologyBatch batch;
+        try {
+            batch = new TopologyBatch(commands);
+        } catch (IllegalArgumentException iae) {
+            return "ERROR " + iae.getMessage();
+        }
+        return this.blockingQueueThread.submit(batch);
+    }
+
+    /**
+     * Describe the server's players and topology
+     * @return "OK players=P joined=J queued=Q": P players connected, J walls joined to another board on this
+     *      server, Q messages waiting on the server's queue
+     */
+    public String status() {
+        int joined = 0;
+        for (ConcurrentHashMap<String, PingballClientThread> walls : this.neighbors.values()) {
+            joined += walls.size();
+        }
+        return "OK players=" + this.players.size() + " joined=" + joined + " queued=" + this.mainQueue.size();
+    }
+
+    /**
+     * Stop listening for admin connections
+     * @throws IOException if the socket can't be closed
+     */
+    public void close() throws IOException {
+        this.serverSocket.close();
+    }
+}
@@ -0,0 +1,211 @@
+package pingball;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Testing Strategy:
+ * ----------------------- TopologyBatch -----------------------
+ *      commands: h, v, grid, unknown, grid with the wrong number of names, merge of a board with itself
+ * ----------------------- apply -----------------------
+ *      grid of boards with no neighbors
+ *      batch that moves a board that already has neighbors: the old neighbor gets its wall back
+ *      batch naming a board that is not a player: nothing changes
+ *      batch naming a board owned by another server of the cluster: passed on to it, the local wall is joined
+ *      batch naming a board this server of the cluster owns but has no player for: nothing changes
+ * ----------------------- status -----------------------
+ *      after a grid
+ * ----------------------- socket -----------------------
+ *      BEGIN ... COMMIT, single command, STATUS, COMMIT without BEGIN
+ *
+ * @author sdrammis
+ */
+public class AdminChannelTest {
+
+    private final BlockingQueue<String> mainQueue = new ArrayBlockingQueue<String>(100);
+    private final ConcurrentHashMap<String, PingballClientThread> players = new ConcurrentHashMap<String, PingballClientThread>();
+    private final ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>> neighbors =
+            new ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>>();
+
+    /**
+     * Start a BlockingQueueThread and an admin channel, with a player for each name
+     */
+    private AdminChannel start(String... names) throws IOException {
+        return start(null, names);
+    }
+
+    /**
+     * Start a BlockingQueueThread that is part of a cluster and an admin channel, with a player for each name
+     */
+    private AdminChannel start(ClusterNode cluster, String... names) throws IOException {
+        final BlockingQueueThread blockingQueueThread = new BlockingQueueThread(mainQueue, players, neighbors, cluster);
+        Thread thread = new Thread(blockingQueueThread);
+        thread.setDaemon(true);
+        thread.start();
+        ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        for (String name : names) {
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+            server.accept();
+            PingballClientThread player = new PingballClientThread(socket, mainQueue, players, neighbors);
+            player.setName(name);
+            players.put(name, player);
+        }
+        server.close();
+        AdminChannel channel = new AdminChannel(0, blockingQueueThread, players, neighbors, mainQueue);
+        Thread admin = new Thread(channel);
+        admin.setDaemon(true);
+        admin.start();
+        return channel;
+    }
+
+    /**
+     * Find a port nobody listens on
+     */
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Find a board owned by a node of a ring
+     */
+    private static String boardOwnedBy(ClusterRing ring, int node) {
+        for (int i = 0; ; i++) {
+            if (ring.nodeFor("board" + i) == node) { return "board" + i; }
+        }
+    }
+
+    private PingballClientThread neighbor(String name, String wall) {
+        Map<String, PingballClientThread> walls = neighbors.get(players.get(name));
+        return walls == null ? null : walls.get(wall);
+    }
+
+    @Test
+    public void testBatchCommands() {
+        TopologyBatch batch = new TopologyBatch(Arrays.asList("h a b", "v a c", "grid 2 3 A B C D E F"));
+        List<String[]> merges = batch.getMerges();
+        // 2 + 2 * 2 horizontal and 3 vertical
+        assertEquals(9, merges.size());
+        assertArrayEquals(new String[] { "h", "a", "b" }, merges.get(0));
+        assertArrayEquals(new String[] { "v", "a", "c" }, merges.get(1));
+        assertArrayEquals(new String[] { "h", "A", "B" }, merges.get(2));
+        assertArrayEquals(new String[] { "v", "A", "D" }, merges.get(3));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testBatchUnknownCommand() {
+        new TopologyBatch(Arrays.asList("h a b", "x a b"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testBatchGridWrongSize() {
+        new TopologyBatch(Arrays.asList("grid 2 2 a b c"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testBatchMergeWithItself() {
+        new TopologyBatch(Arrays.asList("v a a"));
+    }
+
+    @Test
+    public void testApplyGrid() throws Exception {
+        AdminChannel channel = start("A", "B", "C", "D");
+        assertEquals("OK merges=4 changed=8", channel.apply(Arrays.asList("grid 2 2 A B C D")));
+        assertEquals(players.get("B"), neighbor("A", "R"));
+        assertEquals(players.get("C"), neighbor("A", "B"));
+        assertEquals(players.get("A"), neighbor("C", "T"));
+        assertEquals(players.get("C"), neighbor("D", "L"));
+        assertNull(neighbor("A", "L"));
+        assertEquals("OK players=4 joined=8 queued=0", channel.status());
+    }
+
+    @Test
+    public void testApplyMovesBoard() throws Exception {
+        AdminChannel channel = start("A", "B", "C");
+        channel.apply(Arrays.asList("h A B"));
+        // C takes A's right wall, B gets its left wall back
+        assertEquals("OK merges=1 changed=3", channel.apply(Arrays.asList("h A C")));
+        assertEquals(players.get("C"), neighbor("A", "R"));
+        assertNull(neighbor("B", "L"));
+    }
+
+    @Test
+    public void testApplyUnknownPlayer() throws Exception {
+        AdminChannel channel = start("A", "B");
+        String status = channel.apply(Arrays.asList("h A B", "v A Z"));
+        assertTrue(status.startsWith("ERROR"));
+        assertNull(neighbor("A", "R"));
+    }
+
+    @Test(timeout=10000)
+    public void testApplyBoardOnAnotherServer() throws Exception {
+        List<String> servers = Arrays.asList("localhost:" + freePort() + ":" + freePort(),
+                "localhost:" + freePort() + ":" + freePort());
+        ClusterRing ring = new ClusterRing(2);
+        ClusterNode first = new ClusterNode(0, servers, mainQueue);
+        BlockingQueue<String> secondQueue = new ArrayBlockingQueue<String>(100);
+        ClusterNode second = new ClusterNode(1, servers, secondQueue);
+        Thread thread = new Thread(second);
+        thread.setDaemon(true);
+        thread.start();
+        String here = boardOwnedBy(ring, 0);
+        String remote = boardOwnedBy(ring, 1);
+        AdminChannel channel = start(first, here, "B");
+        channel.apply(Arrays.asList("h " + here + " B"));
+        // the remote board takes the right wall of the board here, B gets its left wall back
+        assertEquals("OK merges=1 changed=2", channel.apply(Arrays.asList("h " + here + " " + remote)));
+        assertNull(neighbor(here, "R"));
+        assertNull(neighbor("B", "L"));
+        assertEquals("PEER h " + here + " " + remote, secondQueue.poll(5, TimeUnit.SECONDS));
+        assertEquals(remote, first.removeRemoteNeighbor(here, "R"));
+        first.close();
+        second.close();
+    }
+
+    @Test(timeout=10000)
+    public void testApplyBoardOwnedButNotConnected() throws Exception {
+        List<String> servers = Arrays.asList("localhost:" + freePort() + ":" + freePort(),
+                "localhost:" + freePort() + ":" + freePort());
+        ClusterRing ring = new ClusterRing(2);
+        ClusterNode first = new ClusterNode(0, servers, mainQueue);
+        String missing = boardOwnedBy(ring, 0);
+        AdminChannel channel = start(first, "A", "B");
+        String status = channel.apply(Arrays.asList("h A B", "v A " + missing));
+        assertTrue(status.startsWith("ERROR"));
+        assertNull(neighbor("A", "R"));
+        first.close();
+    }
+
+    @Test
+    public void testSocket() throws Exception {
+        AdminChannel channel = start("A", "B", "C");
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), channel.getPort());
+                BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                PrintWriter output = new PrintWriter(socket.getOutputStream(), true)) {
+            output.println("COMMIT");
+            assertTrue(input.readLine().startsWith("ERROR"));
+            output.println("BEGIN");
+            output.println("h A B");
+            output.println("h B C");
+            output.println("COMMIT");
+            assertEquals("OK merges=2 changed=4", input.readLine());
+            output.println("v A C");
+            assertEquals("OK merges=1 changed=2", input.readLine());
+            output.println("STATUS");
+            assertEquals("OK players=3 joined=6 queued=0", input.readLine());
+        }
+        channel.close();
+    }
+}
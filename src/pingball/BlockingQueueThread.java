@@ -1,7 +1,11 @@
 package pingball;
 
+import java.util.*;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import pingballClient.BoardWorld;
 
 /**
  * The thread that takes information off of the server's queue and processes it.
@@ -12,6 +16,11 @@ import java.util.concurrent.ConcurrentHashMap;
  *                  shared amongst PingballServer, BlockingQueueThread, PingballClientThread, and MergeHandlerThread
  *      players, neighbors: uses existing java atomic types
  *                          shared among PingballServer, BlockingQueueThread
+ *      cluster: a thread safe type, only this thread changes the remote neighbors of players
+ *      batches: a thread safe type, filled by the admin channel and only applied by this thread,
+ *          so neighbors is still only changed by this thread
+ *      world: a thread safe type, only this thread joins its boards
+ *      routes: confined to this thread
  *                          
  * @author sdrammis
  * @author avasoleimany
@@ -35,6 +44,16 @@ public class BlockingQueueThread implements Runnable{
     private BlockingQueue<String> mainQueue; //the server's queue
     private ConcurrentHashMap<String, PingballClientThread> players; //players that are actively connected to the server
     private ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>> neighbors; //adjacency of the players in players
+    private final ClusterNode cluster; //the other servers in the cluster, null if this server is on its own
+    private final BoardWorld world; //the boards the server plays itself, null if its players play them
+    //topology batches waiting to be applied, there is a TOPOLOGY message on the queue for each of them
+    private final ConcurrentLinkedQueue<TopologyBatch> batches = new ConcurrentLinkedQueue<TopologyBatch>();
+    
+    //the players messages were routed to, by the id of their name, see playerNamed
+    private PingballClientThread[] routes = new PingballClientThread[16];
+    
+    //the walls of a board, in the order their changes are sent to the player
+    private static final String[] WALLS = { "L", "R", "T", "B" };
  
     /**
      * Create the thread. The thread will take messages of the queue and process them.
@@ -48,9 +67,43 @@ public class BlockingQueueThread implements Runnable{
      * Implemented by: sdrammis
      */
     public BlockingQueueThread(BlockingQueue<String> mainQueue, ConcurrentHashMap<String, PingballClientThread> players, ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>> neighbors) {
+        this(mainQueue, players, neighbors, null);
+    }
+    
+    /**
+     * Create the thread for a server that is part of a cluster. 
+     * Messages for players owned by other servers in the cluster are passed on to those servers.
+     * 
+     * @param mainQueue the server's queue
+     * @param players that are actively connected to the server
+     * @param neighbors adjacency of the players in players
+     * @param cluster the other servers in the cluster, null if this server is on its own
+     * 
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public BlockingQueueThread(BlockingQueue<String> mainQueue, ConcurrentHashMap<String, PingballClientThread> players, ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>> neighbors, ClusterNode cluster) {
+        this(mainQueue, players, neighbors, cluster, null);
+    }
+    
+    /**
+     * Create the thread for a server that plays the boards itself. Merges join the boards of the world.
+     * 
+     * @param mainQueue the server's queue
+     * @param players that are actively connected to the server
+     * @param neighbors adjacency of the players in players
+     * @param cluster the other servers in the cluster, null if this server is on its own
+     * @param world the boards the server plays, null if its players play them
+     * 
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public BlockingQueueThread(BlockingQueue<String> mainQueue, ConcurrentHashMap<String, PingballClientThread> players, ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>> neighbors, ClusterNode cluster, BoardWorld world) {
         this.mainQueue = mainQueue;
         this.players = players;
         this.neighbors = neighbors;
+        this.cluster = cluster;
+        this.world = world;
     }
 
     /**
@@ -77,7 +130,7 @@ public class BlockingQueueThread implements Runnable{
      * Handle the different requests that come on and off the queue
      * @param string the message on the queue
      * messages are of the form:
-     *        BALL ballName xVal yVal xVel yVel playerName
+     *        BALL ballName xVal yVal xVel yVel [crossed] playerName
      *            xVal, yVal specify the position of the ball 
      *            xVel, yVel specify the velocity of the ball
      *            playerName is the player to receive the ball
@@ -87,6 +140,14 @@ public class BlockingQueueThread implements Runnable{
      *         WALL playerName (T|B|R|L)
      *            playerName player for which we want to change the wall
      *            (T|B|R|L) is the wall for which we want to toggle the state, visible/solid
+     *         PEER (v|h) player1 player2
+     *            a merge between players on different servers of the cluster, only the wall of
+     *            the player on this server is joined
+     *         QUIT playerName
+     *            playerName has disconnected, its neighbors on other servers get their walls back
+     *         TOPOLOGY
+     *            apply the next batch of merges given to submit()
+     *      messages about players owned by other servers of the cluster are passed on to those servers
      * 
      * @author sdrammis, asolei
      * Implemented by: asolei
@@ -100,8 +161,16 @@ public class BlockingQueueThread implements Runnable{
             //if a MERGE message handle it and update the ADJ hash map by calling either horizontalMerge or verticalMerge
             case "MERGE":
                 String mergeType = tokens[1];
+                // the server plays the boards, they are joined in memory
+                if (playsBoth(tokens[2], tokens[3])) {
+                    this.world.join(mergeType, tokens[2], tokens[3]);
+                }
+                // at least one of the players is on another server, each server joins the wall of its own player
+                else if (this.cluster != null && !(players.containsKey(tokens[2]) && players.containsKey(tokens[3]))) {
+                    clusterMerge(mergeType, tokens[2], tokens[3]);
+                }
                 // perform vertical merge which will send modified message to both players
-                if (mergeType.equals("v")){
+                else if (mergeType.equals("v")){
                     String player1 = tokens[2];
                     String player2 = tokens[3];
                     verticalMerge(player1, player2);
@@ -114,18 +183,25 @@ public class BlockingQueueThread implements Runnable{
                 } break;
             //if a BALL call the pingballClientThread.passMessage(string) 
             // send a message to the proper pingballClient that gives the information of the Ball
+            // only balls sent before the players had a channel to each other get here, see PingballClientThread.forwardBall
             case "BALL":
                 String ballName = tokens[1];
                 String xCoord = tokens[2];
                 String yCoord = tokens[3];
                 String xVel = tokens[4];
                 String yVel = tokens[5];
-                String client = tokens[6];
-                String ballMessage = "BALL " + ballName + " " + xCoord + " " + yCoord + " " + xVel + " " + yVel;
+                // the ball may be stamped with when it crossed, between yVel and the client
+                String client = tokens[tokens.length - 1];
+                String ballMessage = "BALL " + ballName + " " + xCoord + " " + yCoord + " " + xVel + " " + yVel
+                        + (tokens.length > 7 ? " " + tokens[6] : "");
                 // the client thread corresponding to the specified player
-                PingballClientThread playerSend = players.get(client);
-                // send the client the message
-                playerSend.passMessage(ballMessage);
+                PingballClientThread playerSend = playerNamed(client);
+                // send the client the message, or to the server that owns the client
+                if (playerSend != null) {
+                    playerSend.passMessage(ballMessage);
+                } else if (this.cluster != null) {
+                    this.cluster.send(client, string);
+                }
                 break;
             //if a WALL then we need to send a message to the proper pingballClient to make one of their wall's solid
             //this will be of the form WALL client (T|B|R|L)
@@ -133,19 +209,165 @@ public class BlockingQueueThread implements Runnable{
                 String affectedClient = tokens[1];
                 String wall = tokens[2];
                 String wallMessage = "WALL " + wall;
+                // the client thread corresponding to the specified player
+                PingballClientThread player = playerNamed(affectedClient);
+                if (player == null) {
+                    // the player is owned by another server
+                    if (this.cluster != null) { this.cluster.send(affectedClient, string); }
+                    break;
+                }
                 // remove neighbor in server map
                 wall(wall, affectedClient);
-                // the client thread corresponding to the specified player
-                PingballClientThread player = players.get(affectedClient);
                 // send the client the message
                 player.passMessage(wallMessage);
                 break;
+            //the other half of a merge started on another server
+            case "PEER":
+                peerMerge(tokens[1], tokens[2], tokens[3]);
+                break;
+            //a batch of merges from the admin channel, applied as one message
+            case "TOPOLOGY":
+                TopologyBatch batch = this.batches.poll();
+                if (batch != null) { batch.finish(applyTopology(batch)); }
+                break;
+            //a player has left, tell its neighbors on the other servers
+            case "QUIT":
+                if (this.cluster != null) {
+                    Map<String, String> remote = this.cluster.removePlayer(tokens[1]);
+                    for (String side : remote.keySet()) {
+                        String neighbor = remote.get(side);
+                        this.cluster.send(neighbor, "WALL " + neighbor + " " + opposite(side));
+                    }
+                }
+                break;
             default:
                 break;
         }
 
     }
     
+    /**
+     * Hand a batch of merges to this thread to be applied between two messages of the queue, and wait for it.
+     * Only one message is put on the queue for the whole batch.
+     * 
+     * @param batch the merges
+     * @return "OK ..." if every merge was applied, "ERROR ..." if none were
+     * @throws InterruptedException if interrupted while waiting for room on the queue or for the batch
+     * @author sdrammis
+     */
+    public String submit(TopologyBatch batch) throws InterruptedException {
+        this.batches.add(batch);
+        this.mainQueue.put("TOPOLOGY");
+        return batch.awaitStatus();
+    }
+    
+    /**
+     * Apply a batch of merges as if each had come through the queue as a MERGE message. 
+     * Merges of boards the server plays, and merges with a player on another server of the cluster, are applied 
+     * in order the way a MERGE message applies them. The merges between two players on this server are applied 
+     * after those, and each player is told only about how its walls ended up: it gets one MERGE or WALL message 
+     * for each of its walls that changed. 
+     * If a board in the batch is not played here, not a player on this server, and not owned by another server
+     * of the cluster, nothing is changed.
+     * 
+     * @param batch the merges
+     * @return "OK merges=M changed=C", C the number of walls on this server that changed, or "ERROR ..." if 
+     *      nothing was changed
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    String applyTopology(TopologyBatch batch) {
+        for (String[] merge : batch.getMerges()) {
+            if (playsBoth(merge[1], merge[2])) { continue; }
+            for (int i = 1; i <= 2; i++) {
+                if (!this.players.containsKey(merge[i]) && (this.cluster == null || this.cluster.owns(merge[i]))) {
+                    return "ERROR " + merge[i] + " is not a player on this server";
+                }
+            }
+        }
+        int changed = 0;
+        List<String[]> local = new ArrayList<String[]>();
+        for (String[] merge : batch.getMerges()) {
+            if (playsBoth(merge[1], merge[2])) {
+                this.world.join(merge[0], merge[1], merge[2]);
+                changed += 2;
+            } else if (this.players.containsKey(merge[1]) && this.players.containsKey(merge[2])) {
+                local.add(merge);
+            } else {
+                changed += clusterMerge(merge[0], merge[1], merge[2]);
+            }
+        }
+        // the new neighbors of every player the local merges touch, the rest keep theirs
+        Map<PingballClientThread, Map<String, PingballClientThread>> staged =
+                new HashMap<PingballClientThread, Map<String, PingballClientThread>>();
+        for (String[] merge : local) {
+            String firstWall = merge[0].equals("v") ? "B" : "R";
+            PingballClientThread first = this.players.get(merge[1]);
+            PingballClientThread second = this.players.get(merge[2]);
+            // whoever was on the walls being joined loses its wall
+            PingballClientThread old = staged(staged, first).put(firstWall, second);
+            if (old != null && old != second) { staged(staged, old).remove(opposite(firstWall)); }
+            old = staged(staged, second).put(opposite(firstWall), first);
+            if (old != null && old != first) { staged(staged, old).remove(firstWall); }
+        }
+        // change the maps, then the channels, then tell the players
+        List<PingballClientThread> receivers = new ArrayList<PingballClientThread>();
+        List<String> messages = new ArrayList<String>();
+        for (PingballClientThread player : staged.keySet()) {
+            Map<String, PingballClientThread> after = staged.get(player);
+            this.neighbors.putIfAbsent(player, new ConcurrentHashMap<String, PingballClientThread>());
+            ConcurrentHashMap<String, PingballClientThread> before = this.neighbors.get(player);
+            for (String wall : WALLS) {
+                PingballClientThread neighbor = after.get(wall);
+                if (neighbor == before.get(wall)) { continue; }
+                dropRemote(player.getClientName(), wall);
+                if (neighbor == null) {
+                    before.remove(wall);
+                    messages.add("WALL " + wall);
+                } else {
+                    before.put(wall, neighbor);
+                    messages.add("MERGE " + wall + " " + neighbor.getClientName());
+                }
+                receivers.add(player);
+            }
+        }
+        for (PingballClientThread player : staged.keySet()) {
+            player.refreshChannels();
+        }
+        for (int i = 0; i < messages.size(); i++) {
+            receivers.get(i).passMessage(messages.get(i));
+        }
+        return "OK merges=" + batch.getMerges().size() + " changed=" + (changed + messages.size());
+    }
+    
+    /**
+     * See if the server plays two boards itself, so a merge of them joins them in memory
+     * @param first name of a board
+     * @param second name of a board
+     * @return true if both boards are in the server's world
+     */
+    private boolean playsBoth(String first, String second) {
+        return this.world != null && this.world.hasBoard(first) && this.world.hasBoard(second);
+    }
+    
+    /**
+     * Get the staged neighbors of a player, starting from its current neighbors
+     * @param staged new neighbors of the players a batch has touched so far
+     * @param player a player
+     * @return the player's entry in staged, added if it was not there
+     */
+    private Map<String, PingballClientThread> staged(Map<PingballClientThread, Map<String, PingballClientThread>> staged,
+            PingballClientThread player) {
+        Map<String, PingballClientThread> walls = staged.get(player);
+        if (walls == null) {
+            Map<String, PingballClientThread> current = this.neighbors.get(player);
+            walls = current == null ? new HashMap<String, PingballClientThread>() 
+                    : new HashMap<String, PingballClientThread>(current);
+            staged.put(player, walls);
+        }
+        return walls;
+    }
+    
     /**
      * Called if a Client disconnects. Update the server's knowledge of neighbors, and udpate 
      *    the affected bordering wall of the affectedClient to make them solid. 
@@ -157,7 +379,153 @@ public class BlockingQueueThread implements Runnable{
     private void wall(String wall, String affectedClient){
         // get the neighbor whose wall we need to make solid
         PingballClientThread client = this.players.get(affectedClient);
-        this.neighbors.get(client).remove(wall);
+        if (this.neighbors.containsKey(client)) {
+            this.neighbors.get(client).remove(wall);
+        }
+        if (this.cluster != null) {
+            this.cluster.removeRemoteNeighbor(affectedClient, wall);
+        }
+        client.refreshChannels();
+    }
+    
+    /**
+     * Handle a merge where at least one of the players is not connected to this server.
+     * This server joins the wall of the player it has and tells the server with the other player to join the other wall.
+     * If it has neither player, the merge is passed on to the server that owns the first player.
+     * 
+     * @param mergeType "v" or "h"
+     * @param first the top board for a vertical merge, the left board for a horizontal merge
+     * @param second the bottom board for a vertical merge, the right board for a horizontal merge
+     * @return the number of walls of players on this server that changed
+     * 
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    private int clusterMerge(String mergeType, String first, String second) {
+        String firstWall = mergeType.equals("v") ? "B" : "R";
+        if (this.players.containsKey(first)) {
+            int changed = joinRemote(first, firstWall, second);
+            this.cluster.send(second, "PEER " + mergeType + " " + first + " " + second);
+            return changed;
+        } else if (this.players.containsKey(second)) {
+            int changed = joinRemote(second, opposite(firstWall), first);
+            this.cluster.send(first, "PEER " + mergeType + " " + first + " " + second);
+            return changed;
+        } else if (!this.cluster.owns(first)) {
+            this.cluster.send(first, "MERGE " + mergeType + " " + first + " " + second);
+        }
+        // otherwise the first player should be here but isn't connected, nothing to merge
+        return 0;
+    }
+    
+    /**
+     * Handle the half of a merge that another server asked us to do.
+     * If the player has left this server, the other server is told to make its player's wall solid again.
+     * 
+     * @param mergeType "v" or "h"
+     * @param first the top board for a vertical merge, the left board for a horizontal merge
+     * @param second the bottom board for a vertical merge, the right board for a horizontal merge
+     * 
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    private void peerMerge(String mergeType, String first, String second) {
+        if (this.cluster == null) { return; }
+        String firstWall = mergeType.equals("v") ? "B" : "R";
+        if (this.players.containsKey(first)) {
+            joinRemote(first, firstWall, second);
+        } else if (this.players.containsKey(second)) {
+            joinRemote(second, opposite(firstWall), first);
+        } else if (this.cluster.owns(first)) {
+            this.cluster.send(second, "WALL " + second + " " + opposite(firstWall));
+        } else {
+            this.cluster.send(first, "WALL " + first + " " + firstWall);
+        }
+    }
+    
+    /**
+     * Join a wall of a player on this server to a player on another server.
+     * Whoever was on that wall before, here or on another server, has its wall made solid again.
+     * 
+     * @param local name of the player on this server
+     * @param wall the wall of the local player being joined: "L", "R", "T", "B"
+     * @param remote name of the player on the other server
+     * @return the number of walls of players on this server that changed: the local player's, and the wall of
+     *      its old neighbor on this server if it had one
+     * 
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    private int joinRemote(String local, String wall, String remote) {
+        int changed = 1;
+        PingballClientThread player = this.players.get(local);
+        // an old neighbor on this server
+        ConcurrentHashMap<String, PingballClientThread> localMap = this.neighbors.get(player);
+        if (localMap != null && localMap.containsKey(wall)) {
+            PingballClientThread oldNeighbor = localMap.remove(wall);
+            oldNeighbor.passMessage("WALL " + opposite(wall));
+            this.neighbors.get(oldNeighbor).remove(opposite(wall));
+            oldNeighbor.refreshChannels();
+            player.refreshChannels();
+            changed++;
+        }
+        // an old neighbor on another server
+        dropRemote(local, wall);
+        this.cluster.setRemoteNeighbor(local, wall, remote);
+        player.passMessage("MERGE " + wall + " " + remote);
+        return changed;
+    }
+    
+    /**
+     * If a wall of a player on this server is joined to a player on another server,
+     * separate them and make the other player's wall solid again.
+     * 
+     * @param local name of the player on this server
+     * @param wall the wall of the local player: "L", "R", "T", "B"
+     * @author sdrammis
+     */
+    private void dropRemote(String local, String wall) {
+        if (this.cluster == null) { return; }
+        String oldRemote = this.cluster.removeRemoteNeighbor(local, wall);
+        if (oldRemote != null) {
+            this.cluster.send(oldRemote, "WALL " + oldRemote + " " + opposite(wall));
+        }
+    }
+    
+    /**
+     * Get the wall on the other side of a wall
+     * @param wall "L", "R", "T", "B"
+     * @return "R", "L", "B", "T" respectively
+     */
+    private static String opposite(String wall) {
+        switch (wall) {
+            case "L": return "R";
+            case "R": return "L";
+            case "T": return "B";
+            default: return "T";
+        }
+    }
+    
+    /**
+     * Find the player a message is for. The name is turned into its id, and the player is found by the id, 
+     * looked up in players only the first time and again after the player with that id has left.
+     * @param name name of the player from the message
+     * @return the player with that name, null if it isn't playing on this server
+     */
+    private PingballClientThread playerNamed(String name) {
+        int id = NameRegistry.BOARDS.idOf(name);
+        if (id < 0) { return null; }
+        if (id < this.routes.length && this.routes[id] != null && this.routes[id].getPlayerId() == id) {
+            return this.routes[id];
+        }
+        PingballClientThread player = this.players.get(name);
+        if (player != null && player.getPlayerId() == id) {
+            if (id >= this.routes.length) {
+                this.routes = Arrays.copyOf(this.routes, Math.max(id + 1, 2 * this.routes.length));
+            }
+            this.routes[id] = player;
+        }
+        return player;
     }
     
     /**
@@ -175,6 +543,9 @@ public class BlockingQueueThread implements Runnable{
         //join left's right wall with right's left wall
         PingballClientThread playerLeft = this.players.get(left);
         PingballClientThread playerRight = this.players.get(right);
+        //neighbors on other servers are replaced too
+        dropRemote(left, "R");
+        dropRemote(right, "L");
         
         //CHECK IF PLAYERS IN HASH MAP
         //put left player in the hash map if it isn't already in there
@@ -199,6 +570,7 @@ public class BlockingQueueThread implements Runnable{
             //fix the ADJ
             oldNeighbor.passMessage("WALL L"); //old neighbor needs to make it's wall solid
             neighborMap.remove("L");
+            oldNeighbor.refreshChannels();
             leftMap.replace("R", playerRight);
         } else {
             leftMap.put("R", playerRight);
@@ -215,10 +587,14 @@ public class BlockingQueueThread implements Runnable{
             // fix ADJ
             oldNeighbor.passMessage("WALL R");
             neighborMap.remove("R");
+            oldNeighbor.refreshChannels();
             rightMap.replace("L", playerLeft);
         } else {
             rightMap.put("L", playerLeft);
         }
+        // balls between the two players can now skip the queue
+        playerLeft.refreshChannels();
+        playerRight.refreshChannels();
         // MERGE L neighborName
         //      the top will now be the neighborName
         playerRight.passMessage("MERGE L " + playerLeft.getClientName());
@@ -239,6 +615,9 @@ public class BlockingQueueThread implements Runnable{
         //join top's bottom wall with bottom's top wall
         PingballClientThread playerTop = this.players.get(top);
         PingballClientThread playerBottom = this.players.get(bottom);
+        //neighbors on other servers are replaced too
+        dropRemote(top, "B");
+        dropRemote(bottom, "T");
         //CHECK IF PLAYERS IN HASH MAP
         if (!this.neighbors.containsKey(playerTop)) { //if not in map add to map
             this.neighbors.put(playerTop, new ConcurrentHashMap<String, PingballClientThread>());
@@ -259,6 +638,7 @@ public class BlockingQueueThread implements Runnable{
             // fix the ADJ 
             oldNeighbor.passMessage("WALL T"); //old neighbor needs to make it's top wall solid
             neighborMap.remove("T");
+            oldNeighbor.refreshChannels();
             topMap.replace("B", playerBottom);
         } else {
             topMap.put("B", playerBottom);
@@ -275,10 +655,14 @@ public class BlockingQueueThread implements Runnable{
             // fix the ADJ
             oldNeighbor.passMessage("WALL B");
             neighborMap.remove("B");
+            oldNeighbor.refreshChannels();
             bottomMap.replace("T", playerTop);
         } else {
             bottomMap.put("T", playerTop);
         }
+        // balls between the two players can now skip the queue
+        playerTop.refreshChannels();
+        playerBottom.refreshChannels();
         // MERGE T neighborName
         //      the top will now be the neighborName
         playerBottom.passMessage("MERGE T " + playerTop.getClientName());
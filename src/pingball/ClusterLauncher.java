@@ -0,0 +1,92 @@
+package pingball;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Starts a cluster of PingballServers on this machine, one process per server, for testing clustered play.
+ * Every server listens for players on localhost and the servers talk to each other over localhost.
+ * The servers are stopped when the launcher is stopped.
+ * 
+ * @author sdrammis
+ */
+public class ClusterLauncher {
+
+    /**
+     * Start a cluster of PingballServers on localhost.
+     * 
+     * Usage: ClusterLauncher [--nodes NODES] [--port PORT]
+     * 
+     * NODES is the number of servers to start, the default is 3.
+     * PORT is the port of the first server, server i listens for players on PORT + i
+     * and for the other servers on PORT + 100 + i. The default port is 10987.
+     * Players can connect to any of the servers, they are sent to the one that owns their board.
+     * 
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public static void main(String[] args) {
+        int nodes = 3;
+        int port = 10987;
+        Queue<String> arguments = new LinkedList<String>(Arrays.asList(args));
+        try {
+            while (! arguments.isEmpty()){
+                String flag = arguments.remove();
+                try {
+                    if (flag.equals("--nodes")){
+                        nodes = Integer.parseInt(arguments.remove());
+                        if (nodes < 1){
+                            throw new IllegalArgumentException("need at least one node.");
+                        }
+                    } else if (flag.equals("--port")){
+                        port = Integer.parseInt(arguments.remove());
+                        if (port < 0 || port + 100 + nodes > 65535){
+                            throw new IllegalArgumentException("port " + port + " out of range.");
+                        }
+                    } else {
+                        throw new IllegalArgumentException("unknown option: \"" + flag + "\"");
+                    }
+                } catch (NoSuchElementException nsee){
+                    throw new IllegalArgumentException("missing argument for " + flag);
+                } catch (NumberFormatException nfe){
+                    throw new IllegalArgumentException("unable to parse number for " + flag);
+                }
+            }
+        } catch (IllegalArgumentException iae){
+            System.err.println(iae.getMessage());
+            System.err.println("usage: ClusterLauncher [--nodes NODES] [--port PORT]");
+            return;
+        }
+        
+        // every server gets the same list of servers
+        List<String> servers = new ArrayList<String>();
+        for (int i = 0; i < nodes; i++) {
+            servers.add("localhost:" + (port + i) + ":" + (port + 100 + i));
+        }
+        String cluster = String.join(",", servers);
+        
+        final List<Process> processes = new ArrayList<Process>();
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            public void run() {
+                for (Process process : processes) { process.destroy(); }
+            }
+        }));
+        try {
+            String java = System.getProperty("java.home") + "/bin/java";
+            String classpath = System.getProperty("java.class.path");
+            for (int i = 0; i < nodes; i++) {
+                ProcessBuilder builder = new ProcessBuilder(java, "-cp", classpath, "pingball.PingballServer",
+                        "--port", Integer.toString(port + i), "--cluster", cluster, "--node", Integer.toString(i));
+                builder.redirectErrorStream(true);
+                builder.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+                processes.add(builder.start());
+                System.out.println("node " + i + " listening on localhost:" + (port + i));
+            }
+            for (Process process : processes) {
+                process.waitFor();
+            }
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package pingball;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * One server's view of a cluster of PingballServers. Each server owns the boards that the ClusterRing
+ * assigns to it, and passes messages for boards it does not own to the server that does.
+ *
+ * Servers talk to each other over a peer socket, one line per message. The messages are the same ones
+ * that go on the server's queue, so a message from a peer is put straight on the main queue:
+ *      BALL ballName xVal yVal xVel yVel [crossed] playerName
+ *          a ball leaving one of our players for a player owned by the peer
+ *      WALL playerName (T|B|R|L)
+ *          playerName is owned by the peer and its wall has to be made solid again
+ *      MERGE (v|h) player1 player2
+ *          a merge that has to be handled by the owner of player1
+ *      PEER (v|h) player1 player2
+ *          a merge between players on different servers, the receiver only joins the wall of its own player
+ *
+ * The peer socket listens only on the address this server is given in the list of servers, so a cluster on
+ * one machine (host localhost) can't be reached from other machines.
+ *
+ * Messages to a server wait in an outbox of their own, and one thread per server writes them in order.
+ * If the connection breaks or the server can't be reached, the thread connects again, waiting longer after
+ * each failure, and tries the same message again before any other. So a ball sent to a server that is
+ * restarting is delayed instead of lost. A message is only refused when OUTBOX_CAPACITY messages are already
+ * waiting for the server, and then send tells its caller.
+ *
+ * Thread Safety Argument:
+ *      self, ring, clientAddresses, peerAddresses, peerSocket: immutable
+ *      outboxes, remoteNeighbors: uses existing java atomic types
+ *          each outbox is a thread safe type, only taken from by the thread of its server,
+ *          and the connection to that server is confined to that thread
+ *      mainQueue: a thread safe type
+ *                  shared amongst PingballServer, BlockingQueueThread, PingballClientThread, MergeHandlerThread and ClusterNode
+ *
+ * @author sdrammis
+ */
+public class ClusterNode implements Runnable {
+    /**
+     * Invariants:
+     *      0 <= self < ring.size()
+     *      clientAddresses, peerAddresses: size is ring.size()
+     *      outboxes: keys are in [0, ring.size()) and never self, each outbox has a thread taking from it
+     *      remoteNeighbors:
+     *          key - name of a player connected to this server
+     *          value - maps a wall ("L", "R", "T", "B") to the name of a player owned by another server
+     * @author sdrammis
+     */
+    private final int self; //index of this server in the cluster
+    private final ClusterRing ring;
+    private final List<InetSocketAddress> clientAddresses; //where players connect to each server
+    private final List<InetSocketAddress> peerAddresses; //where servers connect to each other
+    private final ServerSocket peerSocket; //the socket other servers connect to
+    private final BlockingQueue<String> mainQueue; //the server's queue
+
+    //messages waiting to be written to other servers, node index -> outbox
+    private final ConcurrentHashMap<Integer, Outbox> outboxes = new ConcurrentHashMap<Integer, Outbox>();
+
+    //how many messages can wait for a server before more are refused
+    static final int OUTBOX_CAPACITY = 10000;
+    //how long to wait before connecting again after the first failure, and after many, in milliseconds
+    private static final long FIRST_RETRY_MILLIS = 50;
+    private static final long LAST_RETRY_MILLIS = 2000;
+
+    //neighbors of our players that are owned by other servers
+    //player name maps to a hashmap of its remote neighbors where keys are "L", "R", "T", "B"
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, String>> remoteNeighbors = new ConcurrentHashMap<String, ConcurrentHashMap<String, String>>();
+
+    /**
+     * Create this server's view of the cluster and open the peer socket.
+     *
+     * @param self index of this server in servers
+     * @param servers every server in the cluster, in the same order on every server, of the form
+     *      host:port:peerPort
+     *          port is where players connect, peerPort is where the other servers connect
+     * @param mainQueue the server's queue
+     * @throws IOException if the peer socket can't be opened
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public ClusterNode(int self, List<String> servers, BlockingQueue<String> mainQueue) throws IOException {
+        if (self < 0 || self >= servers.size()) {
+            throw new IllegalArgumentException("node " + self + " is not in the cluster");
+        }
+        this.self = self;
+        this.ring = new ClusterRing(servers.size());
+        this.clientAddresses = new ArrayList<InetSocketAddress>();
+        this.peerAddresses = new ArrayList<InetSocketAddress>();
+        for (String server : servers) {
+            String[] parts = server.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("server must be host:port:peerPort, got \"" + server + "\"");
+            }
+            this.clientAddresses.add(InetSocketAddress.createUnresolved(parts[0], Integer.parseInt(parts[1])));
+            this.peerAddresses.add(InetSocketAddress.createUnresolved(parts[0], Integer.parseInt(parts[2])));
+        }
+        this.mainQueue = mainQueue;
+        InetSocketAddress peer = this.peerAddresses.get(self);
+        this.peerSocket = new ServerSocket(peer.getPort(), 50, InetAddress.getByName(peer.getHostString()));
+    }
+
+    /**
+     * Accept connections from the other servers. Every line they send is put on the main queue.
+     * Never returns unless the peer socket breaks or is closed.
+     *
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                final Socket peer = this.peerSocket.accept();
+                new Thread(new Runnable() {
+                    public void run() {
+                        String line;
+                        try (BufferedReader input = new BufferedReader(new InputStreamReader(peer.getInputStream()))) {
+                            while ((line = input.readLine()) != null) {
+                                mainQueue.put(line);
+                            }
+                        } catch (IOException | InterruptedException e) {
+                            // the other server has gone away
+                            e.printStackTrace();
+                        }
+                    }
+                }).start();
+            } catch (IOException e) {
+                // closed on purpose, or broken
+                if (!this.peerSocket.isClosed()) { e.printStackTrace(); }
+                return;
+            }
+        }
+    }
+
+    /**
+     * See if a board belongs on this server
+     * @param boardName name of the board
+     * @return true if this server owns the board
+     * @author sdrammis
+     */
+    public boolean owns(String boardName) {
+        return this.ring.nodeFor(boardName) == this.self;
+    }
+
+    /**
+     * Get the address players with the given board should connect to
+     * @param boardName name of the board
+     * @return the message telling the player where to go, of the form REDIRECT host port
+     * @author sdrammis
+     */
+    public String redirectFor(String boardName) {
+        InetSocketAddress owner = this.clientAddresses.get(this.ring.nodeFor(boardName));
+        return "REDIRECT " + owner.getHostString() + " " + owner.getPort();
+    }
+
+    /**
+     * Send a message to the server that owns a board. Never waits: the message is put in the server's outbox,
+     * and written to it, in order, as soon as it can be reached.
+     *
+     * @param boardName name of the board the message is about
+     * @param message the message, one of the messages in the class comment
+     * @return true if the message will be sent, false if it was refused: the board is owned by this server,
+     *      so it can't be delivered anywhere else, or the owner has not been reachable for OUTBOX_CAPACITY messages
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public boolean send(String boardName, String message) {
+        int node = this.ring.nodeFor(boardName);
+        if (node == this.self) { return false; }
+        Outbox outbox = this.outboxes.get(node);
+        if (outbox == null) {
+            Outbox made = new Outbox(node);
+            outbox = this.outboxes.putIfAbsent(node, made);
+            if (outbox == null) {
+                outbox = made;
+                Thread thread = new Thread(outbox);
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+        if (outbox.messages.offer(message)) { return true; }
+        System.err.println("outbox to server " + node + " is full, dropped: " + message);
+        return false;
+    }
+
+    /**
+     * The messages waiting for one of the other servers, and the thread that writes them to it
+     */
+    private class Outbox implements Runnable {
+        private final int node;
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<String>(OUTBOX_CAPACITY);
+        private Socket socket = null; //the connection to the server, null while there is none
+        private PrintWriter link = null;
+
+        /**
+         * @param node index of the server
+         */
+        private Outbox(int node) {
+            this.node = node;
+        }
+
+        /**
+         * Write the messages to the server as they come, until the server is stopped.
+         * A message taken out of the outbox is tried until it is written, before any other.
+         */
+        @Override
+        public void run() {
+            long retry = FIRST_RETRY_MILLIS;
+            try {
+                while (true) {
+                    String message = this.messages.take();
+                    while (!write(message)) {
+                        // try the same message again on a new connection, after a while
+                        Thread.sleep(retry);
+                        retry = Math.min(LAST_RETRY_MILLIS, 2 * retry);
+                    }
+                    retry = FIRST_RETRY_MILLIS;
+                }
+            } catch (InterruptedException e) {
+                disconnect();
+            }
+        }
+
+        /**
+         * Write a message to the server, connecting first if needed
+         * @param message the message
+         * @return true if it was written, false if the server couldn't be reached or the connection broke,
+         *      and then there is no connection
+         */
+        private boolean write(String message) {
+            try {
+                connect();
+                this.link.println(message);
+                if (!this.link.checkError()) { return true; }
+            } catch (IOException e) {
+                // the server can't be reached
+            }
+            disconnect();
+            return false;
+        }
+
+        /**
+         * Connect to the server, unless connected already
+         * @throws IOException if the server can't be reached
+         */
+        private void connect() throws IOException {
+            if (this.link != null) { return; }
+            InetSocketAddress address = peerAddresses.get(this.node);
+            this.socket = new Socket(address.getHostString(), address.getPort());
+            this.socket.setTcpNoDelay(true);
+            this.link = new PrintWriter(this.socket.getOutputStream(), true);
+        }
+
+        /**
+         * Close the connection to the server, if there is one
+         */
+        private void disconnect() {
+            this.link = null;
+            if (this.socket == null) { return; }
+            try {
+                this.socket.close();
+            } catch (IOException e) {
+                // it is closed either way
+            }
+            this.socket = null;
+        }
+    }
+
+    /**
+     * See how many messages are waiting to be written to another server
+     * @param node index of the server
+     * @return number of messages in its outbox, not counting the one being written
+     */
+    int waiting(int node) {
+        Outbox outbox = this.outboxes.get(node);
+        return outbox == null ? 0 : outbox.messages.size();
+    }
+
+    /**
+     * Stop listening for other servers
+     * @throws IOException if the peer socket can't be closed
+     */
+    void close() throws IOException {
+        this.peerSocket.close();
+    }
+
+    /**
+     * Set the remote neighbor of one of our players
+     * @param player name of the player on this server
+     * @param wall wall of the player being joined: "L", "R", "T", "B"
+     * @param neighbor name of the player on another server
+     * @return the remote neighbor that was on that wall before, null if there was none
+     * @author sdrammis
+     */
+    public String setRemoteNeighbor(String player, String wall, String neighbor) {
+        this.remoteNeighbors.putIfAbsent(player, new ConcurrentHashMap<String, String>());
+        return this.remoteNeighbors.get(player).put(wall, neighbor);
+    }
+
+    /**
+     * Remove the remote neighbor of one of our players
+     * @param player name of the player on this server
+     * @param wall wall of the player: "L", "R", "T", "B"
+     * @return the remote neighbor that was on that wall, null if there was none
+     * @author sdrammis
+     */
+    public String removeRemoteNeighbor(String player, String wall) {
+        Map<String, String> walls = this.remoteNeighbors.get(player);
+        return walls == null ? null : walls.remove(wall);
+    }
+
+    /**
+     * Forget all the remote neighbors of a player that has left
+     * @param player name of the player on this server
+     * @return the player's remote neighbors, wall -> name of the neighbor
+     * @author sdrammis
+     */
+    public Map<String, String> removePlayer(String player) {
+        Map<String, String> walls = this.remoteNeighbors.remove(player);
+        return walls == null ? new ConcurrentHashMap<String, String>() : walls;
+    }
+
+    /**
+     * Ensure the rep holds
+     */
+    public void checkRep() {
+        assert 0 <= this.self && this.self < this.ring.size();
+        assert this.clientAddresses.size() == this.ring.size() && this.peerAddresses.size() == this.ring.size();
+        for (int node : this.outboxes.keySet()) {
+            assert node != this.self;
+        }
+        for (Map<String, String> walls : this.remoteNeighbors.values()) {
+            assert walls.size() <= 4;
+        }
+    }
+}
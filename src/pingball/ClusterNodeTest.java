@@ -0,0 +1,68 @@
+package pingball;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Testing Strategy:
+ * ----------------------- send -----------------------
+ *      board owned by this server: refused
+ *      board owned by a server that isn't up yet: kept, and delivered in order once the server is up
+ *
+ * @author sdrammis
+ */
+public class ClusterNodeTest {
+
+    /**
+     * Find a port nobody listens on
+     */
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Find a board owned by a node of a ring
+     */
+    private static String boardOwnedBy(ClusterRing ring, int node) {
+        for (int i = 0; ; i++) {
+            if (ring.nodeFor("board" + i) == node) { return "board" + i; }
+        }
+    }
+
+    @Test(timeout=10000)
+    public void testSendWaitsForServer() throws Exception {
+        List<String> servers = Arrays.asList("localhost:" + freePort() + ":" + freePort(),
+                "localhost:" + freePort() + ":" + freePort());
+        ClusterRing ring = new ClusterRing(2);
+        BlockingQueue<String> firstQueue = new ArrayBlockingQueue<String>(100);
+        ClusterNode first = new ClusterNode(0, servers, firstQueue);
+        assertFalse(first.send(boardOwnedBy(ring, 0), "WALL " + boardOwnedBy(ring, 0) + " L"));
+
+        // the second server isn't up, the messages wait for it
+        String remote = boardOwnedBy(ring, 1);
+        assertTrue(first.send(remote, "WALL " + remote + " L"));
+        assertTrue(first.send(remote, "WALL " + remote + " R"));
+        Thread.sleep(300);
+
+        BlockingQueue<String> secondQueue = new ArrayBlockingQueue<String>(100);
+        ClusterNode second = new ClusterNode(1, servers, secondQueue);
+        Thread thread = new Thread(second);
+        thread.setDaemon(true);
+        thread.start();
+        assertEquals("WALL " + remote + " L", secondQueue.poll(5, TimeUnit.SECONDS));
+        assertEquals("WALL " + remote + " R", secondQueue.poll(5, TimeUnit.SECONDS));
+        assertEquals(0, first.waiting(1));
+        first.close();
+        second.close();
+    }
+}
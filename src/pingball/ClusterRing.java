@@ -0,0 +1,106 @@
+package pingball;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent assignment of boards to the servers of a cluster.
+ * Every server is placed at several points on a ring of hash values, and a board belongs to the
+ * first server found going around the ring from the hash of the board's name.
+ * Every server that is built with the same number of nodes agrees on who owns a board,
+ * and adding a server only moves the boards that land on the new server's points.
+ *
+ * Thread Safety Argument:
+ *      ring: immutable after construction, never leaves the class
+ *      nodes: immutable
+ *
+ * @author sdrammis
+ */
+public class ClusterRing {
+    /**
+     * Rep invariant:
+     *      nodes > 0
+     *      ring: contains POINTS_PER_NODE * nodes entries at most (less if two points collide)
+     *          every value is in [0, nodes)
+     * @author sdrammis
+     */
+    private final TreeMap<Integer, Integer> ring = new TreeMap<Integer, Integer>(); //point on the ring -> node index
+    private final int nodes; //number of servers in the cluster
+
+    //how many points each server gets on the ring, more points spread the boards more evenly
+    private static final int POINTS_PER_NODE = 64;
+
+    /**
+     * Build the ring for a cluster of servers
+     *
+     * @param nodes number of servers in the cluster, requires nodes > 0
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public ClusterRing(int nodes) {
+        if (nodes <= 0) {
+            throw new IllegalArgumentException("a cluster needs at least one server");
+        }
+        this.nodes = nodes;
+        for (int node = 0; node < nodes; node++) {
+            for (int point = 0; point < POINTS_PER_NODE; point++) {
+                this.ring.put(hash("node" + node + "#" + point), node);
+            }
+        }
+        checkRep();
+    }
+
+    /**
+     * Get the server that owns a board
+     *
+     * @param boardName name of the board
+     * @return index of the server in the cluster that owns the board, 0 <= index < nodes
+     * @author sdrammis
+     */
+    public int nodeFor(String boardName) {
+        Map.Entry<Integer, Integer> owner = this.ring.ceilingEntry(hash(boardName));
+        if (owner == null) { owner = this.ring.firstEntry(); } //wrap around the ring
+        return owner.getValue();
+    }
+
+    /**
+     * Get the number of servers in the cluster
+     * @return number of servers
+     */
+    public int size() {
+        return this.nodes;
+    }
+
+    /**
+     * Hash a string onto the ring. String.hashCode puts similar names next to each other,
+     * so the characters are hashed with FNV-1a and then mixed.
+     *
+     * @param key string to hash
+     * @return point on the ring
+     * @author sdrammis
+     */
+    private static int hash(String key) {
+        int h = 0x811c9dc5;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Ensure the rep holds
+     */
+    public void checkRep() {
+        assert this.nodes > 0;
+        assert this.ring.size() <= POINTS_PER_NODE * this.nodes;
+        for (int node : this.ring.values()) {
+            assert 0 <= node && node < this.nodes;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package pingball;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Testing Strategy:
+ * ----------------------- nodeFor -----------------------
+ *      one node: every board is owned by node 0
+ *      many nodes: 
+ *          every board is owned by a node in range
+ *          two rings with the same number of nodes agree on every board
+ *          boards are spread over all nodes
+ *      adding a node: only boards that move to the new node change owner
+ * ----------------------- constructor -----------------------
+ *      no nodes throws
+ * 
+ * @author sdrammis
+ */
+public class ClusterRingTest {
+
+    @Test
+    public void testOneNode() {
+        ClusterRing ring = new ClusterRing(1);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, ring.nodeFor("board" + i));
+        }
+    }
+    
+    @Test
+    public void testSameOwnerOnEveryServer() {
+        ClusterRing ring1 = new ClusterRing(4);
+        ClusterRing ring2 = new ClusterRing(4);
+        for (int i = 0; i < 1000; i++) {
+            int owner = ring1.nodeFor("board" + i);
+            assertTrue(0 <= owner && owner < 4);
+            assertEquals(owner, ring2.nodeFor("board" + i));
+        }
+    }
+    
+    @Test
+    public void testSpreadOverNodes() {
+        ClusterRing ring = new ClusterRing(4);
+        Map<Integer, Integer> counts = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 4000; i++) {
+            int owner = ring.nodeFor("player" + i);
+            counts.put(owner, counts.containsKey(owner) ? counts.get(owner) + 1 : 1);
+        }
+        assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            // every node gets a fair share, 1000 each if perfectly even
+            assertTrue(count > 500 && count < 1500);
+        }
+    }
+    
+    @Test
+    public void testAddingNodeOnlyMovesToNewNode() {
+        ClusterRing before = new ClusterRing(3);
+        ClusterRing after = new ClusterRing(4);
+        int moved = 0;
+        for (int i = 0; i < 1000; i++) {
+            int oldOwner = before.nodeFor("board" + i);
+            int newOwner = after.nodeFor("board" + i);
+            if (oldOwner != newOwner) {
+                assertEquals(3, newOwner);
+                moved++;
+            }
+        }
+        assertTrue(moved < 500);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoNodes() {
+        new ClusterRing(0);
+    }
+}
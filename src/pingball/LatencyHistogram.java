@@ -0,0 +1,90 @@
+package pingball;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts latencies in buckets so percentiles can be read without keeping every sample.
+ * Buckets grow with the latency: there are SUB_BUCKETS buckets between each power of two nanoseconds,
+ * so a percentile is within 1 / SUB_BUCKETS of the true latency.
+ *
+ * Thread Safety Argument:
+ *      counts: a thread safe type, any number of threads may record at the same time
+ *      a percentile read while others record sees some of the latencies being recorded
+ *
+ * @author sdrammis
+ */
+class LatencyHistogram {
+    /**
+     * Invariants:
+     *      counts: one entry per bucket, every count >= 0
+     *      latencies below SUB_BUCKETS nanoseconds have a bucket each
+     * @author sdrammis
+     */
+    //buckets between each power of two, a power of two
+    private static final int SUB_BUCKETS = 16;
+    private static final int SUB_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BITS + 1) * SUB_BUCKETS);
+
+    /**
+     * Count one latency
+     * @param nanos latency in nanoseconds, latencies < 0 count as 0
+     */
+    void record(long nanos) {
+        this.counts.incrementAndGet(bucket(Math.max(0, nanos)));
+    }
+
+    /**
+     * Get how many latencies were counted
+     * @return number of calls to record()
+     */
+    long count() {
+        long count = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            count += this.counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Get a percentile of the latencies counted
+     * @param percentile between 0 and 100
+     * @return the smallest latency, in nanoseconds, that at least percentile percent of the latencies are no more than,
+     *      rounded up to the top of its bucket. 0 if nothing was counted.
+     */
+    long percentile(double percentile) {
+        long count = count();
+        if (count == 0) { return 0; }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            seen += this.counts.get(i);
+            if (seen >= rank) { return top(i); }
+        }
+        return top(this.counts.length() - 1);
+    }
+
+    /**
+     * Get the bucket of a latency
+     * @param nanos latency >= 0
+     * @return index into counts
+     */
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) { return (int) nanos; }
+        //the SUB_BITS bits below the highest bit pick the bucket within the power of two
+        int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((nanos >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Get the biggest latency in a bucket
+     * @param bucket index into counts
+     * @return latency in nanoseconds
+     */
+    private static long top(int bucket) {
+        if (bucket < SUB_BUCKETS) { return bucket; }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long low = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return low + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,62 @@
+package pingball;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Testing Strategy:
+ * ----------------------- percentile -----------------------
+ *      nothing recorded
+ *      latencies: 0, below the exact buckets, spanning many powers of two, the largest long
+ *      percentiles: 0, 50, 99, 100
+ * ----------------------- record -----------------------
+ *      negative latency
+ * 
+ * @author sdrammis
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(99));
+    }
+    
+    @Test
+    public void testSmallLatenciesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 0; nanos < 10; nanos++) {
+            histogram.record(nanos);
+        }
+        assertEquals(10, histogram.count());
+        assertEquals(0, histogram.percentile(0));
+        assertEquals(4, histogram.percentile(50));
+        assertEquals(9, histogram.percentile(100));
+    }
+    
+    @Test
+    public void testPercentilesWithinABucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+        // a bucket is at most 1/16 wider than the latencies in it
+        long p50 = histogram.percentile(50);
+        assertTrue(500000 <= p50 && p50 <= 500000 * 17 / 16);
+        long p99 = histogram.percentile(99);
+        assertTrue(990000 <= p99 && p99 <= 990000 * 17 / 16);
+        long max = histogram.percentile(100);
+        assertTrue(1000000 <= max && max <= 1000000 * 17 / 16);
+    }
+    
+    @Test
+    public void testExtremes() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.percentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.percentile(100));
+    }
+}
@@ -4,6 +4,8 @@ import java.io.*;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 
+import pingballClient.BoardWorld;
+
 /**
  * The thread listens for input from the command line (specifically commands to merge the boards, since these are the only valid commands for now).
  * Then the thread parses the command and adds it to the server's queue.
@@ -27,6 +29,8 @@ public class MergeHandlerThread implements Runnable{
     private final BufferedReader input = new BufferedReader(new InputStreamReader(System.in)); //read in from the command line
     private BlockingQueue<String> mainQueue; //server's queue
     private ConcurrentHashMap<String, PingballClientThread> players; //players that are actively connected to the server
+    private final ClusterNode cluster; //the other servers in the cluster, null if this server is on its own
+    private final BoardWorld world; //the boards the server plays itself, null if its players play them
 
     
     /**
@@ -38,8 +42,39 @@ public class MergeHandlerThread implements Runnable{
      * Implemented by: sdrammis
      */
     public MergeHandlerThread(BlockingQueue<String> mainQueue, ConcurrentHashMap<String, PingballClientThread> players) {
+        this(mainQueue, players, null);
+    }
+    
+    /**
+     * Create the thread to handle requests from the command line of a server in a cluster.
+     * Merges may name players owned by other servers in the cluster.
+     * 
+     * @param mainQueue server's queue
+     * @param players 
+     * @param cluster the other servers in the cluster, null if this server is on its own
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public MergeHandlerThread(BlockingQueue<String> mainQueue, ConcurrentHashMap<String, PingballClientThread> players, ClusterNode cluster) {
+        this(mainQueue, players, cluster, null);
+    }
+    
+    /**
+     * Create the thread to handle requests from the command line of a server that plays the boards itself.
+     * Merges may name any board of the world.
+     * 
+     * @param mainQueue server's queue
+     * @param players 
+     * @param cluster the other servers in the cluster, null if this server is on its own
+     * @param world the boards the server plays, null if its players play them
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public MergeHandlerThread(BlockingQueue<String> mainQueue, ConcurrentHashMap<String, PingballClientThread> players, ClusterNode cluster, BoardWorld world) {
         this.mainQueue = mainQueue;
         this.players = players;
+        this.cluster = cluster;
+        this.world = world;
     }
 
     /**
@@ -57,7 +92,7 @@ public class MergeHandlerThread implements Runnable{
                     // valid input. check if the names correspond to players in the game
                     String[] tokens = line.split(" ");
                     // the names are parts at index 1, 2
-                    if (players.containsKey(tokens[1]) && players.containsKey(tokens[2])){
+                    if (isPlayer(tokens[1]) && isPlayer(tokens[2])){
                         mainQueue.add("MERGE " + line);
                         System.out.println(line);
                     }  
@@ -71,6 +106,18 @@ public class MergeHandlerThread implements Runnable{
     }
 
     
+    /**
+     * See if a name can be merged: it is a player on this server, a board owned by another server of the cluster,
+     * or a board the server plays itself
+     * @param name board name from the command line
+     * @return true if the name can be merged
+     * @author sdrammis
+     */
+    private boolean isPlayer(String name) {
+        return players.containsKey(name) || (this.cluster != null && !this.cluster.owns(name))
+                || (this.world != null && this.world.hasBoard(name));
+    }
+    
     /**Invariants:
      *      bufferedReader: not null
      *      mainQueue: refrences the only queue on the server
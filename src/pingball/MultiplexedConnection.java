@@ -0,0 +1,124 @@
+package pingball;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One connection from a client that plays many boards, see pingballClient.MultiBoardClient.
+ * The client answers the server's NAME request with MUX, and from then on every line in either direction
+ * belongs to one of its boards:
+ *
+ * From the client:
+ *      NAME boardName
+ *          add a board to the connection, answered with "@boardName START" when the board has joined,
+ *          or "@boardName " followed by the reason it can't
+ *      @boardName ballName xVal yVal xVel yVel playerName
+ *          a ball leaving boardName for playerName, like a ball message of a client with one board
+ * To the client:
+ *      @boardName message
+ *          any message a client with one board would get, for boardName
+ *
+ * Each board is a player of its own on the server, with the connection's output shared by all of them.
+ * Everything else on the server treats them like players with a connection each.
+ *
+ * Thread Safety Argument:
+ *      input: confined to the thread running the connection
+ *      output: shared by the players of the connection, every write is done while holding the lock on output,
+ *          see PingballClientThread
+ *      boards: confined to the thread running the connection
+ *      players, neighbors, mainQueue: thread safe types, shared with the rest of the server
+ *
+ * @author sdrammis
+ */
+class MultiplexedConnection implements Runnable {
+    /**
+     * Invariants:
+     *      boards: the boards that joined through this connection, each is in players under its name
+     * @author sdrammis
+     */
+    private final BufferedReader input;
+    private final PrintWriter output;
+    private final BlockingQueue<String> mainQueue;
+    private final ConcurrentHashMap<String, PingballClientThread> players;
+    private final ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>> neighbors;
+    private final ClusterNode cluster; //the other servers in the cluster, null if this server is on its own
+    private final Map<String, PingballClientThread> boards = new HashMap<String, PingballClientThread>();
+
+    /**
+     * Make a multiplexed connection from a connection that asked for it
+     * @param input the connection's input, after the MUX line
+     * @param output the connection's output
+     * @param mainQueue the server's queue
+     * @param players the server's players
+     * @param neighbors the server's adjacency of the players
+     * @param cluster the other servers in the cluster, null if this server is on its own
+     */
+    MultiplexedConnection(BufferedReader input, PrintWriter output, BlockingQueue<String> mainQueue,
+            ConcurrentHashMap<String, PingballClientThread> players,
+            ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>> neighbors,
+            ClusterNode cluster) {
+        this.input = input;
+        this.output = output;
+        this.mainQueue = mainQueue;
+        this.players = players;
+        this.neighbors = neighbors;
+        this.cluster = cluster;
+    }
+
+    /**
+     * Read the messages of the connection's boards until the client goes away, then remove all of its boards
+     * Implemented by: sdrammis
+     */
+    @Override
+    public void run() {
+        String line;
+        try {
+            while ((line = this.input.readLine()) != null) {
+                if (line.startsWith("NAME ")) {
+                    join(line.substring("NAME ".length()).trim());
+                } else if (line.startsWith("@")) {
+                    int end = line.indexOf(' ');
+                    PingballClientThread board = end < 0 ? null : this.boards.get(line.substring(1, end));
+                    if (board != null) {
+                        board.handleBall(line.substring(end + 1));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // the client has closed the program
+            e.printStackTrace();
+        } finally {
+            for (PingballClientThread board : this.boards.values()) {
+                board.leave();
+            }
+        }
+    }
+
+    /**
+     * Add a board to the connection, and tell the client whether it joined
+     * @param name name of the board
+     */
+    private void join(String name) {
+        String reply;
+        if (this.cluster != null && !this.cluster.owns(name)) {
+            //a board of a multiplexed connection can't be sent to another server on its own
+            reply = this.cluster.redirectFor(name);
+        } else if (this.boards.containsKey(name)) {
+            reply = "Board name already exists.";
+        } else {
+            PingballClientThread board = new PingballClientThread(name, this.output, this.mainQueue, this.players,
+                    this.neighbors, this.cluster);
+            if (this.players.putIfAbsent(name, board) != null) {
+                reply = "Board name already exists.";
+            } else {
+                this.boards.put(name, board);
+                reply = "START";
+            }
+        }
+        synchronized (this.output) {
+            this.output.println("@" + name + " " + reply);
+        }
+    }
+}
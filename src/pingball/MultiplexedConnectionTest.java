@@ -0,0 +1,83 @@
+package pingball;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+
+/**
+ * Testing Strategy:
+ *      NAME: new board, board already on the connection, board already on the server
+ *      merge of two boards of the same connection: each gets its MERGE
+ *      ball from one board of the connection to the other, through the channel and through the main queue
+ *      client goes away: all of its boards leave the server
+ *
+ * @author sdrammis
+ */
+public class MultiplexedConnectionTest {
+
+    private final BlockingQueue<String> mainQueue = new ArrayBlockingQueue<String>(100);
+    private final ConcurrentHashMap<String, PingballClientThread> players = new ConcurrentHashMap<String, PingballClientThread>();
+    private final ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>> neighbors =
+            new ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>>();
+
+    /**
+     * Start a BlockingQueueThread and a player thread for a new connection
+     * @return the client's end of the connection
+     */
+    private Socket connect() throws IOException {
+        Thread thread = new Thread(new BlockingQueueThread(mainQueue, players, neighbors));
+        thread.setDaemon(true);
+        thread.start();
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+            Thread player = new Thread(new PingballClientThread(server.accept(), mainQueue, players, neighbors));
+            player.setDaemon(true);
+            player.start();
+            return socket;
+        }
+    }
+
+    @Test(timeout=10000)
+    public void testBoardsOfOneConnection() throws Exception {
+        players.put("taken", new PingballClientThread("taken", new PrintWriter(new StringWriter()), mainQueue, players, 
+                neighbors, null));
+        try (Socket socket = connect();
+                BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                PrintWriter output = new PrintWriter(socket.getOutputStream(), true)) {
+            assertEquals("NAME", input.readLine());
+            output.println("MUX");
+            output.println("NAME a");
+            output.println("NAME b");
+            output.println("NAME a");
+            output.println("NAME taken");
+            assertEquals("@a START", input.readLine());
+            assertEquals("@b START", input.readLine());
+            assertEquals("@a Board name already exists.", input.readLine());
+            assertEquals("@taken Board name already exists.", input.readLine());
+            assertTrue(players.containsKey("a") && players.containsKey("b"));
+
+            // before the merge the ball goes through the main queue, after it through the channel
+            output.println("@a ball0 1.0 2.0 3.0 4.0 b");
+            assertEquals("@b BALL ball0 1.0 2.0 3.0 4.0", input.readLine());
+            mainQueue.put("MERGE h a b");
+            Set<String> merges = new HashSet<String>(Arrays.asList(input.readLine(), input.readLine()));
+            assertEquals(new HashSet<String>(Arrays.asList("@a MERGE R b", "@b MERGE L a")), merges);
+            output.println("@b ball1 5.0 6.0 7.0 8.0 a");
+            assertEquals("@a BALL ball1 5.0 6.0 7.0 8.0", input.readLine());
+        }
+        // the client went away
+        while (players.containsKey("a") || players.containsKey("b")) {
+            Thread.sleep(10);
+        }
+        assertTrue(players.containsKey("taken"));
+    }
+}
@@ -0,0 +1,121 @@
+package pingball;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives names small integer ids, so the name of a board only has to be looked at where it comes in from the network
+ * or goes out to it, and everything else compares and hashes ints.
+ * A name keeps its id for as long as something holds it: each register holds the name once more, and each release
+ * lets go of it once. When nothing holds a name any more its id is free, and is given to the next new name, so ids
+ * stay small and can index arrays. An id must not be used after it is released.
+ *
+ * BOARDS is the registry of the names of the boards the players of the server in this process are playing.
+ *
+ * Thread Safety Argument:
+ *      ids: a thread safe type, getting an id only reads it
+ *      names, holds, free, freeCount, count: only written while holding the lock on this, the name is stored in names
+ *          before its id is put in ids, so any thread that got an id from ids sees its name in names
+ *      names is volatile, so a thread reading it sees the array the name was stored in, or a copy of it
+ *
+ * @author sdrammis
+ */
+public final class NameRegistry {
+    /**
+     * Rep invariant:
+     *      ids: maps the held names to distinct ids < count
+     *      names[id] is the name ids maps to id, null if id is free, for every id < count
+     *      holds[id] is how many times the name with that id is held, > 0, and 0 if id is free
+     *      free: the first freeCount entries are the free ids < count, each once
+     *      names, holds, free: the same length, > count
+     * @author sdrammis
+     */
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+    private volatile String[] names = new String[16];
+    private int[] holds = new int[16];
+    private int[] free = new int[16];
+    private int freeCount = 0;
+    private int count = 0;
+
+    // the names of the boards the server's players are playing
+    public static final NameRegistry BOARDS = new NameRegistry();
+
+    /**
+     * Get the id of a name and hold it, giving it a free id or the next id if it doesn't have one yet
+     * @param name the name, not null
+     * @return its id, >= 0, kept until the name is released as many times as it is registered
+     */
+    public synchronized int register(String name) {
+        Integer held = this.ids.get(name);
+        int id;
+        if (held != null) {
+            id = held;
+        } else if (this.freeCount > 0) {
+            id = this.free[--this.freeCount];
+        } else {
+            if (this.count + 1 == this.names.length) {
+                this.names = Arrays.copyOf(this.names, 2 * this.names.length);
+                this.holds = Arrays.copyOf(this.holds, this.names.length);
+                this.free = Arrays.copyOf(this.free, this.names.length);
+            }
+            id = this.count++;
+        }
+        if (held == null) {
+            this.names[id] = name;
+            this.ids.put(name, id);
+        }
+        this.holds[id]++;
+        checkRep();
+        return id;
+    }
+
+    /**
+     * Let go of a name once, freeing its id if nothing else holds it
+     * @param id an id given out by register and not released as many times as it was given out
+     * @throws IllegalArgumentException if no name has that id
+     */
+    public synchronized void release(int id) {
+        if (id < 0 || id >= this.count || this.names[id] == null) {
+            throw new IllegalArgumentException("no name has id " + id);
+        }
+        if (--this.holds[id] == 0) {
+            this.ids.remove(this.names[id]);
+            this.names[id] = null;
+            this.free[this.freeCount++] = id;
+        }
+        checkRep();
+    }
+
+    /**
+     * Get the id of a name without giving it one
+     * @param name the name, not null
+     * @return its id, or -1 if it has none
+     */
+    public int idOf(String name) {
+        Integer id = this.ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Get the name of an id
+     * @param id an id given out by register
+     * @return the name with that id
+     * @throws IllegalArgumentException if no name has that id
+     */
+    public String nameOf(int id) {
+        String[] names = this.names;
+        if (id < 0 || id >= names.length || names[id] == null) {
+            throw new IllegalArgumentException("no name has id " + id);
+        }
+        return names[id];
+    }
+
+    /**
+     * Ensure the rep holds, called while holding the lock on this
+     */
+    private void checkRep() {
+        assert this.ids.size() == this.count - this.freeCount;
+        assert this.count < this.names.length;
+        assert this.holds.length == this.names.length && this.free.length == this.names.length;
+    }
+}
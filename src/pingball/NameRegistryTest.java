@@ -0,0 +1,104 @@
+package pingball;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+/**
+ * Testing Strategy:
+ * ----------------------- register -----------------------
+ *      new name, name already registered, more names than the first array holds
+ *      many threads registering the same names at once
+ * ----------------------- release -----------------------
+ *      name held once, name held twice, id freed and given to a new name, id that isn't given out
+ * ----------------------- idOf, nameOf -----------------------
+ *      registered, not registered, released
+ * 
+ * @author sdrammis
+ */
+public class NameRegistryTest {
+
+    @Test
+    public void testRegister() {
+        NameRegistry registry = new NameRegistry();
+        assertEquals(-1, registry.idOf("a"));
+        assertEquals(0, registry.register("a"));
+        assertEquals(1, registry.register("b"));
+        assertEquals(0, registry.register("a"));
+        assertEquals(1, registry.idOf("b"));
+        assertEquals("b", registry.nameOf(1));
+    }
+    
+    @Test
+    public void testManyNames() {
+        NameRegistry registry = new NameRegistry();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, registry.register("board" + i));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals("board" + i, registry.nameOf(i));
+        }
+    }
+    
+    @Test
+    public void testRelease() {
+        NameRegistry registry = new NameRegistry();
+        assertEquals(0, registry.register("a"));
+        assertEquals(1, registry.register("b"));
+        assertEquals(0, registry.register("a"));
+        registry.release(0);
+        assertEquals(0, registry.idOf("a"));
+        registry.release(0);
+        assertEquals(-1, registry.idOf("a"));
+        try {
+            registry.nameOf(0);
+            fail("expected the id to be free");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+        assertEquals(0, registry.register("c"));
+        assertEquals("c", registry.nameOf(0));
+        assertEquals(2, registry.register("a"));
+        assertEquals("b", registry.nameOf(1));
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testReleaseNoName() {
+        new NameRegistry().release(0);
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testNoName() {
+        new NameRegistry().nameOf(0);
+    }
+    
+    @Test
+    public void testThreadsRegisterAtOnce() throws InterruptedException {
+        final NameRegistry registry = new NameRegistry();
+        final int[][] got = new int[4][50];
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < got.length; t++) {
+            final int[] mine = got[t];
+            threads.add(new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < mine.length; i++) {
+                        mine[i] = registry.register("board" + i);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) { thread.start(); }
+        for (Thread thread : threads) { thread.join(); }
+        Set<Integer> ids = new HashSet<Integer>();
+        for (int i = 0; i < 50; i++) {
+            for (int t = 1; t < got.length; t++) {
+                assertEquals(got[0][i], got[t][i]);
+            }
+            assertEquals("board" + i, registry.nameOf(got[0][i]));
+            ids.add(got[0][i]);
+        }
+        assertEquals(50, ids.size());
+    }
+}
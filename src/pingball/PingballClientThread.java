@@ -7,6 +7,8 @@ import java.util.*;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 
+import pingballClient.BoardViewer;
+import pingballClient.BoardWorld;
 
 
 /**
@@ -20,11 +22,22 @@ import java.util.concurrent.ConcurrentHashMap;
  *      input, output: immutable objects
  *      mainQueue: a thread safe type 
  *                  shared amongst PingballServer, BlockingQueueThread, PingballClientThread, and MergeHandlerThread
- *      pingballClientName: will be changed from null to the client name and then not mutated again
+ *      pingballClientName: will be changed from null to the client name and then not mutated again,
  *                          confinement, is confined within the thread
+ *      playerId: volatile, changed from -1 to the id of the name when the player gets its name, 
+ *          and back to -1 when it leaves, read by the threads of its neighbors when forwarding balls
+ *      channels: volatile, and the array it refers to is never changed after it is made
+ *          replaced by BlockingQueueThread and the threads of players that leave when the topology changes,
+ *          read by this thread when forwarding balls. Rebuilds are made one at a time while holding channelLock,
+ *          and each reads the neighbors inside the lock, so the rebuild published last is made from the newest
+ *          neighbors and a stale rebuild can never bring back a channel to a player that left.
+ *      output: every write to a player is done while holding the lock on output, so a forwarded ball
+ *          and a message from BlockingQueueThread can never interleave on the same line.
+ *          The boards of a MultiplexedConnection share its output, and so its lock
+ *      world: a thread safe type. watching is confined to this thread, like pingballClientName
  * @author sdrammis
  */
-public class PingballClientThread implements Runnable {
+public class PingballClientThread implements Runnable, BoardViewer {
     
     /**
      * Invariants:
@@ -33,19 +46,41 @@ public class PingballClientThread implements Runnable {
      *          size is the number of players currently playing
      *      input, output: valid connections
      *      mainQueue: refrences the only queue on the server
+     *      playerId: the id of pingballClientName in NameRegistry.BOARDS, held by this player, 
+     *          -1 while pingballClientName is null and once the player has left
+     *      channels: 
+     *          exactly the players in neighbors.get(this), each once
+     *      prefix: "" for a player with a connection of its own, 
+     *          "@" + name + " " for a board of a MultiplexedConnection, whose socket and input are null
+     *      watching: null unless the server plays the boards itself and the client is watching one of them,
+     *          then pingballClientName stays null
      * @author sdrammis
      */
     private final Socket socket;
     private final BufferedReader input; //get the messages from the Client
     private final PrintWriter output; //send messages to the Client
+    //put in front of every message to the Client, "" unless the board is one of many on a multiplexed connection
+    private final String prefix;
     private BlockingQueue<String> mainQueue; //the blocking queue that the thread will add mesages too
     private ConcurrentHashMap<String, PingballClientThread> players; //the list of players in the current game
     private String pingballClientName = null; //the name of the board/player that this thread is associated with
+    //the id of the name, balls are routed by it. Players are told apart by identity: a player that connects
+    //  again with the same name is a new player, never equal to the one it replaces
+    private volatile int playerId = -1;
     
     //the neighbors of each player
     //player maps to a hashmap of its neighbors where keys are "N", "S", "E", "W"
     private ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>> neighbors;
     
+    //direct channels to the neighboring players, at most one per wall
+    //balls sent to a player in here skip the main queue and are written straight to that player
+    private volatile PingballClientThread[] channels = new PingballClientThread[0];
+    private final Object channelLock = new Object(); //held while channels is rebuilt
+    
+    private final ClusterNode cluster; //the other servers in the cluster, null if this server is on its own
+    private final BoardWorld world; //the boards the server plays itself, null if its players play them
+    private String watching = null; //the board of the world the client is shown
+    
     /**
      * Player is created when the socket from the server connects.
      * 
@@ -57,9 +92,71 @@ public class PingballClientThread implements Runnable {
      * Implemented by: sdrammis
      */
     public PingballClientThread(Socket socket, BlockingQueue<String> mainQueue, ConcurrentHashMap<String, PingballClientThread> players, ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>> neighbors) throws IOException{
+        this(socket, mainQueue, players, neighbors, null);
+    }
+    
+    /**
+     * Player is created when the socket from a server in a cluster connects.
+     * Players whose board is owned by another server in the cluster are sent there.
+     * 
+     * @param socket created when player connects to the server
+     * @param mainQueue the server's queue that the thread will be adding messages to
+     * @param cluster the other servers in the cluster, null if this server is on its own
+     * @throws IOException if unable to get input and output stream
+     * 
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public PingballClientThread(Socket socket, BlockingQueue<String> mainQueue, ConcurrentHashMap<String, PingballClientThread> players, ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>> neighbors, ClusterNode cluster) throws IOException{
+        this(socket, mainQueue, players, neighbors, cluster, null);
+    }
+    
+    /**
+     * Viewer is created when the socket to a server that plays the boards itself connects.
+     * The client is shown the board it names instead of playing it, see BoardWorld.
+     * 
+     * @param socket created when player connects to the server
+     * @param mainQueue the server's queue that the thread will be adding messages to
+     * @param cluster the other servers in the cluster, null if this server is on its own
+     * @param world the boards the server plays, null if its players play them
+     * @throws IOException if unable to get input and output stream
+     * 
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public PingballClientThread(Socket socket, BlockingQueue<String> mainQueue, ConcurrentHashMap<String, PingballClientThread> players, ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>> neighbors, ClusterNode cluster, BoardWorld world) throws IOException{
+        this.cluster = cluster;
+        this.world = world;
         this.socket = socket;
         this.input = new BufferedReader(new InputStreamReader(socket.getInputStream()));
         this.output = new PrintWriter(socket.getOutputStream(), true);
+        this.prefix = "";
+        this.mainQueue = mainQueue;
+        this.players = players;
+        this.neighbors = neighbors;
+    }
+    
+    /**
+     * Player for one of the boards of a multiplexed connection, see MultiplexedConnection.
+     * It is not run: the connection reads the messages of all its boards and hands them to handleBall().
+     * 
+     * @param name the board's name
+     * @param output the connection's output, shared by all of its boards
+     * @param mainQueue the server's queue that the thread will be adding messages to
+     * @param cluster the other servers in the cluster, null if this server is on its own
+     * 
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    PingballClientThread(String name, PrintWriter output, BlockingQueue<String> mainQueue, ConcurrentHashMap<String, PingballClientThread> players, ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>> neighbors, ClusterNode cluster) {
+        this.cluster = cluster;
+        this.world = null;
+        this.socket = null;
+        this.input = null;
+        this.output = output;
+        this.prefix = "@" + name + " ";
+        this.pingballClientName = name;
+        this.playerId = NameRegistry.BOARDS.register(name);
         this.mainQueue = mainQueue;
         this.players = players;
         this.neighbors = neighbors;
@@ -81,46 +178,139 @@ public class PingballClientThread implements Runnable {
         //for every message on the input, add it to the queue (input messages come from the client)
         try { 
             while (((line = input.readLine()) != null)) {
-                String[] tokens = line.split(" ");
+                //only the few messages that aren't balls are looked at, a ball message is passed on as it is
+                boolean named = line.startsWith("NAME ") && line.length() > "NAME ".length();
+                //the server plays the boards, the client only watches the one it names and sends nothing else
+                if (this.world != null) {
+                    if (named && line.indexOf(' ', "NAME ".length()) < 0 && this.watching == null) { 
+                        watch(line.substring("NAME ".length())); 
+                    }
+                    continue;
+                }
+                //a client with many boards, the connection is read as a multiplexed connection from now on
+                if (this.pingballClientName == null && (line.equals("MUX") || line.startsWith("MUX "))) {
+                    new MultiplexedConnection(this.input, this.output, this.mainQueue, this.players, this.neighbors,
+                            this.cluster).run();
+                    return;
+                }
                 //if line has the NAME token at the beginning, we add the player to the group of players
-                if (tokens[0].equals("NAME")) {
+                if (named) {
+                    int end = line.indexOf(' ', "NAME ".length());
+                    String name = line.substring("NAME ".length(), end < 0 ? line.length() : end);
+                    //check if the board belongs on another server of the cluster
+                    if (this.cluster != null && !this.cluster.owns(name)) {
+                        //tell the player where to connect, REDIRECT host port
+                        this.output.println(this.cluster.redirectFor(name));
+                    }
                     //check if the player/board name is in players
-                    if (players.containsKey(tokens[1])) {
+                    else if (players.containsKey(name)) {
                         //if the name already exists send a message to the player telling them to change the name
                         this.output.println("Board name already exists.");
                     } else {
                         //set the clientName variable to the name of the client/board the thread is associated with
-                        this.pingballClientName = tokens[1];
+                        this.pingballClientName = name;
+                        this.playerId = NameRegistry.BOARDS.register(name);
                         //add the name to the players
-                        this.players.put(tokens[1], this); //adding "playerName" instead of pingballClientName to avoid reorderings of thread
+                        this.players.put(name, this); //adding "playerName" instead of pingballClientName to avoid reorderings of thread
                         this.output.println("START");
                     }
                 } else {
-                    //otherwise it must be a ball message so pass it to the main queue
-                    this.mainQueue.add("BALL " + line);
+                    handleBall(line);
                 }
             }
         } catch (IOException e) {
             // exception occurs when the Client has closed the program
             e.printStackTrace();
         } finally {
-            // remove the player from the maps
-            this.neighbors.remove(this);
-            this.players.remove(this.pingballClientName);
-            //iterate through all players and see if the player that has left was next to any of the players
-            for (PingballClientThread player : this.neighbors.keySet()) {
-                for (String direction : this.neighbors.get(player).keySet()) {
-                    if (this.neighbors.get(player).get(direction) == this) {
-                        //remove it as a neighbor in the map
-                        this.neighbors.get(player).remove(direction);
-                        //send a message to the other player to set wall back to solid
-                        this.mainQueue.add("WALL " + player.getClientName() + " " + direction); //WALL playerName (T|B|R|L)
-                    }
-                }
+            // a connection that never sent a valid name (or was redirected) was never added to the maps
+            if (this.pingballClientName != null) {
+                leave();
+            }
+            if (this.watching != null) {
+                this.world.unwatch(this.watching, this);
             }
         }
     } 
- 
+    
+    /**
+     * Send a ball from the player on to the receiving player, or answer a PING
+     * @param line message from the client of one of the forms
+     *      ballName xVal yVal xVel yVel [crossed] playerName
+     *          crossed is when the ball crossed, on the server's clock, see PingballServer.clockNanos()
+     *      INCOMING ballName crossing xVal yVal xVel yVel playerName
+     *          a ball the player expects to send when the server's clock reads crossing. It is only a head start
+     *          for the receiving player, so it is dropped if there is no channel to it
+     *      PING nanos
+     *          answered right away with PONG nanos server, server the server's clock, so the player can 
+     *          synchronize with it
+     * @author sdrammis
+     */
+    void handleBall(String line) {
+        if (line.startsWith("PING ")) {
+            passMessage("PONG " + line.substring("PING ".length()) + " " + PingballServer.clockNanos());
+        } else if (line.startsWith("INCOMING ")) {
+            forwardBall(line, "");
+        } else if (!forwardBall(line, "BALL ")) {
+            //it must be a ball message for a player we have no channel to, so pass it to the main queue
+            this.mainQueue.add("BALL " + line);
+        }
+    }
+    
+    /**
+     * Show the client a board the server plays, answered with VIEW, then a FRAME message every frame.
+     * A client that names a board the server doesn't have is told so.
+     * @param name name of the board
+     * @author sdrammis
+     */
+    private void watch(String name) {
+        if (!this.world.hasBoard(name)) {
+            passMessage("No such board.");
+            return;
+        }
+        passMessage("VIEW");
+        this.watching = name;
+        this.world.watch(name, this);
+    }
+    
+    /**
+     * Show the client a frame of the board it watches. Called by the world's frame thread.
+     * @param frame FRAME columns rows, see BoardViewer
+     */
+    @Override
+    public void show(String frame) {
+        passMessage(frame);
+    }
+    
+    /**
+     * Remove the player from the game after its client has gone away.
+     * Its neighbors get their walls back.
+     * @author sdrammis
+     */
+    void leave() {
+        // remove the player from the maps
+        this.neighbors.remove(this);
+        this.players.remove(this.pingballClientName);
+        //iterate through all players and see if the player that has left was next to any of the players
+        for (PingballClientThread player : this.neighbors.keySet()) {
+            for (String direction : this.neighbors.get(player).keySet()) {
+                if (this.neighbors.get(player).get(direction) == this) {
+                    //remove it as a neighbor in the map, and stop forwarding balls to this thread
+                    this.neighbors.get(player).remove(direction);
+                    player.refreshChannels();
+                    //send a message to the other player to set wall back to solid
+                    this.mainQueue.add("WALL " + player.getClientName() + " " + direction); //WALL playerName (T|B|R|L)
+                }
+            }
+        }
+        //the player's neighbors on other servers of the cluster need their walls back too
+        if (this.cluster != null) {
+            this.mainQueue.add("QUIT " + this.pingballClientName);
+        }
+        //balls are no longer routed to it, and its id can go to another name
+        int id = this.playerId;
+        this.playerId = -1;
+        if (id >= 0) { NameRegistry.BOARDS.release(id); }
+    }
 
     /**
      * Passes a given message from the server to the player.
@@ -128,7 +318,13 @@ public class PingballClientThread implements Runnable {
      * Called by BlockingQueueThread
      * 
      * Messages are of the form:
-     *      BALL ballName xVal yVal xVel yVel
+     *      BALL ballName xVal yVal xVel yVel [crossed]
+     *      INCOMING ballName crossing xVal yVal xVel yVel
+     *      PONG nanos server
+     *      VIEW
+     *          the server plays the board the client named, the client is only shown it
+     *      FRAME columns rows
+     *          a frame of the board the client watches, see BoardViewer
      *      MERGE (T|B|R|L) neighborName
      *      WALL (T|B|R|L) 
      *          (T|B|R|L) is the wall to be made solid/visible
@@ -136,7 +332,71 @@ public class PingballClientThread implements Runnable {
      * @author asolei, sdrammis
      */
     public void passMessage(String string) {
-        output.println(string); //printWriter has automatic line flushing
+        synchronized (this.output) {
+            output.print(this.prefix);
+            output.println(string); //printWriter has automatic line flushing
+        }
+    }
+    
+    /**
+     * Forward a ball message from the client straight to the receiving player, if there is a channel to it.
+     * Only the last token (the receiving player's name) is looked at, the rest of the line is copied as is.
+     * The name is turned into its id, and the ball is routed to the neighbor with that id. A neighbor that has
+     * left has no id, so it is never sent a ball, even if a new player has taken its name.
+     * 
+     * @param line ball message from the client of the form
+     *      ballName xVal yVal xVel yVel playerName, or the same for INCOMING, see handleBall
+     * @param type put in front of the line when it is sent, "BALL " or ""
+     * @return true if the ball was forwarded, false if it has to go through the main queue
+     * @author sdrammis
+     */
+    private boolean forwardBall(String line, String type) {
+        int nameStart = line.lastIndexOf(' ');
+        if (nameStart <= 0) { return false; }
+        int receiverId = NameRegistry.BOARDS.idOf(line.substring(nameStart + 1));
+        if (receiverId < 0) { return false; }
+        for (PingballClientThread receiver : this.channels) {
+            if (receiver.playerId == receiverId) {
+                receiver.receive(type, line, nameStart);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Send a message that was forwarded by a neighboring player's thread to this player
+     * 
+     * @param type put in front of the message, "BALL " or ""
+     * @param line message from the neighboring client
+     * @param length number of characters of line to send, excludes the receiving player's name
+     * @author sdrammis
+     */
+    void receive(String type, String line, int length) {
+        synchronized (this.output) {
+            this.output.write(this.prefix);
+            this.output.write(type);
+            this.output.write(line, 0, length);
+            this.output.println(); //one flush for the whole message
+        }
+    }
+    
+    /**
+     * Rebuild the channels of this player from its current neighbors.
+     * Called whenever the neighbors of this player change, after they are changed. Rebuilds never overlap,
+     * so the last one to be published is made from the neighbors as they are after every change so far.
+     * 
+     * @author sdrammis
+     */
+    public void refreshChannels() {
+        synchronized (this.channelLock) {
+            ConcurrentHashMap<String, PingballClientThread> adjacent = this.neighbors.get(this);
+            Set<PingballClientThread> channels = new LinkedHashSet<PingballClientThread>();
+            if (adjacent != null) {
+                channels.addAll(adjacent.values());
+            }
+            this.channels = channels.toArray(new PingballClientThread[channels.size()]);
+        }
     }
     
     /**
@@ -159,24 +419,11 @@ public class PingballClientThread implements Runnable {
     }
     
     /**
-     * Determine equality of two PingballClientThreads by testing equality of their names
-     * @author asolei
+     * Get the id of the player's name, what balls are routed to it by
+     * @return id of the name in NameRegistry.BOARDS, -1 before the player has a name and once it has left
      */
-    @Override
-    public boolean equals(Object obj) {
-        if (obj instanceof PingballClientThread) {
-            return ((PingballClientThread) obj).getClientName() == this.getClientName();
-        }
-        return false;
-    }
-    
-    /**
-     * Compute the hashCode of a PingballClientThread by hashing the name
-     * @author asolei
-     */
-    @Override
-    public int hashCode() {
-        return this.getClientName().hashCode();
+    int getPlayerId() {
+        return this.playerId;
     }
     
     /**
@@ -199,6 +446,7 @@ public class PingballClientThread implements Runnable {
     //FOLLOWING METHODS ARE FOR TESTING ONLY
     public void setName(String name) {
         this.pingballClientName = name;
+        this.playerId = NameRegistry.BOARDS.register(name);
     }
     
     /**
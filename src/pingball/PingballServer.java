@@ -16,6 +16,9 @@ import java.util.concurrent.*;
 import pingball.BlockingQueueThread;
 import pingball.MergeHandlerThread;
 import pingball.PingballClientThread;
+import pingballClient.Board;
+import pingballClient.BoardWorld;
+import pingballClient.parser.BoardFactory;
 
 
 /**
@@ -36,6 +39,9 @@ import pingball.PingballClientThread;
  *                   shared amongst PingballServer, BlockingQueueThread, PingballClientThread, and MergeHandlerThread
  *      blockingQueueThread, mergeHandlerThread: confinement, confined within this class
  *                              only accessable from the PingballServer thread
+ *      adminChannel: runs on its own thread, batches of merges it takes are applied by blockingQueueThread
+ *      world: a thread safe type, its boards are joined by blockingQueueThread and watched by the player threads
+ *      spectatorChannel: runs on its own thread, only hands spectators to world
  *                                  
  *      @author sdrammis
  */
@@ -75,6 +81,16 @@ public class PingballServer {
     private BlockingQueueThread blockingQueueThread; //the thread that will take messages out of the queue
     
     private MergeHandlerThread mergeHandlerThread; //the thread that will listen for merge messages and add them to the queue
+    
+    private final ClusterNode cluster; //the other servers in the cluster, null if this server is on its own
+    private final AdminChannel adminChannel; //takes topology commands from tools, null if the server has none
+    private final BoardWorld world; //the boards the server plays itself, null if its players play them
+    private final SpectatorChannel spectatorChannel; //streams the world's boards to spectators, null if there is none
+
+    //the clock players stamp balls with, see clockNanos. Wall clock time when the class was loaded, so the servers 
+    //of a cluster are as close as their wall clocks, and nanoTime from then on, so it never steps
+    private static final long START_WALL_NANOS = System.currentTimeMillis() * 1000000L;
+    private static final long START_NANOS = System.nanoTime();
 
     /**
      * Make a PingballServer that listens for connections on port.
@@ -85,12 +101,107 @@ public class PingballServer {
      * Implemented by: sdrammis
      */
     public PingballServer(int port) throws IOException {
+        this(port, -1, null);
+    }
+    
+    /**
+     * Make a PingballServer that is one server of a cluster and listens for connections on port.
+     * 
+     * @param port port number, requires 0 <= port <= 65535
+     * @param node index of this server in servers, ignored if servers is null
+     * @param servers every server in the cluster as host:port:peerPort, in the same order on every server.
+     *      null if this server is on its own
+     * @throws IOException if cannot create a listening socket with the privded port or peer port
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public PingballServer(int port, int node, List<String> servers) throws IOException {
+        this(port, node, servers, -1);
+    }
+    
+    /**
+     * Make a PingballServer that listens for connections on port, and for topology commands on adminPort.
+     * 
+     * @param port port number, requires 0 <= port <= 65535
+     * @param node index of this server in servers, ignored if servers is null
+     * @param servers every server in the cluster as host:port:peerPort, in the same order on every server.
+     *      null if this server is on its own
+     * @param adminPort loopback port of the admin channel, requires -1 <= adminPort <= 65535, -1 for no admin channel
+     * @throws IOException if cannot create a listening socket with one of the ports
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public PingballServer(int port, int node, List<String> servers, int adminPort) throws IOException {
+        this(port, node, servers, adminPort, null, -1);
+    }
+    
+    /**
+     * Make a PingballServer that plays the boards itself, and only shows them to the clients that connect.
+     * 
+     * @param world the boards to play
+     * @param port port number, requires 0 <= port <= 65535
+     * @param adminPort loopback port of the admin channel, requires -1 <= adminPort <= 65535, -1 for no admin channel
+     * @throws IOException if cannot create a listening socket with one of the ports
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public PingballServer(BoardWorld world, int port, int adminPort) throws IOException {
+        this(world, port, adminPort, -1);
+    }
+    
+    /**
+     * Make a PingballServer that plays the boards itself, shows them to the clients that connect, 
+     * and streams them to spectators.
+     * 
+     * @param world the boards to play
+     * @param port port number, requires 0 <= port <= 65535
+     * @param adminPort loopback port of the admin channel, requires -1 <= adminPort <= 65535, -1 for no admin channel
+     * @param spectatePort loopback port of the spectator channel, requires -1 <= spectatePort <= 65535,
+     *      -1 for no spectator channel
+     * @throws IOException if cannot create a listening socket with one of the ports
+     * @author asolei
+     * Implemented by: asolei
+     */
+    public PingballServer(BoardWorld world, int port, int adminPort, int spectatePort) throws IOException {
+        this(port, -1, null, adminPort, world, spectatePort);
+    }
+    
+    /**
+     * Make a PingballServer, see the other constructors
+     * 
+     * @param port port number, requires 0 <= port <= 65535
+     * @param node index of this server in servers, ignored if servers is null
+     * @param servers every server in the cluster, null if this server is on its own
+     * @param adminPort loopback port of the admin channel, -1 for no admin channel
+     * @param world the boards the server plays itself, null if its players play them. Requires servers to be null.
+     * @param spectatePort loopback port of the spectator channel, -1 for no spectator channel. Requires world.
+     * @throws IOException if cannot create a listening socket with one of the ports
+     */
+    private PingballServer(int port, int node, List<String> servers, int adminPort, BoardWorld world, int spectatePort)
+            throws IOException {
         serverSocket = new ServerSocket(port); //create the socket for listening on the passed in port
         
         mainQueue = new ArrayBlockingQueue<String>(100); //create the main blocking queue with a capacity
         
-        blockingQueueThread = new BlockingQueueThread(mainQueue, players, neighbors);
-        mergeHandlerThread = new MergeHandlerThread(mainQueue, players);
+        cluster = (servers == null) ? null : new ClusterNode(node, servers, mainQueue);
+        this.world = world;
+        
+        blockingQueueThread = new BlockingQueueThread(mainQueue, players, neighbors, cluster, world);
+        mergeHandlerThread = new MergeHandlerThread(mainQueue, players, cluster, world);
+        adminChannel = (adminPort < 0) ? null 
+                : new AdminChannel(adminPort, blockingQueueThread, players, neighbors, mainQueue);
+        spectatorChannel = (spectatePort < 0) ? null : new SpectatorChannel(spectatePort, world);
+    }
+    
+    /**
+     * Get the time on the server's clock, which players synchronize with by PING so a ball handed from one board
+     * to another can be stamped with when it crossed, see pingballClient.ClockSync
+     * @return nanoseconds since the epoch, counted by System.nanoTime() since the server started
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public static long clockNanos() {
+        return START_WALL_NANOS + (System.nanoTime() - START_NANOS);
     }
     
     /**
@@ -105,13 +216,17 @@ public class PingballServer {
     public void serve() throws IOException{
         new Thread(blockingQueueThread).start();
         new Thread(mergeHandlerThread).start();
+        if (cluster != null) { new Thread(cluster).start(); }
+        if (adminChannel != null) { new Thread(adminChannel).start(); }
+        if (world != null) { world.start(); }
+        if (spectatorChannel != null) { new Thread(spectatorChannel).start(); }
 
         while(true) {
             Socket socket = null; //socket for a client           
             socket = serverSocket.accept();
             
             //make a new player thread and add them to the game
-            PingballClientThread playerThread = new PingballClientThread(socket, mainQueue, players, neighbors); 
+            PingballClientThread playerThread = new PingballClientThread(socket, mainQueue, players, neighbors, cluster, world); 
             //start the thread
             new Thread(playerThread).start();
         }        
@@ -120,13 +235,30 @@ public class PingballServer {
     /**
      * Start a PingballServer using the given arguments.
      * 
-     * Usage: PingballServer [--port PORT]
+     * Usage: PingballServer [--port PORT] [--cluster SERVERS --node NODE] [--admin ADMINPORT] [--threads THREADS]
+     *                       [--spectate SPECTATEPORT] [FILE...]
      * 
      * PORT is an optional integer in the range 0 to 65535 inclusive, specifying the port the server
      * should be listening on for incoming connections. E.g. "PingballServer --port 1234"
      * starts the server listening on port 1234
      * The default port is 10987
      * 
+     * SERVERS is an optional comma separated list of host:port:peerPort, one for every server in a cluster,
+     * given in the same order to every server. NODE is the index of this server in SERVERS, starting at 0.
+     * Each server of a cluster owns some of the boards, and players that connect to the wrong server
+     * are redirected. E.g. "PingballServer --port 1234 --cluster localhost:1234:1334,localhost:1235:1335 --node 0"
+     * 
+     * ADMINPORT is an optional port on the loopback address for the admin channel, which takes batches of merges
+     * from tools, see AdminChannel. There is no admin channel unless it is given.
+     * 
+     * FILE is zero or more board files, with different board names. If any are given the server plays the boards 
+     * itself on a pool of THREADS threads, the default is the number of processors, and balls go from one board to 
+     * the next in memory. Clients that connect with the name of one of the boards are only shown it, see BoardWorld.
+     * Boards are joined from the command line like players. A server that plays the boards can't be in a cluster.
+     * 
+     * SPECTATEPORT is an optional port on the loopback address for spectators of the boards the server plays,
+     * see SpectatorChannel. It can only be given with FILE.
+     * 
      * @author sdrammis
      * Implemented by: asolei
      * 
@@ -134,6 +266,12 @@ public class PingballServer {
     public static void main(String[] args) {
         //try and run the server
         int port = 10987; //default port
+        int node = -1;
+        int adminPort = -1;
+        int spectatePort = -1;
+        List<String> servers = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<File> files = new ArrayList<File>();
         Queue<String> arguments = new LinkedList<String>(Arrays.asList(args));
         try {
             while (! arguments.isEmpty()){
@@ -144,8 +282,33 @@ public class PingballServer {
                         if (port < 0 || port > 65535){
                             throw new IllegalArgumentException("port " + port + " out of range.");
                         }
-                    } else {
+                    } else if (flag.equals("--cluster")){
+                        servers = Arrays.asList(arguments.remove().split(","));
+                    } else if (flag.equals("--node")){
+                        node = Integer.parseInt(arguments.remove());
+                    } else if (flag.equals("--admin")){
+                        adminPort = Integer.parseInt(arguments.remove());
+                        if (adminPort < 0 || adminPort > 65535){
+                            throw new IllegalArgumentException("port " + adminPort + " out of range.");
+                        }
+                    } else if (flag.equals("--threads")){
+                        threads = Integer.parseInt(arguments.remove());
+                        if (threads <= 0){
+                            throw new IllegalArgumentException("threads must be positive");
+                        }
+                    } else if (flag.equals("--spectate")){
+                        spectatePort = Integer.parseInt(arguments.remove());
+                        if (spectatePort < 0 || spectatePort > 65535){
+                            throw new IllegalArgumentException("port " + spectatePort + " out of range.");
+                        }
+                    } else if (flag.startsWith("--")){
                         throw new IllegalArgumentException("unknown option: \"" + flag + "\"");
+                    } else {
+                        File file = new File(flag);
+                        if ( ! file.isFile()) {
+                            throw new IllegalArgumentException("invalid file: \"" + file + "\"");
+                        }
+                        files.add(file);
                     }
                 } catch (NoSuchElementException nsee){
                     throw new IllegalArgumentException("missing argument for " + flag);
@@ -153,13 +316,32 @@ public class PingballServer {
                     throw new IllegalArgumentException("unable to parse number for " + flag);
                 }
             }
+            if ((servers == null) != (node < 0)){
+                throw new IllegalArgumentException("--cluster and --node must be given together");
+            }
+            if (servers != null && !files.isEmpty()){
+                throw new IllegalArgumentException("a server that plays the boards can't be in a cluster");
+            }
+            if (spectatePort >= 0 && files.isEmpty()){
+                throw new IllegalArgumentException("--spectate needs boards for the server to play");
+            }
         } catch (IllegalArgumentException iae){
             System.err.println(iae.getMessage());
-            System.err.println("usage: PingballServer [--port PORT]");
+            System.err.println("usage: PingballServer [--port PORT] [--cluster SERVERS --node NODE] [--admin ADMINPORT] "
+                    + "[--threads THREADS] [--spectate SPECTATEPORT] [FILE...]");
+            return;
         }
         try {
-            runPingballServer(port); //try and run the server            
-        } catch (IOException e) {
+            if (files.isEmpty()) {
+                runPingballServer(port, node, servers, adminPort); //try and run the server            
+            } else {
+                List<Board> boards = new ArrayList<Board>();
+                for (File file : files) {
+                    boards.add(BoardFactory.parse(file));
+                }
+                new PingballServer(new BoardWorld(boards, threads), port, adminPort, spectatePort).serve();
+            }
+        } catch (Exception e) {
             e.printStackTrace();
         } 
     }
@@ -174,7 +356,38 @@ public class PingballServer {
      * Implemented by: sdrammis
      */
     public static void runPingballServer(int port) throws IOException {
-        PingballServer server = new PingballServer(port);
+        runPingballServer(port, -1, null);
+    }
+    
+    /**
+     * Start a PingballServer running on the specified port as one server of a cluster. 
+     * 
+     * @param port The network port on which the server should listen.
+     * @param node index of this server in servers
+     * @param servers every server in the cluster as host:port:peerPort, null if this server is on its own
+     * @throws IOException if the server can't be started
+     * 
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public static void runPingballServer(int port, int node, List<String> servers) throws IOException {
+        runPingballServer(port, node, servers, -1);
+    }
+    
+    /**
+     * Start a PingballServer running on the specified port, possibly as one server of a cluster, with an admin channel. 
+     * 
+     * @param port The network port on which the server should listen.
+     * @param node index of this server in servers
+     * @param servers every server in the cluster as host:port:peerPort, null if this server is on its own
+     * @param adminPort loopback port of the admin channel, -1 for no admin channel
+     * @throws IOException if the server can't be started
+     * 
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public static void runPingballServer(int port, int node, List<String> servers, int adminPort) throws IOException {
+        PingballServer server = new PingballServer(port, node, servers, adminPort);
         server.serve();
     }
 
@@ -215,6 +428,14 @@ public class PingballServer {
         return this.blockingQueueThread;
     }
     
+    public AdminChannel getAdminChannel() {
+        return this.adminChannel;
+    }
+    
+    public SpectatorChannel getSpectatorChannel() {
+        return this.spectatorChannel;
+    }
+    
     public void resetNeighbors() {
         this.neighbors = new ConcurrentHashMap<PingballClientThread, ConcurrentHashMap<String, PingballClientThread>>();
     }
@@ -0,0 +1,351 @@
+package pingball;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Puts load on a PingballServer by pretending to be many PingballClients at once, to see how many players
+ * and balls a server can take.
+ *
+ * The generator starts its own PingballServer on this machine and only ever talks to it over loopback.
+ * Every fake client connects, answers NAME with its board name and waits for START, like a PingballClient does.
+ * The boards are then merged into one horizontal ring, C0 C1 ... C(n-1) C0, with one batch of "h Ci Cj" commands,
+ * the command format MergeHandlerThread reads, sent to the server's admin channel. Once every board has its two
+ * neighbors, every client sends balls to its right neighbor at a fixed rate for a number of seconds.
+ *
+ * The name of each ball carries the time it was sent, so the client that gets the ball knows how long the
+ * handoff took from one client through the server to the other. The generator reports how many balls were sent
+ * and received, the handoff throughput, and percentiles of the handoff latency.
+ *
+ * Thread Safety Argument:
+ *      clients: the list is filled before any other thread starts and not changed after
+ *      a client's socket output: confined to the one sender thread the client belongs to
+ *      a client's socket input: confined to the client's reader thread
+ *      merged, sent, received: thread safe types
+ *      latencies: thread safe type
+ *
+ * @author sdrammis
+ */
+public class ServerLoadGenerator {
+    /**
+     * Invariants:
+     *      clients: names are C0 ... C(n-1), client i is at index i
+     *      sent >= received, once the server has stopped forwarding balls
+     *      merged: number of MERGE messages the clients have received, at most 2 per merge issued
+     * @author sdrammis
+     */
+    private final List<Client> clients = new ArrayList<Client>();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    // how long we wait for the server to start, or for something the server should send us
+    private static final long TIMEOUT_MILLIS = 30000;
+
+    /**
+     * A fake client: one connection to the server
+     * @author sdrammis
+     */
+    private static class Client {
+        private final String name;
+        private final Socket socket;
+        private final BufferedReader input;
+        private final Writer output;
+        private long sent = 0; //balls sent, only used by the client's sender thread
+
+        Client(String name, Socket socket) throws IOException {
+            this.name = name;
+            this.socket = socket;
+            this.input = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            this.output = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
+        }
+    }
+
+    /**
+     * Put load on a PingballServer.
+     *
+     * Usage: ServerLoadGenerator [--clients CLIENTS] [--rate RATE] [--seconds SECONDS] [--senders SENDERS] [--port PORT]
+     *
+     * CLIENTS is the number of fake clients, at least 2. The default is 100.
+     * RATE is how many balls each client sends per second, the default is 100.
+     * SECONDS is how long the clients send balls for, the default is 10.
+     * SENDERS is the number of threads that send the balls, the default is the number of processors.
+     * PORT is the loopback port the server is started on, the default is 10987. Its admin channel is on PORT + 1.
+     *
+     * Prints one line of key=value pairs with what was measured.
+     *
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public static void main(String[] args) {
+        int clients = 100;
+        double rate = 100;
+        double seconds = 10;
+        int senders = Runtime.getRuntime().availableProcessors();
+        int port = 10987;
+        Queue<String> arguments = new LinkedList<String>(Arrays.asList(args));
+        try {
+            while (! arguments.isEmpty()){
+                String flag = arguments.remove();
+                try {
+                    if (flag.equals("--clients")){
+                        clients = Integer.parseInt(arguments.remove());
+                        if (clients < 2){
+                            throw new IllegalArgumentException("need at least two clients.");
+                        }
+                    } else if (flag.equals("--rate")){
+                        rate = Double.parseDouble(arguments.remove());
+                    } else if (flag.equals("--seconds")){
+                        seconds = Double.parseDouble(arguments.remove());
+                    } else if (flag.equals("--senders")){
+                        senders = Integer.parseInt(arguments.remove());
+                    } else if (flag.equals("--port")){
+                        port = Integer.parseInt(arguments.remove());
+                        if (port < 0 || port + 1 > 65535){
+                            throw new IllegalArgumentException("port " + port + " out of range.");
+                        }
+                    } else {
+                        throw new IllegalArgumentException("unknown option: \"" + flag + "\"");
+                    }
+                } catch (NoSuchElementException nsee){
+                    throw new IllegalArgumentException("missing argument for " + flag);
+                } catch (NumberFormatException nfe){
+                    throw new IllegalArgumentException("unable to parse number for " + flag);
+                }
+            }
+            if (!(rate > 0) || !(seconds > 0) || senders < 1){
+                throw new IllegalArgumentException("rate, seconds and senders must be positive");
+            }
+        } catch (IllegalArgumentException iae){
+            System.err.println(iae.getMessage());
+            System.err.println("usage: ServerLoadGenerator [--clients CLIENTS] [--rate RATE] [--seconds SECONDS]"
+                    + " [--senders SENDERS] [--port PORT]");
+            return;
+        }
+
+        Process server = null;
+        try {
+            String java = System.getProperty("java.home") + "/bin/java";
+            String classpath = System.getProperty("java.class.path");
+            ProcessBuilder builder = new ProcessBuilder(java, "-cp", classpath, "pingball.PingballServer",
+                    "--port", Integer.toString(port), "--admin", Integer.toString(port + 1));
+            // the server prints every merge and a stack trace for every client that leaves
+            builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            builder.redirectError(ProcessBuilder.Redirect.DISCARD);
+            server = builder.start();
+            final Process started = server;
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                public void run() { started.destroy(); }
+            }));
+            ServerLoadGenerator generator = new ServerLoadGenerator();
+            generator.connect(port, clients);
+            generator.merge(port + 1);
+            System.out.println(generator.stream(rate, seconds, senders));
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+        } finally {
+            if (server != null) { server.destroy(); }
+        }
+    }
+
+    /**
+     * Connect the clients to the server on loopback, and start a thread reading from each of them
+     * @param port port of the server
+     * @param count number of clients
+     * @throws IOException if the server can't be reached or doesn't START a client
+     * @throws InterruptedException if interrupted while waiting for the server to start
+     */
+    private void connect(int port, int count) throws IOException, InterruptedException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        for (int i = 0; i < count; i++) {
+            Socket socket = null;
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (socket == null) {
+                try {
+                    socket = new Socket(loopback, port);
+                } catch (ConnectException e) {
+                    // the server has not started listening yet
+                    if (System.currentTimeMillis() > deadline) { throw e; }
+                    Thread.sleep(50);
+                }
+            }
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout((int) TIMEOUT_MILLIS);
+            final Client client = new Client("C" + i, socket);
+            handshake(client);
+            socket.setSoTimeout(0);
+            this.clients.add(client);
+        }
+        for (final Client client : this.clients) {
+            Thread reader = new Thread(new Runnable() {
+                public void run() { read(client); }
+            });
+            reader.setDaemon(true);
+            reader.start();
+        }
+    }
+
+    /**
+     * Do what PingballClient does when it connects: answer NAME with the board name and wait for START
+     * @param client a newly connected client
+     * @throws IOException if the server closes the connection, times out, or doesn't start the client
+     */
+    private void handshake(Client client) throws IOException {
+        String line;
+        while ((line = client.input.readLine()) != null) {
+            if (line.equals("NAME")) {
+                client.output.write("NAME " + client.name + "\n");
+                client.output.flush();
+            } else if (line.equals("START")) {
+                return;
+            } else {
+                throw new IOException(client.name + " was not started: " + line);
+            }
+        }
+        throw new IOException("server closed the connection of " + client.name);
+    }
+
+    /**
+     * Merge the boards into a ring with one batch on the server's admin channel, 
+     * and wait until every board knows its neighbors.
+     * @param adminPort loopback port of the server's admin channel
+     * @throws IOException if the batch fails, or the server doesn't tell the clients about the merges in time
+     */
+    private void merge(int adminPort) throws IOException {
+        int count = this.clients.size();
+        try (Socket admin = new Socket(InetAddress.getLoopbackAddress(), adminPort);
+                BufferedReader input = new BufferedReader(new InputStreamReader(admin.getInputStream()));
+                PrintWriter output = new PrintWriter(new BufferedWriter(new OutputStreamWriter(admin.getOutputStream())))) {
+            output.println("BEGIN");
+            for (int i = 0; i < count; i++) {
+                // the same command format MergeHandlerThread reads, first board to the left of the second
+                output.println("h " + this.clients.get(i).name + " " + this.clients.get((i + 1) % count).name);
+            }
+            output.println("COMMIT");
+            output.flush();
+            String status = input.readLine();
+            if (status == null || !status.startsWith("OK")) {
+                throw new IOException("merging the ring failed: " + status);
+            }
+        }
+        waitForMerges(2L * count);
+    }
+
+    /**
+     * Wait until the clients have been sent a number of MERGE messages
+     * @param messages number of MERGE messages
+     * @throws IOException if they don't arrive in time
+     */
+    private void waitForMerges(long messages) throws IOException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (this.merged.get() < messages) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException("only " + this.merged.get() + " of " + messages + " merge messages arrived");
+            }
+            LockSupport.parkNanos(100000);
+        }
+    }
+
+    /**
+     * Read everything the server sends a client until the connection closes.
+     * Every ball received is a finished handoff, its latency is the time since the ball was sent.
+     * @param client the client to read for
+     */
+    private void read(Client client) {
+        String line;
+        try {
+            while ((line = client.input.readLine()) != null) {
+                if (line.startsWith("BALL t")) {
+                    // BALL t<nanoTime> x y xVel yVel
+                    long sentAt = Long.parseLong(line.substring("BALL t".length(), line.indexOf(' ', "BALL t".length())));
+                    this.latencies.record(System.nanoTime() - sentAt);
+                    this.received.incrementAndGet();
+                } else if (line.startsWith("MERGE ")) {
+                    this.merged.incrementAndGet();
+                }
+            }
+        } catch (IOException e) {
+            // the connection was closed when the run ended
+        }
+    }
+
+    /**
+     * Send balls from every client to its right neighbor, then wait for the balls still on their way.
+     * The clients are split between the sender threads, and each sender keeps its clients at the rate.
+     * @param rate balls each client sends per second
+     * @param seconds how long to send for
+     * @param senders number of sender threads
+     * @return what was measured, as one line of key=value pairs
+     * @throws InterruptedException if interrupted while waiting for the senders
+     */
+    private String stream(final double rate, final double seconds, int senders) throws InterruptedException {
+        final long start = System.nanoTime();
+        final long end = start + (long) (seconds * 1e9);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int s = 0; s < senders; s++) {
+            final int first = s;
+            final int step = senders;
+            Thread sender = new Thread(new Runnable() {
+                public void run() {
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        long due = (long) ((now - start) / 1e9 * rate);
+                        for (int i = first; i < clients.size(); i += step) {
+                            send(clients.get(i), clients.get((i + 1) % clients.size()).name, due);
+                        }
+                        LockSupport.parkNanos(1000000);
+                    }
+                }
+            });
+            sender.start();
+            threads.add(sender);
+        }
+        for (Thread sender : threads) {
+            sender.join();
+        }
+        long sendingNanos = System.nanoTime() - start;
+        // give the last balls time to arrive, stop early once they all have
+        long deadline = System.currentTimeMillis() + 2000;
+        while (this.received.get() < this.sent.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        for (Client client : this.clients) {
+            try {
+                client.socket.close();
+            } catch (IOException e) {
+                // closing anyway
+            }
+        }
+        return String.format(Locale.ROOT, "clients=%d sent=%d received=%d ballsPerSecond=%.1f "
+                + "p50Micros=%.1f p99Micros=%.1f p999Micros=%.1f maxMicros=%.1f",
+                this.clients.size(), this.sent.get(), this.received.get(), this.received.get() / (sendingNanos / 1e9),
+                this.latencies.percentile(50) / 1e3, this.latencies.percentile(99) / 1e3,
+                this.latencies.percentile(99.9) / 1e3, this.latencies.percentile(100) / 1e3);
+    }
+
+    /**
+     * Send a client's balls until it has sent the number that is due, with one flush
+     * @param client client sending
+     * @param neighbor name of the board the balls go to
+     * @param due number of balls the client should have sent by now
+     */
+    private void send(Client client, String neighbor, long due) {
+        if (client.sent >= due) { return; }
+        try {
+            for (; client.sent < due; client.sent++) {
+                // ballName xVal yVal xVel yVel playerName, like PingballClient sends
+                client.output.write("t" + System.nanoTime() + " 0.5 10.0 " + Double.toHexString(1.0) + " "
+                        + Double.toHexString(0.0) + " " + neighbor + "\n");
+                this.sent.incrementAndGet();
+            }
+            client.output.flush();
+        } catch (IOException e) {
+            // the server dropped the client, stop sending for it
+            client.sent = Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package pingball;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import pingballClient.BoardSpectator;
+import pingballClient.BoardWorld;
+
+/**
+ * A feed of the boards a server plays itself, for spectators instead of players, see pingballClient.SpectatorFeed.
+ * Listens on a port of the loopback address only, so it can't be reached from other machines.
+ *
+ * Protocol: the spectator sends one line, and the server replies with one line.
+ *      WATCH name...   follow the boards with those names
+ *      WALL name       follow the board with that name and every board joined to it, the whole wall
+ *                      as it is joined now
+ * The reply is "OK name..." with the names of the boards followed, or "ERROR ..." and the connection is closed.
+ * After OK the server only sends the spectator messages of the boards' feeds, one after the other, until the
+ * spectator closes the connection. A spectator that falls behind loses the messages it was going to be sent, and
+ * is sent a new keyframe of each board instead.
+ *
+ * Thread Safety Argument:
+ *      serverSocket: immutable, only accepted from by the thread running the channel
+ *      every spectator connection is confined to its own thread, and the thread that writes to it,
+ *          which are handed messages through a thread safe queue, see Spectator
+ *      world: a thread safe type
+ *
+ * @author asolei
+ */
+public class SpectatorChannel implements Runnable {
+    /**
+     * Invariants:
+     *      serverSocket: bound to the loopback address
+     *      world: the boards the server plays
+     * @author asolei
+     */
+    private final ServerSocket serverSocket;
+    private final BoardWorld world;
+
+    // how many messages a spectator can fall behind by before it is sent new keyframes instead
+    static final int BACKLOG = 64;
+
+    /**
+     * Make a spectator channel for a server that plays the boards itself
+     * @param port loopback port to listen on, 0 for any free port
+     * @param world the boards the server plays
+     * @throws IOException if the port can't be listened on
+     * @author asolei
+     * Implemented by: asolei
+     */
+    public SpectatorChannel(int port, BoardWorld world) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.world = world;
+    }
+
+    /**
+     * Get the port the channel listens on
+     * @return loopback port
+     */
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accept spectator connections and serve each on its own thread, until the channel is closed
+     * Implemented by: asolei
+     */
+    @Override
+    public void run() {
+        while (true) {
+            final Socket socket;
+            try {
+                socket = this.serverSocket.accept();
+            } catch (IOException e) {
+                // the channel was closed
+                return;
+            }
+            new Thread(new Runnable() {
+                public void run() { serve(socket); }
+            }).start();
+        }
+    }
+
+    /**
+     * Stream the boards one spectator asks for until it closes the connection
+     * @param socket the connection
+     */
+    private void serve(Socket socket) {
+        try (Socket connection = socket;
+                BufferedReader input = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+                OutputStream output = new BufferedOutputStream(connection.getOutputStream())) {
+            String line = input.readLine();
+            if (line == null) { return; }
+            List<String> names;
+            try {
+                names = boards(line.trim());
+            } catch (IllegalArgumentException iae) {
+                output.write(("ERROR " + iae.getMessage() + "\n").getBytes("US-ASCII"));
+                output.flush();
+                return;
+            }
+            StringBuilder reply = new StringBuilder("OK");
+            for (String name : names) {
+                reply.append(' ').append(name);
+            }
+            output.write(reply.append('\n').toString().getBytes("UTF-8"));
+            output.flush();
+
+            Spectator spectator = new Spectator(names, output);
+            Thread writer = new Thread(spectator);
+            writer.start();
+            for (String name : names) {
+                this.world.spectate(name, spectator);
+            }
+            try {
+                // nothing more is expected from the spectator, only that it closes the connection
+                while (input.readLine() != null) { }
+            } finally {
+                for (String name : names) {
+                    this.world.unspectate(name, spectator);
+                }
+                writer.interrupt();
+            }
+        } catch (IOException e) {
+            // the spectator went away
+        }
+    }
+
+    /**
+     * Find the boards a spectator asks for
+     * @param request WATCH name... or WALL name
+     * @return names of the boards, at least one, each once
+     * @throws IllegalArgumentException if the request is malformed or names a board the server doesn't play
+     */
+    List<String> boards(String request) {
+        String[] tokens = request.split("\\s+");
+        List<String> names = new ArrayList<String>();
+        if (tokens[0].equals("WATCH") && tokens.length > 1) {
+            for (int i = 1; i < tokens.length; i++) {
+                if (!this.world.hasBoard(tokens[i])) {
+                    throw new IllegalArgumentException("no board named " + tokens[i]);
+                }
+                if (!names.contains(tokens[i])) { names.add(tokens[i]); }
+            }
+        } else if (tokens[0].equals("WALL") && tokens.length == 2) {
+            names = this.world.getWall(tokens[1]);
+            if (names.isEmpty()) {
+                throw new IllegalArgumentException("no board named " + tokens[1]);
+            }
+        } else {
+            throw new IllegalArgumentException("expected WATCH name... or WALL name");
+        }
+        return names;
+    }
+
+    /**
+     * Stop listening for spectator connections
+     * @throws IOException if the socket can't be closed
+     */
+    public void close() throws IOException {
+        this.serverSocket.close();
+    }
+
+    /**
+     * One spectator connection, written to by its own thread so the world's frame thread never waits on it.
+     * The messages sent to it wait in a queue of BACKLOG messages. When the queue is full the spectator has fallen
+     * behind: what is in the queue is thrown away, and the spectator is sent a new keyframe of every board instead.
+     */
+    private class Spectator implements BoardSpectator, Runnable {
+        private final List<String> names;
+        private final OutputStream output; //only written to by the thread running the spectator
+        private final BlockingQueue<ByteBuffer> queue = new ArrayBlockingQueue<ByteBuffer>(BACKLOG);
+
+        /**
+         * @param names the boards the spectator follows
+         * @param output the connection to the spectator
+         */
+        private Spectator(List<String> names, OutputStream output) {
+            this.names = names;
+            this.output = output;
+        }
+
+        @Override
+        public void send(ByteBuffer message) {
+            if (this.queue.offer(message)) { return; }
+            this.queue.clear();
+            for (String name : this.names) {
+                SpectatorChannel.this.world.rekey(name, this);
+            }
+        }
+
+        /**
+         * Write the messages to the spectator as they come, until interrupted or the spectator goes away
+         */
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    ByteBuffer message = this.queue.take();
+                    this.output.write(message.array(), message.arrayOffset() + message.position(), message.remaining());
+                    if (this.queue.isEmpty()) { this.output.flush(); }
+                }
+            } catch (InterruptedException ie) {
+                // the spectator closed the connection
+            } catch (IOException ioe) {
+                // the spectator went away, the thread serving it cleans up
+            }
+        }
+    }
+}
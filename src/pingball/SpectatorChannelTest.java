@@ -0,0 +1,116 @@
+package pingball;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.*;
+
+import org.junit.Test;
+
+import physics.Vect;
+import pingballClient.Board;
+import pingballClient.BoardWorld;
+import pingballClient.boardObjects.Ball;
+import pingballClient.boardObjects.Gadget;
+
+/**
+ * Testing Strategy:
+ * ----------------------- boards -----------------------
+ *      WATCH one board, WATCH the same board twice, WALL of joined boards, WALL of a board on its own
+ *      unknown board, unknown request, WATCH with no names
+ * ----------------------- socket -----------------------
+ *      WALL: OK with the names, then a keyframe of each board
+ *      unknown board: ERROR
+ *
+ * @author asolei
+ */
+public class SpectatorChannelTest {
+
+    private static Board board(String name, Ball... balls) {
+        return new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(balls)), name, 0.0, 0.0, 0.0);
+    }
+
+    /**
+     * Make a world of boards a, b and c, with a joined to b
+     */
+    private static BoardWorld world() {
+        BoardWorld world = new BoardWorld(Arrays.asList(board("a", new Ball("ball", 5, 5, new Vect(3, 0))),
+                board("b"), board("c")), 1);
+        world.join("h", "a", "b");
+        return world;
+    }
+
+    /**
+     * Read a line of ASCII that ends in a newline
+     */
+    private static String readLine(DataInputStream input) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = input.read()) != '\n') {
+            assertTrue(c >= 0);
+            line.append((char) c);
+        }
+        return line.toString();
+    }
+
+    @Test
+    public void testBoards() throws Exception {
+        BoardWorld world = world();
+        SpectatorChannel channel = new SpectatorChannel(0, world);
+        assertEquals(Arrays.asList("a"), channel.boards("WATCH a"));
+        assertEquals(Arrays.asList("c", "a"), channel.boards("WATCH c a c"));
+        assertEquals(new HashSet<String>(Arrays.asList("a", "b")), new HashSet<String>(channel.boards("WALL b")));
+        assertEquals("b", channel.boards("WALL b").get(0));
+        assertEquals(Arrays.asList("c"), channel.boards("WALL c"));
+        for (String request : Arrays.asList("WATCH a nope", "WALL nope", "WATCH", "LOOK a", "WALL a b")) {
+            try {
+                channel.boards(request);
+                fail("expected an error for " + request);
+            } catch (IllegalArgumentException iae) {
+                // expected
+            }
+        }
+        channel.close();
+        world.close();
+    }
+
+    @Test(timeout=10000)
+    public void testWallStreamsKeyframes() throws Exception {
+        BoardWorld world = world();
+        SpectatorChannel channel = new SpectatorChannel(0, world);
+        Thread thread = new Thread(channel);
+        thread.setDaemon(true);
+        thread.start();
+        world.start();
+
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), channel.getPort());
+        PrintWriter output = new PrintWriter(socket.getOutputStream(), true);
+        DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        output.println("WALL a");
+        assertEquals("OK a b", readLine(input));
+        Set<String> keyed = new HashSet<String>();
+        while (keyed.size() < 2) {
+            byte[] message = new byte[input.readInt()];
+            input.readFully(message);
+            DataInputStream body = new DataInputStream(new ByteArrayInputStream(message));
+            if (body.readByte() != 'K') { continue; }
+            body.readInt();
+            body.readInt();
+            body.readLong();
+            byte[] name = new byte[body.readShort()];
+            body.readFully(name);
+            keyed.add(new String(name, "UTF-8"));
+        }
+        assertEquals(new HashSet<String>(Arrays.asList("a", "b")), keyed);
+        socket.close();
+
+        Socket other = new Socket(InetAddress.getLoopbackAddress(), channel.getPort());
+        new PrintWriter(other.getOutputStream(), true).println("WATCH nope");
+        assertEquals("ERROR no board named nope", readLine(new DataInputStream(other.getInputStream())));
+        other.close();
+        channel.close();
+        world.close();
+    }
+}
@@ -0,0 +1,111 @@
+package pingball;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A list of merges that is applied to the server's players all at once, by BlockingQueueThread.
+ * Either every merge of the batch is applied, or none of them are.
+ *
+ * Commands, one per line:
+ *      h left right
+ *          the same as typing "h left right" on the server's command line
+ *      v top bottom
+ *          the same as typing "v top bottom" on the server's command line
+ *      grid ROWS COLUMNS name1 name2 ... name(ROWS*COLUMNS)
+ *          the boards, given row by row, are merged into a ROWS x COLUMNS grid:
+ *          every board is merged with the board to its right and the board below it
+ *
+ * Thread Safety Argument:
+ *      merges: never changed after the batch is made
+ *      status: written once by BlockingQueueThread before the latch is counted down,
+ *          and only read by other threads after waiting on the latch
+ *
+ * @author sdrammis
+ */
+class TopologyBatch {
+    /**
+     * Invariants:
+     *      merges: every entry is {"h"|"v", first, second}, first != second
+     *      status: null until the batch has been applied or rejected
+     * @author sdrammis
+     */
+    private final List<String[]> merges;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private String status = null;
+
+    private static final String NAME = "[A-Za-z_][A-Za-z_0-9]*";
+
+    /**
+     * Make a batch from commands
+     * @param commands commands as described in the class comment
+     * @throws IllegalArgumentException if a command is not one of the commands, with a message saying which
+     */
+    TopologyBatch(List<String> commands) {
+        List<String[]> merges = new ArrayList<String[]>();
+        for (String command : commands) {
+            String[] tokens = command.trim().split("\\s+");
+            if (tokens.length == 3 && (tokens[0].equals("h") || tokens[0].equals("v"))
+                    && tokens[1].matches(NAME) && tokens[2].matches(NAME) && !tokens[1].equals(tokens[2])) {
+                merges.add(tokens);
+            } else if (tokens[0].equals("grid") && tokens.length >= 3) {
+                int rows;
+                int columns;
+                try {
+                    rows = Integer.parseInt(tokens[1]);
+                    columns = Integer.parseInt(tokens[2]);
+                } catch (NumberFormatException nfe) {
+                    throw new IllegalArgumentException("bad grid size: " + command);
+                }
+                if (rows < 1 || columns < 1 || (long) rows * columns != tokens.length - 3) {
+                    throw new IllegalArgumentException("grid needs " + tokens[1] + " x " + tokens[2] + " names: "
+                            + command);
+                }
+                for (int row = 0; row < rows; row++) {
+                    for (int column = 0; column < columns; column++) {
+                        String board = tokens[3 + row * columns + column];
+                        if (!board.matches(NAME)) {
+                            throw new IllegalArgumentException("bad board name " + board + ": " + command);
+                        }
+                        if (column + 1 < columns) {
+                            merges.add(new String[] { "h", board, tokens[3 + row * columns + column + 1] });
+                        }
+                        if (row + 1 < rows) {
+                            merges.add(new String[] { "v", board, tokens[3 + (row + 1) * columns + column] });
+                        }
+                    }
+                }
+            } else {
+                throw new IllegalArgumentException("unknown command: " + command);
+            }
+        }
+        this.merges = Collections.unmodifiableList(merges);
+    }
+
+    /**
+     * Get the merges of the batch, in the order they are applied
+     * @return list of {"h"|"v", first, second}: first is the left board of an h merge and the top board of a v merge
+     */
+    List<String[]> getMerges() {
+        return this.merges;
+    }
+
+    /**
+     * Record what happened to the batch and wake up whoever is waiting for it. Only called once.
+     * @param status "OK ..." if the batch was applied, "ERROR ..." if it was not
+     */
+    void finish(String status) {
+        this.status = status;
+        this.done.countDown();
+    }
+
+    /**
+     * Wait until the batch has been applied or rejected
+     * @return the status given to finish()
+     * @throws InterruptedException if interrupted while waiting
+     */
+    String awaitStatus() throws InterruptedException {
+        this.done.await();
+        return this.status;
+    }
+}
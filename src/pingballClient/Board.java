@@ -3,12 +3,13 @@ package pingballClient;
 import java.awt.geom.Rectangle2D;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import physics.*;
 import pingballClient.boardObjects.*;
 
 /**
- * The class that will handle the setup of a board. All mutations must be protected by a lock. 
+ * The class that will handle the setup of a board. A board is played by exactly one thread.
  * 
  * Thread Safety Argument:
  *      All walls (topWall, bottomWall, leftWall, rightWall) and the walls List
@@ -20,12 +21,12 @@ import pingballClient.boardObjects.*;
  *      The gadgets array is immutable. No gadgets can be removed or added during play.
  *      Gadget objects within the gadgets array are mutable and protected by confinement.
  *      
- *      The balls List is a thread safe datatype and protected by the board's lock.
- *          balls are added to the list without a lock on the list
- *          and the list is iterated through under the lock on the list
+ *      The balls List is confined to the play thread.
+ *          balls from other boards reach the play thread through an InboundRing and are added by the play thread
+ *          the render thread only sees immutable snapshots of the balls
  *      
  *      neighbors
- *          protected by the lock of the board
+ *          confined to the play thread, merges and walls also arrive through the InboundRing
  *      
  * @author sdrammis
  *
@@ -34,16 +35,30 @@ import pingballClient.boardObjects.*;
 public class Board {
     /**
      * rep invariant:
-     *      topWall coords: (-0.05,-0.05) --- (20.05,-0.05)
-     *      botomWall coords: (-0.05,20.05) --- (20.05,20.05)
-     *      leftWall coords: (-0.05,-0.05) --- (-0.05,20.05)
-     *      rightWal coords: (20.05,-0.05) --- (20.05,20.05)
-     *      ball and all 1L gadget coords: anywhere in the square (0,0)---(20,0)---(20,20)---(0,20)
-     *      all 2L gadget coords: anywhere in the square (0,0)---(18,0)---(18,18)---(0,18)
+     *      0 < width, height <= MAX_SIZE
+     *      topWall coords: (-0.01,-0.01) --- (width+0.01,-0.01)
+     *      botomWall coords: (-0.01,height+0.01) --- (width+0.01,height+0.01)
+     *      leftWall coords: (-0.01,-0.01) --- (-0.01,height+0.01)
+     *      rightWal coords: (width+0.01,-0.01) --- (width+0.01,height+0.01)
+     *      ball and all 1L gadget coords: anywhere in the rectangle (0,0)---(width,0)---(width,height)---(0,height)
+     *      all 2L gadget coords: anywhere in the rectangle (0,0)---(width-2,0)---(width-2,height-2)---(0,height-2)
      *          coordinates are measured from the top left
      *      
-     *      board: each entry is one of the following characters,
-     *          #, *, 0, /, \, |, -, =
+     *      grid: every gadget is in the cells its bounding box touches
+     *      staticLayer: height x width, what the gadgets that never change how they look draw, 0 elsewhere
+     *      sleeping: the number of balls that are asleep
+     *      departures: one list for each wall, by the wall's name
+     *      departed: the first departedCount entries are the indexes in balls of the balls in departures,
+     *          only while a step is being played
+     *      leftBalls, leftAgo: the same length, the first leftCount entries are the balls in departures, 
+     *          0 <= leftAgo[i] <= the length of the last step
+     *      impactAt, impactKind, impactIndex, cached, near, clearBall, clearFrom, clearUntil, clearX, clearY, clearSpeed,
+     *          announcedBall, announcedAt: the same length
+     *      clearFrom[b] <= moved for every clearance kept
+     *      clock >= 0
+     *      arrivals: an arrival's ball is null until it is due, then it is a ball that came in on the board,
+     *          which may since have left it again; in no particular order
+     *      expired: null past the end of a call to admitArrivals
      *      
      *      gravity, mu, mu2: not null
      *      
@@ -52,26 +67,27 @@ public class Board {
      *          
      *      gadgets:
      *          doesn't not contain any OuterWall objects
+     *      flippers: exactly the gadgets whose kind is a flipper kind, in the order they are in gadgets
+     *      absorbers: exactly the absorbers, in the order they are in gadgets
+     *      flipperLayout: kind (0 left, 1 right), x, y and orientation of each of the flippers, in order
+     *      absorberLayout: x, y, width and height of each of the absorbers, in order
      * @author sdrammis         
      */
     
-    //create the walls
-    private final OuterWall topWall = new OuterWall(new Vect(-0.01,-0.01), new Vect(20.01, -0.01));
-    private final OuterWall bottomWall = new OuterWall(new Vect(-0.01,20.01), new Vect(20.01, 20.01));
-    private final OuterWall leftWall = new OuterWall(new Vect(-0.01,-0.01), new Vect(-0.01, 20.01));
-    private final OuterWall rightWall = new OuterWall(new Vect(20.01,-0.01), new Vect(20.01, 20.01));
-    final List<OuterWall> walls = new ArrayList<OuterWall>(Arrays.asList(topWall, bottomWall, leftWall, rightWall));
+    // the size of the board
+    private final int width;
+    private final int height;
     
-    //add in the corners
-    private final Circle topLeftCorner = new Circle(-0.01, -0.01, 0);
-    private final Circle topRightCorner = new Circle(20.01, -0.01, 0);
-    private final Circle bottomLeftCorner = new Circle(-0.01, 20.01, 0);
-    private final Circle bottomRightCorner = new Circle(20.01, 20.01, 0);
-    final List<Circle> corners = new ArrayList<Circle>(Arrays.asList(topLeftCorner, topRightCorner, bottomLeftCorner, bottomRightCorner));
-
-    //the string representation of the board
-    private String[][] board = new String[20][20]; //row by column    
+    //the walls
+    private final OuterWall topWall;
+    private final OuterWall bottomWall;
+    private final OuterWall leftWall;
+    private final OuterWall rightWall;
+    final List<OuterWall> walls;
     
+    //the corners
+    final List<Circle> corners;
+
     // gravity and friction
     private final double gravity;
     private final double mu;
@@ -79,20 +95,132 @@ public class Board {
     
     // gadgets in the board
     private final List<Gadget> gadgets; //should not contain any OuterWalls
+    // the gadgets that are flippers, in the order they are in gadgets
+    private final Gadget[] flippers;
+    // the gadgets that are absorbers, in the order they are in gadgets
+    private final Gadget[] absorbers;
     
     // balls in the board
     private List<Ball> balls;
     
-    // the board's name
+    // the board's name, and what it is known as in this process, unlike its name no other board has it
     private final String name;
+    private final int id;
     
     // keeps track of all the neighboring board names
     // keys are "R", "L", "T", "B" for the walls of the board respectively 
     private HashMap<String, String> neighbors = new HashMap<String, String>();
         
+    // finds the gadgets and balls near a ball
+    private final SpatialGrid grid;
+    // finds the pairs of balls that could collide soon
+    private final SweepAndPrune sweep = new SweepAndPrune();
+    
+    // what the gadgets that always look the same draw, shared by every snapshot
+    private final char[][] staticLayer;
+    // where the flippers and the absorbers are, shared by every snapshot
+    private final int[] flipperLayout;
+    private final int[] absorberLayout;
+    
+    // the balls that left through each invisible wall in the last step, by the wall's name, emptied every step
+    private final ConcurrentHashMap<String, List<Ball>> departures = new ConcurrentHashMap<String, List<Ball>>();
+    // where the balls that left are in balls until they are taken off, the first departedCount entries are used
+    private int[] departed = new int[4];
+    private int departedCount = 0;
+    // the balls that left in the last step, and how long before the end of the step each left, in seconds,
+    //   the first leftCount entries are used, emptied every step
+    private Ball[] leftBalls = new Ball[4];
+    private double[] leftAgo = new double[4];
+    private int leftCount = 0;
+    
+    // what advance keeps about each ball during a step, see advance, only ever made bigger
+    private int[] impacts = new int[0];
+    // what a ball collides with, filled in by nextImpact
+    private final int[] target = new int[2];
+    // the next impact of each ball during a step of advance, only ever made bigger: if cached[b], ball b hits
+    //   {impactKind[b], impactIndex[b]} impactAt[b] seconds into the step, or nothing in the step if impactKind[b]
+    //   is NOTHING
+    private double[] impactAt = new double[0];
+    private int[] impactKind = new int[0];
+    private int[] impactIndex = new int[0];
+    private boolean[] cached = new boolean[0];
+    // the balls that are not clear for long enough, see clearTime, so their impacts are looked for
+    private boolean[] near = new boolean[0];
+    // how long each ball is clear of everything, kept from one step to the next, see clearTime, only ever made
+    //   bigger: if clearBall[b] is balls.get(b), the ball touches nothing until moved reaches clearUntil[b], 
+    //   as long as it hasn't sped up or jumped more than falling and friction can make it since moved was 
+    //   clearFrom[b], when it was at (clearX[b], clearY[b]) with speed clearSpeed[b]
+    private Ball[] clearBall = new Ball[0];
+    private double[] clearFrom = new double[0];
+    private double[] clearUntil = new double[0];
+    private double[] clearX = new double[0];
+    private double[] clearY = new double[0];
+    private double[] clearSpeed = new double[0];
+    // seconds the balls have moved for since the board was made, by advance or newBallPositions
+    private double moved = 0;
+    // how many times the surroundings of a ball were searched, for its clearance or its next impact
+    private long searches = 0;
+    
+    // seconds of play advance has played since the board was made, what handoffs are timed with
+    private double clock = 0;
+    // the balls announced to a neighbor, by where they are in balls, see predictDepartures, made bigger with the
+    //   impacts: ball announcedBall[b] is going to leave at announcedAt[b] on clock, if it is still balls.get(b)
+    private Ball[] announcedBall = new Ball[0];
+    private double[] announcedAt = new double[0];
+    // the balls the last predictDepartures announced, emptied by the next one
+    private final List<Handoff> handoffs = new ArrayList<Handoff>();
+    // balls a neighbor announced, waiting to come in or to be confirmed by their BALL message, see expectBall
+    private final List<Arrival> arrivals = new ArrayList<Arrival>();
+    // the balls of the arrivals admitArrivals found were never confirmed, to take off the board in one pass
+    private Ball[] expired = new Ball[4];
+    
+    // how many times a ball has bounced off something since the board was made
+    private long collisions = 0;
+    // how many of the balls are asleep
+    private int sleeping = 0;
+    // where the balls are and how fast they go, the ball at index b of balls living at slot b once syncStore has
+    //   run, so friction, gravity and moving all the balls are loops over arrays
+    private final BallStore store = new BallStore();
+    // a ball that is never on the board, moved about to see what a ball lies on, see isLyingStill
+    private final Ball probe = new Ball("probe", 0, 0, Vect.ZERO);
+    
+    // the id of the next board made
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+    
     // how often we update the velocities and positions of the Balls in the board
-    private static double DELTA = .001;
-    private static int BOARD_SIZE = 20;
+    static final double DELTA = .001;
+    // size of a board when the board file doesn't give one
+    public static final int DEFAULT_SIZE = 20;
+    // the biggest a board can be in either direction
+    public static final int MAX_SIZE = 1000;
+    // balls closer than this in time are colliding now
+    private static final double COLLISION_TIME = 0.000001;
+    private static final double BALL_RADIUS = 0.25;
+    // most collisions a ball has in one step of advance, it stops for the rest of the step if it has more
+    static final int MAX_IMPACTS = 32;
+    // a ball slower than this, in L/s, that lies on something for SLEEP_TIME seconds is put to sleep, see settle
+    private static final double SLEEP_SPEED = 1.0;
+    private static final double SLEEP_TIME = 0.5;
+    // a ball slower than this, in L/s, across the pull of gravity isn't rolling along what it lies on
+    private static final double ROLLING_SPEED = 0.05;
+    // how long an announced ball that came in waits for its BALL message, in seconds, before it is taken off
+    static final double ARRIVAL_TIMEOUT = 0.5;
+    // how far, in L and L/s, an announced ball can be from where its BALL message puts it and still be left alone
+    private static final double HANDOFF_TOLERANCE = 0.5;
+    // how close a ball has to be, in L, to what it lies on
+    private static final double RESTING_GAP = 0.05;
+    // how far ahead, in seconds, and at most how far away, in L, the clearance of a ball is looked for
+    private static final double CLEAR_LOOKAHEAD = 0.1;
+    private static final double CLEAR_REACH = 2;
+    // how much closer, in L, a clearance takes everything to be, for rounding in where the balls are
+    private static final double CLEAR_SLACK = 1e-9;
+    // how long ago, in seconds, a clearance has to have been found to be looked for again just because it is short
+    private static final double CLEAR_RETRY = 0.025;
+    // what a ball collides with, see nextImpact
+    private static final int NOTHING = -1;
+    private static final int WALL = 0;
+    private static final int GADGET = 1;
+    private static final int BALL = 2;
     
     /**
      * Construct a new 20 by 20 board
@@ -107,23 +235,89 @@ public class Board {
      * @author sdrammis
      */
     public Board(List<Gadget> gadgets, List<Ball> balls, String name, double gravity, double mu, double mu2) {
+        this(gadgets, balls, name, gravity, mu, mu2, DEFAULT_SIZE, DEFAULT_SIZE);
+    }
+    
+    /**
+     * Construct a new width by height board
+     * 
+     * @param gadgets the gadgets to be placed on the board, they must fit inside the board
+     * @param balls the balls for the board
+     * @param name the board's name as given by the user not null
+     * @param gravity the amount of gravity in the board
+     * @param mu friction1
+     * @param mu2 friction2
+     * @param width width of the board in L, 0 < width <= MAX_SIZE
+     * @param height height of the board in L, 0 < height <= MAX_SIZE
+     * 
+     * @author sdrammis
+     */
+    public Board(List<Gadget> gadgets, List<Ball> balls, String name, double gravity, double mu, double mu2,
+            int width, int height) {
+        if (width <= 0 || height <= 0 || width > MAX_SIZE || height > MAX_SIZE) {
+            throw new IllegalArgumentException("board must be between 1 by 1 and " + MAX_SIZE + " by " + MAX_SIZE 
+                    + ", got " + width + " by " + height);
+        }
+        this.width = width;
+        this.height = height;
+        
+        //create the walls just outside the board
+        double left = -0.01, top = -0.01, right = width + 0.01, bottom = height + 0.01;
+        this.topWall = new OuterWall(new Vect(left, top), new Vect(right, top), width, height);
+        this.bottomWall = new OuterWall(new Vect(left, bottom), new Vect(right, bottom), width, height);
+        this.leftWall = new OuterWall(new Vect(left, top), new Vect(left, bottom), width, height);
+        this.rightWall = new OuterWall(new Vect(right, top), new Vect(right, bottom), width, height);
+        this.walls = new ArrayList<OuterWall>(Arrays.asList(topWall, bottomWall, leftWall, rightWall));
+        for (OuterWall wall : this.walls) {
+            this.departures.put(wall.getName(), new ArrayList<Ball>());
+        }
+        
+        //add in the corners
+        this.corners = new ArrayList<Circle>(Arrays.asList(new Circle(left, top, 0), new Circle(right, top, 0), 
+                new Circle(left, bottom, 0), new Circle(right, bottom, 0)));
+        
         //create the gadgets array
         this.gadgets = gadgets;
+        this.grid = new SpatialGrid(width, height);
+        this.staticLayer = new char[height][width];
+        List<Gadget> flippers = new ArrayList<Gadget>();
+        List<Gadget> absorbers = new ArrayList<Gadget>();
+        for (int i = 0; i < gadgets.size(); i++) {
+            Gadget gadget = gadgets.get(i);
+            this.grid.addGadget(i, gadget.getX(), gadget.getY(), gadget.getWidth(), gadget.getHeight());
+            if (gadget.getKind().isFlipper()) {
+                flippers.add(gadget);
+            } else {
+                drawGadget(this.staticLayer, gadget);
+            }
+            if (gadget.getKind() == GadgetKind.ABSORBER) { absorbers.add(gadget); }
+        }
+        this.flippers = flippers.toArray(new Gadget[flippers.size()]);
+        this.absorbers = absorbers.toArray(new Gadget[absorbers.size()]);
+        this.flipperLayout = new int[4 * this.flippers.length];
+        for (int f = 0; f < this.flippers.length; f++) {
+            Gadget flipper = this.flippers[f];
+            this.flipperLayout[4 * f] = flipper.getKind() == GadgetKind.LEFT_FLIPPER ? 0 : 1;
+            this.flipperLayout[4 * f + 1] = (int) flipper.getX();
+            this.flipperLayout[4 * f + 2] = (int) flipper.getY();
+            this.flipperLayout[4 * f + 3] = flipper.getOrientation();
+        }
+        this.absorberLayout = new int[4 * this.absorbers.length];
+        for (int a = 0; a < this.absorbers.length; a++) {
+            Gadget absorber = this.absorbers[a];
+            this.absorberLayout[4 * a] = (int) absorber.getX();
+            this.absorberLayout[4 * a + 1] = (int) absorber.getY();
+            this.absorberLayout[4 * a + 2] = absorber.getWidth();
+            this.absorberLayout[4 * a + 3] = absorber.getHeight();
+        }
         
         //initialize the rest of the inputs
-        this.balls = Collections.synchronizedList(balls);
+        this.balls = balls;
         this.gravity = gravity;
         this.mu = mu;
         this.mu2 = mu2; 
         this.name = name;
-
-        
-        //initialize the inner board
-        for (int x = 0; x < BOARD_SIZE; x++) {
-            for (int y = 0; y < BOARD_SIZE; y++) {
-                board[y][x] = " ";
-            }
-        }
+        this.id = NEXT_ID.getAndIncrement();
     }
     
     /**
@@ -135,159 +329,170 @@ public class Board {
      * Implemented by: asolei
      */
     private String topBottomString(boolean invisible, String topOrBottom){
-        String wallString = new String();
+        StringBuilder wallString = new StringBuilder();
         if (invisible) {
             String neighbor = neighbors.get(topOrBottom);
-            if (neighbor.length() < 20) {
-                int remainder = 22 - neighbor.length();
-                if ((remainder % 2) == 0){
-                    int dots = remainder / 2;
-                    for (int i=0; i < dots; i++){
-                        wallString += ".";
-                    } wallString += neighbor;
-                    for (int i=0; i < dots; i++){
-                        wallString += ".";
-                    } wallString += "\n";
-                } else {
-                    int dotsFront = (remainder - 1)/2;
-                    int dotsBack = (remainder + 1)/2;
-                    for (int i=0; i < dotsFront; i++){
-                        wallString += ".";
-                    } wallString += neighbor;
-                    for (int i=0; i < dotsBack; i++){
-                        wallString += ".";
-                    } wallString += "\n";
-                }
+            if (neighbor.length() < width) {
+                int remainder = width + 2 - neighbor.length();
+                int dotsFront = remainder / 2;
+                int dotsBack = remainder - dotsFront;
+                for (int i=0; i < dotsFront; i++){
+                    wallString.append('.');
+                } wallString.append(neighbor);
+                for (int i=0; i < dotsBack; i++){
+                    wallString.append('.');
+                } wallString.append('\n');
             } else {
-                wallString += "." + neighbor.substring(0, 20) + ".\n";
+                wallString.append('.').append(neighbor.substring(0, width)).append(".\n");
             }
         } else {
-            for (int i = -1; i < 21; i++) {
-                wallString += ".";
-            } wallString += "\n";
-        } return wallString;
+            for (int i = -1; i < width + 1; i++) {
+                wallString.append('.');
+            } wallString.append('\n');
+        } return wallString.toString();
     }
     
     /**
      * Create string representation of the left or right wall
      * @param invisible whether the specified wall is invisible
      * @param leftOrRight "L" or "R"
-     * @return String representation of the specified wall
+     * @return String representation of the specified wall, one entry per row
      * @author asolei
      * Implemented by: asolei
      */
     private String[] leftRightString(boolean invisible, String leftOrRight){
-        ArrayList<String> wallList = new ArrayList<String>();
+        String[] wallArray = new String[height];
+        Arrays.fill(wallArray, ".");
         if (invisible){
             String neighbor = neighbors.get(leftOrRight);
-            if (neighbor.length() < 20){
-                int remainder = 20 - neighbor.length();
-                if ((remainder % 2) == 0){
-                    int dots = remainder / 2;
-                    for (int i=0; i<dots; i++){
-                        wallList.add(".");
-                    } for (int i=0; i<neighbor.length(); i++){
-                        wallList.add(Character.toString(neighbor.charAt(i)));
-                    } for (int i=0; i<dots; i++){
-                        wallList.add(".");
-                    }
-                } else {
-                    int dotsAbove = (remainder - 1)/2;
-                    int dotsBelow = (remainder + 1)/2;
-                    for (int i=0; i<dotsAbove; i++){
-                        wallList.add(".");
-                    } for (int i=0; i<neighbor.length(); i++){
-                        wallList.add(Character.toString(neighbor.charAt(i)));
-                    } for (int i=0; i<dotsBelow; i++){
-                        wallList.add(".");
-                    }
-                }
-            } else {
-                String neighborSubstring = neighbor.substring(0, 20);
-                for (int i=0; i<20; i++){
-                    wallList.add(Character.toString(neighborSubstring.charAt(i)));
-                }
-            }
-        } else {
-            for (int i=0; i<20; i++){
-                wallList.add(".");
+            int shown = Math.min(neighbor.length(), height);
+            int dotsAbove = (height - shown) / 2;
+            for (int i=0; i<shown; i++){
+                wallArray[dotsAbove + i] = Character.toString(neighbor.charAt(i));
             }
-        } String[] wallArray = wallList.toArray(new String[wallList.size()]);
-        assert (wallArray.length == 20);
+        }
+        assert (wallArray.length == height);
         return wallArray;
     }
     
     /**
-     * Adjusts the display of the Board according to the movement of Balls and Flippers within the Board. 
+     * Draw a gadget that always looks the same, anything but a flipper
      * 
+     * @param layer row by column, filled with what the gadget draws. Entries where it draws nothing are left alone.
+     * @param gadget a gadget that is not a flipper
      * @author asolei
      * Implemented by: sdrammis
      */
-    private void updateBoardDisplay() {
-        //initialize the inner board
-        for (int x = 0; x < 20; x++) {
-            for (int y = 0; y < 20; y++) {
-                board[y][x] = " ";
+    private static void drawGadget(char[][] layer, Gadget gadget) {
+        //an absorber fills its whole bounding box
+        if (gadget.getKind() == GadgetKind.ABSORBER) { 
+            int width = gadget.getWidth();
+            int height = gadget.getHeight();
+            int y = (int) gadget.getY();
+            int x = (int) gadget.getX();
+            for (int r = y; r < y + height; r ++) {
+                for (int c = x; c < x + width; c ++) {
+                    layer[r][c] = '=';
+                }
             }
+        } else { //not a flipper or absorber so use normal toString()
+            layer[(int) gadget.getY()][(int) gadget.getX()] = gadget.toString().charAt(0);
         }
-        // add in the balls
-        for (Ball ball : this.balls) {
-            if ( ball.getInAbsorber() ) { continue; }
-            int y = (int) Math.floor(ball.getY());
-            int x = (int) Math.floor(ball.getX());
-            //if the ball reaches the end or an area before a wall, print it inside the board still
-            if ( y >= BOARD_SIZE ) { y = BOARD_SIZE - 1; }
-            if ( x >= BOARD_SIZE ) { x = BOARD_SIZE - 1; }
-            this.board[y][x] = "*";
+    }
+    
+    /**
+     * Draw a flipper where it is now. A flipper blanks out its whole 2x2 bounding box, so balls inside it are hidden.
+     * 
+     * @param flipper a flipper on the board
+     * @param cells filled with the 4 cells of the bounding box starting at index at, as row * width + column
+     * @param chars filled with what is drawn in each of the cells
+     * @param at where to start in cells and chars
+     * @author asolei
+     * Implemented by: sdrammis
+     */
+    private void drawFlipper(Gadget flipper, int[] cells, char[] chars, int at) {
+        //top left, top right, bottom left, bottom right
+        char topLeft = ' ', topRight = ' ', bottomLeft = ' ', bottomRight = ' ';
+        switch (flipper.getKind().flipperSide(flipper.getOrientation(), flipper.isFlipped())) {
+            case 'R':
+                topRight = '|';
+                bottomRight = '|';
+                break;
+            case 'L':
+                topLeft = '|';
+                bottomLeft = '|';
+                break;
+            case 'T':
+                topLeft = '-';
+                topRight = '-';
+                break;
+            case 'B':
+                bottomLeft = '-';
+                bottomRight = '-';
+                break;
+        }
+        int top = (int) flipper.getY() * width + (int) flipper.getX();
+        cells[at] = top;
+        cells[at + 1] = top + 1;
+        cells[at + 2] = top + width;
+        cells[at + 3] = top + width + 1;
+        chars[at] = topLeft;
+        chars[at + 1] = topRight;
+        chars[at + 2] = bottomLeft;
+        chars[at + 3] = bottomRight;
+    }
+    
+    /**
+     * Take an immutable picture of everything that is drawn for the board: the gadgets, the balls that are not
+     * in an absorber, and the walls, along with how far each flipper has turned and how many balls each absorber
+     * holds. Must be called by the thread that plays the board. The snapshot can then be
+     * drawn by any thread.
+     * 
+     * Only what can change is copied, so taking a snapshot does not depend on the area of the board: the gadgets 
+     * that always look the same are drawn once when the board is made and shared by every snapshot.
+     * 
+     * @return snapshot of the board
+     * @author asolei
+     * Implemented by: asolei
+     */
+    public BoardSnapshot snapshot() {
+        int[] overlayCells = new int[4 * this.flippers.length];
+        char[] overlayChars = new char[4 * this.flippers.length];
+        double[] flipperAngles = new double[this.flippers.length];
+        for (int f = 0; f < this.flippers.length; f++) {
+            drawFlipper(this.flippers[f], overlayCells, overlayChars, 4 * f);
+            flipperAngles[f] = this.flippers[f].getAngle();
+        }
+        int[] absorberBalls = new int[this.absorbers.length];
+        for (int a = 0; a < this.absorbers.length; a++) {
+            absorberBalls[a] = this.absorbers[a].getBallsHeld();
         }
         
-        // add in the gadgets
-        for (Gadget gadget : this.gadgets) {
-            String gadgetToString = gadget.toString();
-            
-            //first check if the gadget is a absorber (ie contains ABS)
-            //if so add the absorber to the board
-            if (gadgetToString.contains("ABS")) { //ABS width height -- is what toString is for absorber
-                String[] absSplit = gadgetToString.split("\\s+");
-                int width = Integer.parseInt(absSplit[1]);
-                int height = Integer.parseInt(absSplit[2]);
-
-                int y = (int) gadget.getY();
-                int x = (int) gadget.getX();
-                for (int r = y; r < y + height; r ++) {
-                    for (int c = x; c < x + width; c ++) {
-                        this.board[r][c] = "=";
-                    }
-                }
-            } else {
-
-                switch (gadgetToString) {
-                    case "FLIPPER | R":
-                        removeFlipper(gadget);
-                        this.board[(int) gadget.getY()][(int) gadget.getX() + 1] = "|";
-                        this.board[(int) gadget.getY() + 1][(int) gadget.getX() + 1] = "|";
-                        break;
-                    case "FLIPPER | L":
-                        removeFlipper(gadget);
-                        this.board[(int) gadget.getY()][(int) gadget.getX()] = "|";
-                        this.board[(int) gadget.getY() + 1][(int) gadget.getX()] = "|";
-                        break;
-                    case "FLIPPER - T":
-                        removeFlipper(gadget);
-                        this.board[(int) gadget.getY()][(int) gadget.getX()] = "-";
-                        this.board[(int) gadget.getY()][(int) gadget.getX() + 1] = "-";
-                        break;
-                    case "FLIPPER - B":  
-                        removeFlipper(gadget);
-                        this.board[(int) gadget.getY() + 1][(int) gadget.getX()] = "-";
-                        this.board[(int) gadget.getY() + 1][(int) gadget.getX() + 1] = "-";
-                        break;
-                    default: //not a flipper or absorber so use normal toString()
-                        this.board[(int) gadget.getY()][(int) gadget.getX()] = gadget.toString();
-                        break;
-                }
-            }
+        int count = 0;
+        for (Ball ball : this.balls) {
+            if ( !ball.getInAbsorber() ) { count++; }
+        }
+        double[] ballX = new double[count];
+        double[] ballY = new double[count];
+        double[] ballXVel = new double[count];
+        double[] ballYVel = new double[count];
+        int[] ballIds = new int[count];
+        int i = 0;
+        for (Ball ball : this.balls) {
+            if ( ball.getInAbsorber() ) { continue; }
+            ballIds[i] = ball.getId();
+            ballX[i] = ball.getX();
+            ballY[i] = ball.getY();
+            //a sleeping ball keeps its velocity, but it isn't moving
+            ballXVel[i] = ball.getAsleep() ? 0 : ball.getVelocityX();
+            ballYVel[i] = ball.getAsleep() ? 0 : ball.getVelocityY();
+            i++;
         }
+        return new BoardSnapshot(width, height, staticLayer, overlayCells, overlayChars, 
+                ballIds, ballX, ballY, ballXVel, ballYVel,
+                flipperLayout, flipperAngles, absorberLayout, absorberBalls,
+                topBottomString(topWall.isInvisible(), "T"), topBottomString(bottomWall.isInvisible(), "B"),
+                leftRightString(leftWall.isInvisible(), "L"), leftRightString(rightWall.isInvisible(), "R"));
     }
     
     /**
@@ -299,31 +504,7 @@ public class Board {
      */
     @Override
     public String toString() {
-        updateBoardDisplay();
-        String boardToString = new String();
-        
-        // make the top wall
-        boardToString += topBottomString(topWall.isInvisible(), "T");
-
-        // create the inner board space, and the left and right wall
-        // get the left wall String array
-        String[] leftWallArray = leftRightString(leftWall.isInvisible(), "L");
-        // get the right wall String array
-        String[] rightWallArray = leftRightString(rightWall.isInvisible(), "R");
-        
-        for (int x = 0; x < 20; x++) {
-            boardToString += leftWallArray[x];
-            for (int y = 0; y < 20; y++) {
-                boardToString += board[x][y];
-            }
-            boardToString += rightWallArray[x];
-            boardToString += "\n";
-        }
-        
-        // make the bottom wall
-        boardToString += topBottomString(bottomWall.isInvisible(), "B");
-        
-        return boardToString;
+        return snapshot().toString();
     }
     
     
@@ -336,46 +517,30 @@ public class Board {
      * Implemented by: sdrammis
      */
     public void newBallPositions(double time){  
-        for (Ball ball : this.balls) {
-            if (ball.getInAbsorber()) { continue; }
-            updateBall(ball, time); 
-        }
-    }
-    
-    /**
-     * Update the velocity and position of a ball according to the friction values and gravity of the board. 
-     * @param time an interval of time. If this value is less than DELTA, 
-     *      we will simulate movement for this value. If this value is greater than DELTA we will simulate movement
-     *      for DELTA. 
-     * @param ball ball that we want to move
-     * @author asolei
-     * Implemented by: asolei
-     */
-    private void updateBall(Ball ball, double time){
+        //the balls move for time, but never for more than DELTA
         double updateTime = DELTA;
         if (time < DELTA){
             updateTime = time;
         }
-        double newXVect = (ball.getVelocity().x() * (1 - (mu*updateTime) - (mu2 * ball.getSpeed() * updateTime))); 
-        double newYVect = (ball.getVelocity().y() * (1 - (mu*updateTime) - (mu2 * ball.getSpeed() * updateTime)) + (gravity * updateTime)); 
-        Vect newVel = new Vect(newXVect, newYVect);
-        double newX = ball.getX() + updateTime * newXVect;
-        double newY = ball.getY() + updateTime * newYVect;
-        ball.setVelocity(newVel);
-        ball.setCoord(newX, newY);
+        syncStore();
+        this.store.accelerate(updateTime, gravity, mu, mu2);
+        this.store.move(updateTime);
+        this.moved += updateTime;
     }
     
     /**
-     * Removes the display of a Flipper from it's position in the Board display
-     * @param gadget a Flipper
-     * @author asolei
-     * Implemented by: sdrammis
+     * Make the ball at every index of the list of balls live at the same slot of the board's store, so the store 
+     * can move them all at once. A ball that was not there before is copied in, and the slots past the last ball 
+     * are let go.
      */
-    private void removeFlipper(Gadget gadget) {
-        this.board[(int) gadget.getY()][(int) gadget.getX()] = " ";
-        this.board[(int) gadget.getY()][(int) gadget.getX() + 1] = " ";
-        this.board[(int) gadget.getY() + 1][(int) gadget.getX()] = " ";
-        this.board[(int) gadget.getY() + 1][(int) gadget.getX() + 1] = " ";
+    private void syncStore() {
+        for (int b = 0; b < this.balls.size(); b++) {
+            Ball ball = this.balls.get(b);
+            if (!this.store.holds(b, ball)) {
+                this.store.put(b, ball);
+            }
+        }
+        this.store.truncate(this.balls.size());
     }
     
     /**
@@ -384,10 +549,281 @@ public class Board {
      * @author asolei
      * Implemented by: asolei
      */
-    public synchronized void addBall(Ball ball) {
+    public void addBall(Ball ball) {
+        balls.add(ball);
+    }
+    
+    /**
+     * Add a new ball that was sent over from another board, possibly of a different size
+     * @param name name of the ball
+     * @param x x coordinate of the center of the ball
+     * @param y y coordinate of the center of the ball
+     * @param xVel x velocity of the ball
+     * @param yVel y velocity of the ball
+     * @author sdrammis
+     */
+    void addBall(String name, double x, double y, double xVel, double yVel) {
+        addBall(name, x, y, xVel, yVel, 0);
+    }
+    
+    /**
+     * Add a new ball that was sent over from another board some time after it crossed between the boards.
+     * The ball is moved on for that time, under gravity but past nothing on the board, so it is where it would be 
+     * if the boards were one. A ball that was announced and is on the board already is left where it is, unless 
+     * it came in somewhere else.
+     * 
+     * @param name name of the ball
+     * @param x x coordinate of the center of the ball as it crossed
+     * @param y y coordinate of the center of the ball as it crossed
+     * @param xVel x velocity of the ball as it crossed
+     * @param yVel y velocity of the ball as it crossed
+     * @param age seconds since the ball crossed, >= 0
+     * @author sdrammis
+     */
+    void addBall(String name, double x, double y, double xVel, double yVel, double age) {
+        addBall(name, Ball.NO_KEY, x, y, xVel, yVel, age);
+    }
+    
+    /**
+     * Add a new ball that was sent over from another board some time after it crossed, as above, confirming the 
+     * announcement of the ball with the same key, see expectBall
+     * 
+     * @param name name of the ball
+     * @param key key of the ball on the board it was sent from, see Ball.getKey, or Ball.NO_KEY to confirm the
+     *      announcement of a ball with the same name and no key
+     * @param x x coordinate of the center of the ball as it crossed
+     * @param y y coordinate of the center of the ball as it crossed
+     * @param xVel x velocity of the ball as it crossed
+     * @param yVel y velocity of the ball as it crossed
+     * @param age seconds since the ball crossed, >= 0
+     * @author sdrammis
+     */
+    void addBall(String name, long key, double x, double y, double xVel, double yVel, double age) {
+        //a ball from a bigger board may arrive past our edge, move it inside the board
+        x = Math.max(0, Math.min(width - 1, x));
+        y = Math.max(0, Math.min(height - 1, y));
+        //the ball may have been announced, and may already be on the board
+        for (int a = 0; a < this.arrivals.size(); a++) {
+            Arrival arrival = this.arrivals.get(a);
+            if (arrival.key != key || (key == Ball.NO_KEY && !arrival.name.equals(name))) { continue; }
+            removeArrival(a);
+            if (arrival.ball == null) { break; }
+            //it came in when it was announced to, only move it if it came in somewhere else
+            Ball ball = arrival.ball;
+            if (Math.abs(arrival.x - x) + Math.abs(arrival.y - y) > HANDOFF_TOLERANCE
+                    || Math.abs(arrival.xVel - xVel) + Math.abs(arrival.yVel - yVel) > HANDOFF_TOLERANCE) {
+                int b = indexOf(ball);
+                if (b >= 0 && !ball.getInAbsorber()) {
+                    //without a stamp, it has been on the board since it was due
+                    placeAged(ball, x, y, xVel, yVel, age > 0 ? age : Math.max(0, this.clock - arrival.due));
+                    wake(ball);
+                }
+            }
+            return;
+        }
+        Ball ball = new Ball(name, x, y, new Vect(xVel, yVel));
+        placeAged(ball, x, y, xVel, yVel, age);
         balls.add(ball);
     }
     
+    /**
+     * Put a ball where it is some time after it was at a point, moving in a parabola under gravity, 
+     * and stopped at the edges of the board
+     * @param ball the ball to move
+     * @param x x coordinate of the ball at the point
+     * @param y y coordinate of the ball at the point
+     * @param xVel x velocity of the ball at the point
+     * @param yVel y velocity of the ball at the point
+     * @param age seconds since the ball was at the point, >= 0
+     */
+    private void placeAged(Ball ball, double x, double y, double xVel, double yVel, double age) {
+        ball.setCoord(Math.max(0, Math.min(width - 1, x + age * xVel)),
+                Math.max(0, Math.min(height - 1, y + age * yVel + 0.5 * this.gravity * age * age)));
+        ball.setVelocity(new Vect(xVel, yVel + this.gravity * age));
+    }
+    
+    /**
+     * Get how long ago a ball that left through an invisible wall in the last step left, so its neighbor can 
+     * move it on for that long, see addBall
+     * @param ball a ball in the map the last step returned
+     * @return seconds before the end of the step the ball left, 0 for steps of handleCollisions or other balls
+     * @author sdrammis
+     */
+    public double getTimeSinceDeparture(Ball ball) {
+        for (int i = 0; i < this.leftCount; i++) {
+            if (this.leftBalls[i] == ball) { return this.leftAgo[i]; }
+        }
+        return 0;
+    }
+    
+    /**
+     * Expect a ball that a neighbor announced before it left the neighbor, see predictDepartures.
+     * advance puts the ball in when it is due, moved on for however late it comes in, so it crosses between the
+     * boards when it would have if the boards were one. The ball's own BALL message still comes: if it puts the 
+     * ball somewhere else the ball is moved there, and if it never comes within ARRIVAL_TIMEOUT the ball is taken
+     * off again. Boards played with handleCollisions only ever wait for the BALL message.
+     * 
+     * @param name name of the ball
+     * @param delay seconds of play from now until the ball comes in, may be < 0 if it is late already
+     * @param x x coordinate of the center of the ball as it comes in
+     * @param y y coordinate of the center of the ball as it comes in
+     * @param xVel x velocity of the ball as it comes in
+     * @param yVel y velocity of the ball as it comes in
+     * @author sdrammis
+     */
+    void expectBall(String name, double delay, double x, double y, double xVel, double yVel) {
+        expectBall(name, Ball.NO_KEY, delay, x, y, xVel, yVel);
+    }
+    
+    /**
+     * Expect a ball that a neighbor announced, as above. Only the BALL message sent with the same key confirms it: 
+     * names don't tell balls apart, two balls of the same name can be on their way at once.
+     * 
+     * @param name name of the ball
+     * @param key key of the ball on the neighbor, see Ball.getKey, or Ball.NO_KEY to be confirmed by name
+     * @param delay seconds of play from now until the ball comes in, may be < 0 if it is late already
+     * @param x x coordinate of the center of the ball as it comes in
+     * @param y y coordinate of the center of the ball as it comes in
+     * @param xVel x velocity of the ball as it comes in
+     * @param yVel y velocity of the ball as it comes in
+     * @author sdrammis
+     */
+    void expectBall(String name, long key, double delay, double x, double y, double xVel, double yVel) {
+        this.arrivals.add(new Arrival(name, key, this.clock + delay, Math.max(0, Math.min(width - 1, x)),
+                Math.max(0, Math.min(height - 1, y)), xVel, yVel));
+    }
+    
+    /**
+     * Announce the balls that will leave through an invisible wall within a lookahead, so the neighbors can put them
+     * in when they cross. A ball is announced if the first thing it will hit is an invisible wall, as advance 
+     * would find it, and it hasn't been announced already. The ball still leaves and is sent when it hits the wall.
+     * Must be called by the thread that plays the board, between steps of advance.
+     * 
+     * @param lookahead how far ahead to look, in seconds of play, > 0
+     * @return the balls newly found to leave within lookahead, where they will enter the neighbor. The list 
+     *      belongs to the board and is emptied by the next predictDepartures, so it has to be read before then.
+     * @author sdrammis
+     */
+    public List<Handoff> predictDepartures(double lookahead) {
+        List<Handoff> handoffs = this.handoffs;
+        handoffs.clear();
+        growImpacts();
+        Arrays.fill(this.impacts, 0, this.balls.size(), 0);
+        boolean indexed = false;
+        double maxSpeed = 0;
+        int[] target = this.target;
+        for (int b = 0; b < this.balls.size(); b++) {
+            Ball ball = this.balls.get(b);
+            if (ball.getInAbsorber() || ball.getAsleep()) { continue; }
+            //a ball that was announced and didn't leave can be announced again
+            if (this.announcedBall[b] == ball && this.announcedAt[b] >= this.clock) { continue; }
+            //only a ball about to reach an invisible wall needs the whole search
+            boolean near = false;
+            for (OuterWall wall : this.walls) {
+                if (wall.isInvisible() && wall.getTimeUntilCollision(ball) <= lookahead) { near = true; }
+            }
+            if (!near) { continue; }
+            if (!indexed) {
+                this.grid.indexBalls(this.balls);
+                maxSpeed = this.grid.getMaxBallSpeed();
+                indexed = true;
+            }
+            double delay = nextImpact(b, lookahead, maxSpeed, this.impacts, target);
+            if (target[0] != WALL || !this.walls.get(target[1]).isInvisible()) { continue; }
+            OuterWall wall = this.walls.get(target[1]);
+            Vect velocity = ball.getVelocity();
+            Ball entering = new Ball(ball.getName(), ball.getX() + delay * velocity.x(), 
+                    ball.getY() + delay * velocity.y(), velocity);
+            wall.reflectBall(entering, 0);
+            handoffs.add(new Handoff(ball.getName(), ball.getKey(), wall.getName(), delay, entering.getX(), entering.getY(), 
+                    velocity.x(), velocity.y()));
+            this.announcedBall[b] = ball;
+            this.announcedAt[b] = this.clock + delay;
+        }
+        return handoffs;
+    }
+    
+    /**
+     * Put in the announced balls that are due, and take off the ones that came in and were never confirmed
+     */
+    private void admitArrivals() {
+        int expiredCount = 0;
+        for (int a = 0; a < this.arrivals.size(); a++) {
+            Arrival arrival = this.arrivals.get(a);
+            if (arrival.ball == null && arrival.due <= this.clock) {
+                double late = this.clock - arrival.due;
+                arrival.ball = new Ball(arrival.name, Math.max(0, Math.min(width - 1, arrival.x + late * arrival.xVel)),
+                        Math.max(0, Math.min(height - 1, arrival.y + late * arrival.yVel)),
+                        new Vect(arrival.xVel, arrival.yVel));
+                this.balls.add(arrival.ball);
+            } else if (arrival.ball != null && this.clock - arrival.due > ARRIVAL_TIMEOUT) {
+                //the neighbor's guess was wrong, the ball never left it
+                if (expiredCount == this.expired.length) {
+                    this.expired = Arrays.copyOf(this.expired, 2 * expiredCount);
+                }
+                this.expired[expiredCount++] = arrival.ball;
+                removeArrival(a--);
+            }
+        }
+        if (expiredCount == 0) { return; }
+        //from the end, so a ball swapped into a place has been looked at already
+        for (int b = this.balls.size() - 1; b >= 0; b--) {
+            Ball ball = this.balls.get(b);
+            boolean isExpired = false;
+            for (int e = 0; e < expiredCount; e++) {
+                if (this.expired[e] == ball) { isExpired = true; break; }
+            }
+            if (!isExpired) { continue; }
+            if (ball.getAsleep()) { this.sleeping--; }
+            this.store.release(ball);
+            int last = this.balls.size() - 1;
+            this.balls.set(b, this.balls.get(last));
+            this.balls.remove(last);
+            if (last < this.cached.length) { moveSlot(last, b); }
+        }
+        Arrays.fill(this.expired, 0, expiredCount, null);
+    }
+    
+    /**
+     * Forget an arrival, moving the last one into its place
+     * @param a index of the arrival in arrivals
+     */
+    private void removeArrival(int a) {
+        int last = this.arrivals.size() - 1;
+        this.arrivals.set(a, this.arrivals.get(last));
+        this.arrivals.remove(last);
+    }
+    
+    /**
+     * Keep the announcement and the clearance of a ball that moved to another place in balls
+     * @param from where it was, < the length of the arrays
+     * @param to where it is now, <= from
+     */
+    private void moveSlot(int from, int to) {
+        this.announcedBall[to] = this.announcedBall[from];
+        this.announcedAt[to] = this.announcedAt[from];
+        this.announcedBall[from] = null;
+        this.clearBall[to] = this.clearBall[from];
+        this.clearFrom[to] = this.clearFrom[from];
+        this.clearUntil[to] = this.clearUntil[from];
+        this.clearX[to] = this.clearX[from];
+        this.clearY[to] = this.clearY[from];
+        this.clearSpeed[to] = this.clearSpeed[from];
+        this.clearBall[from] = null;
+    }
+    
+    /**
+     * Find a ball on the board, by identity rather than equals
+     * @param ball a ball
+     * @return its index in balls, -1 if it is not on the board
+     */
+    private int indexOf(Ball ball) {
+        for (int b = 0; b < this.balls.size(); b++) {
+            if (this.balls.get(b) == ball) { return b; }
+        }
+        return -1;
+    }
+    
     /**
      * Get the name of the neighboring Board joined at the specified wall of this
      * @param wall of this
@@ -407,7 +843,9 @@ public class Board {
      * @author sdrammis
      * Implemented by: sdrammis
      */
-    public synchronized void merge(String direction, String neighborBoardName) {
+    public void merge(String direction, String neighborBoardName) {
+        //balls lying on the wall fall through it now
+        wakeAll();
         for (OuterWall wall : this.walls) {
             if (wall.getName().equals(direction)) {
                 wall.changeInvisible(true);
@@ -425,7 +863,8 @@ public class Board {
      * @author sdrammis
      * Implemented by: sdrammis
      */
-    public synchronized void removeInvisibleWall(String direction) {
+    public void removeInvisibleWall(String direction) {
+        wakeAll();
         this.neighbors.remove(direction);
         switch (direction) {
             case "T":
@@ -451,6 +890,38 @@ public class Board {
         return this.name;
     }
     
+    /**
+     * Get the id of the board
+     * @return the id of the board, no other board made in this process has it
+     */
+    public int getId() {
+        return this.id;
+    }
+    
+    /**
+     * Get the width of the board
+     * @return width in L
+     */
+    public int getWidth() {
+        return this.width;
+    }
+    
+    /**
+     * Get the height of the board
+     * @return height in L
+     */
+    public int getHeight() {
+        return this.height;
+    }
+    
+    /**
+     * Get how many collisions the board has handled
+     * @return number of times a ball bounced off a wall, a gadget or another ball since the board was made
+     */
+    public long getCollisionCount() {
+        return this.collisions;
+    }
+    
     /**
      * Determines whether or not a given Object obj is observationally equal to this
      * Criterion for observational equality:
@@ -468,7 +939,7 @@ public class Board {
         if (! (obj instanceof Board)){
             return false;
         } Board other = (Board) obj;
-        boolean sameName = this.getName().equals(other.getName());
+        boolean sameName = this.name.equals(other.name);
         boolean sameGravity = this.gravity==other.gravity;
         boolean sameMu1 = this.mu==other.mu;
         boolean sameMu2 = this.mu2==other.mu2;
@@ -504,124 +975,761 @@ public class Board {
      * Implemented by: sdrammis
      */
     public double getMinTimeUntilCollision() {
-        double minTimeUntilCollision = Double.POSITIVE_INFINITY; //initialize minTime
-
-        // now we check all of the collisions
-        for (Ball ball : this.balls) {   
-            if (ball.getInAbsorber()) { continue; }
-            //check against all of the walls
-            for (OuterWall wall : this.walls) {
-                double timeUntilCollision = wall.getTimeUntilCollision(ball);
-                if (timeUntilCollision < minTimeUntilCollision) { 
-                    minTimeUntilCollision = timeUntilCollision;
-                }
-            }
-            //check all of the gadgets
-            for (Gadget gadget : this.gadgets) {
-                double timeUntilCollision = gadget.getTimeUntilCollision(ball);
-                if (timeUntilCollision < minTimeUntilCollision) { 
-                    minTimeUntilCollision = timeUntilCollision;
-                }
+        return getMinTimeUntilCollision(Double.POSITIVE_INFINITY);
+    }
+    
+    /**
+     * Calculate the minimum time until a collision occurs on a board, if one occurs soon enough.
+     * Each ball keeps how long it is clear of everything, see clearTime, so only the balls that are clear for less
+     * than the soonest collision found so far are looked at closely, starting with the one that is clear for the 
+     * least time. To find what it hits a ball only looks at the gadgets and the balls it could reach within the
+     * horizon, found with the grid, so on a big board most of the board is never looked at.
+     * 
+     * @param horizon how far ahead to look in seconds, > 0
+     * @return the minimum time for any sort of collision to occur on the board if it is less than horizon, 
+     *      otherwise some time >= horizon
+     * Implemented by: sdrammis
+     */
+    public double getMinTimeUntilCollision(double horizon) {
+        growImpacts();
+        this.grid.indexBalls(this.balls);
+        double maxSpeed = this.grid.getMaxBallSpeed();
+        int nearest = -1;
+        for (int b = 0; b < this.balls.size(); b++) {
+            Ball ball = this.balls.get(b);
+            if (ball.getInAbsorber() || ball.getAsleep()) { continue; }
+            double clear = clearTime(b, maxSpeed, 0);
+            if (nearest < 0 || clear < this.clearUntil[nearest] - this.moved) { nearest = b; }
+        }
+        if (nearest < 0) { return Double.POSITIVE_INFINITY; }
+        double minTimeUntilCollision = nextFixedImpact(nearest, horizon, this.target);
+        for (int b = 0; b < this.balls.size(); b++) {
+            Ball ball = this.balls.get(b);
+            //a ball that is clear for longer can't collide any sooner
+            this.near[b] = b == nearest || (!ball.getInAbsorber() && !ball.getAsleep()
+                    && this.clearUntil[b] - this.moved < minTimeUntilCollision 
+                    && clearTime(b, maxSpeed, minTimeUntilCollision) < minTimeUntilCollision);
+            if (this.near[b] && b != nearest) {
+                minTimeUntilCollision = Math.min(minTimeUntilCollision, 
+                        nextFixedImpact(b, minTimeUntilCollision, this.target));
             }
-            //check collisions will all other balls
-            for (Ball otherBall : this.balls) {
-                if ( !ball.equals(otherBall) ) {
-                    double timeUntilCollision = ball.getTimeUntilCollision(otherBall);
-                    if (timeUntilCollision < minTimeUntilCollision) { 
-                        minTimeUntilCollision = timeUntilCollision;
-                    }
-                }
+        }
+        //each pair of balls that could collide is solved once, if one of them is near
+        int pairs = this.sweep.sweep(this.balls, BALL_RADIUS, minTimeUntilCollision);
+        for (int p = 0; p < pairs; p++) {
+            int first = this.sweep.pairFirst(p);
+            int second = this.sweep.pairSecond(p);
+            if (!this.near[first] && !this.near[second]) { continue; }
+            double timeUntilCollision = this.balls.get(second).getTimeUntilCollision(this.balls.get(first));
+            if (timeUntilCollision < minTimeUntilCollision) {
+                minTimeUntilCollision = timeUntilCollision;
             }
         }
         return minTimeUntilCollision;
     }
     
+    /**
+     * Get how far from a ball's center something has to be looked for
+     * @param size how close it has to be to touch the ball when neither moves
+     * @param speed how fast the gap between them can close
+     * @param horizon how long to look ahead, may be infinite
+     * @return distance in L, infinite if the horizon is
+     */
+    private static double reach(double size, double speed, double horizon) {
+        if (Double.isInfinite(horizon)) { return Double.POSITIVE_INFINITY; }
+        return size + speed * horizon;
+    }
+    
     /**
      * Move all the Gadgets in the board according to the parameter time
      * @param time
      * @author asolei
      */
     public void newGadgetPositions(double time) {
-        for (Gadget gadget : this.gadgets){
-            gadget.move(time);
+        //only flippers move, the other gadgets would only check their rep again
+        for (int g = 0; g < this.gadgets.size(); g++) {
+            Gadget gadget = this.gadgets.get(g);
+            if (gadget.getKind().isFlipper()) { gadget.move(time); }
         }
     }
     
     /**
      * Handle all the collisions within the Board. Updates the positions of all the Balls in the Board, and determines
      *    which Balls are colliding with invisible walls and where they must be moved to. 
+     * A ball that touches several things bounces off a wall first, then the gadget and then the ball that come
+     *    first in the board's lists. A ball reflected straight into something else it touches is stopped, 
+     *    see unwedge.
      * @param time
      * @return map which maps a wall name to a List of Balls that are colliding with it if the wall is invisible.
      *    These Balls have a position which reflects where they will enter in the new Board they are moving to. 
+     *    The map and its lists belong to the board and are emptied by the next handleCollisions or advance,
+     *    so they have to be read before then.
      * Implemented by: sdrammis
      */
     public ConcurrentHashMap<String, List<Ball>> handleCollisions(double time) {
-        ConcurrentHashMap<String, List<Ball>> ballsToPass = new ConcurrentHashMap<String, List<Ball>>();
+        ConcurrentHashMap<String, List<Ball>> ballsToPass = clearDepartures();
+        //these steps aren't timed with the clock, announced balls are only put in by their BALL message
+        this.arrivals.clear();
+        this.sweep.sweep(this.balls, BALL_RADIUS, COLLISION_TIME);
         
         // itterate through the balls, if we a ball and something it collides with, handle it
         // and move to the next ball
         ballLoop:
-        for (Ball ball : this.balls) {
-            if (ball.getInAbsorber()) { 
+        for (int b = 0; b < this.balls.size(); b++) {
+            Ball ball = this.balls.get(b);
+            if (ball.getInAbsorber() || ball.getAsleep()) { 
                 continue; 
             }
             
             for (OuterWall wall : this.walls) {
-                ballsToPass.put(wall.getName(), new ArrayList<Ball>());
                 // if it is invisible add it to the balls to send 
-                if (wall.getTimeUntilCollision(ball) <=  0.000001 && wall.isInvisible()) {
+                if (wall.getTimeUntilCollision(ball) <=  COLLISION_TIME && wall.isInvisible()) {
                     //add it to the balls to pass
                     wall.reflectBall(ball, time); //get the new pos of the ball
-                    ballsToPass.get(wall.getName()).add(ball); //this gives the new position for the ball on the board
+                    forgetClearance(b);
+                    depart(wall, b, 0); //this gives the new position for the ball on the board
                     continue ballLoop;
-                } else if (wall.getTimeUntilCollision(ball) <=  0.000001) { //otherwise just reflect
+                } else if (wall.getTimeUntilCollision(ball) <=  COLLISION_TIME) { //otherwise just reflect
                     wall.reflectBall(ball, time);
+                    forgetClearance(b);
+                    this.collisions++;
+                    unwedge(b);
                     continue ballLoop;
                 }
             }
         
-            for (Gadget gadget : this.gadgets) {
-                if (gadget.getTimeUntilCollision(ball) <=  0.000001) {
-                        gadget.reflectBall(ball, time);
-                        continue ballLoop;
+            //the first gadget in the list that the ball touches
+            int first = Integer.MAX_VALUE;
+            double reach = reach(BALL_RADIUS, ball.getSpeed(), COLLISION_TIME);
+            for (int row = grid.row(ball.getY() - reach); row <= grid.row(ball.getY() + reach); row++) {
+                for (int column = grid.column(ball.getX() - reach); column <= grid.column(ball.getX() + reach); column++) {
+                    for (int g : grid.gadgetsIn(row, column)) {
+                        if (g < first && this.gadgets.get(g).getTimeUntilCollision(ball) <= COLLISION_TIME) {
+                            first = g;
+                        }
+                    }
                 }
             }
+            if (first != Integer.MAX_VALUE) {
+                this.gadgets.get(first).reflectBall(ball, time);
+                wakeAround(this.gadgets.get(first));
+                forgetClearance(b);
+                this.collisions++;
+                unwedge(b);
+                continue ballLoop;
+            }
             
-            for (Ball otherBall : this.balls) {
-                if (otherBall != ball) {
-                    if (otherBall.getTimeUntilCollision(ball) <= 0.000001) {
-                        otherBall.reflect(ball);
-                        continue ballLoop;
-                    } 
+            //the first ball in the list that the ball touches, out of the ones the sweep found near it
+            for (int c = this.sweep.candidatesStart(b); c < this.sweep.candidatesEnd(b); c++) {
+                int o = this.sweep.candidate(c);
+                if (o < first && this.balls.get(o).getTimeUntilCollision(ball) <= COLLISION_TIME) {
+                    first = o;
                 }
             }
+            if (first != Integer.MAX_VALUE) {
+                this.balls.get(first).reflect(ball);
+                wake(this.balls.get(first));
+                forgetClearance(b);
+                forgetClearance(first);
+                this.collisions++;
+                unwedge(b);
+            }
         }
 
-        for (String wall : ballsToPass.keySet()) {
-            this.balls.removeAll(ballsToPass.get(wall));
+        removeDeparted();
+        settle(Math.min(time, DELTA));
+        
+        return ballsToPass;
+    }
+    
+    /**
+     * Stop a ball that was reflected off one thing straight into another one it touches, like a ball caught between
+     *    two bumpers. It would collide again without moving, over and over, and the board would never get past it.
+     *    Stopped, it is pulled out by gravity or knocked out by whatever hits it next.
+     * @param b index of the ball in balls, just reflected in handleCollisions
+     */
+    private void unwedge(int b) {
+        Ball ball = this.balls.get(b);
+        for (OuterWall wall : this.walls) {
+            if (wall.getTimeUntilCollision(ball) <= 0) {
+                ball.setVelocity(Vect.ZERO);
+                return;
+            }
+        }
+        for (int row = grid.row(ball.getY() - BALL_RADIUS); row <= grid.row(ball.getY() + BALL_RADIUS); row++) {
+            for (int column = grid.column(ball.getX() - BALL_RADIUS); column <= grid.column(ball.getX() + BALL_RADIUS); column++) {
+                for (int g : grid.gadgetsIn(row, column)) {
+                    if (this.gadgets.get(g).getTimeUntilCollision(ball) <= 0) {
+                        ball.setVelocity(Vect.ZERO);
+                        return;
+                    }
+                }
+            }
+        }
+        for (int c = this.sweep.candidatesStart(b); c < this.sweep.candidatesEnd(b); c++) {
+            if (this.balls.get(this.sweep.candidate(c)).getTimeUntilCollision(ball) <= 0) {
+                ball.setVelocity(Vect.ZERO);
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Move the board forward with continuous collision detection, instead of newBallPositions and handleCollisions.
+     * Each ball is sped up or slowed down by friction and gravity once for the whole step. Then all the balls are moved 
+     *    straight to the first collision on the board within the step, that collision is handled, and so on until the 
+     *    end of the step. So a fast ball can't pass through a gadget or another ball, and the step does not have to be
+     *    small. A ball that collides more than MAX_IMPACTS times in one step stops where it is for the rest of the step.
+     * What a ball hits is decided like in handleCollisions: a wall first, then the gadget and then the ball that come
+     *    first in the board's lists, if they would be hit at the same time. 
+     * A ball that is clear of everything for the whole step, see clearTime, hits nothing in it and is not looked at 
+     *    closely. The next impact of each other ball is kept from one collision to the next, since the other balls
+     *    keep moving the same way. It is only found again for the balls that collided, the balls that were going to 
+     *    hit them, and the balls that were launched or woken up.
+     * Gadgets should be moved for the step before the balls are, see newGadgetPositions.
+     * 
+     * @param time length of the step in seconds, > 0
+     * @return map which maps a wall name to a List of Balls that hit it during the step if the wall is invisible,
+     *    emptied by the next step like the one handleCollisions returns
+     * Implemented by: sdrammis
+     */
+    public ConcurrentHashMap<String, List<Ball>> advance(double time) {
+        ConcurrentHashMap<String, List<Ball>> ballsToPass = clearDepartures();
+        admitArrivals();
+        syncStore();
+        this.store.accelerate(time, gravity, mu, mu2);
+        //impacts[b] is how many times ball b has collided this step, MAX_IMPACTS once it has left the board
+        //the next impact of each ball, at impactAt[b] seconds into the step, with {impactKind[b], impactIndex[b]},
+        //  kept until ball b or the ball it is going to hit collides, see nextImpact
+        growImpacts();
+        int[] impacts = this.impacts;
+        double[] impactAt = this.impactAt;
+        int[] impactKind = this.impactKind;
+        int[] impactIndex = this.impactIndex;
+        boolean[] cached = this.cached;
+        Arrays.fill(impacts, 0, this.balls.size(), 0);
+        Arrays.fill(cached, 0, this.balls.size(), false);
+        this.grid.indexBalls(this.balls);
+        boolean indexed = true;
+        double maxSpeed = this.grid.getMaxBallSpeed();
+        int[] target = this.target;
+        for (int b = 0; b < this.balls.size(); b++) {
+            Ball ball = this.balls.get(b);
+            this.near[b] = false;
+            if (ball.getInAbsorber() || ball.getAsleep()) { continue; }
+            if (clearTime(b, maxSpeed, time) >= time) {
+                impactAt[b] = time;
+                target[0] = NOTHING;
+                target[1] = 0;
+            } else {
+                impactAt[b] = nextFixedImpact(b, time, target);
+                this.near[b] = true;
+            }
+            impactKind[b] = target[0];
+            impactIndex[b] = target[1];
+            cached[b] = true;
+        }
+        //the first impacts with other balls, each pair that could collide solved once if one of them is near
+        int pairs = this.sweep.sweep(this.balls, BALL_RADIUS, time);
+        for (int p = 0; p < pairs; p++) {
+            int first = this.sweep.pairFirst(p);
+            int second = this.sweep.pairSecond(p);
+            if (!this.near[first] && !this.near[second]) { continue; }
+            double timeUntilCollision = this.balls.get(second).getTimeUntilCollision(this.balls.get(first));
+            if (this.near[first]) { offerImpact(first, second, timeUntilCollision); }
+            if (this.near[second]) { offerImpact(second, first, timeUntilCollision); }
         }
+        double remaining = time;
+        while (remaining > 0) {
+            double elapsed = time - remaining;
+            //the first collision on the board
+            double soonest = remaining;
+            int first = -1;
+            for (int b = 0; b < this.balls.size(); b++) {
+                Ball ball = this.balls.get(b);
+                if (impacts[b] >= MAX_IMPACTS || ball.getInAbsorber() || ball.getAsleep()) {
+                    //it may be launched or woken up before the end of the step, and move some other way
+                    cached[b] = false;
+                    continue; 
+                }
+                if (!cached[b]) {
+                    if (!indexed) {
+                        this.grid.indexBalls(this.balls);
+                        maxSpeed = this.grid.getMaxBallSpeed();
+                        indexed = true;
+                    }
+                    impactAt[b] = elapsed + nextImpact(b, remaining, maxSpeed, impacts, target);
+                    impactKind[b] = target[0];
+                    impactIndex[b] = target[1];
+                    cached[b] = true;
+                }
+                if (impactKind[b] != NOTHING && impactAt[b] - elapsed < soonest) {
+                    soonest = impactAt[b] - elapsed;
+                    first = b;
+                }
+            }
+            
+            double move = Math.max(0, soonest);
+            this.store.move(move, impacts, MAX_IMPACTS);
+            remaining -= move;
+            if (first < 0) { break; }
+            
+            int firstKind = impactKind[first];
+            int firstIndex = impactIndex[first];
+            if (firstKind == BALL && firstIndex < first) {
+                //whichever of the two balls found the impact, the one that comes first in the list hits the other
+                firstIndex = first;
+                first = impactIndex[first];
+            }
+            Ball ball = this.balls.get(first);
+            //the balls that collide change velocity, so their impacts and the impacts of the balls going to hit them
+            //  have to be found again, the other impacts are still right
+            int other = firstKind == BALL ? firstIndex : first;
+            cached[first] = false;
+            cached[other] = false;
+            forgetClearance(first);
+            forgetClearance(other);
+            indexed = false;
+            for (int b = 0; b < this.balls.size(); b++) {
+                if (cached[b] && impactKind[b] == BALL && (impactIndex[b] == first || impactIndex[b] == other)) {
+                    cached[b] = false;
+                }
+            }
+            if (firstKind == WALL && this.walls.get(firstIndex).isInvisible()) {
+                OuterWall wall = this.walls.get(firstIndex);
+                wall.reflectBall(ball, time); //get the new pos of the ball
+                depart(wall, first, remaining);
+                impacts[first] = MAX_IMPACTS;
+                continue;
+            } else if (firstKind == WALL) {
+                this.walls.get(firstIndex).reflectBall(ball, time);
+            } else if (firstKind == GADGET) {
+                this.gadgets.get(firstIndex).reflectBall(ball, time);
+                wakeAround(this.gadgets.get(firstIndex));
+            } else {
+                this.balls.get(firstIndex).reflect(ball);
+                wake(this.balls.get(firstIndex));
+            }
+            impacts[first]++;
+            this.collisions++;
+        }
+
+        removeDeparted();
+        settle(time);
+        this.moved += time;
+        this.clock += time;
         
         return ballsToPass;
     }
     
+    /**
+     * Make another ball the next impact of a ball in advance, if it is hit first, like nextImpact would
+     * @param b index of the ball in balls
+     * @param o index of the other ball in balls
+     * @param at when they collide, in seconds from the start of the step
+     */
+    private void offerImpact(int b, int o, double at) {
+        if (at < this.impactAt[b] || (at == this.impactAt[b] && this.impactKind[b] == BALL && o < this.impactIndex[b])) {
+            this.impactAt[b] = at;
+            this.impactKind[b] = BALL;
+            this.impactIndex[b] = o;
+        }
+    }
+    
+    /**
+     * Make the arrays advance keeps about each ball big enough for every ball on the board, keeping the clearances
+     */
+    private void growImpacts() {
+        if (this.impacts.length < this.balls.size()) {
+            int capacity = Math.max(this.balls.size(), 2 * this.impacts.length);
+            this.impacts = new int[capacity];
+            this.impactAt = Arrays.copyOf(this.impactAt, capacity);
+            this.impactKind = Arrays.copyOf(this.impactKind, capacity);
+            this.impactIndex = Arrays.copyOf(this.impactIndex, capacity);
+            this.cached = Arrays.copyOf(this.cached, capacity);
+            this.near = new boolean[capacity];
+            this.clearBall = Arrays.copyOf(this.clearBall, capacity);
+            this.clearFrom = Arrays.copyOf(this.clearFrom, capacity);
+            this.clearUntil = Arrays.copyOf(this.clearUntil, capacity);
+            this.clearX = Arrays.copyOf(this.clearX, capacity);
+            this.clearY = Arrays.copyOf(this.clearY, capacity);
+            this.clearSpeed = Arrays.copyOf(this.clearSpeed, capacity);
+            this.announcedBall = Arrays.copyOf(this.announcedBall, capacity);
+            this.announcedAt = Arrays.copyOf(this.announcedAt, capacity);
+        }
+    }
+    
+    /**
+     * Get how long a ball is clear of everything, so that it can't touch a wall, a gadget or another ball before 
+     *    then however it moves. It is kept from one step to the next, and only found again once it may be wrong, 
+     *    see isClear, or once it is shorter than wanted if it was found more than CLEAR_RETRY seconds ago.
+     * Needs the arrays to be big enough, see growImpacts, and the balls to be indexed in the grid.
+     * @param b index of the ball in balls, not in an absorber
+     * @param maxSpeed speed of the fastest ball on the board
+     * @param wanted how long the ball should be clear for, in seconds
+     * @return how many more seconds of moving the ball is clear for, maybe <= 0
+     */
+    private double clearTime(int b, double maxSpeed, double wanted) {
+        if (!isClear(b) || (this.clearUntil[b] - this.moved < wanted && this.moved - this.clearFrom[b] >= CLEAR_RETRY)) {
+            findClearance(b, maxSpeed);
+        }
+        return this.clearUntil[b] - this.moved;
+    }
+    
+    /**
+     * Check that the clearance kept for a ball is still right. It was found for the ball moving no faster than 
+     *    clearSpeed[b], which falling and friction can't take it past before it runs out, and for the other balls 
+     *    moving no faster than the fastest ball could then. A ball that collides forgets it, see forgetClearance, 
+     *    and any other ball that collides finds its own, which is right for the two of them. So it is only wrong 
+     *    once the ball is somewhere else in balls, is in an absorber, or has sped up or jumped some other way, 
+     *    like when it is launched or put back on the board.
+     * @param b index of the ball in balls, < the length of the arrays
+     * @return whether the clearance kept for the ball is right
+     */
+    private boolean isClear(int b) {
+        Ball ball = this.balls.get(b);
+        if (this.clearBall[b] != ball || ball.getInAbsorber()) { return false; }
+        double speed = this.clearSpeed[b];
+        double since = this.moved - this.clearFrom[b];
+        return ball.getSpeed() <= speed + CLEAR_SLACK
+                && Math.hypot(ball.getX() - this.clearX[b], ball.getY() - this.clearY[b]) <= speed * since + CLEAR_SLACK;
+    }
+    
+    /**
+     * Find how long a ball is clear of everything, from the walls and the bounding boxes of the gadgets within
+     *    CLEAR_REACH of it, and from the balls that could get to it, see clearTime.
+     * @param b index of the ball in balls, not in an absorber
+     * @param maxSpeed speed of the fastest ball on the board, with the balls indexed in the grid
+     */
+    private void findClearance(int b, double maxSpeed) {
+        Ball ball = this.balls.get(b);
+        double x = ball.getX();
+        double y = ball.getY();
+        double gravity = Math.abs(this.gravity);
+        double lookahead = Math.min(CLEAR_LOOKAHEAD, 
+                CLEAR_REACH / (ball.getSpeed() + maxSpeed + 2 * gravity * CLEAR_LOOKAHEAD));
+        //how fast the ball and the other balls can go until then
+        double speed = ball.getSpeed() + gravity * lookahead;
+        double others = maxSpeed + gravity * lookahead;
+        double room = Math.min(Math.min(x, this.width - x), Math.min(y, this.height - y)) + 0.01;
+        double reach = BALL_RADIUS + speed * lookahead;
+        for (int row = grid.row(y - reach); row <= grid.row(y + reach); row++) {
+            for (int column = grid.column(x - reach); column <= grid.column(x + reach); column++) {
+                for (int g : grid.gadgetsIn(row, column)) {
+                    Gadget gadget = this.gadgets.get(g);
+                    double xGap = Math.max(gadget.getX() - x, x - gadget.getX() - gadget.getWidth());
+                    double yGap = Math.max(gadget.getY() - y, y - gadget.getY() - gadget.getHeight());
+                    room = Math.min(room, Math.hypot(Math.max(0, xGap), Math.max(0, yGap)));
+                }
+            }
+        }
+        double clear = Math.min(lookahead, clearFor(room - BALL_RADIUS, speed));
+        reach = 2 * BALL_RADIUS + (speed + others) * lookahead;
+        for (int row = grid.row(y - reach); row <= grid.row(y + reach); row++) {
+            for (int column = grid.column(x - reach); column <= grid.column(x + reach); column++) {
+                for (int o = grid.firstBall(row, column); o >= 0; o = grid.nextBall(o)) {
+                    if (o == b) { continue; }
+                    Ball near = this.balls.get(o);
+                    double gap = Math.hypot(near.getX() - x, near.getY() - y) - 2 * BALL_RADIUS;
+                    clear = Math.min(clear, clearFor(gap, speed + others));
+                }
+            }
+        }
+        this.clearBall[b] = ball;
+        this.clearFrom[b] = this.moved;
+        this.clearUntil[b] = this.moved + clear;
+        this.clearX[b] = x;
+        this.clearY[b] = y;
+        this.clearSpeed[b] = speed;
+        this.searches++;
+    }
+    
+    /**
+     * Get how long it takes to close a gap
+     * @param gap distance in L
+     * @param speed how fast the gap can close, >= 0
+     * @return time in seconds, 0 if there is no gap, infinite if it can't close
+     */
+    private static double clearFor(double gap, double speed) {
+        gap -= CLEAR_SLACK;
+        if (gap <= 0) { return 0; }
+        return gap / speed;
+    }
+    
+    /**
+     * Forget the clearance of a ball that collided, see isClear
+     * @param b index of the ball in balls
+     */
+    private void forgetClearance(int b) {
+        if (b < this.clearBall.length) { this.clearBall[b] = null; }
+    }
+    
+    /**
+     * Get how many times the surroundings of a ball were searched, for its clearance or for its next impact
+     * @return number of searches since the board was made
+     */
+    long getSearches() {
+        return this.searches;
+    }
+    
+    /**
+     * Empty the lists of balls that left through each wall, for a new step
+     * @return the map of wall names to the balls that left through them, all empty
+     */
+    private ConcurrentHashMap<String, List<Ball>> clearDepartures() {
+        for (List<Ball> left : this.departures.values()) {
+            left.clear();
+        }
+        this.departedCount = 0;
+        Arrays.fill(this.leftBalls, 0, this.leftCount, null);
+        this.leftCount = 0;
+        return this.departures;
+    }
+    
+    /**
+     * Note that a ball left the board through an invisible wall. It stays in balls until removeDeparted.
+     * @param wall the wall it left through
+     * @param b index of the ball in balls, not noted yet this step
+     * @param ago how long before the end of the step it left, in seconds, >= 0
+     */
+    private void depart(OuterWall wall, int b, double ago) {
+        Ball ball = this.balls.get(b);
+        this.departures.get(wall.getName()).add(ball);
+        if (this.departedCount == this.departed.length) {
+            this.departed = Arrays.copyOf(this.departed, 2 * this.departedCount);
+        }
+        this.departed[this.departedCount++] = b;
+        if (this.leftCount == this.leftBalls.length) {
+            this.leftBalls = Arrays.copyOf(this.leftBalls, 2 * this.leftCount);
+            this.leftAgo = Arrays.copyOf(this.leftAgo, 2 * this.leftCount);
+        }
+        this.leftBalls[this.leftCount] = ball;
+        this.leftAgo[this.leftCount++] = ago;
+    }
+    
+    /**
+     * Take the balls that left through an invisible wall off the board. Each one is swapped with the last ball and
+     * the last ball is taken off, so it takes the same time however many balls the board has, but the balls that 
+     * were last move to where the ones that left were.
+     */
+    private void removeDeparted() {
+        //from the last index to the first, so the last ball is never one that left
+        Arrays.sort(this.departed, 0, this.departedCount);
+        for (int d = this.departedCount - 1; d >= 0; d--) {
+            int last = this.balls.size() - 1;
+            this.store.release(this.balls.get(this.departed[d]));
+            this.balls.set(this.departed[d], this.balls.get(last));
+            this.balls.remove(last);
+            if (last < this.cached.length) { moveSlot(last, this.departed[d]); }
+        }
+        this.departedCount = 0;
+    }
+    
+    /**
+     * Put the balls that have been resting for SLEEP_TIME to sleep, after the balls have moved for time.
+     * A ball is resting while it is slower than SLEEP_SPEED and lies still on something that doesn't move, 
+     *    see isLyingStill. Sleeping balls keep their velocity, but are not moved or checked for collisions 
+     *    until they are woken up,
+     *    but other balls still collide with them.
+     * A sleeping ball is woken up when another ball hits it, when a gadget near it is hit or triggered,
+     *    and when a wall of the board is joined to or split from a neighbor, see wakeAround and wakeAll.
+     * @param time how long the balls have moved for since the last time, in seconds
+     */
+    private void settle(double time) {
+        for (Ball ball : this.balls) {
+            if (ball.getInAbsorber() || ball.getAsleep()) { continue; }
+            if (ball.getSpeed() >= SLEEP_SPEED || !isLyingStill(ball)) {
+                ball.setRestingTime(0);
+            } else if (ball.getRestingTime() + time >= SLEEP_TIME) {
+                ball.setAsleep(true);
+                this.sleeping++;
+            } else {
+                ball.setRestingTime(ball.getRestingTime() + time);
+            }
+        }
+    }
+    
+    /**
+     * Check whether a ball lies still on something that doesn't move: gravity holds it against a solid wall or 
+     *    a gadget other than a flipper within RESTING_GAP of the ball in the direction gravity pulls it, 
+     *    and it is slower than ROLLING_SPEED along it, so it only bounces on it.
+     *    Without gravity nothing holds a ball against anything, so no ball lies still. 
+     * @param ball ball on the board
+     * @return whether the ball would stay where it is if it stopped
+     */
+    private boolean isLyingStill(Ball ball) {
+        if (this.gravity == 0 || Math.abs(ball.getVelocityX()) >= ROLLING_SPEED) { return false; }
+        //a ball moving at 1L/s in the direction of gravity hits what it lies on within RESTING_GAP seconds
+        Ball probe = this.probe;
+        probe.setCoord(ball.getX(), ball.getY());
+        probe.setVelocity(0, Math.signum(this.gravity));
+        for (OuterWall wall : this.walls) {
+            if (!wall.isInvisible() && wall.getTimeUntilCollision(probe) < RESTING_GAP) { return true; }
+        }
+        double reach = BALL_RADIUS + RESTING_GAP;
+        for (int row = grid.row(ball.getY() - reach); row <= grid.row(ball.getY() + reach); row++) {
+            for (int column = grid.column(ball.getX() - reach); column <= grid.column(ball.getX() + reach); column++) {
+                for (int g : grid.gadgetsIn(row, column)) {
+                    Gadget gadget = this.gadgets.get(g);
+                    if (!gadget.getKind().isFlipper() && gadget.getTimeUntilCollision(probe) < RESTING_GAP) { return true; }
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Wake up the sleeping balls near a gadget that was hit, and near the gadgets it triggers
+     * @param gadget gadget on the board
+     */
+    private void wakeAround(Gadget gadget) {
+        if (this.sleeping == 0) { return; }
+        List<Gadget> triggers = gadget.getTriggers();
+        for (int b = 0; b < this.balls.size(); b++) {
+            Ball ball = this.balls.get(b);
+            if (!ball.getAsleep()) { continue; }
+            boolean near = isBeside(ball, gadget);
+            for (int t = 0; t < triggers.size() && !near; t++) {
+                near = isBeside(ball, triggers.get(t));
+            }
+            if (near) { wake(ball); }
+        }
+    }
+    
+    /**
+     * Check whether a ball is within 1L of the bounding box of a gadget
+     * @param ball ball on the board
+     * @param gadget gadget on the board
+     * @return whether the ball is beside the gadget
+     */
+    private static boolean isBeside(Ball ball, Gadget gadget) {
+        return ball.getX() >= gadget.getX() - 1 && ball.getX() <= gadget.getX() + gadget.getWidth() + 1
+                && ball.getY() >= gadget.getY() - 1 && ball.getY() <= gadget.getY() + gadget.getHeight() + 1;
+    }
+    
+    /**
+     * Wake up every sleeping ball on the board
+     */
+    private void wakeAll() {
+        for (Ball ball : this.balls) {
+            wake(ball);
+        }
+    }
+    
+    /**
+     * Wake up a ball if it is asleep
+     * @param ball ball on the board
+     */
+    private void wake(Ball ball) {
+        if (ball.getAsleep()) {
+            ball.setAsleep(false);
+            this.sleeping--;
+        }
+    }
+    
+    /**
+     * Check whether nothing on the board can move until a ball arrives from another board or a wall changes: 
+     *    every ball is asleep or in an absorber, and no announced ball is waiting to come in or to be confirmed.
+     * @return whether the board is resting
+     */
+    public boolean isResting() {
+        if (!this.arrivals.isEmpty()) { return false; }
+        for (Ball ball : this.balls) {
+            if (!ball.getInAbsorber() && !ball.getAsleep()) { return false; }
+        }
+        return true;
+    }
+    
+    /**
+     * Find the first thing a ball collides with, if it collides with anything soon enough
+     * @param b index of the ball in balls, not in an absorber
+     * @param horizon how far ahead to look in seconds, > 0
+     * @param maxSpeed speed of the fastest ball on the board
+     * @param impacts balls b with impacts[b] >= MAX_IMPACTS are left out
+     * @param target set to {WALL, index into walls}, {GADGET, index into gadgets}, {BALL, index into balls}
+     *      or {NOTHING, 0}
+     * @return time until the ball collides with target, or some time >= horizon if target is NOTHING
+     */
+    private double nextImpact(int b, double horizon, double maxSpeed, int[] impacts, int[] target) {
+        Ball ball = this.balls.get(b);
+        double soonest = nextFixedImpact(b, horizon, target);
+        if (target[0] != NOTHING) { horizon = soonest; }
+        double reach = reach(2 * BALL_RADIUS, ball.getSpeed() + maxSpeed, horizon);
+        for (int row = grid.row(ball.getY() - reach); row <= grid.row(ball.getY() + reach); row++) {
+            for (int column = grid.column(ball.getX() - reach); column <= grid.column(ball.getX() + reach); column++) {
+                for (int o = grid.firstBall(row, column); o >= 0; o = grid.nextBall(o)) {
+                    if (o == b || impacts[o] >= MAX_IMPACTS || this.balls.get(o).getInAbsorber()) { continue; }
+                    double timeUntilCollision = this.balls.get(o).getTimeUntilCollision(ball);
+                    if (timeUntilCollision < soonest 
+                            || (timeUntilCollision == soonest && target[0] == BALL && o < target[1])) {
+                        soonest = timeUntilCollision;
+                        target[0] = BALL;
+                        target[1] = o;
+                    }
+                }
+            }
+        }
+        return soonest;
+    }
+    
+    /**
+     * Find the first wall or gadget a ball collides with, if it collides with one soon enough
+     * @param b index of the ball in balls, not in an absorber
+     * @param horizon how far ahead to look in seconds, > 0
+     * @param target set to {WALL, index into walls}, {GADGET, index into gadgets} or {NOTHING, 0}
+     * @return time until the ball collides with target, or some time >= horizon if target is NOTHING
+     */
+    private double nextFixedImpact(int b, double horizon, int[] target) {
+        Ball ball = this.balls.get(b);
+        this.searches++;
+        double soonest = horizon;
+        target[0] = NOTHING;
+        target[1] = 0;
+        for (int w = 0; w < this.walls.size(); w++) {
+            double timeUntilCollision = this.walls.get(w).getTimeUntilCollision(ball);
+            if (timeUntilCollision < soonest) {
+                soonest = timeUntilCollision;
+                target[0] = WALL;
+                target[1] = w;
+            }
+        }
+        if (target[0] == WALL) { horizon = soonest; }
+        double reach = reach(BALL_RADIUS, ball.getSpeed(), horizon);
+        for (int row = grid.row(ball.getY() - reach); row <= grid.row(ball.getY() + reach); row++) {
+            for (int column = grid.column(ball.getX() - reach); column <= grid.column(ball.getX() + reach); column++) {
+                for (int g : grid.gadgetsIn(row, column)) {
+                    double timeUntilCollision = this.gadgets.get(g).getTimeUntilCollision(ball);
+                    if (timeUntilCollision < soonest 
+                            || (timeUntilCollision == soonest && target[0] == GADGET && g < target[1])) {
+                        soonest = timeUntilCollision;
+                        target[0] = GADGET;
+                        target[1] = g;
+                    }
+                }
+            }
+        }
+        return soonest;
+    }
+    
     /**
      * rep invariant: see top of class   
      * @author sdrammis   
      * Implemented by: nwallace  
      */
     public void checkRep() {
-        List<Double> validCoords = new ArrayList<Double>(Arrays.asList(new Double(-0.01), new Double(20.01)));
+        List<Double> validCoords = new ArrayList<Double>(Arrays.asList(Double.valueOf(-0.01), Double.valueOf(width + 0.01), 
+                Double.valueOf(height + 0.01)));
         List<OuterWall> walls = new ArrayList<OuterWall>(Arrays.asList(topWall, bottomWall, leftWall, rightWall));
         boolean validCorners = true;
         for (OuterWall wall: walls){
-            if(!validCoords.contains(new Double(wall.getWall().p1().x()))||!validCoords.contains(new Double(wall.getWall().p1().y()))
-             ||!validCoords.contains(new Double(wall.getWall().p2().x()))||!validCoords.contains(new Double(wall.getWall().p2().y()))){  
+            if(!validCoords.contains(Double.valueOf(wall.getWall().p1().x()))||!validCoords.contains(Double.valueOf(wall.getWall().p1().y()))
+             ||!validCoords.contains(Double.valueOf(wall.getWall().p2().x()))||!validCoords.contains(Double.valueOf(wall.getWall().p2().y()))){  
                 validCorners = false;
                 break;
             }
         }
         
-        Rectangle2D.Double boardArea = new Rectangle2D.Double(0, 0, 20, 20);
+        Rectangle2D.Double boardArea = new Rectangle2D.Double(0, 0, width, height);
         boolean noOuterWallGadgets = true;
         for (Gadget gadget: gadgets){
             if(gadget.getClass()==OuterWall.class){
@@ -630,19 +1738,15 @@ public class Board {
             }
         }
         
-        boolean allValidEntries = true;
-        List<String> validVal = new ArrayList<String>(Arrays.asList("#", "*", "0", "/", "\\", "|", "-", "=", " "));
-        for(String[] row: board){
-            for(String val: row){
-                if(!validVal.contains(val)){
-                    allValidEntries = false;
-                    break;
-                }
+        boolean neighborSize = (neighbors.size()<=4);
+        boolean validSize = (0 < width && width <= MAX_SIZE && 0 < height && height <= MAX_SIZE && staticLayer.length == height);
+        boolean validLayer = true;
+        for (char[] row : staticLayer) {
+            for (char cell : row) {
+                validLayer &= (row.length == width && (cell == 0 || "#0/\\=".indexOf(cell) >= 0));
             }
         }
         
-        boolean neighborSize = (neighbors.size()<=4);
-        
         // TEST THAT CAUGHT THE MULTIPLE ABSORBERS/GADGETS THAT LOOKED THE SAME 
 //        Gadget absorberA = null;
 //        Gadget absorberB = null;
@@ -658,9 +1762,8 @@ public class Board {
 //        } assert (absorberA == absorberB);
 //        System.out.println("validCorners " + validCorners);
 //        System.out.println("noOuterWallGadgets " + noOuterWallGadgets);
-//        System.out.println("allValidEntries " + allValidEntries);
 //        System.out.println("neighborSize " + neighborSize);
-        assert(validCorners&&noOuterWallGadgets&&allValidEntries&&neighborSize);
+        assert(validCorners&&noOuterWallGadgets&&neighborSize&&validSize&&validLayer);
     }
     
     // ONLY TO BE USED FOR TESTING
@@ -685,4 +1788,28 @@ public class Board {
     public List<OuterWall> getWalls() {
         return this.walls;
     }
+    
+    /**
+     * A ball a neighbor announced, see expectBall
+     */
+    private static class Arrival {
+        private final String name;
+        private final long key; //key of the ball on the neighbor, see Ball.getKey
+        private final double due; //when the ball comes in, on the board's clock
+        private final double x;
+        private final double y;
+        private final double xVel;
+        private final double yVel;
+        private Ball ball = null; //the ball once it has come in
+        
+        private Arrival(String name, long key, double due, double x, double y, double xVel, double yVel) {
+            this.name = name;
+            this.key = key;
+            this.due = due;
+            this.x = x;
+            this.y = y;
+            this.xVel = xVel;
+            this.yVel = yVel;
+        }
+    }
 }
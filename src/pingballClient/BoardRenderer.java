@@ -0,0 +1,96 @@
+package pingballClient;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Draws a board on its own thread at a fixed frame rate, so the thread that plays the board never waits on the console.
+ * The play thread publishes a BoardSnapshot every step, and each frame the renderer draws the newest one, with the
+ * balls moved along their velocity from when the snapshot was taken to when the frame is drawn. A snapshot is never
+ * more than a step old when it is drawn, so the balls are moved at most MAX_EXTRAPOLATION: too little to be drawn
+ * through a bumper or a wall. A board that has stopped publishing is resting, and is drawn as it was.
+ *
+ * Double buffering: the renderer draws from the snapshot it holds (the front buffer) while the play thread may publish
+ * the next one (the back buffer). The back buffer is swapped in with an atomic reference, so neither thread ever waits
+ * for the other. The back buffer only holds the newest snapshot: one the renderer hasn't taken yet is replaced.
+ * 
+ * If the sink is slower than the frame rate, frames are dropped: the renderer always draws the newest snapshot,
+ * and skips the frames it has fallen behind on instead of catching up.
+ *
+ * Thread Safety Argument:
+ *      published: a thread safe type, shared between the play thread and the render thread
+ *      snapshots are immutable
+ *      sink: confined to the render thread
+ *      framePeriod: immutable
+ *
+ * @author asolei
+ */
+public class BoardRenderer implements Runnable {
+    /**
+     * Invariants:
+     *      framePeriod > 0
+     *      published: the newest snapshot, null once the render thread has taken it
+     * @author asolei
+     */
+    private final AtomicReference<BoardSnapshot> published = new AtomicReference<BoardSnapshot>(); //the back buffer
+    private final long framePeriod; //nanoseconds between frames
+    private final ConsoleSink sink; //where the frames are drawn
+
+    // the longest a snapshot is moved on for when it is drawn, in seconds, a step or two of play
+    static final double MAX_EXTRAPOLATION = 0.01;
+
+    /**
+     * Make a renderer that draws to sink
+     * @param sink where the frames are drawn
+     * @param framesPerSecond how often to draw, > 0
+     * @author asolei
+     */
+    public BoardRenderer(ConsoleSink sink, int framesPerSecond) {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("frame rate must be positive");
+        }
+        this.sink = sink;
+        this.framePeriod = 1000000000L / framesPerSecond;
+    }
+
+    /**
+     * Publish a new snapshot of the board to be drawn, in place of any the renderer hasn't taken yet. Never waits.
+     * @param snapshot newest snapshot of the board
+     */
+    public void publish(BoardSnapshot snapshot) {
+        this.published.set(snapshot);
+    }
+
+    /**
+     * Draw a frame every frame period until the thread is interrupted.
+     * Nothing is drawn until the first snapshot is published.
+     *
+     * @author asolei
+     * Implemented by: asolei
+     */
+    @Override
+    public void run() {
+        BoardSnapshot current = null; //the front buffer
+        long nextFrame = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            BoardSnapshot latest = this.published.getAndSet(null);
+            if (latest != null) { current = latest; }
+            long now = System.nanoTime();
+            if (current != null) {
+                try {
+                    this.sink.draw(current, Math.min(MAX_EXTRAPOLATION, (now - current.getTime()) / 1e9));
+                } catch (IOException e) {
+                    // nowhere left to draw
+                    e.printStackTrace();
+                    return;
+                }
+            }
+            // wait for the next frame, skip frames we have fallen behind on
+            nextFrame += this.framePeriod;
+            now = System.nanoTime();
+            if (nextFrame < now) { nextFrame = now; }
+            LockSupport.parkNanos(nextFrame - now);
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package pingballClient;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An immutable picture of everything that is drawn for a Board at one moment of play.
+ * The physics thread takes a snapshot of the board, and the snapshot can then be drawn from any thread
+ * without looking at the board again.
+ *
+ * The gadgets that always look the same are drawn once by the board and shared by all of its snapshots,
+ * each snapshot only holds what can change: the flippers and the balls.
+ *
+ * Besides what is drawn, a snapshot holds what a spectator is sent, see SpectatorFeed: the ids of the balls,
+ * where the flippers and absorbers are, how far each flipper has turned and how many balls each absorber holds.
+ *
+ * Thread Safety Argument:
+ *      All fields are final, and the arrays are filled in by the constructor's caller before the snapshot
+ *      is shared and never changed afterwards. They never leave this class, so the snapshot is immutable.
+ *      The gadgets layer and the layouts are shared with the board and other snapshots, but the board never
+ *      changes them after they are made.
+ *
+ * @author asolei
+ */
+public class BoardSnapshot {
+    /**
+     * Rep invariant:
+     *      width, height > 0
+     *      gadgets: height x width, each entry is 0 (nothing drawn) or one of #, 0, /, \, =
+     *      overlayCells, overlayChars: the same length, each cell is row * width + column of a cell on the board
+     *          each char is one of |, -, ' '
+     *      ballIds, ballX, ballY, ballXVel, ballYVel: all the same length, one entry per ball that is not in an absorber
+     *      flipperLayout: 4 entries per entry of flipperAngles, each angle between 0 and PI/2
+     *      absorberLayout: 4 entries per entry of absorberBalls, each count >= 0
+     *      leftWall, rightWall: length height, one ASCII character each
+     *      topWall, bottomWall: one line of ASCII characters followed by a newline
+     * @author asolei
+     */
+    private final long time; //System.nanoTime() when the snapshot was taken
+    private final int width;
+    private final int height;
+    private final char[][] gadgets; //row by column, what the gadgets that always look the same draw over the balls
+    private final int[] overlayCells; //cells the flippers draw, drawn over the gadgets and the balls
+    private final char[] overlayChars; //what the flippers draw in each of the cells
+    private final int[] ballIds;
+    private final double[] ballX;
+    private final double[] ballY;
+    private final double[] ballXVel;
+    private final double[] ballYVel;
+    private final int[] flipperLayout; //kind (0 left, 1 right), x, y, orientation of each flipper
+    private final double[] flipperAngles;
+    private final int[] absorberLayout; //x, y, width, height of each absorber
+    private final int[] absorberBalls;
+    private final String topWall;
+    private final String bottomWall;
+    private final String[] leftWall;
+    private final String[] rightWall;
+
+    /**
+     * Make a snapshot. The arrays are owned by the snapshot after this call and must not be changed by the caller.
+     *
+     * @param width width of the board
+     * @param height height of the board
+     * @param gadgets row by column, what the gadgets that always look the same draw, 0 where they draw nothing.
+     *      May be shared between snapshots, must never be changed.
+     * @param overlayCells cells drawn over the gadgets and the balls, as row * width + column
+     * @param overlayChars what is drawn in each of the overlayCells
+     * @param ballIds ids of the balls that are drawn
+     * @param ballX x coordinates of the balls that are drawn
+     * @param ballY y coordinates of the balls that are drawn
+     * @param ballXVel x velocities of the balls that are drawn
+     * @param ballYVel y velocities of the balls that are drawn
+     * @param flipperLayout kind (0 left, 1 right), x, y and orientation of each flipper.
+     *      May be shared between snapshots, must never be changed.
+     * @param flipperAngles how far each flipper has turned from its original state, in radians
+     * @param absorberLayout x, y, width and height of each absorber. May be shared between snapshots, must never be changed.
+     * @param absorberBalls how many balls each absorber holds
+     * @param topWall the line drawn above the board, ending in a newline
+     * @param bottomWall the line drawn below the board, ending in a newline
+     * @param leftWall the character drawn left of each row
+     * @param rightWall the character drawn right of each row
+     * @author asolei
+     */
+    BoardSnapshot(int width, int height, char[][] gadgets, int[] overlayCells, char[] overlayChars,
+            int[] ballIds, double[] ballX, double[] ballY, double[] ballXVel, double[] ballYVel,
+            int[] flipperLayout, double[] flipperAngles, int[] absorberLayout, int[] absorberBalls, String topWall, String bottomWall, String[] leftWall, String[] rightWall) {
+        this.time = System.nanoTime();
+        this.width = width;
+        this.height = height;
+        this.gadgets = gadgets;
+        this.overlayCells = overlayCells;
+        this.overlayChars = overlayChars;
+        this.ballIds = ballIds;
+        this.ballX = ballX;
+        this.ballY = ballY;
+        this.ballXVel = ballXVel;
+        this.ballYVel = ballYVel;
+        this.flipperLayout = flipperLayout;
+        this.flipperAngles = flipperAngles;
+        this.absorberLayout = absorberLayout;
+        this.absorberBalls = absorberBalls;
+        this.topWall = topWall;
+        this.bottomWall = bottomWall;
+        this.leftWall = leftWall;
+        this.rightWall = rightWall;
+        checkRep();
+    }
+
+    /**
+     * Get when the snapshot was taken
+     * @return System.nanoTime() when the snapshot was taken
+     */
+    public long getTime() {
+        return this.time;
+    }
+
+    /**
+     * Draw the board as it is expected to look some time after the snapshot was taken.
+     * Balls are moved along their velocity for that time, gadgets are drawn as they were.
+     *
+     * @param seconds how long after the snapshot to draw the board, >= 0
+     * @return string representation of the board
+     * @author asolei
+     * Implemented by: asolei
+     */
+    public String render(double seconds) {
+        ByteBuffer frame = ByteBuffer.allocate(encodedLength());
+        encode(seconds, frame);
+        return new String(frame.array(), 0, frame.position(), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Get how many bytes encode() writes for this snapshot
+     * @return length of the encoded board in bytes
+     */
+    public int encodedLength() {
+        return this.topWall.length() + this.bottomWall.length() + this.height * (this.width + 3);
+    }
+
+    /**
+     * Draw the board as it is expected to look some time after the snapshot was taken, as ASCII bytes.
+     * Balls are moved along their velocity for that time, gadgets are drawn as they were.
+     * Nothing is allocated, so this can be called for every frame.
+     *
+     * @param seconds how long after the snapshot to draw the board, >= 0
+     * @param out buffer the board is written to starting at its position, must have encodedLength() bytes remaining.
+     *      The position is moved past the board.
+     * @author asolei
+     * Implemented by: asolei
+     */
+    public void encode(double seconds, ByteBuffer out) {
+        int boardStart = out.position() + this.topWall.length();
+        int rowLength = this.width + 3; //left wall, the row, right wall, newline
+        encodeBackground(out);
+        
+        // add in the balls, the gadgets are drawn over them
+        for (int i = 0; i < this.ballX.length; i++) {
+            int y = (int) Math.floor(this.ballY[i] + this.ballYVel[i] * seconds);
+            int x = (int) Math.floor(this.ballX[i] + this.ballXVel[i] * seconds);
+            //if the ball reaches the end or an area before a wall, print it inside the board still
+            y = Math.max(0, Math.min(this.height - 1, y));
+            x = Math.max(0, Math.min(this.width - 1, x));
+            if (this.gadgets[y][x] == 0) {
+                out.put(boardStart + y * rowLength + 1 + x, (byte) '*');
+            }
+        }
+        
+        // and the flippers over everything
+        for (int i = 0; i < this.overlayCells.length; i++) {
+            int y = this.overlayCells[i] / this.width;
+            int x = this.overlayCells[i] % this.width;
+            out.put(boardStart + y * rowLength + 1 + x, (byte) this.overlayChars[i]);
+        }
+    }
+
+    /**
+     * Draw what never moves on the board, the walls and the gadgets that always look the same, as ASCII bytes.
+     * The balls and the flippers are left out.
+     *
+     * @param out buffer the background is written to starting at its position, must have encodedLength() bytes
+     *      remaining. The position is moved past the background.
+     * @author asolei
+     * Implemented by: asolei
+     */
+    public void encodeBackground(ByteBuffer out) {
+        putAscii(out, this.topWall);
+        for (int r = 0; r < this.height; r++) {
+            putAscii(out, this.leftWall[r]);
+            for (int c = 0; c < this.width; c++) {
+                char cell = this.gadgets[r][c];
+                out.put((byte) (cell == 0 ? ' ' : cell));
+            }
+            putAscii(out, this.rightWall[r]);
+            out.put((byte) '\n');
+        }
+        putAscii(out, this.bottomWall);
+    }
+
+    /**
+     * See if another snapshot of the same board has the same walls, so the same background
+     * @param other snapshot of the same board
+     * @return true if every wall is drawn the same in both
+     */
+    public boolean sameWalls(BoardSnapshot other) {
+        return this.topWall.equals(other.topWall) && this.bottomWall.equals(other.bottomWall)
+                && Arrays.equals(this.leftWall, other.leftWall) && Arrays.equals(this.rightWall, other.rightWall);
+    }
+
+    /**
+     * @return width of the board
+     */
+    int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * @return height of the board
+     */
+    int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * @return number of balls that are not in an absorber
+     */
+    int getBallCount() {
+        return this.ballIds.length;
+    }
+
+    /**
+     * @param i index of a ball, 0 <= i < getBallCount()
+     * @return its id
+     */
+    int getBallId(int i) {
+        return this.ballIds[i];
+    }
+
+    /**
+     * @param i index of a ball
+     * @return its x coordinate
+     */
+    double getBallX(int i) {
+        return this.ballX[i];
+    }
+
+    /**
+     * @param i index of a ball
+     * @return its y coordinate
+     */
+    double getBallY(int i) {
+        return this.ballY[i];
+    }
+
+    /**
+     * @param i index of a ball
+     * @return its x velocity
+     */
+    double getBallXVel(int i) {
+        return this.ballXVel[i];
+    }
+
+    /**
+     * @param i index of a ball
+     * @return its y velocity
+     */
+    double getBallYVel(int i) {
+        return this.ballYVel[i];
+    }
+
+    /**
+     * @return number of flippers on the board
+     */
+    int getFlipperCount() {
+        return this.flipperAngles.length;
+    }
+
+    /**
+     * @param f index of a flipper, 0 <= f < getFlipperCount()
+     * @param k 0, 1, 2 or 3
+     * @return k = 0 its kind (0 left, 1 right), 1 its x, 2 its y, 3 its orientation
+     */
+    int getFlipperLayout(int f, int k) {
+        return this.flipperLayout[4 * f + k];
+    }
+
+    /**
+     * @param f index of a flipper
+     * @return how far it has turned from its original state, in radians
+     */
+    double getFlipperAngle(int f) {
+        return this.flipperAngles[f];
+    }
+
+    /**
+     * @return number of absorbers on the board
+     */
+    int getAbsorberCount() {
+        return this.absorberBalls.length;
+    }
+
+    /**
+     * @param a index of an absorber, 0 <= a < getAbsorberCount()
+     * @param k 0, 1, 2 or 3
+     * @return k = 0 its x, 1 its y, 2 its width, 3 its height
+     */
+    int getAbsorberLayout(int a, int k) {
+        return this.absorberLayout[4 * a + k];
+    }
+
+    /**
+     * @param a index of an absorber
+     * @return how many balls it holds
+     */
+    int getAbsorberBalls(int a) {
+        return this.absorberBalls[a];
+    }
+
+    /**
+     * Write an ASCII string to a buffer
+     * @param out buffer to write to
+     * @param text only ASCII characters
+     */
+    private static void putAscii(ByteBuffer out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            out.put((byte) text.charAt(i));
+        }
+    }
+
+    /**
+     * Draw the board as it was when the snapshot was taken
+     * @return string representation of the board, see Board.toString()
+     */
+    @Override
+    public String toString() {
+        return render(0);
+    }
+
+    /**
+     * Ensure the rep holds
+     */
+    public void checkRep() {
+        // the gadgets are shared and checked by the board, so only their size is checked here
+        assert this.width > 0 && this.height > 0;
+        assert this.gadgets.length == this.height && this.gadgets[0].length == this.width;
+        assert this.overlayCells.length == this.overlayChars.length;
+        for (int i = 0; i < this.overlayCells.length; i++) {
+            assert 0 <= this.overlayCells[i] && this.overlayCells[i] < this.width * this.height;
+            assert "|- ".indexOf(this.overlayChars[i]) >= 0;
+        }
+        assert this.ballY.length == this.ballX.length && this.ballXVel.length == this.ballX.length
+                && this.ballYVel.length == this.ballX.length && this.ballIds.length == this.ballX.length;
+        assert this.flipperLayout.length == 4 * this.flipperAngles.length;
+        for (double angle : this.flipperAngles) {
+            assert 0 <= angle && angle <= Math.PI/2;
+        }
+        assert this.absorberLayout.length == 4 * this.absorberBalls.length;
+        for (int held : this.absorberBalls) {
+            assert held >= 0;
+        }
+        assert this.leftWall.length == this.height && this.rightWall.length == this.height;
+        for (int r = 0; r < this.height; r++) {
+            assert this.leftWall[r].length() == 1 && this.rightWall[r].length() == 1;
+        }
+    }
+}
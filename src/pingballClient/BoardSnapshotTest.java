@@ -0,0 +1,80 @@
+package pingballClient;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import physics.Vect;
+import pingballClient.boardObjects.Ball;
+import pingballClient.boardObjects.Gadget;
+
+/**
+ * TESTING STRATEGY
+ * 
+ * ------------------- render -------------------
+ *      no time after the snapshot: same as Board.toString()
+ *      time after the snapshot: ball drawn where its velocity takes it
+ *      ball moving past the edge of the board: drawn on the edge
+ *      changing the board after the snapshot: snapshot doesn't change
+ * 
+ * @author asolei
+ */
+public class BoardSnapshotTest {
+
+    @Test
+    public void testRenderNow() {
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(
+                new Ball("ball", 5.5, 5.5, new Vect(10, 0)))), "board", 0.0, 0.0, 0.0);
+        assertEquals(board.toString(), board.snapshot().render(0));
+    }
+    
+    @Test
+    public void testRenderLater() {
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(
+                new Ball("ball", 5.5, 5.5, new Vect(10, 0)))), "board", 0.0, 0.0, 0.0);
+        String[] rows = board.snapshot().render(0.5).split("\n");
+        // row 5 of the board is line 6, the ball moved 5L to the right
+        assertEquals('*', rows[6].charAt(1 + 10));
+        assertEquals(' ', rows[6].charAt(1 + 5));
+    }
+    
+    @Test
+    public void testRenderPastEdge() {
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(
+                new Ball("ball", 18.5, 5.5, new Vect(10, 0)))), "board", 0.0, 0.0, 0.0);
+        String[] rows = board.snapshot().render(1.0).split("\n");
+        assertEquals('*', rows[6].charAt(1 + 19));
+        assertEquals(22, rows[6].length());
+    }
+    
+    @Test
+    public void testSnapshotImmutable() {
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(), "board", 0.0, 0.0, 0.0);
+        BoardSnapshot snapshot = board.snapshot();
+        String before = snapshot.toString();
+        board.addBall(new Ball("ball", 5.5, 5.5, new Vect(0, 0)));
+        board.merge("T", "other");
+        assertEquals(before, snapshot.toString());
+        assertFalse(before.equals(board.toString()));
+    }
+    
+    @Test
+    public void testConsoleSinkFrames() throws IOException {
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(
+                new Ball("ball", 5.5, 5.5, new Vect(0, 0)))), "board", 0.0, 0.0, 0.0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ConsoleSink sink = new ConsoleSink(Channels.newChannel(out), 20, 20);
+        sink.draw(board.snapshot(), 0);
+        sink.draw(board.snapshot(), 0);
+        // the screen is cleared once, then every frame starts at the top left corner
+        String frame = "\u001b[H" + board.toString();
+        assertEquals("\u001b[2J" + frame + frame, new String(out.toByteArray(), StandardCharsets.US_ASCII));
+    }
+}
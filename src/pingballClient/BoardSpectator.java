@@ -0,0 +1,24 @@
+package pingballClient;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Something that follows a board played by a BoardWorld through its SpectatorFeed: it is sent a keyframe of the
+ * board, and after that only what changed, see SpectatorFeed for the messages.
+ *
+ * Thread Safety Argument:
+ *      send is called by the world's frame thread only, implementations must be safe to call from it
+ *          and should not block, every spectator of every board waits for it
+ *
+ * @author asolei
+ */
+public interface BoardSpectator {
+
+    /**
+     * Send the spectator a message
+     * @param message one message, from its position to its limit. The same bytes are sent to every spectator of
+     *      the board, so the message may be read but must never be written to.
+     * @author asolei
+     */
+    public void send(ByteBuffer message);
+}
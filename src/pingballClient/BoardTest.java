@@ -8,9 +8,12 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import physics.*;
+import physics.Geometry.DoublePair;
 import pingballClient.boardObjects.Ball;
 import pingballClient.boardObjects.Gadget;
+import pingballClient.boardObjects.LeftFlipper;
 import pingballClient.boardObjects.OuterWall;
+import pingballClient.boardObjects.SquareBumper;
 
 /**
  * TESTING STRATEGY
@@ -44,6 +47,43 @@ import pingballClient.boardObjects.OuterWall;
  *      add one ball
  *      add > 1 ball
  *    
+ * ------------------- size -------------------
+ *      default 20 by 20, wide board, tall board
+ *      
+ * ------------------- getMinTimeUntilCollision -------------------
+ *      many balls and gadgets on a big board, looking ahead only a little gives the same minimum as looking at
+ *          everything whenever the minimum is sooner than the horizon
+ *      after steps of advance whose impacts were kept
+ *      default gravity and friction, one ball near a wall and balls in open space: only the one near the wall is 
+ *          looked at closely, the others stay clear from step to step
+ *    
+ * ------------------- advance -------------------
+ *      ball bouncing between two walls several times in one step
+ *      ball fast enough to pass through a bumper in one step
+ *      two balls fast enough to pass through each other in one step
+ *      ball going to hit another ball that is knocked out of the way first
+ *      ball leaving through an invisible wall, another ball with the same name stays
+ *      several balls leaving in one step, the map of the balls that left is emptied by the next step
+ *      many small steps without gravity or friction: the same as one step
+ *      flipper turning towards a ball that was clear of it before it turned
+ *      many small steps with default gravity and friction, a ball in open space stays clear from step to step
+ *    
+ * ------------------- handoff -------------------
+ *      predictDepartures: ball about to leave through an invisible wall, ball far from it, ball going to a solid 
+ *          wall, a ball is announced only once, also after a ball that left moves it in the list
+ *      expectBall: comes in when due, then its BALL message is dropped; comes in and its BALL message puts it 
+ *          somewhere else; BALL message before it is due; BALL message never comes; balls of the same name 
+ *          told apart by their keys, two never confirmed in the same step
+ *      addBall with an age: moved on under gravity, stopped at the edge of the board, 
+ *          moves an expected ball that came in somewhere else
+ *      getTimeSinceDeparture: ball that left partway through a step, ball that left in handleCollisions
+ *    
+ * ------------------- sleeping -------------------
+ *      ball lying on a solid wall falls asleep, the board rests
+ *      sleeping ball hit by another ball wakes up
+ *      sleeping ball lying on a wall that is joined to a neighbor wakes up
+ *      slow ball without gravity keeps moving, slow ball rolling along a solid wall keeps rolling
+ *    
  * ------------------- merge -------------------
  *      merge vertically
  *          board on top
@@ -62,6 +102,19 @@ public class BoardTest {
     public static void setUpBeforeClass() throws Exception {
     }
     
+    /**
+     * Describe what balls look like, since a ball only equals itself
+     * @param balls some balls
+     * @return the name, position and velocity of each ball
+     */
+    static Set<String> looks(Collection<Ball> balls) {
+        Set<String> looks = new HashSet<String>();
+        for (Ball ball : balls) {
+            looks.add(ball.getName() + " " + ball.getX() + " " + ball.getY() + " " + ball.getVelocity());
+        }
+        return looks;
+    }
+    
     // ------------------- toString ------------------- //
     @Test
     public void testToStringEmptyVisible() {
@@ -169,6 +222,443 @@ public class BoardTest {
         assertEquals(expected, board.toString());
     }
 
+    @Test
+    public void testWideBoardToString() {
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(
+                new Ball("ball", 39.5, 2.5, new Vect(0, 0)))), "board", 0.0, 0.0, 0.0, 40, 3);
+        board.merge("L", "abcdef");
+        String[] rows = board.toString().split("\n");
+        assertEquals(5, rows.length);
+        assertEquals(42, rows[0].length());
+        // the name of the left neighbor is cut off at the height of the board
+        assertEquals("a *", rows[1].charAt(0) + " " + rows[3].charAt(40));
+        assertEquals('c', rows[3].charAt(0));
+    }
+    
+    @Test
+    public void testMinTimeWithinHorizon() {
+        Random random = new Random(6005);
+        List<Ball> balls = new ArrayList<Ball>();
+        for (int i = 0; i < 300; i++) {
+            balls.add(new Ball("ball" + i, 1 + random.nextDouble() * 198, 1 + random.nextDouble() * 198, 
+                    new Vect(random.nextDouble() * 60 - 30, random.nextDouble() * 60 - 30)));
+        }
+        List<Gadget> gadgets = new ArrayList<Gadget>();
+        for (int i = 0; i < 200; i++) {
+            gadgets.add(new SquareBumper("square" + i, new DoublePair(random.nextInt(200), random.nextInt(200)), 
+                    new ArrayList<Gadget>()));
+        }
+        Board board = new Board(gadgets, balls, "board", 25.0, 0.025, 0.025, 200, 200);
+        for (int step = 0; step < 50; step++) {
+            double everything = board.getMinTimeUntilCollision();
+            for (double horizon : new double[] { 0.001, 0.01, 0.1 }) {
+                double near = board.getMinTimeUntilCollision(horizon);
+                if (everything < horizon) {
+                    assertEquals(everything, near, 0.0);
+                } else {
+                    assertTrue(near >= horizon);
+                }
+            }
+            board.newBallPositions(0.001);
+            board.handleCollisions(0.001);
+        }
+    }
+
+    @Test
+    public void testAdvanceSeveralBounces() {
+        Ball ball = new Ball("ball", 10, 10, new Vect(100, 0));
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(ball)), 
+                "board", 0.0, 0.0, 0.0);
+        board.advance(0.5);
+        // the ball's center stays between 0.24 and 19.76: right, left, right, and 1.2L back to the left
+        assertEquals(18.56, ball.getX(), 1e-9);
+        assertEquals(10, ball.getY(), 1e-9);
+        assertEquals(-100, ball.getVelocity().x(), 1e-9);
+        assertEquals(3, board.getCollisionCount());
+    }
+    
+    @Test
+    public void testAdvanceFastBallDoesNotPassThroughBumper() {
+        Ball ball = new Ball("ball", 5.5, 5.5, new Vect(190, 0));
+        Board board = new Board(new ArrayList<Gadget>(Arrays.asList(new SquareBumper("square", new DoublePair(10, 5), 
+                new ArrayList<Gadget>()))), new ArrayList<Ball>(Arrays.asList(ball)), "board", 0.0, 0.0, 0.0);
+        // 9.5L in one step, the bumper is 4.25L away
+        board.advance(0.05);
+        assertEquals(4.5, ball.getX(), 1e-9);
+        assertEquals(-190, ball.getVelocity().x(), 1e-9);
+        assertEquals(1, board.getCollisionCount());
+    }
+    
+    @Test
+    public void testAdvanceFastBallsDoNotPassThroughEachOther() {
+        Ball left = new Ball("left", 5, 10, new Vect(100, 0));
+        Ball right = new Ball("right", 15, 10, new Vect(-100, 0));
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(left, right)), 
+                "board", 0.0, 0.0, 0.0);
+        // they touch after 0.0475s at 9.75 and 10.25, and swap velocities
+        board.advance(0.06);
+        assertEquals(8.5, left.getX(), 1e-9);
+        assertEquals(11.5, right.getX(), 1e-9);
+        assertEquals(-100, left.getVelocity().x(), 1e-9);
+        assertEquals(1, board.getCollisionCount());
+    }
+
+    @Test
+    public void testAdvanceKeptImpactsInSmallSteps() {
+        Ball across = new Ball("across", 5, 9.8, new Vect(100, 0));
+        Ball still = new Ball("still", 15, 10, new Vect(0, 0));
+        Ball up = new Ball("up", 15, 14, new Vect(0, -100));
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(across, still, up)), 
+                "board", 0.0, 0.0, 0.0);
+        // like testAdvanceBallMovedOutOfTheWay, in 24 steps instead of one
+        for (int step = 0; step < 24; step++) {
+            board.advance(0.005);
+        }
+        assertEquals(17, across.getX(), 1e-9);
+        assertEquals(100, across.getVelocity().x(), 1e-9);
+        assertEquals(1.5, still.getY(), 1e-9);
+        assertEquals(10.5, up.getY(), 1e-9);
+        assertEquals(1, board.getCollisionCount());
+        // still goes on up and reaches the top wall, at -0.01
+        assertEquals(0.0126, board.getMinTimeUntilCollision(), 1e-9);
+    }
+    
+    @Test
+    public void testAdvanceFlipperTurnsIntoKeptImpact() {
+        // the flipper lies along x=5 and turns to lie along y=5, across the path of the ball
+        Gadget flipper = new LeftFlipper("flip", new DoublePair(5, 5), 0, false, new ArrayList<Gadget>());
+        Ball ball = new Ball("ball", 6, 3.5, new Vect(0, 20));
+        Board board = new Board(new ArrayList<Gadget>(Arrays.asList(flipper)), 
+                new ArrayList<Ball>(Arrays.asList(ball)), "board", 0.0, 0.0, 0.0);
+        board.advance(0.005);
+        flipper.respondToTrigger(0);
+        for (int step = 0; step < 20; step++) {
+            board.newGadgetPositions(0.005);
+            board.advance(0.005);
+        }
+        assertTrue(ball.getY() < 5);
+        assertTrue(ball.getVelocity().y() < 0);
+    }
+
+    @Test
+    public void testAdvanceKeepsClearanceUnderGravity() {
+        Ball ball = new Ball("ball", 5, 5, new Vect(3, 0));
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(ball)), 
+                "board", 25.0, 0.025, 0.025);
+        for (int step = 0; step < 100; step++) {
+            board.advance(0.005);
+        }
+        // it falls about 3L in half a second, and its surroundings are only searched every few steps
+        assertTrue(ball.getY() > 8 && ball.getY() < 8.5);
+        assertTrue(ball.getVelocity().y() > 11);
+        assertEquals(0, board.getCollisionCount());
+        assertTrue(board.getSearches() <= 10);
+    }
+    
+    @Test
+    public void testGetMinTimeKeepsClearanceUnderGravity() {
+        List<Ball> balls = new ArrayList<Ball>();
+        // 0.76L from the left wall at 20L/s
+        balls.add(new Ball("near", 1, 10, new Vect(-20, 0)));
+        for (int x = 8; x <= 16; x += 2) {
+            balls.add(new Ball("top" + x, x, 5, new Vect(0, 0)));
+            balls.add(new Ball("bottom" + x, x, 15, new Vect(0, 0)));
+        }
+        Board board = new Board(new ArrayList<Gadget>(), balls, "board", 25.0, 0.025, 0.025);
+        assertEquals(0.038, board.getMinTimeUntilCollision(1), 1e-9);
+        long searches = board.getSearches();
+        for (int step = 0; step < 10; step++) {
+            board.newBallPositions(0.001);
+            board.getMinTimeUntilCollision(1);
+        }
+        // only the ball near the wall is searched, once a step
+        assertEquals(searches + 10, board.getSearches());
+    }
+
+    @Test
+    public void testAdvanceBallMovedOutOfTheWay() {
+        Ball across = new Ball("across", 5, 9.8, new Vect(100, 0));
+        Ball still = new Ball("still", 15, 10, new Vect(0, 0));
+        Ball up = new Ball("up", 15, 14, new Vect(0, -100));
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(across, still, up)), 
+                "board", 0.0, 0.0, 0.0);
+        // across would touch still after 0.095s, but up knocks still out of the way after 0.035s and stops
+        board.advance(0.12);
+        assertEquals(17, across.getX(), 1e-9);
+        assertEquals(100, across.getVelocity().x(), 1e-9);
+        assertEquals(1.5, still.getY(), 1e-9);
+        assertEquals(10.5, up.getY(), 1e-9);
+        assertEquals(1, board.getCollisionCount());
+    }
+
+    @Test
+    public void testLeavingBallTakenOffByIdOnly() {
+        Ball leaving = new Ball("ball", 19.5, 10, new Vect(100, 0));
+        Ball staying = new Ball("ball", 5, 10, new Vect(0, 0));
+        Ball last = new Ball("last", 10, 5, new Vect(0, 0));
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(leaving, staying, last)), 
+                "board", 0.0, 0.0, 0.0);
+        board.merge("R", "neighbor");
+        Map<String, List<Ball>> left = board.advance(0.01);
+        assertEquals(Arrays.asList(leaving), left.get("R"));
+        // the other ball with the same name stays
+        List<String> stayed = new ArrayList<String>();
+        for (Ball ball : board.getBallCopy()) {
+            stayed.add(ball.getName());
+        }
+        Collections.sort(stayed);
+        assertEquals(Arrays.asList("ball", "last"), stayed);
+    }
+
+    @Test
+    public void testManyBallsLeaveAndMapIsReused() {
+        List<Ball> balls = new ArrayList<Ball>();
+        for (int i = 0; i < 6; i++) {
+            // the even balls touch the right wall
+            balls.add(new Ball("ball" + i, i % 2 == 0 ? 19.76 : 5, 2 + 3 * i, new Vect(i % 2 == 0 ? 50 : 0, 0)));
+        }
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(balls), "board", 0.0, 0.0, 0.0);
+        board.merge("R", "neighbor");
+        Map<String, List<Ball>> left = board.handleCollisions(0.001);
+        assertEquals(Arrays.asList(balls.get(0), balls.get(2), balls.get(4)), left.get("R"));
+        assertTrue(left.get("L").isEmpty());
+        Set<String> stayed = new HashSet<String>();
+        for (Ball ball : board.getBallCopy()) {
+            stayed.add(ball.getName());
+        }
+        assertEquals(new HashSet<String>(Arrays.asList("ball1", "ball3", "ball5")), stayed);
+        
+        // the next step empties the same map
+        assertSame(left, board.handleCollisions(0.001));
+        assertTrue(left.get("R").isEmpty());
+        assertEquals(3, board.getBallCopy().size());
+    }
+
+    @Test
+    public void testPredictDeparturesAfterBallLeft() {
+        Ball first = new Ball("first", 19.5, 5, new Vect(50, 0));
+        Ball second = new Ball("second", 18, 10, new Vect(50, 0));
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(first, second)), 
+                "board", 0.0, 0.0, 0.0);
+        board.merge("R", "neighbor");
+        List<Handoff> handoffs = board.predictDepartures(0.1);
+        assertEquals(2, handoffs.size());
+        // first leaves, and second takes its place in the list
+        assertEquals(Arrays.asList(first), board.advance(0.01).get("R"));
+        assertSame(handoffs, board.predictDepartures(0.1));
+        assertTrue(handoffs.isEmpty());
+    }
+    
+    @Test
+    public void testPredictDepartures() {
+        Ball leaving = new Ball("leaving", 18, 10, new Vect(50, 0));
+        Ball far = new Ball("far", 2, 5, new Vect(50, 0));
+        Ball solid = new Ball("solid", 1, 15, new Vect(-50, 0));
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(leaving, far, solid)), 
+                "board", 0.0, 0.0, 0.0);
+        board.merge("R", "neighbor");
+        List<Handoff> handoffs = board.predictDepartures(0.1);
+        assertEquals(1, handoffs.size());
+        Handoff handoff = handoffs.get(0);
+        assertEquals("leaving", handoff.getName());
+        assertEquals("R", handoff.getWall());
+        assertEquals((20.01 - 0.25 - 18) / 50, handoff.getDelay(), 1e-9);
+        assertEquals(1, handoff.getX(), 0.0);
+        assertEquals(10, handoff.getY(), 0.0);
+        assertEquals(50, handoff.getXVel(), 0.0);
+        assertEquals(0, handoff.getYVel(), 0.0);
+        
+        // it is not announced again, and leaves when it was announced to
+        assertTrue(board.predictDepartures(0.1).isEmpty());
+        assertTrue(board.advance(0.03).get("R").isEmpty());
+        assertEquals(Arrays.asList(leaving), board.advance(0.01).get("R"));
+    }
+    
+    @Test
+    public void testExpectedBallComesInAndIsConfirmed() {
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(), "board", 0.0, 0.0, 0.0);
+        board.expectBall("ball", 0.02, 1, 10, 50, 0);
+        assertFalse(board.isResting());
+        board.advance(0.01);
+        board.advance(0.01);
+        assertTrue(board.getBallCopy().isEmpty());
+        
+        // it comes in at the start of the step it is due in
+        board.advance(0.01);
+        assertEquals(looks(Arrays.asList(new Ball("ball", 1.5, 10, new Vect(50, 0)))), 
+                looks(board.getBallCopy()));
+        
+        // its BALL message agrees with it, so it is left alone
+        board.addBall("ball", 1, 10, 50, 0);
+        assertEquals(looks(Arrays.asList(new Ball("ball", 1.5, 10, new Vect(50, 0)))), 
+                looks(board.getBallCopy()));
+    }
+    
+    @Test
+    public void testExpectedBallMovedByItsBallMessage() {
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(), "board", 0.0, 0.0, 0.0);
+        board.expectBall("ball", 0, 1, 10, 50, 0);
+        board.advance(0.01);
+        board.addBall("ball", 1, 15, 50, 0);
+        assertEquals(looks(Arrays.asList(new Ball("ball", 1.5, 15, new Vect(50, 0)))), 
+                looks(board.getBallCopy()));
+    }
+    
+    @Test
+    public void testBallMessageBeforeExpectedBallIsDue() {
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(), "board", 0.0, 0.0, 0.0);
+        board.expectBall("ball", 0.05, 1, 10, 0, 0);
+        board.addBall("ball", 1, 10, 0, 0);
+        for (int step = 0; step < 10; step++) {
+            board.advance(0.01);
+        }
+        assertEquals(1, board.getBallCopy().size());
+    }
+    
+    @Test
+    public void testExpectedBallNeverConfirmedIsTakenOff() {
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(), "board", 0.0, 0.0, 0.0);
+        board.expectBall("ghost", 0, 1, 10, 0, 0);
+        board.advance(0.01);
+        assertEquals(1, board.getBallCopy().size());
+        for (double played = 0; played < Board.ARRIVAL_TIMEOUT + 0.05; played += 0.01) {
+            board.advance(0.01);
+        }
+        assertTrue(board.getBallCopy().isEmpty());
+        assertTrue(board.isResting());
+    }
+
+    @Test
+    public void testExpectedBallsOfTheSameNameToldApartByKey() {
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(), "board", 0.0, 0.0, 0.0);
+        board.expectBall("ball", 1L, 0, 1, 5, 0, 0);
+        board.expectBall("ball", 2L, 0, 1, 15, 0, 0);
+        board.expectBall("ball", 3L, 0, 1, 10, 0, 0);
+        board.advance(0.01);
+        assertEquals(3, board.getBallCopy().size());
+        
+        // confirms the second one only, the first is left where it came in
+        board.addBall("ball", 2L, 1, 15, 0, 0, 0);
+        assertEquals(3, board.getBallCopy().size());
+        for (double played = 0; played < Board.ARRIVAL_TIMEOUT + 0.05; played += 0.01) {
+            board.advance(0.01);
+        }
+        assertEquals(looks(Arrays.asList(new Ball("ball", 1, 15, new Vect(0, 0)))), 
+                looks(board.getBallCopy()));
+    }
+
+    @Test
+    public void testAgedBallMovedOn() {
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(), "board", 10.0, 0.0, 0.0);
+        board.addBall("ball", 1, 2, 20, -5, 0.1);
+        // x + 0.1 * 20, y - 0.1 * 5 + 0.5 * 10 * 0.1^2, yVel + 10 * 0.1
+        assertEquals(looks(Arrays.asList(new Ball("ball", 3, 1.55, new Vect(20, -4)))), 
+                looks(board.getBallCopy()));
+        
+        // it can't be moved past the edge of the board
+        board.addBall("edge", 18, 2, 50, 0, 0.2);
+        for (Ball ball : board.getBallCopy()) {
+            assertTrue(ball.getX() <= 19);
+        }
+    }
+    
+    @Test
+    public void testAgedBallMessageMovesExpectedBall() {
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(), "board", 0.0, 0.0, 0.0);
+        board.expectBall("ball", 0, 1, 10, 50, 0);
+        board.advance(0.01);
+        board.addBall("ball", 1, 15, 50, 0, 0.02);
+        assertEquals(looks(Arrays.asList(new Ball("ball", 2, 15, new Vect(50, 0)))), 
+                looks(board.getBallCopy()));
+    }
+    
+    @Test
+    public void testTimeSinceDeparture() {
+        Ball leaving = new Ball("leaving", 18, 10, new Vect(50, 0));
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(leaving)), 
+                "board", 0.0, 0.0, 0.0);
+        board.merge("R", "neighbor");
+        assertEquals(Arrays.asList(leaving), board.advance(0.1).get("R"));
+        assertEquals(0.1 - (20.01 - 0.25 - 18) / 50, board.getTimeSinceDeparture(leaving), 1e-9);
+        board.advance(0.1);
+        assertEquals(0, board.getTimeSinceDeparture(leaving), 0.0);
+        
+        Ball touching = new Ball("touching", 19.76, 10, new Vect(50, 0));
+        board.addBall(touching);
+        assertEquals(Arrays.asList(touching), board.handleCollisions(0.001).get("R"));
+        assertEquals(0, board.getTimeSinceDeparture(touching), 0.0);
+    }
+
+    /**
+     * Make a board with a ball lying on the bottom wall, and play it until the ball is asleep
+     */
+    private static Board restingBoard(Ball resting) {
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(resting)), 
+                "board", 25.0, 0.0, 0.0);
+        for (int step = 0; step < 1000 && !resting.getAsleep(); step++) {
+            board.newBallPositions(0.001);
+            board.handleCollisions(0.001);
+        }
+        return board;
+    }
+    
+    @Test
+    public void testRestingBallSleeps() {
+        Ball ball = new Ball("ball", 10.5, 19.75, new Vect(0, 0));
+        Board board = restingBoard(ball);
+        assertTrue(ball.getAsleep());
+        assertTrue(board.isResting());
+        double y = ball.getY();
+        board.newBallPositions(0.001);
+        board.handleCollisions(0.001);
+        assertEquals(y, ball.getY(), 0.0);
+        
+        board.merge("B", "neighbor");
+        assertFalse(ball.getAsleep());
+        assertFalse(board.isResting());
+    }
+    
+    @Test
+    public void testSleepingBallWokenByBall() {
+        Ball ball = new Ball("ball", 10.5, 19.75, new Vect(0, 0));
+        Board board = restingBoard(ball);
+        assertTrue(ball.getAsleep());
+        board.addBall(new Ball("hitter", 5.5, 19.75, new Vect(20, 0)));
+        for (int step = 0; step < 500 && ball.getAsleep(); step++) {
+            board.newBallPositions(0.001);
+            board.handleCollisions(0.001);
+        }
+        assertFalse(ball.getAsleep());
+        assertTrue(ball.getVelocity().x() > 0);
+    }
+    
+    @Test
+    public void testSlowBallWithoutGravityKeepsMoving() {
+        Ball ball = new Ball("ball", 5, 10, new Vect(0.5, 0));
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(ball)), 
+                "board", 0.0, 0.0, 0.0);
+        for (int step = 0; step < 1000; step++) {
+            board.newBallPositions(0.001);
+            board.handleCollisions(0.001);
+        }
+        assertFalse(ball.getAsleep());
+        assertEquals(5.5, ball.getX(), 1e-6);
+        assertEquals(0.5, ball.getVelocity().x(), 1e-9);
+    }
+    
+    @Test
+    public void testSlowBallRollingOnWallKeepsRolling() {
+        Ball ball = new Ball("ball", 5, 19.75, new Vect(0.5, 0));
+        Board board = new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(ball)), 
+                "board", 25.0, 0.0, 0.0);
+        for (int step = 0; step < 1000; step++) {
+            board.newBallPositions(0.001);
+            board.handleCollisions(0.001);
+        }
+        assertFalse(ball.getAsleep());
+        assertEquals(5.5, ball.getX(), 0.01);
+    }
+
 /**
  * Testing strategy for board behavior:
  * Because of difficulty in debugging other bugs, we did not have time to implement full JUnit testings for
@@ -0,0 +1,20 @@
+package pingballClient;
+
+/**
+ * Something that watches a board played by a BoardWorld, and is shown a frame of it every so often.
+ *
+ * Thread Safety Argument:
+ *      show is called by the world's frame thread only, implementations must be safe to call from it
+ *
+ * @author asolei
+ */
+public interface BoardViewer {
+
+    /**
+     * Show a frame of the board being watched
+     * @param frame FRAME columns rows, rows the board drawn like Board.toString(), without the newlines,
+     *      so every columns characters are one line
+     * @author asolei
+     */
+    public void show(String frame);
+}
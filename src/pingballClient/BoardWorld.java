@@ -0,0 +1,261 @@
+package pingballClient;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Every board of a game played in one process, for a server that plays the boards itself instead of its players,
+ * see pingball.PingballServer. A fixed pool of physics threads plays the boards, each step of a board is a task on
+ * the pool, see WorldBoard. A ball that leaves a board through a joined wall is handed to the neighboring board in
+ * memory, moved on for the time since it crossed, so no ball ever waits on the network.
+ *
+ * Nobody plays at the boards, they are only watched: a frame thread draws each board that has viewers
+ * FRAMES_PER_SECOND times a second and shows the frame to every viewer of the board. Spectators follow a board
+ * through its SpectatorFeed instead, which the frame thread sends what changed on the board at the same rate.
+ *
+ * Thread Safety Argument:
+ *      boards: never changed after the world is made, the boards in it are thread safe, see WorldBoard
+ *      neighbors: only touched while holding the lock on this world, in join and getWall
+ *      physics: a thread safe type
+ *      frames: only started and interrupted by the thread that starts and closes the world
+ *
+ * @author sdrammis
+ */
+public class BoardWorld {
+    /**
+     * Invariants:
+     *      boards: maps the name of each board to the board, names are unique
+     *      neighbors: neighbors.get(a).get(wall) is b exactly when neighbors.get(b).get(opposite wall) is a,
+     *          and then a's wall is joined to b
+     * @author sdrammis
+     */
+    private final Map<String, WorldBoard> boards = new LinkedHashMap<String, WorldBoard>();
+    private final Map<String, Map<String, String>> neighbors = new HashMap<String, Map<String, String>>();
+    private final ScheduledThreadPoolExecutor physics;
+    private final Thread frames;
+
+    // how often the boards that are watched are drawn
+    static final int FRAMES_PER_SECOND = 10;
+
+    /**
+     * Make a world of boards, with nothing played yet
+     * @param boards the boards, with different names
+     * @param threads size of the physics pool, > 0
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public BoardWorld(List<Board> boards, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.physics = new ScheduledThreadPoolExecutor(threads);
+        for (Board board : boards) {
+            if (this.boards.containsKey(board.getName())) {
+                throw new IllegalArgumentException("two boards named " + board.getName());
+            }
+            this.boards.put(board.getName(), new WorldBoard(board, this));
+            this.neighbors.put(board.getName(), new HashMap<String, String>());
+        }
+        this.frames = new Thread(new Runnable() {
+            public void run() { drawFrames(); }
+        });
+        this.frames.setDaemon(true);
+    }
+
+    /**
+     * Start playing every board, and drawing the ones that are watched
+     */
+    public void start() {
+        this.frames.start();
+        for (WorldBoard board : this.boards.values()) {
+            board.wake();
+        }
+    }
+
+    /**
+     * See if the world has a board
+     * @param name name of a board
+     * @return true if one of the boards has that name
+     */
+    public boolean hasBoard(String name) {
+        return this.boards.containsKey(name);
+    }
+
+    /**
+     * Join a wall of one board to a wall of another, so balls go through it from one board to the other.
+     * Whichever boards were joined to those walls get their walls back.
+     * @param mergeType "h" to join the right wall of first to the left wall of second,
+     *      "v" to join the bottom wall of first to the top wall of second
+     * @param first name of a board of the world
+     * @param second name of a board of the world
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public synchronized void join(String mergeType, String first, String second) {
+        if (!hasBoard(first) || !hasBoard(second)) {
+            throw new IllegalArgumentException("no board named " + (hasBoard(first) ? second : first));
+        }
+        String firstWall = mergeType.equals("v") ? "B" : "R";
+        String secondWall = mergeType.equals("v") ? "T" : "L";
+        // whoever was on the walls being joined loses its wall
+        String old = this.neighbors.get(first).put(firstWall, second);
+        if (old != null && !old.equals(second)) { unjoin(old, secondWall); }
+        old = this.neighbors.get(second).put(secondWall, first);
+        if (old != null && !old.equals(first)) { unjoin(old, firstWall); }
+        this.boards.get(first).changeWall("MERGE " + firstWall + " " + second);
+        this.boards.get(second).changeWall("MERGE " + secondWall + " " + first);
+    }
+
+    /**
+     * Make a wall of a board solid again
+     * @param name name of the board
+     * @param wall the wall, "L", "R", "T" or "B"
+     */
+    private void unjoin(String name, String wall) {
+        this.neighbors.get(name).remove(wall);
+        this.boards.get(name).changeWall("WALL " + wall);
+    }
+
+    /**
+     * Start showing a board to a viewer
+     * @param name name of a board of the world
+     * @param viewer shown a frame of the board FRAMES_PER_SECOND times a second until it stops watching
+     */
+    public void watch(String name, BoardViewer viewer) {
+        WorldBoard board = this.boards.get(name);
+        board.viewers.add(viewer);
+        // a resting board takes a snapshot for the viewer when it is woken up
+        board.wake();
+    }
+
+    /**
+     * Stop showing a board to a viewer
+     * @param name name of a board of the world
+     * @param viewer a viewer of the board
+     */
+    public void unwatch(String name, BoardViewer viewer) {
+        this.boards.get(name).viewers.remove(viewer);
+    }
+
+    /**
+     * Start sending a board to a spectator, see SpectatorFeed
+     * @param name name of a board of the world
+     * @param spectator sent a keyframe of the board, then what changes on it, until it stops following it
+     */
+    public void spectate(String name, BoardSpectator spectator) {
+        WorldBoard board = this.boards.get(name);
+        board.feed.subscribe(spectator);
+        // a resting board takes a snapshot for the keyframe when it is woken up
+        board.wake();
+    }
+
+    /**
+     * Stop sending a board to a spectator
+     * @param name name of a board of the world
+     * @param spectator a spectator of the board
+     */
+    public void unspectate(String name, BoardSpectator spectator) {
+        this.boards.get(name).feed.unsubscribe(spectator);
+    }
+
+    /**
+     * Send a spectator that lost messages a new keyframe of a board before anything else
+     * @param name name of a board of the world
+     * @param spectator a spectator of the board
+     */
+    public void rekey(String name, BoardSpectator spectator) {
+        this.boards.get(name).feed.rekey(spectator);
+    }
+
+    /**
+     * Get the boards joined to a board, and the boards joined to those, and so on
+     * @param name name of a board of the world
+     * @return names of every board of the wall of boards the board is part of, starting with the board itself,
+     *      empty if the world has no board with that name
+     */
+    public synchronized List<String> getWall(String name) {
+        List<String> wall = new ArrayList<String>();
+        if (!hasBoard(name)) { return wall; }
+        wall.add(name);
+        for (int i = 0; i < wall.size(); i++) {
+            for (String neighbor : this.neighbors.get(wall.get(i)).values()) {
+                if (!wall.contains(neighbor)) { wall.add(neighbor); }
+            }
+        }
+        return wall;
+    }
+
+    /**
+     * Draw every board that is watched once a frame, until the world is closed.
+     * A board is drawn from the newest snapshot its steps have taken, with the balls moved on to when it is drawn,
+     * at most BoardRenderer.MAX_EXTRAPOLATION.
+     */
+    private void drawFrames() {
+        long framePeriod = 1000000000L / FRAMES_PER_SECOND;
+        long nextFrame = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            for (WorldBoard board : this.boards.values()) {
+                if (!board.isWatched()) { continue; }
+                BoardSnapshot latest = board.latest.getAndSet(null);
+                if (latest != null) { board.front = latest; }
+                if (board.front == null) { continue; }
+                board.feed.publish(board.front);
+                if (board.viewers.isEmpty()) { continue; }
+                String frame = frame(board.front, Math.min(BoardRenderer.MAX_EXTRAPOLATION, 
+                        (System.nanoTime() - board.front.getTime()) / 1e9));
+                for (BoardViewer viewer : board.viewers) {
+                    viewer.show(frame);
+                }
+            }
+            // wait for the next frame, skip frames we have fallen behind on
+            nextFrame += framePeriod;
+            long now = System.nanoTime();
+            if (nextFrame < now) { nextFrame = now; }
+            LockSupport.parkNanos(nextFrame - now);
+        }
+    }
+
+    /**
+     * Make the message that shows a frame of a board
+     * @param snapshot the board
+     * @param seconds how long after the snapshot the frame is drawn
+     * @return FRAME columns rows, see BoardViewer
+     */
+    static String frame(BoardSnapshot snapshot, double seconds) {
+        String drawn = snapshot.render(seconds);
+        return "FRAME " + drawn.indexOf('\n') + " " + drawn.replace("\n", "");
+    }
+
+    /**
+     * Run a step of a board on the physics pool after a delay
+     * @param board board to step
+     * @param delayNanos how long from now, >= 0
+     */
+    void schedule(WorldBoard board, long delayNanos) {
+        try {
+            this.physics.schedule(board, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ree) {
+            // the world is closed, nothing is played any more
+        }
+    }
+
+    /**
+     * Get one of the boards
+     * @param name name of the board
+     * @return the board, null if the world has no board with that name
+     */
+    WorldBoard getBoard(String name) {
+        return this.boards.get(name);
+    }
+
+    /**
+     * Stop playing and drawing the boards
+     * @throws InterruptedException if interrupted while waiting for the running steps to finish
+     */
+    public void close() throws InterruptedException {
+        this.frames.interrupt();
+        this.physics.shutdownNow();
+        this.physics.awaitTermination(1, TimeUnit.SECONDS);
+    }
+}
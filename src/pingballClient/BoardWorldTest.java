@@ -0,0 +1,85 @@
+package pingballClient;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+import physics.Vect;
+import pingballClient.boardObjects.Ball;
+import pingballClient.boardObjects.Gadget;
+
+/**
+ * TESTING STRATEGY
+ *
+ * join():
+ *      two boards joined, a ball crosses from one to the other in memory
+ *      a board joined to a wall that was joined already, the old neighbor gets its wall back
+ * watch(), unwatch():
+ *      a viewer of a board is shown frames of it, with the ball once it has crossed; no frames once it stops
+ * frame():
+ *      one line per row of the board, every line as long as the columns say
+ *
+ * @author sdrammis
+ */
+public class BoardWorldTest {
+
+    private static Board board(String name, Ball... balls) {
+        return new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(balls)), name, 0.0, 0.0, 0.0);
+    }
+
+    @Test(timeout=10000)
+    public void testBallCrossesAndIsShown() throws Exception {
+        BoardWorld world = new BoardWorld(Arrays.asList(board("a", new Ball("ball", 18, 10, new Vect(20, 0))),
+                board("b")), 2);
+        final BlockingQueue<String> frames = new LinkedBlockingQueue<String>();
+        BoardViewer viewer = new BoardViewer() {
+            public void show(String frame) { frames.add(frame); }
+        };
+        world.watch("b", viewer);
+        world.join("h", "a", "b");
+        world.start();
+        String frame;
+        while (!(frame = frames.take()).contains("*")) {
+            // the ball hasn't crossed yet
+        }
+        assertTrue(frame.startsWith("FRAME 22 "));
+        assertTrue(frame.contains("a"));
+        world.unwatch("b", viewer);
+        world.close();
+        
+        Set<Ball> balls = new HashSet<Ball>(world.getBoard("a").getBoard().getBallCopy());
+        balls.addAll(world.getBoard("b").getBoard().getBallCopy());
+        assertEquals(1, balls.size());
+        assertEquals("ball", balls.iterator().next().getName());
+        frames.clear();
+        Thread.sleep(300);
+        assertTrue(frames.isEmpty());
+    }
+
+    @Test(timeout=10000)
+    public void testJoinReplacesOldNeighbor() throws Exception {
+        BoardWorld world = new BoardWorld(Arrays.asList(board("a"), board("b"), board("c")), 1);
+        world.start();
+        world.join("h", "a", "b");
+        world.join("h", "c", "b");
+        Thread.sleep(200);
+        world.close();
+        assertFalse(world.getBoard("a").getBoard().getNeighbors().containsKey("R"));
+        assertEquals("c", world.getBoard("b").getBoard().getNeighbor("L"));
+        assertEquals("b", world.getBoard("c").getBoard().getNeighbor("R"));
+    }
+
+    @Test
+    public void testFrame() {
+        Board board = board("a", new Ball("ball", 1.5, 2.5, new Vect(0, 0)));
+        String[] message = BoardWorld.frame(board.snapshot(), 0).split(" ", 3);
+        assertEquals("FRAME", message[0]);
+        int columns = Integer.parseInt(message[1]);
+        assertEquals(22, columns);
+        assertEquals(22 * columns, message[2].length());
+        assertEquals(board.toString().replace("\n", ""), message[2]);
+    }
+}
@@ -0,0 +1,99 @@
+package pingballClient;
+
+/**
+ * This client's estimate of the server's clock, see pingball.PingballServer.clockNanos(), so balls handed between
+ * boards can be stamped with when they crossed and every board agrees on what that time is.
+ *
+ * The client sends PING t0 every so often, with t0 its System.nanoTime(), and the server answers PONG t0 server,
+ * with server its clock when it answered. If the answer arrives at t1, the server's clock read server about half
+ * the round trip t1 - t0 ago, so it is ahead of ours by server + (t1 - t0) / 2 - t1.
+ * Round trips much slower than the fastest one seen were held up on the way and are left out, and the offset
+ * is smoothed, along with how fast it drifts, so one late answer can't move the clock much.
+ *
+ * Thread Safety Argument:
+ *      every method is synchronized, so the listen thread that measures and the play thread that reads the clock
+ *          always see the whole estimate of one measurement
+ *
+ * @author sdrammis
+ */
+public class ClockSync {
+    /**
+     * Rep invariant:
+     *      samples >= 0
+     *      minRoundTrip > 0 once samples > 0
+     *      offset, drift, measuredAt: meaningless while samples == 0
+     * @author sdrammis
+     */
+    private int samples = 0;
+    private long minRoundTrip = Long.MAX_VALUE; //fastest round trip seen, in nanoseconds
+    private double offset = 0; //server clock - System.nanoTime() at measuredAt, in nanoseconds
+    private double drift = 0; //how much the offset grows per nanosecond
+    private long measuredAt = 0; //System.nanoTime() of the last measurement taken into account
+
+    //a round trip slower than this many times the fastest one is left out
+    private static final double SLOW_ROUND_TRIP = 2.0;
+    //how much of the error of a measurement goes into the offset and into the drift
+    private static final double OFFSET_GAIN = 0.25;
+    private static final double DRIFT_GAIN = 0.05;
+
+    /**
+     * Take a round trip to the server into account
+     * @param sent System.nanoTime() when the PING was sent
+     * @param server the server's clock when it answered
+     * @param received System.nanoTime() when the PONG arrived, >= sent
+     * @return true if the measurement was used, false if the round trip was too slow to trust
+     */
+    public synchronized boolean measure(long sent, long server, long received) {
+        long roundTrip = Math.max(1, received - sent);
+        this.minRoundTrip = Math.min(this.minRoundTrip, roundTrip);
+        if (this.samples > 0 && roundTrip > SLOW_ROUND_TRIP * this.minRoundTrip) { return false; }
+        double measured = server + roundTrip / 2.0 - received;
+        if (this.samples == 0) {
+            this.offset = measured;
+        } else {
+            long since = Math.max(1, received - this.measuredAt);
+            double predicted = this.offset + this.drift * since;
+            double error = measured - predicted;
+            this.offset = predicted + OFFSET_GAIN * error;
+            if (this.samples > 1) { this.drift += DRIFT_GAIN * error / since; }
+        }
+        this.measuredAt = received;
+        this.samples++;
+        checkRep();
+        return true;
+    }
+
+    /**
+     * See if the clock has been measured at all
+     * @return true once a measurement has been used
+     */
+    public synchronized boolean isSynced() {
+        return this.samples > 0;
+    }
+
+    /**
+     * Get the server's clock at some time of ours
+     * @param nanos a System.nanoTime() of this client
+     * @return the server's clock at that time, in nanoseconds, nanos itself if the clock has never been measured
+     */
+    public synchronized long serverTime(long nanos) {
+        if (this.samples == 0) { return nanos; }
+        return nanos + Math.round(this.offset + this.drift * (nanos - this.measuredAt));
+    }
+
+    /**
+     * Get how long a message takes from here to the server, or back
+     * @return half the fastest round trip seen, in seconds, 0 if the clock has never been measured
+     */
+    public synchronized double getLatency() {
+        return this.samples == 0 ? 0 : this.minRoundTrip / 2e9;
+    }
+
+    /**
+     * Ensure the rep holds
+     */
+    private void checkRep() {
+        assert this.samples >= 0;
+        assert this.samples == 0 || this.minRoundTrip > 0;
+    }
+}
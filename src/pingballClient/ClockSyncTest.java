@@ -0,0 +1,69 @@
+package pingballClient;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * TESTING STRATEGY
+ * 
+ * measure():
+ *      first measurement, symmetric round trip, round trip much slower than the fastest (left out)
+ *      server clock ahead of and behind ours, server clock running faster than ours (drift)
+ * serverTime():
+ *      before any measurement, after
+ * getLatency():
+ *      before any measurement, fastest round trip
+ *      
+ * @author sdrammis
+ */
+public class ClockSyncTest {
+
+    @Test
+    public void testUnsynced() {
+        ClockSync clock = new ClockSync();
+        assertFalse(clock.isSynced());
+        assertEquals(1234, clock.serverTime(1234));
+        assertEquals(0, clock.getLatency(), 0.0);
+    }
+
+    @Test
+    public void testSymmetricRoundTrip() {
+        ClockSync clock = new ClockSync();
+        // 10ms each way, the server answered 500ms ahead of us
+        assertTrue(clock.measure(1000000000L, 1510000000L, 1020000000L));
+        assertTrue(clock.isSynced());
+        assertEquals(2500000000L, clock.serverTime(2000000000L));
+        assertEquals(0.01, clock.getLatency(), 1e-12);
+        
+        // behind us
+        ClockSync behind = new ClockSync();
+        assertTrue(behind.measure(1000000000L, 710000000L, 1020000000L));
+        assertEquals(1700000000L, behind.serverTime(2000000000L));
+    }
+
+    @Test
+    public void testSlowRoundTripLeftOut() {
+        ClockSync clock = new ClockSync();
+        assertTrue(clock.measure(1000000000L, 1510000000L, 1020000000L));
+        // held up on the way back for 100ms, it would put the server 50ms further ahead
+        assertFalse(clock.measure(2000000000L, 2510000000L, 2120000000L));
+        assertEquals(3500000000L, clock.serverTime(3000000000L));
+        assertEquals(0.01, clock.getLatency(), 1e-12);
+    }
+
+    @Test
+    public void testDriftTracked() {
+        ClockSync clock = new ClockSync();
+        // the server's clock runs 1% faster than ours, one measurement a second
+        long start = 1000000000L;
+        for (int second = 0; second < 200; second++) {
+            long sent = start + second * 1000000000L;
+            long server = 5000000000L + Math.round((sent + 10000000L) * 1.01);
+            clock.measure(sent, server, sent + 20000000L);
+        }
+        long later = start + 200 * 1000000000L;
+        long expected = 5000000000L + Math.round(later * 1.01);
+        assertEquals(expected, clock.serverTime(later), 20000000);
+    }
+}
@@ -0,0 +1,114 @@
+package pingballClient;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Where a BoardRenderer draws its frames. Each frame is encoded as ASCII into one buffer that is reused for every
+ * frame, and written to the channel in one write. Instead of scrolling, each frame moves the cursor back to the top
+ * left corner of the terminal and draws over the last one.
+ *
+ * Thread Safety Argument:
+ *      channel: immutable reference
+ *      frame: confined to the render thread that calls draw()
+ *
+ * @author asolei
+ */
+public class ConsoleSink {
+    /**
+     * Invariants:
+     *      frame: position is 0 between calls to draw()
+     * @author asolei
+     */
+    private final WritableByteChannel channel; //where the frames are written
+    private ByteBuffer frame; //the frame being drawn, only grows if a bigger board is drawn
+    private boolean cleared = false; //whether the terminal has been cleared before the first frame
+
+    //ANSI escape codes
+    private static final byte[] CLEAR_SCREEN = { 0x1b, '[', '2', 'J' };
+    private static final byte[] CURSOR_HOME = { 0x1b, '[', 'H' };
+
+    /**
+     * Make a sink that draws to the standard output of the process
+     * @param width width of the boards drawn
+     * @param height height of the boards drawn
+     */
+    public ConsoleSink(int width, int height) {
+        this(new FileOutputStream(FileDescriptor.out).getChannel(), width, height);
+    }
+
+    /**
+     * Make a sink that draws to a channel
+     * @param channel where the frames are written
+     * @param width width of the boards drawn, used to size the frame buffer
+     * @param height height of the boards drawn, used to size the frame buffer
+     */
+    public ConsoleSink(WritableByteChannel channel, int width, int height) {
+        this.channel = channel;
+        // walls and a newline around every row and above and below the board
+        this.frame = ByteBuffer.allocate(CLEAR_SCREEN.length + CURSOR_HOME.length + (width + 3) * (height + 2));
+    }
+
+    /**
+     * Draw a frame over the last one
+     *
+     * @param snapshot the board to draw
+     * @param seconds how long after the snapshot was taken the frame is drawn, see BoardSnapshot.encode()
+     * @throws IOException if the channel can't be written to
+     * @author asolei
+     * Implemented by: asolei
+     */
+    public void draw(BoardSnapshot snapshot, double seconds) throws IOException {
+        int needed = CLEAR_SCREEN.length + CURSOR_HOME.length + snapshot.encodedLength();
+        if (needed > this.frame.capacity()) {
+            this.frame = ByteBuffer.allocate(needed);
+        }
+        if (!this.cleared) {
+            this.frame.put(CLEAR_SCREEN);
+            this.cleared = true;
+        }
+        this.frame.put(CURSOR_HOME);
+        snapshot.encode(seconds, this.frame);
+        write();
+    }
+    
+    /**
+     * Draw a frame that was drawn somewhere else over the last one, see BoardViewer
+     *
+     * @param rows the lines of the frame, without newlines, only ASCII characters
+     * @param columns length of each line, > 0
+     * @throws IOException if the channel can't be written to
+     * @author asolei
+     */
+    public void draw(String rows, int columns) throws IOException {
+        int needed = CLEAR_SCREEN.length + CURSOR_HOME.length + rows.length() + rows.length() / columns;
+        if (needed > this.frame.capacity()) {
+            this.frame = ByteBuffer.allocate(needed);
+        }
+        if (!this.cleared) {
+            this.frame.put(CLEAR_SCREEN);
+            this.cleared = true;
+        }
+        this.frame.put(CURSOR_HOME);
+        for (int i = 0; i < rows.length(); i++) {
+            this.frame.put((byte) rows.charAt(i));
+            if ((i + 1) % columns == 0) { this.frame.put((byte) '\n'); }
+        }
+        write();
+    }
+    
+    /**
+     * Write the frame that was drawn to the channel, and make the buffer ready for the next one
+     * @throws IOException if the channel can't be written to
+     */
+    private void write() throws IOException {
+        this.frame.flip();
+        while (this.frame.hasRemaining()) {
+            this.channel.write(this.frame);
+        }
+        this.frame.clear();
+    }
+}
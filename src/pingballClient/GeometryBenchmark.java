@@ -0,0 +1,145 @@
+package pingballClient;
+
+import java.util.*;
+
+import physics.*;
+import pingballClient.boardObjects.GeometryKernel;
+
+/**
+ * Compares physics.Geometry with GeometryKernel, for the calls the gadgets make the most:
+ *      wall: time until a ball hits a segment
+ *      circle: time until a ball hits a circle, like the corners of gadgets
+ *      ballball: time until two balls hit
+ *      reflect: the velocity of a ball after it bounces off a segment
+ *
+ * For every call and both ways it reports the nanoseconds per call, after making the same calls once
+ * to let the JIT compile them. The answers are summed and printed, so the JIT can't drop the calls.
+ *
+ * Thread Safety Argument:
+ *      a benchmark only runs on the thread that calls it, and the cases are not shared
+ *
+ * @author nwallace
+ */
+public class GeometryBenchmark {
+
+    private static final double RADIUS = 0.25;
+
+    /**
+     * Compare physics.Geometry with GeometryKernel.
+     *
+     * Usage: GeometryBenchmark [--calls CALLS]
+     *
+     * CALLS is how many times each call is timed, the default is 1000000.
+     *
+     * Prints one line per call and way.
+     *
+     * @author nwallace
+     * Implemented by: nwallace
+     */
+    public static void main(String[] args) {
+        int calls = 1000000;
+        Queue<String> arguments = new LinkedList<String>(Arrays.asList(args));
+        try {
+            while (! arguments.isEmpty()){
+                String flag = arguments.remove();
+                try {
+                    if (flag.equals("--calls")){
+                        calls = Integer.parseInt(arguments.remove());
+                    } else {
+                        throw new IllegalArgumentException("unknown option: \"" + flag + "\"");
+                    }
+                } catch (NoSuchElementException nsee){
+                    throw new IllegalArgumentException("missing argument for " + flag);
+                } catch (NumberFormatException nfe){
+                    throw new IllegalArgumentException("unable to parse number for " + flag);
+                }
+            }
+            if (calls <= 0){
+                throw new IllegalArgumentException("calls must be positive");
+            }
+        } catch (IllegalArgumentException iae){
+            System.err.println(iae.getMessage());
+            System.err.println("usage: GeometryBenchmark [--calls CALLS]");
+            System.exit(2);
+            return;
+        }
+
+        double[][] cases = makeCases(1024);
+        for (String call : new String[] {"wall", "circle", "ballball", "reflect"}) {
+            for (String way : new String[] {"geometry", "kernel"}) {
+                run(call, way, cases, calls);
+                long start = System.nanoTime();
+                double sum = run(call, way, cases, calls);
+                double nanos = (System.nanoTime() - start) / (double) calls;
+                System.out.println(String.format(Locale.ROOT, "call=%s way=%s calls=%d nanosPerCall=%.2f sum=%.6g",
+                        call, way, calls, nanos, sum));
+            }
+        }
+    }
+
+    /**
+     * Make one call many times, one way
+     * @param call "wall", "circle", "ballball" or "reflect"
+     * @param way "geometry" or "kernel"
+     * @param cases the cases to cycle through, see makeCases
+     * @param calls how many calls, > 0
+     * @return the sum of the answers that are finite
+     */
+    static double run(String call, String way, double[][] cases, int calls) {
+        boolean geometry = way.equals("geometry");
+        if (! geometry && ! way.equals("kernel")) {
+            throw new IllegalArgumentException("unknown way: " + way);
+        }
+        double sum = 0;
+        for (int i = 0; i < calls; i++) {
+            double[] c = cases[i & (cases.length - 1)];
+            double answer;
+            if (call.equals("wall")) {
+                answer = geometry
+                        ? Geometry.timeUntilWallCollision(new LineSegment(c[0], c[1], c[2], c[3]),
+                                new Circle(c[4], c[5], RADIUS), new Vect(c[6], c[7]))
+                        : GeometryKernel.timeUntilWallCollision(c[0], c[1], c[2], c[3], c[4], c[5], RADIUS, c[6], c[7]);
+            } else if (call.equals("circle")) {
+                answer = geometry
+                        ? Geometry.timeUntilCircleCollision(new Circle(c[0], c[1], 0),
+                                new Circle(c[4], c[5], RADIUS), new Vect(c[6], c[7]))
+                        : GeometryKernel.timeUntilCircleCollision(c[0], c[1], 0, c[4], c[5], RADIUS, c[6], c[7]);
+            } else if (call.equals("ballball")) {
+                answer = geometry
+                        ? Geometry.timeUntilBallBallCollision(new Circle(c[0], c[1], RADIUS), new Vect(c[8], c[9]),
+                                new Circle(c[4], c[5], RADIUS), new Vect(c[6], c[7]))
+                        : GeometryKernel.timeUntilBallBallCollision(c[0], c[1], RADIUS, c[8], c[9],
+                                c[4], c[5], RADIUS, c[6], c[7]);
+            } else if (call.equals("reflect")) {
+                answer = geometry
+                        ? Geometry.reflectWall(new LineSegment(c[0], c[1], c[2], c[3]), new Vect(c[6], c[7]), 1.0).x()
+                        : GeometryKernel.reflectWall(c[0], c[1], c[2], c[3], c[6], c[7], 1.0).x();
+            } else {
+                throw new IllegalArgumentException("unknown call: " + call);
+            }
+            if (! Double.isInfinite(answer)) { sum += answer; }
+        }
+        return sum;
+    }
+
+    /**
+     * Make cases spread over a 20 by 20 board: a segment from (c[0], c[1]) to (c[2], c[3]) like the side of a gadget,
+     * a ball at (c[4], c[5]) with velocity (c[6], c[7]), and another velocity (c[8], c[9])
+     * @param count how many, a power of 2
+     * @return the cases
+     */
+    private static double[][] makeCases(int count) {
+        Random random = new Random(count);
+        double[][] cases = new double[count][];
+        for (int i = 0; i < count; i++) {
+            double x = random.nextInt(19);
+            double y = random.nextInt(19);
+            boolean across = random.nextBoolean();
+            cases[i] = new double[] {x, y, across ? x + 1 : x, across ? y : y + 1,
+                    random.nextDouble() * 20, random.nextDouble() * 20,
+                    random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50,
+                    random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50};
+        }
+        return cases;
+    }
+}
@@ -0,0 +1,108 @@
+package pingballClient;
+
+/**
+ * A ball that is about to leave a board through an invisible wall, announced to the neighbor before it leaves,
+ * see Board.predictDepartures. The neighbor can then put the ball in when it crosses, instead of when the ball
+ * itself arrives from the server.
+ *
+ * Thread Safety Argument:
+ *      all fields are final and immutable, so a handoff is immutable
+ *
+ * @author sdrammis
+ */
+public final class Handoff {
+    /**
+     * Rep invariant:
+     *      key: the key of the ball on the board it leaves, see Ball.getKey
+     *      wall: "T", "B", "L" or "R", an invisible wall of the board the ball leaves
+     *      delay >= 0
+     *      x, y, xVel, yVel: where the ball enters the neighbor, in the coordinates the ball would be sent with
+     * @author sdrammis
+     */
+    private final String name;
+    private final long key;
+    private final String wall;
+    private final double delay;
+    private final double x;
+    private final double y;
+    private final double xVel;
+    private final double yVel;
+
+    /**
+     * Make a handoff
+     * @param name name of the ball
+     * @param key key of the ball, see Ball.getKey
+     * @param wall name of the invisible wall the ball leaves through
+     * @param delay seconds of play until the ball leaves, >= 0
+     * @param x x coordinate of the ball as it enters the neighbor
+     * @param y y coordinate of the ball as it enters the neighbor
+     * @param xVel x velocity of the ball as it enters the neighbor
+     * @param yVel y velocity of the ball as it enters the neighbor
+     */
+    public Handoff(String name, long key, String wall, double delay, double x, double y, double xVel, double yVel) {
+        this.name = name;
+        this.key = key;
+        this.wall = wall;
+        this.delay = delay;
+        this.x = x;
+        this.y = y;
+        this.xVel = xVel;
+        this.yVel = yVel;
+    }
+
+    /**
+     * @return name of the ball
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return key of the ball, the same key its BALL message is sent with
+     */
+    public long getKey() {
+        return this.key;
+    }
+
+    /**
+     * @return name of the wall the ball leaves through, "T", "B", "L" or "R"
+     */
+    public String getWall() {
+        return this.wall;
+    }
+
+    /**
+     * @return seconds of play from when the handoff was made until the ball leaves
+     */
+    public double getDelay() {
+        return this.delay;
+    }
+
+    /**
+     * @return x coordinate of the ball as it enters the neighbor
+     */
+    public double getX() {
+        return this.x;
+    }
+
+    /**
+     * @return y coordinate of the ball as it enters the neighbor
+     */
+    public double getY() {
+        return this.y;
+    }
+
+    /**
+     * @return x velocity of the ball as it enters the neighbor
+     */
+    public double getXVel() {
+        return this.xVel;
+    }
+
+    /**
+     * @return y velocity of the ball as it enters the neighbor
+     */
+    public double getYVel() {
+        return this.yVel;
+    }
+}
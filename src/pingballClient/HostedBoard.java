@@ -0,0 +1,128 @@
+package pingballClient;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One of the boards of a MultiBoardClient. A step of the board is a task on the client's physics pool: each step
+ * plays the board for PingballClient.CONTINUOUS_TICK seconds with continuous collision detection, and schedules
+ * the next step CONTINUOUS_TICK later. A board that is resting schedules no more steps, and takes no time from
+ * the pool, until a message from the server arrives for it.
+ *
+ * Thread Safety Argument:
+ *      board, nextStep, nextPing: only touched by the step that is running, and there is never more than one step of a board
+ *          scheduled or running. Handing a step to the pool makes everything the last step did visible to the next.
+ *      scheduled: a thread safe type. A step is only handed to the pool by whoever sets it from false to true.
+ *      incoming: single producer single consumer ring, only filled by the client's listen thread and only drained by
+ *          the running step
+ *      joined: only written by the client's listen thread, before it counts down the client's answered latch,
+ *          and read by others only after waiting on the latch
+ *      renderer: a thread safe type, see BoardRenderer
+ *
+ * @author sdrammis
+ */
+class HostedBoard implements Runnable {
+    /**
+     * Invariants:
+     *      scheduled: true while a step of the board is waiting in the pool or running
+     *      nextStep: System.nanoTime() when the next step is due
+     * @author sdrammis
+     */
+    private final String name;
+    private final Board board;
+    private final MultiBoardClient client;
+    private final BoardRenderer renderer; //null if the board isn't drawn
+    private final InboundRing incoming = new InboundRing(INCOMING_CAPACITY);
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private long nextStep;
+    private long nextPing = System.nanoTime(); //System.nanoTime() when the server is pinged next
+    boolean joined = false; //whether the server has started the board
+
+    // how many incoming messages can be waiting for the board
+    private static final int INCOMING_CAPACITY = 1024;
+    private static final long STEP_NANOS = (long) (PingballClient.CONTINUOUS_TICK * 1e9);
+    // how far a board can fall behind the clock before it stops trying to catch up
+    private static final long MAX_LAG_NANOS = 50000000;
+
+    /**
+     * Make a board for a client, with no step scheduled
+     * @param board the board
+     * @param client the client that hosts it
+     * @param renderer draws the board, null if it isn't drawn
+     */
+    HostedBoard(Board board, MultiBoardClient client, BoardRenderer renderer) {
+        this.name = board.getName();
+        this.board = board;
+        this.client = client;
+        this.renderer = renderer;
+    }
+
+    /**
+     * Get the name of the board
+     * @return name
+     */
+    String getName() {
+        return this.name;
+    }
+
+    /**
+     * Get the board. Only safe to call once the client is closed, or from a step.
+     * @return the board
+     */
+    Board getBoard() {
+        return this.board;
+    }
+
+    /**
+     * Hand a message from the server to the board. Only called by the client's listen thread. Never waits, 
+     * so a board that has fallen behind doesn't hold up the messages for the other boards.
+     * @param line message for the board, see InboundRing
+     */
+    void deliver(String line) {
+        this.incoming.add(line);
+        // the compare and set in wake() is a full fence, so the step either sees the message or is woken up
+        wake();
+    }
+
+    /**
+     * Schedule a step of the board right away, unless one is already scheduled
+     */
+    void wake() {
+        if (this.scheduled.compareAndSet(false, true)) {
+            this.nextStep = System.nanoTime();
+            this.client.execute(this);
+        }
+    }
+
+    /**
+     * Play one step of the board, and schedule the next one unless the board is resting
+     * Implemented by: sdrammis
+     */
+    @Override
+    public void run() {
+        this.incoming.drainTo(this.board);
+        if (System.nanoTime() - this.nextPing >= 0) {
+            this.client.ping(this);
+            this.nextPing = System.nanoTime() + PingballClient.PING_INTERVAL_NANOS;
+        }
+        if (this.board.isResting()) {
+            this.board.newGadgetPositions(PingballClient.FLIPPER_TURN_TIME);
+            if (this.renderer != null) { this.renderer.publish(this.board.snapshot()); }
+            this.scheduled.set(false);
+            // a message may have arrived after the drain, and seen the step still scheduled
+            if (!this.incoming.isEmpty()) { wake(); }
+            return;
+        }
+        this.board.newGadgetPositions(PingballClient.CONTINUOUS_TICK);
+        this.client.send(this, this.board.advance(PingballClient.CONTINUOUS_TICK), this.incoming.getClock());
+        this.client.announce(this, this.board.predictDepartures(PingballClient.HANDOFF_LOOKAHEAD),
+                this.incoming.getClock());
+        if (this.renderer != null) { this.renderer.publish(this.board.snapshot()); }
+        this.nextStep += STEP_NANOS;
+        long delay = this.nextStep - System.nanoTime();
+        if (delay < -MAX_LAG_NANOS) {
+            // we fell behind, don't try to catch up in a burst
+            this.nextStep = System.nanoTime();
+        }
+        this.client.schedule(this, Math.max(0, delay));
+    }
+}
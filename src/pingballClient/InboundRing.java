@@ -0,0 +1,344 @@
+package pingballClient;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import pingballClient.boardObjects.Ball;
+
+/**
+ * Messages from the server on their way from the listen thread to the play thread.
+ * A ring of preallocated slots with exactly one producer, the listen thread, and one consumer, the play thread.
+ * The listen thread decodes each line into a slot, and the play thread applies every waiting message to the board
+ * in one batch per tick. Neither thread takes a lock.
+ * The listen thread never waits for the play thread: when the ring is full, messages wait in an overflow queue
+ * instead, after the ones in the ring, until the play thread catches up. One listen thread can feed the rings of
+ * many boards, and a board that falls behind doesn't hold up the others.
+ *
+ * Messages, as sent by the PingballClientThread, where ballName is the name and key of the ball, name#key,
+ * or only its name, see PingballClient.ballToken:
+ *      BALL ballName xCoord yCoord xVel yVel [crossed]
+ *          crossed is when the ball crossed into this board on the server's clock, see ClockSync. The ball is moved
+ *          on for the time since then. A ball without it, or any ball before the clock is synced, is not moved.
+ *      INCOMING ballName crossing xCoord yCoord xVel yVel
+ *          a ball a neighbor expects to send when the server's clock reads crossing, see Board.expectBall. 
+ *          Dropped before the clock is synced.
+ *      MERGE T|B|R|L neighborName
+ *      WALL T|B|R|L
+ *      PONG sent server
+ *          the answer to PING sent, sent at System.nanoTime() sent, answered when the server's clock read server. 
+ *          It takes no slot, the producer uses it to keep clock in step with the server's clock
+ *
+ * Thread Safety Argument:
+ *      head: only written by the consumer, read by the producer to see which slots are free
+ *      tail: only written by the producer, read by the consumer to see which slots are filled
+ *      slots: a slot is only written by the producer while it is free, and only read by the consumer once it is
+ *          filled. Publishing the tail after filling a slot makes the slot visible to the consumer, and publishing
+ *          the head after reading a slot gives it back to the producer.
+ *      spare slots: each only touched by its own thread
+ *      overflow: a thread safe queue, only added to by the producer and only taken from by the consumer. Only the
+ *          producer makes it non-empty, so once it sees it empty every message it overflowed has been taken,
+ *          and messages it adds to the ring are drained after them.
+ *      clock: a thread safe type, measured by the producer and read by the consumer and the play thread
+ *
+ * @author sdrammis
+ */
+public class InboundRing {
+    /**
+     * Invariants:
+     *      capacity is a power of two, mask = capacity - 1
+     *      head <= tail <= head + capacity
+     *      slots [head, tail) (mod capacity) are filled, the rest are free
+     *      kinds: BALL, INCOMING, MERGE or WALL for filled slots
+     *      slot capacity is the producer's spare, slot capacity + 1 the consumer's spare, neither is in the ring
+     *      overflow: messages added after the ones in the ring, in order; while it isn't empty nothing is added
+     *          to the ring
+     * @author sdrammis
+     */
+    private final AtomicLong head = new AtomicLong(); //next slot the consumer reads
+    private final AtomicLong tail = new AtomicLong(); //next slot the producer fills
+    private final int mask;
+    private final ConcurrentLinkedQueue<Overflowed> overflow = new ConcurrentLinkedQueue<Overflowed>();
+
+    //the slots, one entry per slot in each array, and the two spare slots
+    private final byte[] kinds;
+    private final String[] names; //ball name for BALL, neighbor name for MERGE
+    private final long[] keys; //for BALL and INCOMING, the key of the ball or Ball.NO_KEY, see Board.expectBall
+    private final String[] walls; //wall for MERGE and WALL
+    private final double[] xCoords;
+    private final double[] yCoords;
+    private final double[] xVels;
+    private final double[] yVels;
+    //for INCOMING, how long after it was received the ball is due, 
+    //  for BALL, how long before it was received the ball crossed, in seconds
+    private final double[] times;
+    private final long[] received; //for BALL and INCOMING, System.nanoTime() when it was received
+
+    //the server's clock, as far as the messages that come through here tell
+    private final ClockSync clock = new ClockSync();
+
+    private static final byte BALL = 1;
+    private static final byte MERGE = 2;
+    private static final byte WALL = 3;
+    private static final byte INCOMING = 4;
+    //a ball that crossed longer ago than this, in seconds, is only moved on for this long
+    static final double MAX_AGE = 0.5;
+
+    /**
+     * Make an empty ring
+     * @param capacity number of messages that can be waiting, a power of two > 0
+     */
+    public InboundRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two, got " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.kinds = new byte[capacity + 2];
+        this.names = new String[capacity + 2];
+        this.keys = new long[capacity + 2];
+        this.walls = new String[capacity + 2];
+        this.xCoords = new double[capacity + 2];
+        this.yCoords = new double[capacity + 2];
+        this.xVels = new double[capacity + 2];
+        this.yVels = new double[capacity + 2];
+        this.times = new double[capacity + 2];
+        this.received = new long[capacity + 2];
+    }
+
+    /**
+     * Decode a message and add it to the ring. Only called by the producer. Never waits: if the ring is full,
+     * or messages are already waiting in the overflow, the message is added to the overflow instead.
+     *
+     * @param line message from the server, see the class comment
+     * @return true if the message was added, false if it is not a message the client understands and was dropped
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public boolean add(String line) {
+        if (line.startsWith("PONG ")) {
+            return measure(line);
+        }
+        long t = this.tail.get();
+        boolean overflowing = !this.overflow.isEmpty() || t - this.head.get() > this.mask;
+        int slot = overflowing ? this.mask + 1 : (int) t & this.mask;
+        try {
+            int start = line.indexOf(' ') + 1;
+            if (start == 0) { return false; }
+            String type = line.substring(0, start - 1);
+            switch (type) {
+                case "BALL":
+                case "INCOMING":
+                    int end = line.indexOf(' ', start);
+                    int hash = line.lastIndexOf('#', end);
+                    if (hash >= start) {
+                        this.names[slot] = line.substring(start, hash);
+                        this.keys[slot] = Long.parseUnsignedLong(line.substring(hash + 1, end), 16);
+                    } else {
+                        this.names[slot] = line.substring(start, end);
+                        this.keys[slot] = Ball.NO_KEY;
+                    }
+                    long now = System.nanoTime();
+                    this.received[slot] = now;
+                    this.times[slot] = 0;
+                    if (type.equals("INCOMING")) {
+                        if (!this.clock.isSynced()) { return false; }
+                        start = end + 1;
+                        end = line.indexOf(' ', start);
+                        long crossing = Long.parseLong(line.substring(start, end));
+                        this.times[slot] = (crossing - this.clock.serverTime(now)) / 1e9;
+                    }
+                    start = end + 1;
+                    end = line.indexOf(' ', start);
+                    this.xCoords[slot] = Double.parseDouble(line.substring(start, end));
+                    start = end + 1;
+                    end = line.indexOf(' ', start);
+                    this.yCoords[slot] = Double.parseDouble(line.substring(start, end));
+                    start = end + 1;
+                    end = line.indexOf(' ', start);
+                    this.xVels[slot] = Double.parseDouble(line.substring(start, end));
+                    start = end + 1;
+                    end = line.indexOf(' ', start);
+                    this.yVels[slot] = Double.parseDouble(end < 0 ? line.substring(start) : line.substring(start, end));
+                    if (type.equals("BALL") && end >= 0 && this.clock.isSynced()) {
+                        start = end + 1;
+                        end = line.indexOf(' ', start);
+                        long crossed = Long.parseLong(end < 0 ? line.substring(start) : line.substring(start, end));
+                        this.times[slot] = Math.max(0, Math.min(MAX_AGE, (this.clock.serverTime(now) - crossed) / 1e9));
+                    }
+                    this.kinds[slot] = type.equals("BALL") ? BALL : INCOMING;
+                    break;
+                case "MERGE":
+                    end = line.indexOf(' ', start);
+                    this.walls[slot] = line.substring(start, end);
+                    this.names[slot] = line.substring(end + 1);
+                    this.kinds[slot] = MERGE;
+                    break;
+                case "WALL":
+                    this.walls[slot] = line.substring(start);
+                    this.kinds[slot] = WALL;
+                    break;
+                default:
+                    return false;
+            }
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            // a malformed message, drop it
+            return false;
+        }
+        if (overflowing) {
+            this.overflow.add(new Overflowed(slot));
+            this.names[slot] = null;
+            this.walls[slot] = null;
+            return true;
+        }
+        // publish the slot
+        this.tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Apply every waiting message to a board and free their slots, the ones in the ring first and then the ones
+     * in the overflow. Only called by the consumer.
+     *
+     * @param board the board the messages are for
+     * @return number of messages applied
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public int drainTo(Board board) {
+        long h = this.head.get();
+        long t = this.tail.get();
+        long now = h < t || !this.overflow.isEmpty() ? System.nanoTime() : 0;
+        for (long i = h; i < t; i++) {
+            apply(board, (int) i & this.mask, now);
+        }
+        // give the slots back to the producer
+        this.head.lazySet(t);
+        int applied = (int) (t - h);
+        Overflowed message;
+        while ((message = this.overflow.poll()) != null) {
+            int slot = this.mask + 2;
+            message.unload(slot);
+            apply(board, slot, now);
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Apply the message in a slot to a board and forget its strings. Only called by the consumer.
+     * @param board the board the message is for
+     * @param slot filled slot of the ring, or the consumer's spare slot
+     * @param now System.nanoTime() at the start of the drain
+     */
+    private void apply(Board board, int slot, long now) {
+        switch (this.kinds[slot]) {
+            case BALL:
+                double age = this.times[slot];
+                if (age > 0) {
+                    //it crossed earlier still by the time the message waited in the ring
+                    age = Math.min(MAX_AGE, age + (now - this.received[slot]) / 1e9);
+                }
+                board.addBall(this.names[slot], this.keys[slot], this.xCoords[slot], this.yCoords[slot],
+                        this.xVels[slot], this.yVels[slot], age);
+                break;
+            case INCOMING:
+                //the ball is due sooner for the time the message waited in the ring
+                board.expectBall(this.names[slot], this.keys[slot], 
+                        this.times[slot] - (now - this.received[slot]) / 1e9, 
+                        this.xCoords[slot], this.yCoords[slot], this.xVels[slot], this.yVels[slot]);
+                break;
+            case MERGE:
+                board.merge(this.walls[slot], this.names[slot]);
+                break;
+            case WALL:
+                board.removeInvisibleWall(this.walls[slot]);
+                break;
+        }
+        this.names[slot] = null;
+        this.walls[slot] = null;
+    }
+
+    /**
+     * Take a round trip into account in the clock. Only called by the producer.
+     * @param line PONG sent server
+     * @return true if it was a round trip, false if it is malformed
+     */
+    private boolean measure(String line) {
+        long received = System.nanoTime();
+        String[] tokens = line.split(" ");
+        if (tokens.length != 3) { return false; }
+        try {
+            long sent = Long.parseLong(tokens[1]);
+            if (sent > received) { return false; }
+            this.clock.measure(sent, Long.parseLong(tokens[2]), received);
+            return true;
+        } catch (NumberFormatException nfe) {
+            return false;
+        }
+    }
+
+    /**
+     * Get the server's clock, as measured by the PONG messages that came through the ring
+     * @return the clock
+     */
+    public ClockSync getClock() {
+        return this.clock;
+    }
+
+    /**
+     * See if there are no waiting messages
+     * @return true if the consumer would find nothing to drain
+     */
+    public boolean isEmpty() {
+        return this.head.get() == this.tail.get() && this.overflow.isEmpty();
+    }
+
+    /**
+     * A decoded message that didn't fit in the ring. Immutable.
+     */
+    private class Overflowed {
+        private final byte kind;
+        private final String name;
+        private final long key;
+        private final String wall;
+        private final double xCoord;
+        private final double yCoord;
+        private final double xVel;
+        private final double yVel;
+        private final double time;
+        private final long receivedAt;
+
+        /**
+         * Copy a message out of a slot
+         * @param slot the producer's spare slot, holding the decoded message
+         */
+        private Overflowed(int slot) {
+            this.kind = kinds[slot];
+            this.name = names[slot];
+            this.key = keys[slot];
+            this.wall = walls[slot];
+            this.xCoord = xCoords[slot];
+            this.yCoord = yCoords[slot];
+            this.xVel = xVels[slot];
+            this.yVel = yVels[slot];
+            this.time = times[slot];
+            this.receivedAt = received[slot];
+        }
+
+        /**
+         * Copy the message into a slot
+         * @param slot the consumer's spare slot
+         */
+        private void unload(int slot) {
+            kinds[slot] = this.kind;
+            names[slot] = this.name;
+            keys[slot] = this.key;
+            walls[slot] = this.wall;
+            xCoords[slot] = this.xCoord;
+            yCoords[slot] = this.yCoord;
+            xVels[slot] = this.xVel;
+            yVels[slot] = this.yVel;
+            times[slot] = this.time;
+            received[slot] = this.receivedAt;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package pingballClient;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import physics.Vect;
+import pingballClient.boardObjects.Ball;
+import pingballClient.boardObjects.Gadget;
+
+/**
+ * TESTING STRATEGY
+ * 
+ * add():
+ *      messages: BALL, INCOMING, MERGE, WALL, PONG, unknown, malformed
+ *      BALL: unstamped, stamped before and after the clock is synced
+ *      INCOMING: before and after the clock is synced
+ *      ball named with its key, confirmed by the BALL message with the same key only
+ * drainTo():
+ *      ring: empty, one message, more messages than the capacity over several drains (wraps around),
+ *          more messages than the capacity in one drain (overflows, in order)
+ *      
+ * @author sdrammis
+ */
+public class InboundRingTest {
+
+    private Board emptyBoard() {
+        return new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(), "board", 0.0, 0.0, 0.0);
+    }
+    
+    @Test
+    public void testBallMessage() {
+        InboundRing ring = new InboundRing(4);
+        Board board = emptyBoard();
+        assertTrue(ring.add("BALL name 5.5 6.5 " + Double.toHexString(2.0) + " -1.0"));
+        assertEquals(1, ring.drainTo(board));
+        assertTrue(ring.isEmpty());
+        assertEquals(1, board.getBallCopy().size());
+        for (Ball ball : board.getBallCopy()) {
+            assertEquals("name", ball.getName());
+            assertEquals(5.5, ball.getX(), 0.0);
+            assertEquals(6.5, ball.getY(), 0.0);
+            assertEquals(new Vect(2.0, -1.0), ball.getVelocity());
+        }
+    }
+    
+    /**
+     * Sync a ring's clock with a server clock that is offset ahead of System.nanoTime(), 
+     * give or take however long the PONG takes to add
+     */
+    private static void sync(InboundRing ring, long offset) {
+        long now = System.nanoTime();
+        assertTrue(ring.add("PONG " + now + " " + (now + offset)));
+        assertTrue(ring.getClock().isSynced());
+    }
+    
+    @Test
+    public void testStampedBallMovedOn() {
+        InboundRing ring = new InboundRing(4);
+        Board board = emptyBoard();
+        long offset = 3000000000L;
+        sync(ring, offset);
+        // it crossed a tenth of a second ago
+        long crossed = System.nanoTime() + offset - 100000000L;
+        assertTrue(ring.add("BALL name 5.0 6.0 " + Double.toHexString(10.0) + " 0.0 " + crossed));
+        assertEquals(1, ring.drainTo(board));
+        for (Ball ball : board.getBallCopy()) {
+            assertEquals(6.0, ball.getX(), 0.5);
+            assertEquals(6.0, ball.getY(), 0.0);
+        }
+    }
+    
+    @Test
+    public void testStampedBallBeforeSync() {
+        InboundRing ring = new InboundRing(4);
+        Board board = emptyBoard();
+        assertTrue(ring.add("BALL name 5.0 6.0 " + Double.toHexString(10.0) + " 0.0 " + System.nanoTime()));
+        assertEquals(1, ring.drainTo(board));
+        for (Ball ball : board.getBallCopy()) {
+            assertEquals(5.0, ball.getX(), 0.0);
+        }
+    }
+    
+    @Test
+    public void testIncomingMessage() {
+        InboundRing ring = new InboundRing(4);
+        Board board = emptyBoard();
+        assertFalse(ring.add("INCOMING name " + System.nanoTime() + " 1.0 6.5 " + Double.toHexString(2.0) + " -1.0"));
+        long offset = -2000000000L;
+        sync(ring, offset);
+        // it crossed a tenth of a second ago, it is due right away
+        assertTrue(ring.add("INCOMING name " + (System.nanoTime() + offset - 100000000L) + " 1.0 6.5 " 
+                + Double.toHexString(2.0) + " -1.0"));
+        assertEquals(1, ring.drainTo(board));
+        assertTrue(board.getBallCopy().isEmpty());
+        assertFalse(board.isResting());
+        board.advance(0.001);
+        assertEquals(1, board.getBallCopy().size());
+        for (Ball ball : board.getBallCopy()) {
+            assertEquals("name", ball.getName());
+            assertEquals(new Vect(2.0, -1.0), ball.getVelocity());
+        }
+    }
+    
+    @Test
+    public void testKeyedBallMessages() {
+        InboundRing ring = new InboundRing(4);
+        Board board = emptyBoard();
+        sync(ring, 0);
+        assertTrue(ring.add("INCOMING name#2a " + (System.nanoTime() - 100000000L) + " 1.0 6.5 0.0 0.0"));
+        assertEquals(1, ring.drainTo(board));
+        board.advance(0.001);
+        assertEquals(1, board.getBallCopy().size());
+        
+        // another ball of the same name comes in, the expected one is moved by its own message
+        assertTrue(ring.add("BALL name#2b 1.0 12.5 0.0 0.0"));
+        assertTrue(ring.add("BALL name#2a 1.0 9.5 0.0 0.0"));
+        assertEquals(2, ring.drainTo(board));
+        assertEquals(BoardTest.looks(Arrays.asList(new Ball("name", 1, 12.5, new Vect(0, 0)), 
+                new Ball("name", 1, 9.5, new Vect(0, 0)))), BoardTest.looks(board.getBallCopy()));
+    }
+    
+    @Test
+    public void testPongSyncsClock() {
+        InboundRing ring = new InboundRing(4);
+        assertFalse(ring.getClock().isSynced());
+        long sent = System.nanoTime() - 2000000;
+        // answered halfway through the round trip
+        assertTrue(ring.add("PONG " + sent + " " + (sent + 1000000 + 7000000000L)));
+        assertTrue(ring.isEmpty());
+        assertTrue(ring.getClock().getLatency() >= 0.001);
+        long now = System.nanoTime();
+        assertEquals(now + 7000000000L, ring.getClock().serverTime(now), 5000000);
+        assertFalse(ring.add("PONG soon"));
+        assertFalse(ring.add("PONG " + sent));
+    }
+    
+    @Test
+    public void testMergeAndWallMessages() {
+        InboundRing ring = new InboundRing(4);
+        Board board = emptyBoard();
+        assertTrue(ring.add("MERGE T player"));
+        assertEquals(1, ring.drainTo(board));
+        assertEquals("player", board.getNeighbor("T"));
+        assertTrue(ring.add("WALL T"));
+        assertEquals(1, ring.drainTo(board));
+        assertFalse(board.getNeighbors().containsKey("T"));
+    }
+    
+    @Test
+    public void testBadMessagesDropped() {
+        InboundRing ring = new InboundRing(4);
+        assertFalse(ring.add("HELLO there"));
+        assertFalse(ring.add("BALL name 5"));
+        assertFalse(ring.add("BALL name x y 1 1"));
+        assertFalse(ring.add("WALL"));
+        assertTrue(ring.isEmpty());
+        assertEquals(0, ring.drainTo(emptyBoard()));
+    }
+    
+    @Test
+    public void testWrapAround() {
+        InboundRing ring = new InboundRing(4);
+        Board board = emptyBoard();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(ring.add("BALL b" + i + " 1.0 1.0 0.0 0.0"));
+            assertTrue(ring.add("BALL c" + i + " 1.0 1.0 0.0 0.0"));
+            assertEquals(2, ring.drainTo(board));
+        }
+        assertEquals(20, board.getBallCopy().size());
+    }
+    
+    @Test
+    public void testOverflow() {
+        InboundRing ring = new InboundRing(4);
+        Board board = emptyBoard();
+        for (int i = 0; i < 6; i++) {
+            assertTrue(ring.add("BALL b" + i + " 1.0 1.0 0.0 0.0"));
+        }
+        // these come after the balls, and the merge comes before the wall
+        assertTrue(ring.add("MERGE L left"));
+        assertTrue(ring.add("WALL L"));
+        assertFalse(ring.isEmpty());
+        assertEquals(8, ring.drainTo(board));
+        assertTrue(ring.isEmpty());
+        assertEquals(6, board.getBallCopy().size());
+        assertFalse(board.getNeighbors().containsKey("L"));
+        
+        // the ring is used again once the overflow is drained
+        assertTrue(ring.add("MERGE L left"));
+        assertEquals(1, ring.drainTo(board));
+        assertEquals("left", board.getNeighbor("L"));
+    }
+}
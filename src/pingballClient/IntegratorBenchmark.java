@@ -0,0 +1,140 @@
+package pingballClient;
+
+import java.util.*;
+
+import physics.Vect;
+import pingballClient.boardObjects.Ball;
+import pingballClient.boardObjects.BallStore;
+import pingballClient.boardObjects.Gadget;
+
+/**
+ * Compares ways of applying friction and gravity to many balls and moving them, one step at a time:
+ *      objects: one Ball at a time, each living in a store of its own, through its getters and setters
+ *      store: the BallStore kernels, over one store all the balls live in
+ *      board: Board.newBallPositions, which keeps the board's store in line with its balls and runs the kernels
+ *
+ * For every way it reports the nanoseconds per ball per step, after playing the same number of steps
+ * to let the JIT compile it. With a thousand balls, the store should be bound by how fast the arrays can be
+ * read and written, not by going from one ball object to the next.
+ *
+ * Thread Safety Argument:
+ *      a benchmark only runs on the thread that calls it, and the balls are not shared
+ *
+ * @author nwallace
+ */
+public class IntegratorBenchmark {
+
+    // friction and gravity of the default board
+    private static final double GRAVITY = 25;
+    private static final double MU = 0.025;
+    private static final double MU2 = 0.025;
+    // a step, like the updates of the board
+    private static final double STEP = Board.DELTA;
+
+    /**
+     * Compare ways of integrating balls.
+     *
+     * Usage: IntegratorBenchmark [--balls BALLS] [--steps STEPS]
+     *
+     * BALLS is how many balls are integrated, the default is 1000.
+     * STEPS is how many steps each way is timed for, the default is 10000.
+     *
+     * Prints one line per way.
+     *
+     * @author nwallace
+     * Implemented by: nwallace
+     */
+    public static void main(String[] args) {
+        int balls = 1000;
+        int steps = 10000;
+        Queue<String> arguments = new LinkedList<String>(Arrays.asList(args));
+        try {
+            while (! arguments.isEmpty()){
+                String flag = arguments.remove();
+                try {
+                    if (flag.equals("--balls")){
+                        balls = Integer.parseInt(arguments.remove());
+                    } else if (flag.equals("--steps")){
+                        steps = Integer.parseInt(arguments.remove());
+                    } else {
+                        throw new IllegalArgumentException("unknown option: \"" + flag + "\"");
+                    }
+                } catch (NoSuchElementException nsee){
+                    throw new IllegalArgumentException("missing argument for " + flag);
+                } catch (NumberFormatException nfe){
+                    throw new IllegalArgumentException("unable to parse number for " + flag);
+                }
+            }
+            if (balls <= 0 || steps <= 0){
+                throw new IllegalArgumentException("balls and steps must be positive");
+            }
+        } catch (IllegalArgumentException iae){
+            System.err.println(iae.getMessage());
+            System.err.println("usage: IntegratorBenchmark [--balls BALLS] [--steps STEPS]");
+            System.exit(2);
+            return;
+        }
+
+        for (String way : new String[] {"objects", "store", "board"}) {
+            run(way, balls, steps);
+            double nanos = run(way, balls, steps);
+            System.out.println(String.format(Locale.ROOT, "way=%s balls=%d steps=%d nanosPerBallStep=%.2f",
+                    way, balls, steps, nanos));
+        }
+    }
+
+    /**
+     * Integrate balls one way and time it
+     * @param way "objects", "store" or "board"
+     * @param count how many balls, > 0
+     * @param steps how many steps, > 0
+     * @return nanoseconds per ball per step
+     */
+    static double run(String way, int count, int steps) {
+        List<Ball> balls = makeBalls(count);
+        BallStore store = new BallStore();
+        Board board = null;
+        if (way.equals("store")) {
+            for (int b = 0; b < count; b++) {
+                store.put(b, balls.get(b));
+            }
+        } else if (way.equals("board")) {
+            board = new Board(new ArrayList<Gadget>(), balls, "benchmark", GRAVITY, MU, MU2,
+                    Board.MAX_SIZE, Board.MAX_SIZE);
+        }
+        long start = System.nanoTime();
+        for (int step = 0; step < steps; step++) {
+            if (way.equals("objects")) {
+                for (Ball ball : balls) {
+                    double scale = 1 - MU * STEP - MU2 * ball.getSpeed() * STEP;
+                    ball.setVelocity(ball.getVelocityX() * scale, ball.getVelocityY() * scale + GRAVITY * STEP);
+                    ball.setCoord(ball.getX() + STEP * ball.getVelocityX(),
+                            ball.getY() + STEP * ball.getVelocityY());
+                }
+            } else if (way.equals("store")) {
+                store.accelerate(STEP, GRAVITY, MU, MU2);
+                store.move(STEP);
+            } else if (way.equals("board")) {
+                board.newBallPositions(STEP);
+            } else {
+                throw new IllegalArgumentException("unknown way: " + way);
+            }
+        }
+        return (System.nanoTime() - start) / ((double) count * steps);
+    }
+
+    /**
+     * Make balls spread over a big board, all moving
+     * @param count how many, >= 0
+     * @return the balls
+     */
+    private static List<Ball> makeBalls(int count) {
+        Random random = new Random(count);
+        List<Ball> balls = new ArrayList<Ball>();
+        for (int i = 0; i < count; i++) {
+            balls.add(new Ball("ball" + i, random.nextDouble() * Board.MAX_SIZE, random.nextDouble() * Board.MAX_SIZE,
+                    new Vect(random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10)));
+        }
+        return balls;
+    }
+}
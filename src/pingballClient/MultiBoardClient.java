@@ -0,0 +1,316 @@
+package pingballClient;
+
+import java.io.*;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.*;
+
+import pingballClient.boardObjects.Ball;
+import pingballClient.parser.BoardFactory;
+
+/**
+ * A client that plays many boards over one connection to the server, for kiosks and test rigs that would otherwise
+ * run one PingballClient per board.
+ *
+ * The client answers the server's NAME request with MUX and then joins each of its boards by name. From then on
+ * every message in either direction starts with @boardName, see pingball.MultiplexedConnection.
+ * A fixed pool of physics threads plays the boards, each step of a board is a task on the pool, see HostedBoard.
+ * Boards that are resting take no time from the pool until a message arrives for them.
+ *
+ * Thread Safety Argument:
+ *      socket, input: confined to the listen thread once the client has started
+ *      output: shared by the steps of all the boards, every write is done while holding the lock on output
+ *      boards: never changed after the client is made, the boards in it are thread safe, see HostedBoard
+ *      physics: a thread safe type
+ *      answered: a thread safe type, counted down by the listen thread once per board the server has answered for
+ *
+ * @author sdrammis
+ */
+public class MultiBoardClient {
+    /**
+     * Invariants:
+     *      boards: maps the name of each board to the board, names are unique
+     *      answered: starts at the number of boards
+     * @author sdrammis
+     */
+    private final Socket socket;
+    private final BufferedReader input;
+    private final PrintWriter output;
+    private final Map<String, HostedBoard> boards = new LinkedHashMap<String, HostedBoard>();
+    private final ScheduledThreadPoolExecutor physics;
+    private final CountDownLatch answered;
+
+    // how often the shown board is drawn
+    private static final int FRAMES_PER_SECOND = 10;
+
+    /**
+     * Connect to a server with boards to play
+     * @param host hostname or IP address of the server
+     * @param port port of the server, 0 <= port <= 65535
+     * @param boards the boards, with different names
+     * @param threads size of the physics pool, > 0
+     * @param show name of the board to draw on the console, null to draw none
+     * @throws IOException if the server can't be reached
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public MultiBoardClient(String host, int port, List<Board> boards, int threads, String show) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.physics = new ScheduledThreadPoolExecutor(threads);
+        for (Board board : boards) {
+            if (this.boards.containsKey(board.getName())) {
+                throw new IllegalArgumentException("two boards named " + board.getName());
+            }
+            BoardRenderer renderer = null;
+            if (board.getName().equals(show)) {
+                renderer = new BoardRenderer(new ConsoleSink(board.getWidth(), board.getHeight()), FRAMES_PER_SECOND);
+                Thread renderThread = new Thread(renderer);
+                renderThread.setDaemon(true);
+                renderThread.start();
+            }
+            this.boards.put(board.getName(), new HostedBoard(board, this, renderer));
+        }
+        this.answered = new CountDownLatch(boards.size());
+        this.socket = new Socket(host, port);
+        this.input = new BufferedReader(new InputStreamReader(this.socket.getInputStream()));
+        this.output = new PrintWriter(this.socket.getOutputStream(), true);
+    }
+
+    /**
+     * Play boards on a server.
+     *
+     * Usage: MultiBoardClient [--host HOST] [--port PORT] [--threads THREADS] [--show NAME] FILE...
+     *
+     * HOST is the hostname or IP address of the server, the default is localhost.
+     * PORT is the port of the server, the default is 10987.
+     * THREADS is how many threads play the boards, the default is the number of processors.
+     * NAME is the name of a board to draw on the console, no board is drawn by default.
+     * FILE is one or more board files, with different board names.
+     *
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public static void main(String[] args) {
+        String host = "localhost";
+        int port = 10987;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String show = null;
+        List<File> files = new ArrayList<File>();
+        Queue<String> arguments = new LinkedList<String>(Arrays.asList(args));
+        try {
+            while ( ! arguments.isEmpty()){
+                String flag = arguments.remove();
+                try {
+                    if (flag.equals("--host")){
+                        host = arguments.remove();
+                    } else if (flag.equals("--port")) {
+                        port = Integer.parseInt(arguments.remove());
+                        if (port < 0 || port > 65535){
+                            throw new IllegalArgumentException("port " + port + " out of range.");
+                        }
+                    } else if (flag.equals("--threads")) {
+                        threads = Integer.parseInt(arguments.remove());
+                        if (threads <= 0){
+                            throw new IllegalArgumentException("threads must be positive");
+                        }
+                    } else if (flag.equals("--show")) {
+                        show = arguments.remove();
+                    } else if (flag.startsWith("--")) {
+                        throw new IllegalArgumentException("unknown option: \"" + flag + "\"");
+                    } else {
+                        File file = new File(flag);
+                        if ( ! file.isFile()) {
+                            throw new IllegalArgumentException("invalid file: \"" + file + "\"");
+                        }
+                        files.add(file);
+                    }
+                } catch (NoSuchElementException nsee){
+                    throw new IllegalArgumentException("missing argument for " + flag);
+                } catch (NumberFormatException nfe) {
+                    throw new IllegalArgumentException("unable to parse number for " + flag);
+                }
+            }
+            if (files.isEmpty()) {
+                throw new IllegalArgumentException("missing FILE");
+            }
+        } catch (IllegalArgumentException iae){
+            System.err.println(iae.getMessage());
+            System.err.println("usage: MultiBoardClient [--host HOST] [--port PORT] [--threads THREADS] [--show NAME] FILE...");
+            return;
+        }
+
+        try {
+            List<Board> boards = new ArrayList<Board>();
+            for (File file : files) {
+                boards.add(BoardFactory.parse(file));
+            }
+            MultiBoardClient client = new MultiBoardClient(host, port, boards, threads, show);
+            System.out.println("playing " + client.start());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Join every board to the server and start playing the ones the server has started.
+     * Boards the server refuses, for example because a board with the same name is already playing, are not played.
+     * @return names of the boards that are being played
+     * @throws IOException if the connection breaks before the server asks for a name
+     * @throws InterruptedException if interrupted while waiting for the server to answer
+     * @author sdrammis
+     * Implemented by: sdrammis
+     */
+    public List<String> start() throws IOException, InterruptedException {
+        String line;
+        while ((line = this.input.readLine()) != null && !line.equals("NAME")) {
+            // nothing else comes before the request for a name
+        }
+        if (line == null) {
+            throw new IOException("the server closed the connection");
+        }
+        synchronized (this.output) {
+            this.output.println("MUX");
+            for (String name : this.boards.keySet()) {
+                this.output.println("NAME " + name);
+            }
+        }
+        Thread listenThread = new Thread(new Runnable() {
+            public void run() { listen(); }
+        });
+        listenThread.start();
+        this.answered.await();
+
+        List<String> playing = new ArrayList<String>();
+        for (HostedBoard board : this.boards.values()) {
+            if (board.joined) {
+                playing.add(board.getName());
+                board.wake();
+            }
+        }
+        return playing;
+    }
+
+    /**
+     * Hand each message from the server to its board until the connection closes, then stop playing
+     */
+    private void listen() {
+        String line;
+        try {
+            while ((line = this.input.readLine()) != null) {
+                int end = line.indexOf(' ');
+                if (!line.startsWith("@") || end < 0) { continue; }
+                HostedBoard board = this.boards.get(line.substring(1, end));
+                if (board == null) { continue; }
+                String message = line.substring(end + 1);
+                if (board.joined) {
+                    board.deliver(message);
+                } else if (this.answered.getCount() > 0) {
+                    // the server's answer to NAME
+                    if (message.equals("START")) {
+                        board.joined = true;
+                    } else {
+                        System.err.println(board.getName() + ": " + message);
+                    }
+                    this.answered.countDown();
+                }
+            }
+        } catch (IOException e) {
+            // the server went away
+            e.printStackTrace();
+        } finally {
+            while (this.answered.getCount() > 0) { this.answered.countDown(); }
+            this.physics.shutdownNow();
+        }
+    }
+
+    /**
+     * Send the balls that left a board to the boards next to it
+     * @param from the board the balls left
+     * @param ballsToMove the balls on each invisible wall, as returned by Board.advance
+     * @param clock the server's clock as the board sees it, the balls are stamped with it once it is synced
+     */
+    void send(HostedBoard from, Map<String, List<Ball>> ballsToMove, ClockSync clock) {
+        for (String direction : ballsToMove.keySet()) {
+            for (Ball ball : ballsToMove.get(direction)) {
+                String neighbor = from.getBoard().getNeighbor(direction);
+                String message = clock.isSynced() ? PingballClient.ballMessage(ball, neighbor, 
+                        PingballClient.crossedAt(clock, from.getBoard().getTimeSinceDeparture(ball)))
+                        : PingballClient.ballMessage(ball, neighbor);
+                synchronized (this.output) {
+                    this.output.println("@" + from.getName() + " " + message);
+                }
+            }
+        }
+    }
+
+    /**
+     * Announce the balls about to leave a board to the boards next to it
+     * @param from the board the balls are about to leave
+     * @param handoffs the balls, as returned by Board.predictDepartures
+     * @param clock the server's clock as the board sees it, nothing is announced until it is synced
+     */
+    void announce(HostedBoard from, List<Handoff> handoffs, ClockSync clock) {
+        if (!clock.isSynced()) { return; }
+        for (Handoff handoff : handoffs) {
+            String message = PingballClient.incomingMessage(handoff, 
+                    from.getBoard().getNeighbor(handoff.getWall()), PingballClient.crossedAt(clock, -handoff.getDelay()));
+            synchronized (this.output) {
+                this.output.println("@" + from.getName() + " " + message);
+            }
+        }
+    }
+
+    /**
+     * Ping the server for a board, the server answers to the board with PONG, see InboundRing
+     * @param from the board
+     */
+    void ping(HostedBoard from) {
+        synchronized (this.output) {
+            this.output.println("@" + from.getName() + " PING " + System.nanoTime());
+        }
+    }
+
+    /**
+     * Run a step of a board on the physics pool as soon as a thread is free
+     * @param board board to step
+     */
+    void execute(HostedBoard board) {
+        schedule(board, 0);
+    }
+
+    /**
+     * Run a step of a board on the physics pool after a delay
+     * @param board board to step
+     * @param delayNanos how long from now, >= 0
+     */
+    void schedule(HostedBoard board, long delayNanos) {
+        try {
+            this.physics.schedule(board, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ree) {
+            // the client is closed, nothing is played any more
+        }
+    }
+
+    /**
+     * Stop playing and close the connection. The server removes every board of the client.
+     * @throws IOException if the connection can't be closed
+     * @throws InterruptedException if interrupted while waiting for the running steps to finish
+     */
+    public void close() throws IOException, InterruptedException {
+        this.physics.shutdownNow();
+        this.physics.awaitTermination(1, TimeUnit.SECONDS);
+        this.socket.close();
+    }
+
+    /**
+     * Get one of the boards. Only safe to look at once the client is closed.
+     * @param name name of the board
+     * @return the board, null if the client has no board with that name
+     */
+    Board getBoard(String name) {
+        HostedBoard board = this.boards.get(name);
+        return board == null ? null : board.getBoard();
+    }
+}
@@ -0,0 +1,107 @@
+package pingballClient;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+import physics.Vect;
+import pingballClient.boardObjects.Ball;
+import pingballClient.boardObjects.Gadget;
+
+/**
+ * TESTING STRATEGY
+ *
+ * start():
+ *      one board started by the server, one refused
+ * playing:
+ *      a ball leaves a board through a merged wall: announced, then sent stamped with the same key, with the 
+ *          board's name
+ *      boards ping the server, the first PING is answered so the board is synced, later ones are skipped
+ *      a ball arrives for a resting board: the board wakes up and plays it
+ *
+ * @author sdrammis
+ */
+public class MultiBoardClientTest {
+
+    private static Board board(String name, Ball... balls) {
+        return new Board(new ArrayList<Gadget>(), new ArrayList<Ball>(Arrays.asList(balls)), name, 0.0, 0.0, 0.0);
+    }
+
+    /**
+     * Read the next line from the client that isn't a PING
+     * @param input what the client sends
+     * @return the line
+     */
+    private static String readPlayLine(BufferedReader input) throws IOException {
+        String line;
+        while ((line = input.readLine()) != null && line.matches("@\\w+ PING \\d+")) {
+            // the boards measure their latency every second
+        }
+        return line;
+    }
+
+    /**
+     * Answer the next PING from a board, with a server clock some way off the client's
+     * @param input what the client sends
+     * @param output what the client reads
+     * @param board name of the board
+     */
+    private static void answerPing(BufferedReader input, PrintWriter output, String board) throws IOException {
+        String line;
+        while ((line = input.readLine()) != null && !line.startsWith("@" + board + " PING ")) { }
+        output.println("@" + board + " PONG " + line.split(" ")[2] + " " + (System.nanoTime() + 5000000000L));
+    }
+
+    @Test(timeout=10000)
+    public void testPlayBoards() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            final MultiBoardClient client = new MultiBoardClient(InetAddress.getLoopbackAddress().getHostAddress(), 
+                    server.getLocalPort(), Arrays.asList(board("a", new Ball("ball", 18, 10, new Vect(50, 0))), 
+                            board("b")), 2, null);
+            Future<List<String>> started = Executors.newSingleThreadExecutor().submit(new Callable<List<String>>() {
+                public List<String> call() throws Exception { return client.start(); }
+            });
+            try (Socket socket = server.accept();
+                    BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                    PrintWriter output = new PrintWriter(socket.getOutputStream(), true)) {
+                output.println("NAME");
+                assertEquals("MUX", input.readLine());
+                assertEquals("NAME a", input.readLine());
+                assertEquals("NAME b", input.readLine());
+                output.println("@a START");
+                output.println("@b Board name already exists.");
+                assertEquals(Arrays.asList("a"), started.get());
+
+                // the ball on a leaves through its right wall once it is joined, on the server's clock
+                answerPing(input, output, "a");
+                output.println("@a MERGE R other");
+                String[] incoming = readPlayLine(input).split(" ");
+                assertEquals("@a", incoming[0]);
+                assertEquals("INCOMING", incoming[1]);
+                assertTrue(incoming[2].startsWith("ball#"));
+                assertTrue(Long.parseLong(incoming[3]) > System.nanoTime() + 4000000000L);
+                assertEquals("other", incoming[8]);
+                String[] ball = readPlayLine(input).split(" ");
+                assertEquals("@a", ball[0]);
+                assertEquals(incoming[2], ball[1]);
+                assertTrue(Long.parseLong(ball[6]) > System.nanoTime() + 4000000000L);
+                assertEquals("other", ball[7]);
+                
+                // a is empty and resting now, a ball coming back wakes it up
+                output.println("@a BALL back 19.0 10.0 " + Double.toHexString(-50) + " " + Double.toHexString(0));
+                assertTrue(readPlayLine(input).startsWith("@a INCOMING back#"));
+                String[] back = readPlayLine(input).split(" ");
+                assertEquals("@a", back[0]);
+                assertTrue(back[1].startsWith("back#"));
+            }
+            client.close();
+        }
+    }
+}
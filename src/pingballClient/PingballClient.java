@@ -3,11 +3,8 @@ package pingballClient;
 import java.io.*;
 import java.net.Socket;
 import java.util.*;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 
-import physics.Vect;
 import pingballClient.parser.*;
 import pingballClient.boardObjects.*;
 
@@ -21,8 +18,12 @@ import pingballClient.boardObjects.*;
  * 
  * Thread Safety Argument:
  *      name, socket: immutable object
- *      board: protected by its lock
+ *      board: confined to the play thread, the render thread only sees immutable snapshots of it
  *      input, output: are immutable objects
+ *      incomingMessages: single producer single consumer ring, only filled by the listen thread
+ *          and only drained by the play thread
+ *      scheduler: only paced and parked by the play thread, only woken by the listen thread, see PlayScheduler
+ *      viewing: only set by the main thread, before any other thread is started
  * @author sdrammis
  */
 public class PingballClient {
@@ -39,19 +40,41 @@ public class PingballClient {
     private final Board board; //the board object the player is playing with
     private final Socket socket; //the player's socket
     private final boolean local; //whether or not we're playing locally
+    private boolean viewing = false; //whether the server plays the board itself and only shows it to us
     
     //how the player communicates to it's PlayerThread
     private final BufferedReader input; //receives messages from the pingballClientThread
     private final PrintWriter output; //sends messages from the pingballClientThread
         
-    // blockingQueue that handles all incoming messages
+    // ring that hands all incoming messages from the listen thread to the play thread
     // WALL, MERGE, and BALL
-    protected final BlockingQueue<String> incomingMessages = new ArrayBlockingQueue<String>(100);
+    protected final InboundRing incomingMessages = new InboundRing(INCOMING_CAPACITY);
+    
+    // when the play thread plays the next step, woken by the listen thread when a message arrives
+    private final PlayScheduler scheduler = new PlayScheduler();
+    
+    // how many incoming messages can be waiting for the play thread
+    private static final int INCOMING_CAPACITY = 1024;
+    
+    // how often the board is drawn
+    private static final int FRAMES_PER_SECOND = 10;
+    
+    // how long a step of the play loop is in continuous mode, in seconds, see Board.advance
+    static final double CONTINUOUS_TICK = 0.005;
+    
+    // long enough for any flipper to turn all the way, in seconds
+    static final double FLIPPER_TURN_TIME = 1;
+    
+    // how far ahead, in seconds, balls leaving through an invisible wall are announced to the neighbor
+    static final double HANDOFF_LOOKAHEAD = 0.1;
+    
+    // how often the server is pinged to synchronize with its clock, in nanoseconds
+    static final long PING_INTERVAL_NANOS = 1000000000L;
     
     /**
      * Create a Client using given arguments.
      * 
-     * Usage: PingballServer [--host HOST] [--port PORT] FILE
+     * Usage: PingballServer [--host HOST] [--port PORT] [--continuous] FILE
      * 
      * HOST is an optional hostname or IP address of the server to connect to. If no HOST is provided, 
      * then the client starts in single-machine play mode.
@@ -59,6 +82,12 @@ public class PingballClient {
      * PORT is an optional integer in the range 0 to 65535 inclusive, specifying the port where the server
      * should listen for incoming connections. The default port is 10987. 
      * 
+     * --continuous plays the board with continuous collision detection, in steps of CONTINUOUS_TICK seconds, 
+     * so fast balls can't pass through gadgets. See Board.advance. Balls about to leave for a neighboring board
+     * are announced to it HANDOFF_LOOKAHEAD ahead, so it can put them in without waiting for them to arrive.
+     * Balls are stamped with when they crossed on the server's clock, so the neighbor can put them where they are
+     * by the time they arrive.
+     * 
      * FILE is a required argument specifying a file pathname of the Pingball board that this client should run.
      *      The path name to the file MUST NOT contain any white space
      * The file format is specified by Board.g4 in the pingball.parser package.
@@ -71,6 +100,7 @@ public class PingballClient {
         String address = null; 
         int port = 10987; // default port
         File file = null;
+        boolean continuous = false;
         Queue<String> arguments = new LinkedList<String>(Arrays.asList(args));
         try {
             while ( ! arguments.isEmpty()){
@@ -84,6 +114,8 @@ public class PingballClient {
                         if (port < 0 || port > 65535){
                             throw new IllegalArgumentException("port " + port + " out of range.");
                         }
+                    } else if (flag.equals("--continuous")) {
+                        continuous = true;
                     } else if (arguments.isEmpty()){
                         file = new File(flag);
                         if ( ! file.isFile()) {
@@ -100,14 +132,25 @@ public class PingballClient {
             }
         } catch (IllegalArgumentException iae){
             System.err.println(iae.getMessage());
-            System.err.println("usage: PingballClient [--host HOST] [--port PORT] FILE");
+            System.err.println("usage: PingballClient [--host HOST] [--port PORT] [--continuous] FILE");
             return;
         }
         
         PingballClient client;
         try {
             client = new PingballClient(isLocal, address, port, file);
-            startGame(client);
+            //send the name to the server, and check if a board/client with this name exists
+            //a server that is part of a cluster may send us to the server that owns our board
+            String[] redirect;
+            while (!client.local && (redirect = handleName(client)) != null) {
+                client.socket.close();
+                client = new PingballClient(false, redirect[0], Integer.parseInt(redirect[1]), file);
+            }
+            if (client.viewing) {
+                view(client);
+            } else {
+                startGame(client, continuous);
+            }
         } catch (Exception e1) {
             e1.printStackTrace();
         }
@@ -167,32 +210,38 @@ public class PingballClient {
      *    is not another PingballClient in the game with the same name as this.
      * Carries out the "watching" of the game. 
      * @param client the PingballClient
+     * @param continuous whether to play with continuous collision detection, see Board.advance
      * Implemented by: sdrammis
      */
-    private static void startGame(final PingballClient client) {        
-        //send the name to the server, and check if a board/client with this name exists
-        if ( !client.local ) { handleName(client);}
+    private static void startGame(final PingballClient client, final boolean continuous) {        
+        //draws the board on its own thread so the play thread never waits on the console
+        final BoardRenderer renderer = new BoardRenderer(
+                new ConsoleSink(client.board.getWidth(), client.board.getHeight()), FRAMES_PER_SECOND);
+        Thread renderThread = new Thread(renderer);
+        renderThread.setDaemon(true);
+        renderThread.start();
         
         Thread playThread = new Thread(new Runnable() {
             public void run(){
-                int printClock = 5;
+                if (continuous) {
+                    playContinuous(client, renderer);
+                    return;
+                }
                 while (true) {
                     double time = 1; // miliseconds
                     // handle incomming messages
                     client.udpateFromMessages(); //this adds the new balls to the board
+                    // when every ball is asleep or in an absorber there is nothing to move or collide
+                    if (client.board.isResting()) {
+                        rest(client, renderer);
+                        continue;
+                    }
                     // get the min time until collision if < 1ms or make time 1ms
-                    double minTimeUntilCollision = client.board.getMinTimeUntilCollision();
-                    // sleep for that min time
+                    // only collisions sooner than that matter, so the board doesn't look any further
+                    double minTimeUntilCollision = client.board.getMinTimeUntilCollision(time);
                     if (minTimeUntilCollision < time) { time = minTimeUntilCollision; }
-                    try {
-//                        long mili = (long) time;
-//                        int nano = (int) (time - mili)*100000;
-//                        Thread.sleep(mili, nano);
-                        Thread.sleep((long) time); 
-                    } catch (InterruptedException e) {
-                        // gets here if time until collision is WAY too small
-                        e.printStackTrace();
-                    }
+                    // wait for as long as the balls will move, even if it is less than a millisecond
+                    client.scheduler.pace(Math.min(time, Board.DELTA));
                     // update everything for the ammount of the min time (move for time amount)
                     client.board.newBallPositions(time);
                     client.board.newGadgetPositions(time);
@@ -201,13 +250,8 @@ public class PingballClient {
                     ConcurrentHashMap<String, List<Ball>> ballsToPass = client.board.handleCollisions(time);
                     // send the balls to server
                     client.sendBallsToNeighboringBoards(ballsToPass);
-                    // print if the clock is at 0
-                    if (printClock == 0) {
-                        System.out.print(client.board);
-                        printClock = 100;
-                    } else {
-                        printClock -= 1;
-                    }
+                    // give the renderer the newest picture of the board
+                    renderer.publish(client.board.snapshot());
                     // reset the time (go back to the top of the loop)
                     continue;
                 }
@@ -222,8 +266,9 @@ public class PingballClient {
                     String line;
                     try {
                         while ((line = client.input.readLine()) != null) {
-                            // add messages to the queue
+                            // add messages to the queue, and wake the play thread if it waits for one
                             client.incomingMessages.add(line);
+                            client.scheduler.wake();
                         }
                     } catch (IOException e) {
                         e.printStackTrace();
@@ -235,26 +280,97 @@ public class PingballClient {
    
     }
     
+    /**
+     * Play the board forever with continuous collision detection, one step of CONTINUOUS_TICK seconds at a time.
+     * Steps are paced CONTINUOUS_TICK apart, so the board keeps up with the clock unless a step takes longer than that.
+     * @param client the PingballClient, only touched by the calling thread
+     * @param renderer gets a new picture of the board every step
+     * Implemented by: sdrammis
+     */
+    private static void playContinuous(PingballClient client, BoardRenderer renderer) {
+        long nextPing = System.nanoTime();
+        while (true) {
+            client.udpateFromMessages();
+            if (!client.local && System.nanoTime() - nextPing >= 0) {
+                client.output.println("PING " + System.nanoTime());
+                nextPing = System.nanoTime() + PING_INTERVAL_NANOS;
+            }
+            if (client.board.isResting()) {
+                rest(client, renderer);
+                continue;
+            }
+            client.board.newGadgetPositions(CONTINUOUS_TICK);
+            client.sendBallsToNeighboringBoards(client.board.advance(CONTINUOUS_TICK));
+            client.announceToNeighboringBoards(client.board.predictDepartures(HANDOFF_LOOKAHEAD));
+            renderer.publish(client.board.snapshot());
+            client.scheduler.pace(CONTINUOUS_TICK);
+        }
+    }
+    
+    /**
+     * Wait without using the processor while nothing on the board can move, until a message from the server arrives.
+     * Flippers that are still turning finish turning first, and the renderer gets the board as it will stay.
+     * @param client the PingballClient, only touched by the calling thread
+     * @param renderer gets the last picture of the board
+     */
+    private static void rest(PingballClient client, BoardRenderer renderer) {
+        client.board.newGadgetPositions(FLIPPER_TURN_TIME);
+        renderer.publish(client.board.snapshot());
+        client.scheduler.awaitMessage(client.incomingMessages);
+    }
+    
+    /**
+     * Draw the frames of our board that a server which plays the board itself sends, until the server goes away.
+     * Nothing is played here, see pingballClient.BoardWorld.
+     * @param client the PingballClient, the server has answered its name with VIEW
+     */
+    private static void view(PingballClient client) {
+        ConsoleSink sink = new ConsoleSink(client.board.getWidth(), client.board.getHeight());
+        String line;
+        try {
+            while ((line = client.input.readLine()) != null) {
+                //FRAME columns rows
+                if (!line.startsWith("FRAME ")) { continue; }
+                int start = "FRAME ".length();
+                int end = line.indexOf(' ', start);
+                if (end < 0) { continue; }
+                sink.draw(line.substring(end + 1), Integer.parseInt(line.substring(start, end)));
+            }
+        } catch (IOException | NumberFormatException e) {
+            e.printStackTrace();
+        }
+    }
+    
     /**
      * Server requests name from Client via PingballClientThread. PingballClient sends a message with the name to the server, 
      *    and if this Board name already exists the client will be notified and then the Client's socket
      *    will be closed. If the name doesn't exist we will send a message in order to start the game. 
+     *    If the server is part of a cluster and our board is owned by another server, the server tells us where to go.
+     *    If the server plays the boards itself, it answers VIEW instead of START and we only watch our board.
      * @param _client
+     * @return null if the game can start, otherwise {host, port} of the server the client has to connect to instead
      * Implemented by: sdrammis
      */
-    private static void handleName(PingballClient _client) {
+    private static String[] handleName(PingballClient _client) {
        String line;
        try {  
             while ((line = _client.input.readLine()) != null) {
                 //see if the clientThread is requesting a name
                 if (line.equals("NAME")) {
                     _client.output.println("NAME " + _client.name);
-                } else if (line.equals("Board name already exists.")) {
+                } else if (line.equals("Board name already exists.") || line.equals("No such board.")) {
                     //tell player the message
                     System.out.println(line);
                     _client.socket.close();
                 } else if (line.equals("START")) {
                     break;
+                } else if (line.equals("VIEW")) {
+                    _client.viewing = true;
+                    break;
+                } else if (line.startsWith("REDIRECT ")) {
+                    //REDIRECT host port
+                    String[] tokens = line.split(" ");
+                    return new String[] { tokens[1], tokens[2] };
                 }
             }
         } catch (IOException e) {
@@ -263,6 +379,7 @@ public class PingballClient {
             // we ignore this exception and allow players to continue with play
             e.printStackTrace();
         }
+        return null;
     }
     
   /**
@@ -275,41 +392,8 @@ public class PingballClient {
   //public for testing -- SHOULD BE PRIVATE
   public void udpateFromMessages() {
       // add new balls and update walls (that have come in during the play method)
-      synchronized (this.incomingMessages) { //gets the lock so that incomming balls won't be added during this time
-          while (!this.incomingMessages.isEmpty()){
-              String currentMessage = this.incomingMessages.remove();
-              String[] tokens = currentMessage.split(" ");
-              String type = tokens[0];
-              switch (type){
-                  // merge message
-                  // MERGE T|B|R|L neighborName
-                  case "MERGE":
-                      String direction = tokens[1];
-                      String neighbor = tokens[2];
-                      this.board.merge(direction, neighbor);
-                      break;
-                  // wall message
-                  // WALL T|B|R|L 
-                  case "WALL":
-                      String wall = tokens[1];
-                      this.board.removeInvisibleWall(wall);
-                      break;
-                  // ball message
-                  // BALL ballName xCoord yCoord xVel yVel
-                  case "BALL":
-                      String ballName = tokens[1];
-                      double xCoord = Double.parseDouble(tokens[2]);
-                      double yCoord = Double.parseDouble(tokens[3]);
-                      double xVel = Double.parseDouble(tokens[4]);
-                      double yVel = Double.parseDouble(tokens[5]);
-                      Vect velocity = new Vect(xVel, yVel);
-                      this.board.addBall(new Ball(ballName, xCoord, yCoord, velocity));
-                      break;
-                  default:
-                      break;
-              }
-          }
-      } 
+      // every waiting message is applied in one batch, without taking a lock
+      this.incomingMessages.drainTo(this.board);
   }
   
   /**
@@ -324,17 +408,95 @@ public class PingballClient {
       for (String direction : ballsToMove.keySet()){
           List<Ball> ballsOnWall = ballsToMove.get(direction);
           for (Ball ball : ballsOnWall){
-              String ballName = ball.getName();
-              String xCoordInNewBoard = Double.toString(ball.getX());
-              String yCoordInNewBoard = Double.toString(ball.getY());
-              String xVel = Double.toHexString(ball.getVelocity().x());
-              String yVel = Double.toHexString(ball.getVelocity().y());
-              this.output.println(ballName + " " + xCoordInNewBoard + " " + yCoordInNewBoard + " " + xVel + " " + yVel 
-                    + " " + this.board.getNeighbor(direction)); 
+              //stamped once the clock is synced, balls of the discrete loop are never stamped
+              ClockSync clock = this.incomingMessages.getClock();
+              String neighbor = this.board.getNeighbor(direction);
+              this.output.println(clock.isSynced() 
+                      ? ballMessage(ball, neighbor, crossedAt(clock, this.board.getTimeSinceDeparture(ball)))
+                      : ballMessage(ball, neighbor)); 
           }
       }
   }
   
+  /**
+   * Sends INCOMING messages to the neighboring boards for the balls that are about to leave.
+   * @param handoffs balls about to leave, as returned by Board.predictDepartures
+   */
+  private void announceToNeighboringBoards(List<Handoff> handoffs) {
+      ClockSync clock = this.incomingMessages.getClock();
+      //the neighbor can't tell when the ball is due until the clock is synced
+      if (!clock.isSynced()) { return; }
+      for (Handoff handoff : handoffs) {
+          this.output.println(incomingMessage(handoff, this.board.getNeighbor(handoff.getWall()), 
+                  crossedAt(clock, -handoff.getDelay())));
+      }
+  }
+  
+  /**
+   * Get when something happens on the server's clock
+   * @param clock the server's clock, synced
+   * @param ago seconds before now it happens, < 0 if it is still to happen
+   * @return the server's clock at that time, in nanoseconds
+   */
+  static long crossedAt(ClockSync clock, double ago) {
+      return clock.serverTime(System.nanoTime()) - Math.round(ago * 1e9);
+  }
+  
+  /**
+   * Make the message that announces a ball to a neighboring board before it leaves
+   * @param handoff the ball about to leave
+   * @param neighbor name of the neighboring board
+   * @param crossing when the ball will cross into the neighbor, on the server's clock, see ClockSync
+   * @return INCOMING ballName crossing xCoord yCoord xVel yVel neighbor, the ball named like ballMessage
+   *    and the velocity in hex
+   * @author sdrammis
+   */
+  static String incomingMessage(Handoff handoff, String neighbor, long crossing) {
+      return "INCOMING " + ballToken(handoff.getName(), handoff.getKey()) + " " + crossing + " " + handoff.getX() + " " 
+              + handoff.getY() + " " + Double.toHexString(handoff.getXVel()) + " " 
+              + Double.toHexString(handoff.getYVel()) + " " + neighbor;
+  }
+  
+  /**
+   * Make the message that sends a ball to a neighboring board
+   * @param ball ball that left the board, at the position it enters the neighbor at
+   * @param neighbor name of the neighboring board
+   * @return ballName xCoord yCoord xVel yVel neighbor, the velocity in hex so it arrives exactly, and ballName 
+   *    the name and key of the ball, see ballToken
+   * @author asolei, sdrammis
+   */
+  static String ballMessage(Ball ball, String neighbor) {
+      String ballName = ballToken(ball.getName(), ball.getKey());
+      String xCoordInNewBoard = Double.toString(ball.getX());
+      String yCoordInNewBoard = Double.toString(ball.getY());
+      String xVel = Double.toHexString(ball.getVelocity().x());
+      String yVel = Double.toHexString(ball.getVelocity().y());
+      return ballName + " " + xCoordInNewBoard + " " + yCoordInNewBoard + " " + xVel + " " + yVel + " " + neighbor;
+  }
+  
+  /**
+   * Make the message that sends a ball to a neighboring board, stamped with when it crossed
+   * @param ball ball that left the board, at the position it enters the neighbor at
+   * @param neighbor name of the neighboring board
+   * @param crossed when the ball crossed, on the server's clock, see ClockSync
+   * @return ballName xCoord yCoord xVel yVel crossed neighbor, the velocity in hex so it arrives exactly
+   * @author sdrammis
+   */
+  static String ballMessage(Ball ball, String neighbor, long crossed) {
+      return ballMessage(ball, crossed + " " + neighbor);
+  }
+  
+  /**
+   * Name a ball in a message, so the neighbor can match its BALL message to its INCOMING one.
+   * The server passes the name on as it is.
+   * @param name name of the ball
+   * @param key key of the ball, see Ball.getKey
+   * @return name#key, the key in hex; names never have a #
+   */
+  static String ballToken(String name, long key) {
+      return name + "#" + Long.toHexString(key);
+  }
+  
   /**
    * Ensure the rep holds
    */
@@ -0,0 +1,79 @@
+package pingballClient;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decides when the play thread plays the next step of the board, so the play thread only uses the processor
+ * while there is something to play.
+ *
+ * While balls are moving, each step is paced against the clock: the play thread parks until the real time since
+ * play started has caught up with the time the board has been played for, to the nanosecond, so steps shorter
+ * than a millisecond are waited for too instead of being spun through.
+ * While nothing on the board can move, the play thread parks until a message from the server arrives.
+ *
+ * Thread Safety Argument:
+ *      deadline: confined to the play thread
+ *      parked: volatile, written by the play thread and read by the listen thread. The play thread sets it before
+ *          checking for messages, and the listen thread reads it after adding a message and a full fence,
+ *          so either the play thread sees the message or the listen thread sees the play thread and unparks it.
+ *
+ * @author sdrammis
+ */
+class PlayScheduler {
+    /**
+     * Invariants:
+     *      deadline: System.nanoTime() when the steps played so far are due to end
+     *      parked: the play thread while it waits for a message, null otherwise
+     * @author sdrammis
+     */
+    private long deadline = System.nanoTime();
+    private volatile Thread parked = null;
+
+    // the least time a step is paced for, so a board stuck making steps of no time can't take a whole core
+    private static final long MIN_STEP_NANOS = 10000;
+    // how far the play thread can fall behind the clock before it stops trying to catch up
+    private static final long MAX_LAG_NANOS = 50000000;
+
+    /**
+     * Wait until the clock catches up with the board, after a step has been played. Only called by the play thread.
+     * @param seconds how long the step moved the board for, >= 0
+     */
+    void pace(double seconds) {
+        this.deadline += Math.max((long) (seconds * 1e9), MIN_STEP_NANOS);
+        long wait;
+        while ((wait = this.deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, wait);
+        }
+        if (wait < -MAX_LAG_NANOS) {
+            // we fell behind, don't try to catch up in a burst
+            this.deadline = System.nanoTime();
+        }
+    }
+
+    /**
+     * Park until there is a message for the play thread. Only called by the play thread.
+     * Returns right away if there already is one. Pacing starts over from when it returns.
+     * @param messages the messages for the play thread, filled by a thread that calls wake() after each message
+     */
+    void awaitMessage(InboundRing messages) {
+        this.parked = Thread.currentThread();
+        while (messages.isEmpty()) {
+            LockSupport.park(this);
+        }
+        this.parked = null;
+        this.deadline = System.nanoTime();
+    }
+
+    /**
+     * Wake up the play thread if it is waiting for a message. Called after adding a message.
+     */
+    void wake() {
+        // the message must be visible before we look for a parked play thread
+        VarHandle.fullFence();
+        Thread thread = this.parked;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
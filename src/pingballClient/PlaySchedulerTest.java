@@ -0,0 +1,64 @@
+package pingballClient;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * TESTING STRATEGY
+ *
+ * pace():
+ *      steps shorter than a millisecond, steps of no time
+ * awaitMessage():
+ *      a message is already waiting, a message arrives from another thread while parked
+ *
+ * @author sdrammis
+ */
+public class PlaySchedulerTest {
+
+    @Test
+    public void testPaceSubMillisecond() {
+        PlayScheduler scheduler = new PlayScheduler();
+        long start = System.nanoTime();
+        for (int step = 0; step < 100; step++) {
+            scheduler.pace(0.0002);
+        }
+        long elapsed = System.nanoTime() - start;
+        // 100 steps of 0.2ms are paced over 20ms, not slept through as 0ms each
+        assertTrue(elapsed >= 20000000);
+        assertTrue(elapsed < 1000000000);
+    }
+
+    @Test
+    public void testPaceNoTime() {
+        PlayScheduler scheduler = new PlayScheduler();
+        long start = System.nanoTime();
+        for (int step = 0; step < 1000; step++) {
+            scheduler.pace(0);
+        }
+        // steps of no time still take a little time each, so a stuck board can't spin
+        assertTrue(System.nanoTime() - start >= 10000000);
+    }
+
+    @Test(timeout=1000)
+    public void testAwaitMessageWaiting() {
+        InboundRing messages = new InboundRing(4);
+        messages.add("WALL T");
+        new PlayScheduler().awaitMessage(messages);
+    }
+
+    @Test(timeout=5000)
+    public void testAwaitMessageWoken() throws InterruptedException {
+        final InboundRing messages = new InboundRing(4);
+        final PlayScheduler scheduler = new PlayScheduler();
+        Thread player = new Thread(new Runnable() {
+            public void run() { scheduler.awaitMessage(messages); }
+        });
+        player.start();
+        Thread.sleep(100);
+        assertTrue(player.isAlive());
+        messages.add("WALL T");
+        scheduler.wake();
+        player.join();
+    }
+}
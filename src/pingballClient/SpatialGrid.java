@@ -0,0 +1,170 @@
+package pingballClient;
+
+import java.util.Arrays;
+import java.util.List;
+
+import pingballClient.boardObjects.Ball;
+
+/**
+ * A uniform grid of square cells over a board, used to find the gadgets and balls that are near a ball
+ * without looking at everything on the board. Gadgets are added once, to every cell their bounding box touches.
+ * Balls move every step, so they are indexed again before each search, each in the cell of its center.
+ *
+ * Nothing is allocated after the grid is built, unless there are more balls than ever before.
+ *
+ * Thread Safety Argument:
+ *      confined to the thread that plays the board the grid belongs to
+ *
+ * @author sdrammis
+ */
+class SpatialGrid {
+    /**
+     * Rep invariant:
+     *      columns, rows > 0
+     *      gadgetCells, ballHead: one entry per cell, cell index is row * columns + column
+     *      ballHead[cell]: -1 or the index of the first ball in the cell, ballNext continues the list
+     *      ballNext: -1 ends a list, every indexed ball is in exactly one list
+     *      usedCells[0..usedCount): the cells whose ballHead isn't -1, each once
+     * @author sdrammis
+     */
+    //side of a cell in L, a few gadgets wide so most balls only look at the cells around them
+    static final int CELL_SIZE = 4;
+
+    private final int columns;
+    private final int rows;
+    private final int[][] gadgetCells; //cell -> indexes of the gadgets that touch it
+    private final int[] ballHead; //cell -> first ball in the cell
+    private int[] ballNext = new int[16]; //ball -> next ball in the same cell
+    private int[] usedCells = new int[16]; //cells that have balls in them, so only those are cleared
+    private int usedCount;
+    private double maxBallSpeed; //fastest ball indexed
+
+    private static final int[] NO_GADGETS = new int[0];
+
+    /**
+     * Make an empty grid over a board
+     * @param width width of the board, > 0
+     * @param height height of the board, > 0
+     */
+    SpatialGrid(int width, int height) {
+        this.columns = (width + CELL_SIZE - 1) / CELL_SIZE;
+        this.rows = (height + CELL_SIZE - 1) / CELL_SIZE;
+        this.gadgetCells = new int[this.columns * this.rows][];
+        Arrays.fill(this.gadgetCells, NO_GADGETS);
+        this.ballHead = new int[this.columns * this.rows];
+        Arrays.fill(this.ballHead, -1);
+        checkRep();
+    }
+
+    /**
+     * Add a gadget to every cell its bounding box touches
+     * @param gadget index of the gadget in the board's gadget list
+     * @param x left of the bounding box
+     * @param y top of the bounding box
+     * @param width width of the bounding box
+     * @param height height of the bounding box
+     */
+    void addGadget(int gadget, double x, double y, double width, double height) {
+        for (int row = row(y); row <= row(y + height); row++) {
+            for (int column = column(x); column <= column(x + width); column++) {
+                int cell = row * this.columns + column;
+                int[] old = this.gadgetCells[cell];
+                int[] cells = Arrays.copyOf(old, old.length + 1);
+                cells[old.length] = gadget;
+                this.gadgetCells[cell] = cells;
+            }
+        }
+    }
+
+    /**
+     * Put every ball in the cell of its center, forgetting where the balls were before
+     * @param balls the balls of the board, in the board's order. Balls in an absorber are left out.
+     */
+    void indexBalls(List<Ball> balls) {
+        for (int i = 0; i < this.usedCount; i++) {
+            this.ballHead[this.usedCells[i]] = -1;
+        }
+        this.usedCount = 0;
+        if (this.ballNext.length < balls.size()) {
+            this.ballNext = new int[Math.max(balls.size(), this.ballNext.length * 2)];
+            this.usedCells = new int[this.ballNext.length];
+        }
+        this.maxBallSpeed = 0;
+        for (int i = 0; i < balls.size(); i++) {
+            Ball ball = balls.get(i);
+            if (ball.getInAbsorber()) { continue; }
+            int cell = row(ball.getY()) * this.columns + column(ball.getX());
+            if (this.ballHead[cell] == -1) { this.usedCells[this.usedCount++] = cell; }
+            this.ballNext[i] = this.ballHead[cell];
+            this.ballHead[cell] = i;
+            this.maxBallSpeed = Math.max(this.maxBallSpeed, ball.getSpeed());
+        }
+    }
+
+    /**
+     * Get the speed of the fastest ball indexed by the last indexBalls()
+     * @return speed in L per second
+     */
+    double getMaxBallSpeed() {
+        return this.maxBallSpeed;
+    }
+
+    /**
+     * Get the column of the cell that contains an x coordinate, coordinates off the board give the nearest column
+     * @param x x coordinate
+     * @return column
+     */
+    int column(double x) {
+        if (!(x >= 0)) { return 0; } //also catches NaN
+        return (int) Math.min(this.columns - 1, x / CELL_SIZE);
+    }
+
+    /**
+     * Get the row of the cell that contains a y coordinate, coordinates off the board give the nearest row
+     * @param y y coordinate
+     * @return row
+     */
+    int row(double y) {
+        if (!(y >= 0)) { return 0; }
+        return (int) Math.min(this.rows - 1, y / CELL_SIZE);
+    }
+
+    /**
+     * Get the gadgets touching a cell. A gadget that touches several cells is in each of them.
+     * @param row row of the cell
+     * @param column column of the cell
+     * @return indexes of the gadgets, must not be changed
+     */
+    int[] gadgetsIn(int row, int column) {
+        return this.gadgetCells[row * this.columns + column];
+    }
+
+    /**
+     * Get the first ball in a cell
+     * @param row row of the cell
+     * @param column column of the cell
+     * @return index of the ball, -1 if the cell has no balls
+     */
+    int firstBall(int row, int column) {
+        return this.ballHead[row * this.columns + column];
+    }
+
+    /**
+     * Get the next ball in the same cell as a ball
+     * @param ball index of a ball
+     * @return index of the next ball, -1 if there are no more balls in the cell
+     */
+    int nextBall(int ball) {
+        return this.ballNext[ball];
+    }
+
+    /**
+     * Ensure the rep holds
+     */
+    public void checkRep() {
+        assert this.columns > 0 && this.rows > 0;
+        assert this.gadgetCells.length == this.columns * this.rows;
+        assert this.ballHead.length == this.columns * this.rows;
+        assert this.usedCount <= this.usedCells.length;
+    }
+}
@@ -0,0 +1,346 @@
+package pingballClient;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Streams the state of one board of a BoardWorld to any number of spectators. A spectator that starts following
+ * the board is sent a keyframe with everything about it, and after that a delta with only what changed each time
+ * the world's frame thread takes a new snapshot of the board: the balls that moved, came or went, the flippers
+ * that turned, and the absorbers whose contents changed.
+ *
+ * Each message is encoded once into a buffer that every spectator is sent a view of, so encoding costs the same
+ * however many spectators there are. So every spectator must know the same about the board: the feed keeps what
+ * it last sent about each ball (the baseline), every delta is against it, and every keyframe is made from it.
+ *
+ * A spectator is expected to move each ball along its velocity from the time of the message that last carried it.
+ * A ball is only sent again once it has strayed more than MOVE_TOLERANCE from where that puts it, which happens
+ * when it bounces, or every frame or two while gravity bends its path.
+ *
+ * Messages, big endian:
+ *      every message   int length of the rest of the message, byte kind, int board id, int sequence number,
+ *                      long time the snapshot was taken, in nanoseconds, only differences between times mean anything
+ *      K (keyframe)    short name length, name in UTF-8, short width, short height,
+ *                      int background length, background: the board like Board.toString() without flippers or balls,
+ *                      short flippers, each byte kind (0 left, 1 right), short x, short y, short orientation, float angle,
+ *                      short absorbers, each short x, short y, short width, short height, short balls held,
+ *                      short balls, each int id, float x, float y, float x velocity, float y velocity
+ *      D (delta)       short balls moved or arrived, each int id, float x, float y, float x velocity, float y velocity,
+ *                      short balls gone, each int id,
+ *                      short flippers turned, each short index of the flipper in the keyframe, float angle,
+ *                      short absorbers changed, each short index of the absorber in the keyframe, short balls held
+ * A spectator forgets everything it knew about a board when it gets a keyframe of it: everyone is sent a new one
+ * when the walls of the board change, and so is a spectator that asks for one because it lost messages.
+ *
+ * Thread Safety Argument:
+ *      spectators, joining: thread safe types, spectators come and go from any thread
+ *      everything else is confined to the world's frame thread, the only thread that calls publish
+ *      snapshots are immutable, and a message is never written to once it is handed to the spectators
+ *
+ * @author asolei
+ */
+class SpectatorFeed {
+    /**
+     * Invariants:
+     *      spectators: have been sent a keyframe and every message since
+     *      joining: waiting for a keyframe, not in spectators
+     *      last: the newest snapshot published, null until one is
+     *      sent: by ball id, what was last sent about each ball of last
+     *      flipperAngles, absorberBalls: what was last sent about each flipper and absorber of last
+     *      sequence: more than the number of every message made so far, so a spectator can tell messages apart
+     * @author asolei
+     */
+    private final int board;
+    private final byte[] name;
+    private final List<BoardSpectator> spectators = new CopyOnWriteArrayList<BoardSpectator>();
+    private final Queue<BoardSpectator> joining = new ConcurrentLinkedQueue<BoardSpectator>();
+    private BoardSnapshot last = null;
+    private final Map<Integer, Sent> sent = new HashMap<Integer, Sent>();
+    private final Set<Integer> present = new HashSet<Integer>(); //the balls seen while encoding a delta
+    private double[] flipperAngles = new double[0];
+    private int[] absorberBalls = new int[0];
+    private int sequence = 0;
+
+    // how far a ball can stray from where a spectator thinks it is, in L
+    static final double MOVE_TOLERANCE = 0.05;
+    // how far a flipper can turn before spectators are told, in radians
+    static final double ANGLE_TOLERANCE = 0.01;
+
+    private static final int HEADER = 4 + 1 + 4 + 4 + 8;
+    private static final int BALL = 4 + 4 * 4;
+
+    /**
+     * Make a feed for a board, with no spectators
+     * @param board id of the board, see Board.getId()
+     * @param name name of the board
+     */
+    SpectatorFeed(int board, String name) {
+        this.board = board;
+        this.name = name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Start sending the board to a spectator, beginning with a keyframe once the board has been published
+     * @param spectator a spectator that does not follow the board yet
+     */
+    void subscribe(BoardSpectator spectator) {
+        this.joining.add(spectator);
+    }
+
+    /**
+     * Stop sending the board to a spectator
+     * @param spectator a spectator of the board
+     */
+    void unsubscribe(BoardSpectator spectator) {
+        this.spectators.remove(spectator);
+        this.joining.remove(spectator);
+    }
+
+    /**
+     * Send a spectator that lost messages a new keyframe before anything else
+     * @param spectator a spectator of the board
+     */
+    void rekey(BoardSpectator spectator) {
+        if (this.spectators.remove(spectator)) {
+            this.joining.add(spectator);
+        }
+    }
+
+    /**
+     * See if anyone follows the board
+     * @return true if the board has spectators, or spectators waiting for a keyframe
+     */
+    boolean isWatched() {
+        return !this.spectators.isEmpty() || !this.joining.isEmpty();
+    }
+
+    /**
+     * Send the spectators what changed since the last snapshot, and a keyframe to those that need one.
+     * Must only be called by the world's frame thread.
+     * @param snapshot the newest snapshot of the board, may be the same as the last one published
+     * @author asolei
+     * Implemented by: asolei
+     */
+    void publish(BoardSnapshot snapshot) {
+        boolean rekeyAll = false;
+        if (snapshot != this.last) {
+            rekeyAll = this.last != null && !snapshot.sameWalls(this.last);
+            ByteBuffer delta = encodeDelta(snapshot);
+            this.last = snapshot;
+            if (delta != null && !rekeyAll) { sendAll(this.spectators, delta); }
+        }
+        if (this.last == null || (!rekeyAll && this.joining.isEmpty())) { return; }
+        ByteBuffer keyframe = encodeKeyframe();
+        if (rekeyAll) { sendAll(this.spectators, keyframe); }
+        List<BoardSpectator> keyed = new ArrayList<BoardSpectator>();
+        BoardSpectator spectator;
+        while ((spectator = this.joining.poll()) != null) {
+            keyed.add(spectator);
+        }
+        sendAll(keyed, keyframe);
+        this.spectators.addAll(keyed);
+    }
+
+    /**
+     * Send every spectator in a list its own view of a message
+     * @param to the spectators
+     * @param message the message, shared by all of them
+     */
+    private static void sendAll(List<BoardSpectator> to, ByteBuffer message) {
+        for (BoardSpectator spectator : to) {
+            spectator.send(message.duplicate());
+        }
+    }
+
+    /**
+     * Encode what changed from the baseline to a snapshot, and make the snapshot the baseline
+     * @param snapshot newest snapshot of the board
+     * @return the delta, ready to be read, null if nothing changed
+     */
+    private ByteBuffer encodeDelta(BoardSnapshot snapshot) {
+        int flippers = snapshot.getFlipperCount();
+        int absorbers = snapshot.getAbsorberCount();
+        ByteBuffer out = ByteBuffer.allocate(HEADER + 2 + BALL * snapshot.getBallCount() + 2 + 4 * this.sent.size()
+                + 2 + 6 * flippers + 2 + 4 * absorbers);
+        putHeader(out, 'D', snapshot.getTime());
+        boolean changed = false;
+
+        // the balls that strayed or arrived
+        long time = snapshot.getTime();
+        int countAt = out.position();
+        out.putShort((short) 0);
+        int count = 0;
+        this.present.clear();
+        for (int i = 0; i < snapshot.getBallCount(); i++) {
+            int id = snapshot.getBallId(i);
+            this.present.add(id);
+            Sent ball = this.sent.get(id);
+            if (ball != null) {
+                double seconds = (time - ball.time) / 1e9;
+                if (Math.abs(ball.x + ball.xVel * seconds - snapshot.getBallX(i)) <= MOVE_TOLERANCE
+                        && Math.abs(ball.y + ball.yVel * seconds - snapshot.getBallY(i)) <= MOVE_TOLERANCE) {
+                    continue;
+                }
+            } else {
+                ball = new Sent();
+                this.sent.put(id, ball);
+            }
+            ball.x = snapshot.getBallX(i);
+            ball.y = snapshot.getBallY(i);
+            ball.xVel = snapshot.getBallXVel(i);
+            ball.yVel = snapshot.getBallYVel(i);
+            ball.time = time;
+            putBall(out, id, ball, 0);
+            count++;
+        }
+        out.putShort(countAt, (short) count);
+        changed |= count > 0;
+
+        // the balls that left the board or went into an absorber
+        countAt = out.position();
+        out.putShort((short) 0);
+        count = 0;
+        for (Iterator<Integer> ids = this.sent.keySet().iterator(); ids.hasNext();) {
+            int id = ids.next();
+            if (this.present.contains(id)) { continue; }
+            ids.remove();
+            out.putInt(id);
+            count++;
+        }
+        out.putShort(countAt, (short) count);
+        changed |= count > 0;
+
+        // the flippers that turned, every flipper at first
+        boolean fresh = this.flipperAngles.length != flippers;
+        if (fresh) { this.flipperAngles = new double[flippers]; }
+        countAt = out.position();
+        out.putShort((short) 0);
+        count = 0;
+        for (int f = 0; f < flippers; f++) {
+            double angle = snapshot.getFlipperAngle(f);
+            double was = this.flipperAngles[f];
+            // a flipper that stopped turning is always sent, so spectators see it where it rests
+            boolean stopped = angle != was && (angle == 0 || angle == Math.PI/2);
+            if (!fresh && !stopped && Math.abs(angle - was) <= ANGLE_TOLERANCE) { continue; }
+            this.flipperAngles[f] = angle;
+            out.putShort((short) f);
+            out.putFloat((float) angle);
+            count++;
+        }
+        out.putShort(countAt, (short) count);
+        changed |= count > 0;
+
+        // the absorbers that took in or shot out a ball
+        fresh = this.absorberBalls.length != absorbers;
+        if (fresh) { this.absorberBalls = new int[absorbers]; }
+        countAt = out.position();
+        out.putShort((short) 0);
+        count = 0;
+        for (int a = 0; a < absorbers; a++) {
+            int held = snapshot.getAbsorberBalls(a);
+            if (!fresh && held == this.absorberBalls[a]) { continue; }
+            this.absorberBalls[a] = held;
+            out.putShort((short) a);
+            out.putShort((short) held);
+            count++;
+        }
+        out.putShort(countAt, (short) count);
+        changed |= count > 0;
+
+        return changed ? finish(out) : null;
+    }
+
+    /**
+     * Encode everything about the baseline, with the balls moved along to when the last snapshot was taken
+     * @return the keyframe, ready to be read
+     */
+    private ByteBuffer encodeKeyframe() {
+        BoardSnapshot snapshot = this.last;
+        int flippers = snapshot.getFlipperCount();
+        int absorbers = snapshot.getAbsorberCount();
+        ByteBuffer out = ByteBuffer.allocate(HEADER + 2 + this.name.length + 4 + 4 + snapshot.encodedLength()
+                + 2 + 11 * flippers + 2 + 10 * absorbers + 2 + BALL * this.sent.size());
+        long time = snapshot.getTime();
+        putHeader(out, 'K', time);
+        out.putShort((short) this.name.length);
+        out.put(this.name);
+        out.putShort((short) snapshot.getWidth());
+        out.putShort((short) snapshot.getHeight());
+        out.putInt(snapshot.encodedLength());
+        snapshot.encodeBackground(out);
+        out.putShort((short) flippers);
+        for (int f = 0; f < flippers; f++) {
+            out.put((byte) snapshot.getFlipperLayout(f, 0));
+            for (int k = 1; k < 4; k++) {
+                out.putShort((short) snapshot.getFlipperLayout(f, k));
+            }
+            out.putFloat((float) this.flipperAngles[f]);
+        }
+        out.putShort((short) absorbers);
+        for (int a = 0; a < absorbers; a++) {
+            for (int k = 0; k < 4; k++) {
+                out.putShort((short) snapshot.getAbsorberLayout(a, k));
+            }
+            out.putShort((short) this.absorberBalls[a]);
+        }
+        out.putShort((short) this.sent.size());
+        for (Map.Entry<Integer, Sent> ball : this.sent.entrySet()) {
+            putBall(out, ball.getKey(), ball.getValue(), (time - ball.getValue().time) / 1e9);
+        }
+        return finish(out);
+    }
+
+    /**
+     * Start a message
+     * @param out buffer to write the message to, empty
+     * @param kind 'K' or 'D'
+     * @param time when the snapshot the message is about was taken
+     */
+    private void putHeader(ByteBuffer out, char kind, long time) {
+        out.putInt(0); //filled in by finish
+        out.put((byte) kind);
+        out.putInt(this.board);
+        out.putInt(this.sequence++);
+        out.putLong(time);
+    }
+
+    /**
+     * Write a ball as a spectator will think it is some time after it was sent
+     * @param out buffer to write to
+     * @param id id of the ball
+     * @param ball what was sent about the ball
+     * @param seconds how long after it was sent
+     */
+    private static void putBall(ByteBuffer out, int id, Sent ball, double seconds) {
+        out.putInt(id);
+        out.putFloat((float) (ball.x + ball.xVel * seconds));
+        out.putFloat((float) (ball.y + ball.yVel * seconds));
+        out.putFloat((float) ball.xVel);
+        out.putFloat((float) ball.yVel);
+    }
+
+    /**
+     * Fill in the length of a message and get it ready to be read
+     * @param out buffer the whole message was written to
+     * @return out, from the start to the end of the message
+     */
+    private static ByteBuffer finish(ByteBuffer out) {
+        out.putInt(0, out.position() - 4);
+        out.flip();
+        return out;
+    }
+
+    /**
+     * What the spectators were last sent about a ball
+     */
+    private static class Sent {
+        private double x;
+        private double y;
+        private double xVel;
+        private double yVel;
+        private long time; //when the snapshot it was sent with was taken
+    }
+}
@@ -0,0 +1,202 @@
+package pingballClient;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import org.junit.Test;
+
+import physics.Geometry.DoublePair;
+import physics.Vect;
+import pingballClient.boardObjects.*;
+
+/**
+ * TESTING STRATEGY
+ *
+ * publish():
+ *      nothing published yet: a spectator waits for its keyframe
+ *      first snapshot: every spectator is sent the same keyframe, encoded once
+ *      keyframe: name, size, background, flippers, absorbers and balls of the board
+ *      snapshot where nothing changed, or the same snapshot again: nothing is sent
+ *      ball arrived, flipper turned: a delta with only those
+ *      spectator that joins late: a keyframe of what the others were sent, and no delta
+ *      walls changed: every spectator is sent a new keyframe instead of a delta
+ * rekey(), unsubscribe():
+ *      a rekeyed spectator is sent a keyframe, an unsubscribed one nothing
+ *
+ * @author asolei
+ */
+public class SpectatorFeedTest {
+
+    /**
+     * A spectator that keeps what it is sent
+     */
+    private static class Recorder implements BoardSpectator {
+        private final List<ByteBuffer> messages = new ArrayList<ByteBuffer>();
+        public void send(ByteBuffer message) { this.messages.add(message); }
+    }
+
+    private final Gadget flipper = new LeftFlipper("flip", new DoublePair(5, 5), 0, false, new ArrayList<Gadget>());
+    private final Gadget absorber = new Absorber(4, 1, new DoublePair(0, 18), "abs", false, new ArrayList<Gadget>());
+
+    private Board board() {
+        return new Board(new ArrayList<Gadget>(Arrays.asList(this.flipper, this.absorber)),
+                new ArrayList<Ball>(Arrays.asList(new Ball("ball", 10.5, 2.5, new Vect(0, 0)))), "feed", 0.0, 0.0, 0.0);
+    }
+
+    /**
+     * Read the header of a message
+     * @return kind, board id, sequence number; the message is left at the body
+     */
+    private static int[] header(ByteBuffer message) {
+        assertEquals(message.remaining() - 4, message.getInt());
+        int kind = message.get();
+        int board = message.getInt();
+        int sequence = message.getInt();
+        message.getLong();
+        return new int[] { kind, board, sequence };
+    }
+
+    @Test
+    public void testNothingBeforeFirstSnapshot() {
+        SpectatorFeed feed = new SpectatorFeed(1, "feed");
+        Recorder spectator = new Recorder();
+        feed.subscribe(spectator);
+        assertTrue(feed.isWatched());
+        assertTrue(spectator.messages.isEmpty());
+    }
+
+    @Test
+    public void testKeyframeEncodedOnceForEverySpectator() {
+        Board board = board();
+        SpectatorFeed feed = new SpectatorFeed(board.getId(), "feed");
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        feed.subscribe(first);
+        feed.subscribe(second);
+        BoardSnapshot snapshot = board.snapshot();
+        feed.publish(snapshot);
+        assertEquals(1, first.messages.size());
+        assertEquals(1, second.messages.size());
+        ByteBuffer message = first.messages.get(0);
+        assertSame(message.array(), second.messages.get(0).array());
+
+        int[] header = header(message);
+        assertEquals('K', header[0]);
+        assertEquals(board.getId(), header[1]);
+        byte[] name = new byte[message.getShort()];
+        message.get(name);
+        assertEquals("feed", new String(name, StandardCharsets.UTF_8));
+        assertEquals(20, message.getShort());
+        assertEquals(20, message.getShort());
+        byte[] background = new byte[message.getInt()];
+        message.get(background);
+        String drawn = new String(background, StandardCharsets.US_ASCII);
+        assertEquals(22 * 23, drawn.length());
+        assertFalse(drawn.contains("*"));
+        assertTrue(drawn.contains("===="));
+
+        assertEquals(1, message.getShort());
+        assertEquals(0, message.get());
+        assertEquals(5, message.getShort());
+        assertEquals(5, message.getShort());
+        assertEquals(0, message.getShort());
+        assertEquals(0, message.getFloat(), 0);
+
+        assertEquals(1, message.getShort());
+        assertEquals(0, message.getShort());
+        assertEquals(18, message.getShort());
+        assertEquals(4, message.getShort());
+        assertEquals(1, message.getShort());
+        assertEquals(0, message.getShort());
+
+        assertEquals(1, message.getShort());
+        message.getInt();
+        assertEquals(10.5, message.getFloat(), 1e-6);
+        assertEquals(2.5, message.getFloat(), 1e-6);
+        assertEquals(0, message.getFloat(), 0);
+        assertEquals(0, message.getFloat(), 0);
+        assertFalse(message.hasRemaining());
+
+        // nothing changed
+        feed.publish(snapshot);
+        feed.publish(board.snapshot());
+        assertEquals(1, first.messages.size());
+    }
+
+    @Test
+    public void testDeltaHasOnlyWhatChanged() {
+        Board board = board();
+        SpectatorFeed feed = new SpectatorFeed(board.getId(), "feed");
+        Recorder spectator = new Recorder();
+        feed.subscribe(spectator);
+        feed.publish(board.snapshot());
+
+        board.addBall("other", 3.5, 3.5, 0, 0);
+        this.flipper.respondToTrigger(0);
+        board.newGadgetPositions(0.01);
+        feed.publish(board.snapshot());
+        assertEquals(2, spectator.messages.size());
+        ByteBuffer delta = spectator.messages.get(1);
+        assertEquals('D', header(delta)[0]);
+        assertEquals(1, delta.getShort());
+        delta.getInt();
+        assertEquals(3.5, delta.getFloat(), 1e-6);
+        assertEquals(3.5, delta.getFloat(), 1e-6);
+        delta.getFloat();
+        delta.getFloat();
+        assertEquals(0, delta.getShort());
+        assertEquals(1, delta.getShort());
+        assertEquals(0, delta.getShort());
+        assertEquals(this.flipper.getAngle(), delta.getFloat(), 1e-6);
+        assertTrue(this.flipper.getAngle() > 0);
+        assertEquals(0, delta.getShort());
+        assertFalse(delta.hasRemaining());
+
+        // a late spectator is keyed from what the others know, and the others are sent nothing
+        Recorder late = new Recorder();
+        feed.subscribe(late);
+        feed.publish(board.snapshot());
+        assertEquals(2, spectator.messages.size());
+        assertEquals(1, late.messages.size());
+        ByteBuffer keyframe = late.messages.get(0);
+        assertEquals('K', header(keyframe)[0]);
+        keyframe.position(keyframe.limit() - 2 - 2 * (4 + 4 * 4));
+        assertEquals(2, keyframe.getShort());
+    }
+
+    @Test
+    public void testWallsChangedRekeysEveryone() {
+        Board board = board();
+        SpectatorFeed feed = new SpectatorFeed(board.getId(), "feed");
+        Recorder spectator = new Recorder();
+        feed.subscribe(spectator);
+        feed.publish(board.snapshot());
+        board.merge("R", "next");
+        feed.publish(board.snapshot());
+        assertEquals(2, spectator.messages.size());
+        assertEquals('K', header(spectator.messages.get(1))[0]);
+    }
+
+    @Test
+    public void testRekeyAndUnsubscribe() {
+        Board board = board();
+        SpectatorFeed feed = new SpectatorFeed(board.getId(), "feed");
+        Recorder kept = new Recorder();
+        Recorder gone = new Recorder();
+        feed.subscribe(kept);
+        feed.subscribe(gone);
+        feed.publish(board.snapshot());
+        feed.rekey(kept);
+        feed.unsubscribe(gone);
+        board.addBall("other", 3.5, 3.5, 0, 0);
+        feed.publish(board.snapshot());
+        assertEquals(2, kept.messages.size());
+        assertEquals('K', header(kept.messages.get(1))[0]);
+        assertEquals(1, gone.messages.size());
+        feed.unsubscribe(kept);
+        assertFalse(feed.isWatched());
+    }
+}
@@ -0,0 +1,318 @@
+package pingballClient;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+import pingballClient.parser.BoardFactory;
+
+/**
+ * Plays boards without drawing them or talking to a server, as fast as it can, and reports how fast the board was played.
+ * Each tick does what the play thread of a PingballClient does, without sleeping, 
+ * with or without continuous collision detection.
+ *
+ * For every board it reports:
+ *      ticks per second of wall clock time
+ *      collisions per second of wall clock time
+ *      the 99th percentile time a tick took
+ *      bytes allocated per tick, the heap churn the garbage collector has to keep up with
+ *      stalled ticks, ticks where a collision was due right away and the board did not move at all
+ *
+ * A board that stalls for good would be played forever, so a board is only played for a bounded number of ticks.
+ * If it runs out of ticks before the simulated time is up, it missed the gate.
+ *
+ * It can be used as a regression gate: given limits, it exits with status 1 if any board misses one of them.
+ *
+ * Thread Safety Argument:
+ *      a driver only plays boards on the thread that calls it, and the boards are not shared
+ *
+ * @author nwallace
+ */
+public class StressDriver {
+
+    // how many ticks a board gets for each update it should make before it counts as stalled for good
+    private static final long MAX_TICKS_PER_UPDATE = 20;
+
+    /**
+     * What playing a board measured. Immutable.
+     * @author nwallace
+     */
+    public static class Result {
+        /**
+         * Invariants:
+         *      ticks, stalledTicks, collisions, wallNanos, p99TickNanos >= 0
+         *      stalledTicks <= ticks
+         *      allocatedBytes >= 0, or -1 if the JVM can't count allocations
+         * @author nwallace
+         */
+        private final long ticks;
+        private final long stalledTicks;
+        private final double simulatedSeconds;
+        private final long wallNanos;
+        private final long collisions;
+        private final long p99TickNanos;
+        private final long allocatedBytes;
+
+        Result(long ticks, long stalledTicks, double simulatedSeconds, long wallNanos, long collisions,
+                long p99TickNanos, long allocatedBytes) {
+            this.ticks = ticks;
+            this.stalledTicks = stalledTicks;
+            this.simulatedSeconds = simulatedSeconds;
+            this.wallNanos = wallNanos;
+            this.collisions = collisions;
+            this.p99TickNanos = p99TickNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public long getTicks() {
+            return this.ticks;
+        }
+
+        public long getStalledTicks() {
+            return this.stalledTicks;
+        }
+
+        public double getSimulatedSeconds() {
+            return this.simulatedSeconds;
+        }
+
+        public double getTicksPerSecond() {
+            return this.ticks / (this.wallNanos / 1e9);
+        }
+
+        public double getCollisionsPerSecond() {
+            return this.collisions / (this.wallNanos / 1e9);
+        }
+
+        public long getP99TickNanos() {
+            return this.p99TickNanos;
+        }
+
+        /**
+         * Get the heap churn
+         * @return bytes allocated per tick, or -1 if the JVM can't count allocations
+         */
+        public long getBytesPerTick() {
+            if (this.allocatedBytes < 0 || this.ticks == 0) { return this.allocatedBytes < 0 ? -1 : 0; }
+            return this.allocatedBytes / this.ticks;
+        }
+
+        /**
+         * @return one line of key=value pairs, easy to read and easy to grep
+         */
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "ticks=%d stalledTicks=%d simulatedSeconds=%.3f ticksPerSecond=%.1f "
+                    + "collisionsPerSecond=%.1f p99TickMicros=%.1f bytesPerTick=%d",
+                    this.ticks, this.stalledTicks, this.simulatedSeconds, getTicksPerSecond(), getCollisionsPerSecond(),
+                    this.p99TickNanos / 1e3, getBytesPerTick());
+        }
+    }
+
+    /**
+     * Play boards and report how fast they were played.
+     *
+     * Usage: StressDriver [--seconds SECONDS] [--warmup SECONDS] [--continuous] [--min-ticks-per-second TICKS]
+     *      [--max-p99-micros MICROS] [--max-bytes-per-tick BYTES] FILE...
+     *
+     * --seconds is how many simulated seconds each board is played for, the default is 1.
+     * --warmup is how many simulated seconds each board is played for first, without measuring, so the JIT
+     *      has compiled the physics. The default is 0.25.
+     * --continuous plays the boards like PingballClient --continuous does, see Board.advance.
+     * --min-ticks-per-second, --max-p99-micros and --max-bytes-per-tick are the limits of the regression gate.
+     *      No limit is checked unless it is given.
+     * FILE is one or more board files, for example written by WorkloadGenerator.
+     *
+     * Each board gets MAX_TICKS_PER_UPDATE ticks for every update of the board it should make.
+     * Prints one line per board. Exits with status 1 if a board missed a limit and 2 if the arguments are wrong
+     * or a board can't be read.
+     *
+     * @author nwallace
+     * Implemented by: nwallace
+     */
+    public static void main(String[] args) {
+        double seconds = 1;
+        double warmup = 0.25;
+        boolean continuous = false;
+        double minTicksPerSecond = 0;
+        double maxP99Micros = Double.POSITIVE_INFINITY;
+        long maxBytesPerTick = Long.MAX_VALUE;
+        List<File> files = new ArrayList<File>();
+        Queue<String> arguments = new LinkedList<String>(Arrays.asList(args));
+        try {
+            while (! arguments.isEmpty()){
+                String flag = arguments.remove();
+                try {
+                    if (flag.equals("--seconds")){
+                        seconds = Double.parseDouble(arguments.remove());
+                    } else if (flag.equals("--warmup")){
+                        warmup = Double.parseDouble(arguments.remove());
+                    } else if (flag.equals("--continuous")){
+                        continuous = true;
+                    } else if (flag.equals("--min-ticks-per-second")){
+                        minTicksPerSecond = Double.parseDouble(arguments.remove());
+                    } else if (flag.equals("--max-p99-micros")){
+                        maxP99Micros = Double.parseDouble(arguments.remove());
+                    } else if (flag.equals("--max-bytes-per-tick")){
+                        maxBytesPerTick = Long.parseLong(arguments.remove());
+                    } else if (flag.startsWith("--")){
+                        throw new IllegalArgumentException("unknown option: \"" + flag + "\"");
+                    } else {
+                        File file = new File(flag);
+                        if ( ! file.isFile()) {
+                            throw new IllegalArgumentException("invalid file: \"" + file + "\"");
+                        }
+                        files.add(file);
+                    }
+                } catch (NoSuchElementException nsee){
+                    throw new IllegalArgumentException("missing argument for " + flag);
+                } catch (NumberFormatException nfe){
+                    throw new IllegalArgumentException("unable to parse number for " + flag);
+                }
+            }
+            if (files.isEmpty()){
+                throw new IllegalArgumentException("missing FILE");
+            }
+            if (!(seconds > 0) || !(warmup >= 0)){
+                throw new IllegalArgumentException("seconds must be positive");
+            }
+        } catch (IllegalArgumentException iae){
+            System.err.println(iae.getMessage());
+            System.err.println("usage: StressDriver [--seconds SECONDS] [--warmup SECONDS] [--continuous]"
+                    + " [--min-ticks-per-second TICKS] [--max-p99-micros MICROS] [--max-bytes-per-tick BYTES] FILE...");
+            System.exit(2);
+            return;
+        }
+
+        boolean passed = true;
+        for (File file : files) {
+            Board board;
+            try {
+                board = BoardFactory.parse(file);
+            } catch (Exception e) {
+                System.err.println("unable to read " + file + ": " + e.getMessage());
+                System.exit(2);
+                return;
+            }
+            run(board, warmup, continuous);
+            Result result = run(board, seconds, continuous);
+            List<String> missed = new ArrayList<String>();
+            if (result.getSimulatedSeconds() < seconds) { missed.add("simulatedSeconds"); }
+            if (result.getTicksPerSecond() < minTicksPerSecond) { missed.add("ticksPerSecond"); }
+            if (result.getP99TickNanos() / 1e3 > maxP99Micros) { missed.add("p99TickMicros"); }
+            if (result.getBytesPerTick() > maxBytesPerTick) { missed.add("bytesPerTick"); }
+            System.out.println("board=" + board.getName() + " " + result
+                    + (missed.isEmpty() ? "" : " FAILED=" + String.join(",", missed)));
+            passed &= missed.isEmpty();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Play a board for an amount of simulated time, as fast as possible.
+     * A tick moves the board forward to the next collision, or by one update of the board if that is sooner,
+     * just like the play thread of a PingballClient.
+     * Stops early if the board has used up MAX_TICKS_PER_UPDATE ticks for every update it should have made.
+     *
+     * @param board the board to play, is changed. Balls that leave through invisible walls are dropped.
+     * @param seconds simulated seconds to play for, >= 0
+     * @return what was measured
+     * @author nwallace
+     * Implemented by: nwallace
+     */
+    public static Result run(Board board, double seconds) {
+        return run(board, seconds, false);
+    }
+
+    /**
+     * Play a board for an amount of simulated time, as fast as possible.
+     * With continuous collision detection a tick is one step of PingballClient.CONTINUOUS_TICK seconds, 
+     * like the play thread of a PingballClient started with --continuous. Otherwise see run(board, seconds).
+     *
+     * @param board the board to play, is changed. Balls that leave through invisible walls are dropped.
+     * @param seconds simulated seconds to play for, >= 0
+     * @param continuous whether to play with continuous collision detection, see Board.advance
+     * @return what was measured
+     * @author nwallace
+     * Implemented by: nwallace
+     */
+    public static Result run(Board board, double seconds, boolean continuous) {
+        // allocations are counted on this thread, so the tick times are stored without allocating
+        long updates = (long) Math.ceil(seconds / (continuous ? PingballClient.CONTINUOUS_TICK : Board.DELTA));
+        long maxTicks = Math.max(1, updates * MAX_TICKS_PER_UPDATE);
+        long[] tickNanos = new long[(int) Math.min(Integer.MAX_VALUE - 8, updates + 1)];
+        long ticks = 0;
+        long stalled = 0;
+        double simulated = 0;
+        long collisionsBefore = board.getCollisionCount();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        while (simulated < seconds && ticks < maxTicks) {
+            long tickStart = System.nanoTime();
+            if (continuous) {
+                board.newGadgetPositions(PingballClient.CONTINUOUS_TICK);
+                if (!board.isResting()) {
+                    board.advance(PingballClient.CONTINUOUS_TICK);
+                }
+                simulated += PingballClient.CONTINUOUS_TICK;
+                tickNanos = record(tickNanos, ticks++, System.nanoTime() - tickStart);
+                continue;
+            }
+            double time = 1;
+            boolean resting = board.isResting();
+            if (!resting) {
+                double minTimeUntilCollision = board.getMinTimeUntilCollision(time);
+                if (minTimeUntilCollision < time) { time = minTimeUntilCollision; }
+            }
+            board.newGadgetPositions(time);
+            if (!resting) {
+                board.newBallPositions(time);
+                board.handleCollisions(time);
+            }
+            // the board moves by at most one update a tick
+            simulated += Math.min(time, Board.DELTA);
+            if (time <= 0) { stalled++; }
+            tickNanos = record(tickNanos, ticks++, System.nanoTime() - tickStart);
+        }
+        long wall = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+        long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+
+        long p99 = 0;
+        if (ticks > 0) {
+            Arrays.sort(tickNanos, 0, (int) ticks);
+            p99 = tickNanos[(int) Math.min(ticks - 1, (long) Math.ceil(ticks * 0.99) - 1)];
+        }
+        return new Result(ticks, stalled, simulated, wall, board.getCollisionCount() - collisionsBefore, p99, allocated);
+    }
+
+    /**
+     * Store how long a tick took
+     * @param tickNanos tick times so far
+     * @param tick index of the tick, <= tickNanos.length
+     * @param nanos how long the tick took
+     * @return tickNanos, or a bigger copy of it if it was full
+     */
+    private static long[] record(long[] tickNanos, long tick, long nanos) {
+        if (tick == tickNanos.length) {
+            tickNanos = Arrays.copyOf(tickNanos, tickNanos.length * 2);
+        }
+        tickNanos[(int) tick] = nanos;
+        return tickNanos;
+    }
+
+    /**
+     * Get how many bytes this thread has allocated
+     * @return bytes allocated since the thread started, or -1 if the JVM can't count them
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) threads;
+            if (counting.isThreadAllocatedMemorySupported() && counting.isThreadAllocatedMemoryEnabled()) {
+                return counting.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,93 @@
+package pingballClient;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.junit.Test;
+
+import pingballClient.parser.BoardFactory;
+
+/**
+ * TESTING STRATEGY
+ *
+ * WorkloadGenerator.generate():
+ *      balls: 0, many
+ *      density: 0, > 0
+ *      same seed twice, different seeds
+ *      more balls than free cells
+ * StressDriver.run():
+ *      sample board, generated board, generated board with flippers
+ *
+ * @author nwallace
+ */
+public class StressDriverTest {
+
+    private Board parse(String board) throws IOException {
+        File file = File.createTempFile("stress", ".pb.txt");
+        file.deleteOnExit();
+        try (Writer out = new FileWriter(file)) {
+            out.write(board);
+        }
+        return BoardFactory.parse(file);
+    }
+
+    @Test
+    public void testGenerateParses() throws IOException {
+        String text = WorkloadGenerator.generate("Gen", 40, 30, 300, 0.1, 0.2, 0.5, 1);
+        Board board = parse(text);
+        assertEquals("Gen", board.getName());
+        assertEquals(40, board.getWidth());
+        assertEquals(30, board.getHeight());
+        assertEquals(300, board.getBallCopy().size());
+    }
+
+    @Test
+    public void testGenerateEmpty() throws IOException {
+        Board board = parse(WorkloadGenerator.generate("Empty", 10, 10, 0, 0, 0, 0, 1));
+        assertEquals(0, board.getBallCopy().size());
+    }
+
+    @Test
+    public void testGenerateSameSeed() {
+        assertEquals(WorkloadGenerator.generate("A", 30, 30, 50, 0.2, 0.2, 0.2, 7),
+                WorkloadGenerator.generate("A", 30, 30, 50, 0.2, 0.2, 0.2, 7));
+        assertNotEquals(WorkloadGenerator.generate("A", 30, 30, 50, 0.2, 0.2, 0.2, 7),
+                WorkloadGenerator.generate("A", 30, 30, 50, 0.2, 0.2, 0.2, 8));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testGenerateTooManyBalls() {
+        // 9 rows above the absorber
+        WorkloadGenerator.generate("Full", 10, 10, 91, 0, 0, 0, 1);
+    }
+
+    @Test
+    public void testRunSampleBoard() throws IOException {
+        Board board = BoardFactory.parse(new File("./src/sampleBoard1.pb.txt"));
+        StressDriver.Result result = StressDriver.run(board, 0.5);
+        assertTrue(result.getSimulatedSeconds() >= 0.5);
+        assertTrue(result.getTicks() >= 500);
+        assertTrue(result.getStalledTicks() <= result.getTicks());
+        assertTrue(result.getP99TickNanos() > 0);
+        assertTrue(result.toString().startsWith("ticks=" + result.getTicks() + " "));
+    }
+
+    @Test
+    public void testRunGeneratedBoard() throws IOException {
+        Board board = parse(WorkloadGenerator.generate("Run", 20, 20, 40, 0.1, 0, 0.5, 3));
+        StressDriver.Result result = StressDriver.run(board, 0.2);
+        assertTrue(result.getSimulatedSeconds() >= 0.2);
+        assertTrue(result.getCollisionsPerSecond() > 0);
+    }
+
+    @Test
+    public void testRunGeneratedBoardWithFlippers() throws IOException {
+        // these boards used to stall for good on a ball resting on a flipper or caught between two gadgets
+        for (int seed = 1; seed <= 4; seed++) {
+            Board board = parse(WorkloadGenerator.generate("Flip", 20, 20, 40, 0.1, 0.5, 0.2, seed));
+            StressDriver.Result result = StressDriver.run(board, 0.5);
+            assertTrue(result.toString(), result.getSimulatedSeconds() >= 0.5);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package pingballClient;
+
+import java.util.Arrays;
+import java.util.List;
+
+import pingballClient.boardObjects.Ball;
+
+/**
+ * Finds the pairs of balls on a board that could collide soon, so the exact time until collision is only worked out
+ * for those pairs, and for each of them once.
+ *
+ * Each ball gets a box around it, as big as the ball plus as far as the ball can go within the horizon.
+ * The balls are kept sorted by the left of their box, and swept from left to right: a ball's box can only overlap
+ * the boxes of the balls after it, up to the first one whose box starts to its right. Those pairs whose boxes also
+ * overlap top to bottom are the candidates.
+ *
+ * Balls barely move between two sweeps, so the order of the last sweep is almost sorted already, and is sorted again
+ * with insertion sort, which takes about one pass over the balls then. Where the balls of the last sweep are in the
+ * board's list now, after balls were added, taken off or moved in it, is found by looking their ids up in a hash
+ * table of the board's balls.
+ *
+ * Nothing is allocated after the first sweeps, unless there are more balls or candidates than ever before.
+ *
+ * Thread Safety Argument:
+ *      confined to the thread that plays the board the sweep belongs to
+ *
+ * @author sdrammis
+ */
+class SweepAndPrune {
+    /**
+     * Rep invariant:
+     *      swept: the balls of the last sweep, in the board's order, the first count entries are used
+     *      order: the first count entries are the indexes 0..count-1 of swept, each once,
+     *          sorted by left after a sweep
+     *      left, right, top, bottom: the box of each ball of the last sweep, by its index
+     *      first[b]..first[b+1]-1: where the candidates of ball b are in candidates, 0 <= first[b] <= first[b+1]
+     *      keys, slots: open addressing hash table, length a power of two >= 2 * length of swept,
+     *          keys[h] is 1 + the id of a ball of the last sweep and slots[h] its index, or keys[h] is 0 if h is empty
+     *      pairs: number of candidate pairs, each pair is in the candidates of both of its balls
+     * @author sdrammis
+     */
+    private Ball[] swept = new Ball[16];
+    private int[] order = new int[16];
+    private int[] moved = new int[16]; //where each ball of the previous sweep is now, -1 if it is gone
+    private double[] left = new double[16];
+    private double[] right = new double[16];
+    private double[] top = new double[16];
+    private double[] bottom = new double[16];
+    private int[] first = new int[17];
+    private int[] keys = new int[32];
+    private int[] slots = new int[32];
+    private int[] candidates = new int[32];
+    private int[] pairFirst = new int[16];
+    private int[] pairSecond = new int[16];
+    private int count = 0;
+    private int pairs = 0;
+
+    // boxes are made bigger by this much in L, for balls that speed up between the sweep and the exact check
+    private static final double SLACK = 0.01;
+
+    /**
+     * Find the pairs of balls that could collide within the horizon.
+     * Balls in an absorber are never candidates, and neither are two balls that are both asleep.
+     * @param balls the balls of the board, in the board's order
+     * @param radius radius of the balls
+     * @param horizon how far ahead to look in seconds, > 0, may be infinite
+     * @return number of candidate pairs
+     */
+    int sweep(List<Ball> balls, double radius, double horizon) {
+        reconcile(balls);
+        for (int i = 0; i < this.count; i++) {
+            Ball ball = this.swept[i];
+            double reach = radius + SLACK + (ball.getSpeed() == 0 ? 0 : ball.getSpeed() * horizon);
+            this.left[i] = ball.getX() - reach;
+            this.right[i] = ball.getX() + reach;
+            this.top[i] = ball.getY() - reach;
+            this.bottom[i] = ball.getY() + reach;
+        }
+        insertionSort();
+
+        this.pairs = 0;
+        for (int a = 0; a < this.count; a++) {
+            int i = this.order[a];
+            if (this.swept[i].getInAbsorber()) { continue; }
+            for (int c = a + 1; c < this.count && this.left[this.order[c]] <= this.right[i]; c++) {
+                int j = this.order[c];
+                if (this.top[j] > this.bottom[i] || this.top[i] > this.bottom[j]) { continue; }
+                if (this.swept[j].getInAbsorber()) { continue; }
+                if (this.swept[i].getAsleep() && this.swept[j].getAsleep()) { continue; }
+                addPair(i, j);
+            }
+        }
+        index();
+        return this.pairs;
+    }
+
+    /**
+     * Get one ball of a candidate pair of the last sweep
+     * @param pair index of the pair, 0 <= pair < number of pairs
+     * @return index of the ball in the board's list
+     */
+    int pairFirst(int pair) {
+        return this.pairFirst[pair];
+    }
+
+    /**
+     * Get the other ball of a candidate pair of the last sweep
+     * @param pair index of the pair, 0 <= pair < number of pairs
+     * @return index of the ball in the board's list
+     */
+    int pairSecond(int pair) {
+        return this.pairSecond[pair];
+    }
+
+    /**
+     * Get where the candidates of a ball start
+     * @param ball index of the ball in the board's list, as of the last sweep
+     * @return index of its first candidate, see candidate()
+     */
+    int candidatesStart(int ball) {
+        return this.first[ball];
+    }
+
+    /**
+     * Get where the candidates of a ball end
+     * @param ball index of the ball in the board's list, as of the last sweep
+     * @return one past the index of its last candidate, see candidate()
+     */
+    int candidatesEnd(int ball) {
+        return this.first[ball + 1];
+    }
+
+    /**
+     * Get a ball that could collide with another one
+     * @param index between candidatesStart and candidatesEnd of the other ball
+     * @return index of the ball in the board's list
+     */
+    int candidate(int index) {
+        return this.candidates[index];
+    }
+
+    /**
+     * Bring the balls of the last sweep up to date with the board's list, keeping the order of the balls still there.
+     * The balls of the last sweep are looked up in a hash table of the board's balls by id, so it doesn't matter
+     * how the list was changed. Balls that are not in the last sweep are new, and are sorted in from the end.
+     * @param balls the balls of the board, in the board's order
+     */
+    private void reconcile(List<Ball> balls) {
+        int size = balls.size();
+        if (this.swept.length < size) {
+            int capacity = Math.max(size, 2 * this.swept.length);
+            this.swept = Arrays.copyOf(this.swept, capacity);
+            this.order = Arrays.copyOf(this.order, capacity);
+            this.moved = new int[capacity];
+            this.left = new double[capacity];
+            this.right = new double[capacity];
+            this.top = new double[capacity];
+            this.bottom = new double[capacity];
+            this.first = new int[capacity + 1];
+            this.keys = new int[Integer.highestOneBit(capacity) * 4];
+            this.slots = new int[this.keys.length];
+        }
+        Arrays.fill(this.keys, 0);
+        for (int b = 0; b < size; b++) {
+            int key = balls.get(b).getId() + 1;
+            int h = hash(key);
+            while (this.keys[h] != 0) {
+                h = (h + 1) & (this.keys.length - 1);
+            }
+            this.keys[h] = key;
+            this.slots[h] = b;
+        }
+        //moved[b] is 1 if ball b of the board was in the last sweep, 0 if it is new
+        Arrays.fill(this.moved, 0, size, 0);
+        int kept = 0;
+        for (int a = 0; a < this.count; a++) {
+            int now = find(this.swept[this.order[a]].getId() + 1);
+            if (now >= 0) {
+                this.order[kept++] = now;
+                this.moved[now] = 1;
+            }
+        }
+        for (int b = 0; b < size; b++) {
+            if (this.moved[b] == 0) { this.order[kept++] = b; }
+        }
+        for (int b = 0; b < size; b++) {
+            this.swept[b] = balls.get(b);
+        }
+        for (int b = size; b < this.count; b++) {
+            this.swept[b] = null;
+        }
+        this.count = size;
+    }
+
+    /**
+     * Find a ball of the board in the hash table
+     * @param key 1 + the id of the ball
+     * @return index of the ball in the board's list, -1 if it is not on the board
+     */
+    private int find(int key) {
+        for (int h = hash(key); this.keys[h] != 0; h = (h + 1) & (this.keys.length - 1)) {
+            if (this.keys[h] == key) { return this.slots[h]; }
+        }
+        return -1;
+    }
+
+    /**
+     * Get where to start looking for a key in the hash table
+     * @param key 1 + the id of a ball
+     * @return index into keys
+     */
+    private int hash(int key) {
+        return (key * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(this.keys.length));
+    }
+
+    /**
+     * Sort order by the left of the boxes, quickly if it is almost sorted already
+     */
+    private void insertionSort() {
+        for (int a = 1; a < this.count; a++) {
+            int ball = this.order[a];
+            double key = this.left[ball];
+            int c = a - 1;
+            while (c >= 0 && this.left[this.order[c]] > key) {
+                this.order[c + 1] = this.order[c];
+                c--;
+            }
+            this.order[c + 1] = ball;
+        }
+    }
+
+    /**
+     * Add a candidate pair
+     * @param i index of one ball
+     * @param j index of the other ball
+     */
+    private void addPair(int i, int j) {
+        if (this.pairs == this.pairFirst.length) {
+            this.pairFirst = Arrays.copyOf(this.pairFirst, 2 * this.pairs);
+            this.pairSecond = Arrays.copyOf(this.pairSecond, 2 * this.pairs);
+        }
+        this.pairFirst[this.pairs] = Math.min(i, j);
+        this.pairSecond[this.pairs] = Math.max(i, j);
+        this.pairs++;
+    }
+
+    /**
+     * List the candidates of each ball, from the candidate pairs
+     */
+    private void index() {
+        Arrays.fill(this.first, 0, this.count + 1, 0);
+        for (int p = 0; p < this.pairs; p++) {
+            this.first[this.pairFirst[p] + 1]++;
+            this.first[this.pairSecond[p] + 1]++;
+        }
+        for (int b = 0; b < this.count; b++) {
+            this.first[b + 1] += this.first[b];
+        }
+        if (this.candidates.length < 2 * this.pairs) {
+            this.candidates = new int[Math.max(2 * this.pairs, 2 * this.candidates.length)];
+        }
+        // moved is free until the next sweep, it is where the next candidate of each ball goes
+        System.arraycopy(this.first, 0, this.moved, 0, this.count);
+        for (int p = 0; p < this.pairs; p++) {
+            this.candidates[this.moved[this.pairFirst[p]]++] = this.pairSecond[p];
+            this.candidates[this.moved[this.pairSecond[p]]++] = this.pairFirst[p];
+        }
+    }
+
+    /**
+     * Ensure the rep holds
+     */
+    public void checkRep() {
+        assert this.count <= this.swept.length;
+        assert this.order.length == this.swept.length && this.left.length == this.swept.length;
+        assert this.first.length == this.swept.length + 1;
+        assert this.pairs <= this.pairFirst.length;
+        assert Integer.bitCount(this.keys.length) == 1 && this.keys.length >= 2 * this.swept.length;
+    }
+}
@@ -0,0 +1,133 @@
+package pingballClient;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import physics.Vect;
+import pingballClient.boardObjects.Ball;
+
+/**
+ * TESTING STRATEGY
+ *
+ * sweep():
+ *      no balls, many balls
+ *      horizon finite, infinite
+ *      balls added and removed between sweeps, removed by moving the last ball into their place
+ *      balls asleep, in an absorber
+ *      finds every pair that collides within the horizon, each pair once
+ *
+ * @author sdrammis
+ */
+public class SweepAndPruneTest {
+
+    private static final double RADIUS = 0.25;
+
+    private static List<Ball> randomBalls(Random random, int count) {
+        List<Ball> balls = new ArrayList<Ball>();
+        for (int i = 0; i < count; i++) {
+            balls.add(new Ball("ball" + i, random.nextDouble() * 40, random.nextDouble() * 40,
+                    new Vect(random.nextDouble() * 40 - 20, random.nextDouble() * 40 - 20)));
+        }
+        return balls;
+    }
+
+    /**
+     * Check that every pair of balls that collides within the horizon is a candidate, and no pair is one twice
+     */
+    private static void assertFindsCollisions(SweepAndPrune sweep, List<Ball> balls, double horizon) {
+        int pairs = sweep.sweep(balls, RADIUS, horizon);
+        Set<List<Integer>> found = new HashSet<List<Integer>>();
+        for (int p = 0; p < pairs; p++) {
+            assertTrue(sweep.pairFirst(p) < sweep.pairSecond(p));
+            assertTrue(found.add(Arrays.asList(sweep.pairFirst(p), sweep.pairSecond(p))));
+        }
+        for (int i = 0; i < balls.size(); i++) {
+            Set<Integer> candidates = new HashSet<Integer>();
+            for (int c = sweep.candidatesStart(i); c < sweep.candidatesEnd(i); c++) {
+                candidates.add(sweep.candidate(c));
+            }
+            for (int j = i + 1; j < balls.size(); j++) {
+                if (balls.get(i).getTimeUntilCollision(balls.get(j)) <= horizon) {
+                    assertTrue(found.contains(Arrays.asList(i, j)));
+                }
+                assertEquals(found.contains(Arrays.asList(i, j)), candidates.contains(j));
+            }
+        }
+    }
+
+    @Test
+    public void testNoBalls() {
+        assertEquals(0, new SweepAndPrune().sweep(new ArrayList<Ball>(), RADIUS, 1));
+    }
+
+    @Test
+    public void testFindsCollisions() {
+        Random random = new Random(1);
+        List<Ball> balls = randomBalls(random, 300);
+        SweepAndPrune sweep = new SweepAndPrune();
+        assertFindsCollisions(sweep, balls, 0.05);
+        // far fewer pairs than all of them
+        assertTrue(sweep.sweep(balls, RADIUS, 0.05) < 300 * 299 / 2 / 10);
+    }
+
+    @Test
+    public void testInfiniteHorizon() {
+        Random random = new Random(2);
+        List<Ball> balls = randomBalls(random, 20);
+        balls.add(new Ball("still", 5, 5, new Vect(0, 0)));
+        assertFindsCollisions(new SweepAndPrune(), balls, Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void testBallsAddedAndRemoved() {
+        Random random = new Random(3);
+        List<Ball> balls = randomBalls(random, 200);
+        SweepAndPrune sweep = new SweepAndPrune();
+        for (int tick = 0; tick < 20; tick++) {
+            for (Ball ball : balls) {
+                ball.setCoord(ball.getX() + 0.01 * ball.getVelocity().x(), ball.getY() + 0.01 * ball.getVelocity().y());
+            }
+            balls.remove(random.nextInt(balls.size()));
+            balls.remove(random.nextInt(balls.size()));
+            balls.addAll(randomBalls(random, 3));
+            assertFindsCollisions(sweep, balls, 0.05);
+        }
+        // reordered some other way
+        Collections.shuffle(balls, random);
+        assertFindsCollisions(sweep, balls, 0.05);
+    }
+
+    @Test
+    public void testBallsSwappedOut() {
+        Random random = new Random(4);
+        List<Ball> balls = randomBalls(random, 200);
+        SweepAndPrune sweep = new SweepAndPrune();
+        assertFindsCollisions(sweep, balls, 0.05);
+        for (int tick = 0; tick < 20; tick++) {
+            // like Board takes a ball off: the last ball takes its place
+            int gone = random.nextInt(balls.size());
+            balls.set(gone, balls.get(balls.size() - 1));
+            balls.remove(balls.size() - 1);
+            assertFindsCollisions(sweep, balls, 0.05);
+        }
+    }
+
+    @Test
+    public void testStillBalls() {
+        Ball a = new Ball("a", 5, 5, new Vect(0, 0));
+        Ball b = new Ball("b", 5.5, 5, new Vect(0, 0));
+        Ball c = new Ball("c", 6, 5, new Vect(0, 0));
+        a.setAsleep(true);
+        b.setAsleep(true);
+        c.setInAbsorber(true);
+        SweepAndPrune sweep = new SweepAndPrune();
+        assertEquals(0, sweep.sweep(Arrays.asList(a, b, c), RADIUS, 1));
+        b.setAsleep(false);
+        assertEquals(1, sweep.sweep(Arrays.asList(a, b, c), RADIUS, 1));
+        assertEquals(0, sweep.pairFirst(0));
+        assertEquals(1, sweep.pairSecond(0));
+    }
+}
@@ -0,0 +1,196 @@
+package pingballClient;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Writes board files for stress testing, with as many balls and gadgets as we want.
+ * The sample boards only have one or two balls, these boards can have thousands.
+ *
+ * A generated board has an absorber along the whole bottom row that fires itself, so balls keep coming back into play.
+ * Every other cell gets a gadget with probability density. The gadget is a flipper with probability flippers,
+ * if the 2L x 2L box of the flipper is free, and otherwise a square, circle or triangle bumper.
+ * Balls are put one to a free cell, in the middle of the cell, with a random velocity.
+ * Each gadget is wired with probability wiring to fire a random flipper, or the absorber if there are no flippers.
+ *
+ * The same arguments and seed always give the same board.
+ *
+ * Thread Safety Argument:
+ *      no shared state, every call makes its own board
+ *
+ * @author nwallace
+ */
+public class WorkloadGenerator {
+
+    // fastest a generated ball moves along either axis, in L per second
+    private static final double MAX_SPEED = 20;
+
+    /**
+     * Write a generated board to a file.
+     *
+     * Usage: WorkloadGenerator [--name NAME] [--width WIDTH] [--height HEIGHT] [--balls BALLS]
+     *      [--density DENSITY] [--flippers FLIPPERS] [--wiring WIRING] [--seed SEED] FILE
+     *
+     * NAME is the name of the board, the default is stress.
+     * WIDTH and HEIGHT are the size of the board, the default is 100 by 100.
+     * BALLS is the number of balls, the default is 1000. There must be a free cell for every ball.
+     * DENSITY is the chance, between 0 and 1, that a cell gets a gadget. The default is 0.1.
+     * FLIPPERS is the chance, between 0 and 1, that a gadget is a flipper. The default is 0.2.
+     * WIRING is the chance, between 0 and 1, that a gadget fires another gadget. The default is 0.2.
+     * SEED seeds the random choices, the default is 6005.
+     * FILE is where the board is written.
+     *
+     * @author nwallace
+     * Implemented by: nwallace
+     */
+    public static void main(String[] args) {
+        String name = "stress";
+        int width = 100;
+        int height = 100;
+        int balls = 1000;
+        double density = 0.1;
+        double flippers = 0.2;
+        double wiring = 0.2;
+        long seed = 6005;
+        File file = null;
+        Queue<String> arguments = new LinkedList<String>(Arrays.asList(args));
+        try {
+            while (! arguments.isEmpty()){
+                String flag = arguments.remove();
+                try {
+                    if (flag.equals("--name")){
+                        name = arguments.remove();
+                    } else if (flag.equals("--width")){
+                        width = Integer.parseInt(arguments.remove());
+                    } else if (flag.equals("--height")){
+                        height = Integer.parseInt(arguments.remove());
+                    } else if (flag.equals("--balls")){
+                        balls = Integer.parseInt(arguments.remove());
+                    } else if (flag.equals("--density")){
+                        density = Double.parseDouble(arguments.remove());
+                    } else if (flag.equals("--flippers")){
+                        flippers = Double.parseDouble(arguments.remove());
+                    } else if (flag.equals("--wiring")){
+                        wiring = Double.parseDouble(arguments.remove());
+                    } else if (flag.equals("--seed")){
+                        seed = Long.parseLong(arguments.remove());
+                    } else if (arguments.isEmpty()){
+                        file = new File(flag);
+                    } else {
+                        throw new IllegalArgumentException("unknown option: \"" + flag + "\"");
+                    }
+                } catch (NoSuchElementException nsee){
+                    throw new IllegalArgumentException("missing argument for " + flag);
+                } catch (NumberFormatException nfe){
+                    throw new IllegalArgumentException("unable to parse number for " + flag);
+                }
+            }
+            if (file == null){
+                throw new IllegalArgumentException("missing FILE");
+            }
+            String board = generate(name, width, height, balls, density, flippers, wiring, seed);
+            try (Writer out = new FileWriter(file)) {
+                out.write(board);
+            }
+        } catch (IllegalArgumentException iae){
+            System.err.println(iae.getMessage());
+            System.err.println("usage: WorkloadGenerator [--name NAME] [--width WIDTH] [--height HEIGHT] [--balls BALLS]"
+                    + " [--density DENSITY] [--flippers FLIPPERS] [--wiring WIRING] [--seed SEED] FILE");
+        } catch (IOException ioe){
+            System.err.println("unable to write " + file + ": " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * Generate a board file, see the class comment for what goes on the board
+     * @param name name of the board, a valid board name
+     * @param width width of the board, 2 <= width <= Board.MAX_SIZE
+     * @param height height of the board, 2 <= height <= Board.MAX_SIZE
+     * @param balls number of balls, >= 0
+     * @param density chance that a cell gets a gadget, 0 <= density <= 1
+     * @param flippers chance that a gadget is a flipper, 0 <= flippers <= 1
+     * @param wiring chance that a gadget fires another gadget, 0 <= wiring <= 1
+     * @param seed seeds the random choices
+     * @return the board, in the format of Board.g4
+     * @throws IllegalArgumentException if an argument is out of range, or there are not enough free cells for the balls
+     * @author nwallace
+     * Implemented by: nwallace
+     */
+    public static String generate(String name, int width, int height, int balls, double density, double flippers,
+            double wiring, long seed) {
+        if (width < 2 || width > Board.MAX_SIZE || height < 2 || height > Board.MAX_SIZE) {
+            throw new IllegalArgumentException("board size out of range: " + width + " x " + height);
+        }
+        if (balls < 0 || !(0 <= density && density <= 1) || !(0 <= flippers && flippers <= 1)
+                || !(0 <= wiring && wiring <= 1)) {
+            throw new IllegalArgumentException("balls, density, flippers or wiring out of range");
+        }
+        Random random = new Random(seed);
+        StringBuilder board = new StringBuilder();
+        board.append(String.format(Locale.ROOT, "board name=%s gravity=25.0 friction1=0.025 friction2=0.025 "
+                + "width=%d height=%d\n", name, width, height));
+        board.append(String.format(Locale.ROOT, "# generated by WorkloadGenerator: balls=%d density=%s flippers=%s "
+                + "wiring=%s seed=%d\n", balls, density, flippers, wiring, seed));
+
+        // the bottom row is the absorber, everything else goes above it
+        boolean[][] taken = new boolean[height][width];
+        Arrays.fill(taken[height - 1], true);
+        List<String> gadgets = new ArrayList<String>();
+        List<String> actions = new ArrayList<String>();
+        for (int y = 0; y < height - 1; y++) {
+            for (int x = 0; x < width; x++) {
+                if (taken[y][x] || random.nextDouble() >= density) { continue; }
+                String gadget = "G" + gadgets.size();
+                boolean flipper = random.nextDouble() < flippers;
+                int kind = random.nextInt(3);
+                boolean flipperFits = x + 1 < width && y + 1 < height - 1
+                        && !taken[y][x + 1] && !taken[y + 1][x] && !taken[y + 1][x + 1];
+                if (flipper && flipperFits) {
+                    board.append(String.format(Locale.ROOT, "%s name=%s x=%d y=%d orientation=%d\n",
+                            random.nextBoolean() ? "leftFlipper" : "rightFlipper", gadget, x, y, 90 * random.nextInt(4)));
+                    taken[y][x + 1] = taken[y + 1][x] = taken[y + 1][x + 1] = true;
+                    actions.add(gadget);
+                } else if (kind == 0) {
+                    board.append(String.format(Locale.ROOT, "squareBumper name=%s x=%d y=%d\n", gadget, x, y));
+                } else if (kind == 1) {
+                    board.append(String.format(Locale.ROOT, "circleBumper name=%s x=%d y=%d\n", gadget, x, y));
+                } else {
+                    board.append(String.format(Locale.ROOT, "triangleBumper name=%s x=%d y=%d orientation=%d\n",
+                            gadget, x, y, 90 * random.nextInt(4)));
+                }
+                taken[y][x] = true;
+                gadgets.add(gadget);
+            }
+        }
+        board.append(String.format(Locale.ROOT, "absorber name=Abs x=0 y=%d width=%d height=1\n", height - 1, width));
+
+        // one ball to a free cell, picked at random
+        List<Integer> free = new ArrayList<Integer>();
+        for (int y = 0; y < height - 1; y++) {
+            for (int x = 0; x < width; x++) {
+                if (!taken[y][x]) { free.add(y * width + x); }
+            }
+        }
+        if (free.size() < balls) {
+            throw new IllegalArgumentException("only " + free.size() + " free cells for " + balls + " balls");
+        }
+        Collections.shuffle(free, random);
+        for (int i = 0; i < balls; i++) {
+            int cell = free.get(i);
+            board.append(String.format(Locale.ROOT, "ball name=B%d x=%d.5 y=%d.5 xVelocity=%.3f yVelocity=%.3f\n",
+                    i, cell % width, cell / width,
+                    (2 * random.nextDouble() - 1) * MAX_SPEED, (2 * random.nextDouble() - 1) * MAX_SPEED));
+        }
+
+        // the absorber always fires itself, the other gadgets fire flippers
+        board.append("fire trigger=Abs action=Abs\n");
+        for (String gadget : gadgets) {
+            if (random.nextDouble() >= wiring) { continue; }
+            String action = actions.isEmpty() ? "Abs" : actions.get(random.nextInt(actions.size()));
+            if (!action.equals(gadget)) {
+                board.append(String.format(Locale.ROOT, "fire trigger=%s action=%s\n", gadget, action));
+            }
+        }
+        return board.toString();
+    }
+}
@@ -0,0 +1,199 @@
+package pingballClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import pingballClient.boardObjects.Ball;
+
+/**
+ * One of the boards of a BoardWorld. A step of the board is a task on the world's physics pool, like a HostedBoard,
+ * but the balls that leave it are handed straight to the neighboring board in memory instead of going through a
+ * server. A board that is resting schedules no more steps until a ball or a change of its walls arrives for it.
+ *
+ * Thread Safety Argument:
+ *      board, nextStep: only touched by the step that is running, and there is never more than one step of a board
+ *          scheduled or running. Handing a step to the pool makes everything the last step did visible to the next.
+ *      scheduled: a thread safe type. A step is only handed to the pool by whoever sets it from false to true.
+ *      arrivals, walls: thread safe types, filled by the steps of the neighboring boards and by whoever joins
+ *          the boards, and only drained by the running step
+ *      viewers, latest: thread safe types, shared with the world's frame thread
+ *      front: confined to the world's frame thread
+ *      feed: only published to by the world's frame thread, spectators come and go from any thread,
+ *          see SpectatorFeed
+ *
+ * @author sdrammis
+ */
+class WorldBoard implements Runnable {
+    /**
+     * Invariants:
+     *      scheduled: true while a step of the board is waiting in the pool or running
+     *      nextStep: System.nanoTime() when the next step is due
+     *      walls: MERGE wall neighborName or WALL wall, the changes to the board's walls in the order they were made
+     *      latest: the snapshot of the last step, replaced by every step while the board is watched, 
+     *          null once the frame thread has taken it
+     *      feed: streams this board
+     * @author sdrammis
+     */
+    private final String name;
+    private final Board board;
+    private final BoardWorld world;
+    private final ConcurrentLinkedQueue<Crossing> arrivals = new ConcurrentLinkedQueue<Crossing>();
+    private final ConcurrentLinkedQueue<String> walls = new ConcurrentLinkedQueue<String>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private long nextStep;
+    final List<BoardViewer> viewers = new CopyOnWriteArrayList<BoardViewer>();
+    final AtomicReference<BoardSnapshot> latest = new AtomicReference<BoardSnapshot>();
+    BoardSnapshot front = null; //the last snapshot the frame thread took
+    final SpectatorFeed feed;
+
+    private static final long STEP_NANOS = (long) (PingballClient.CONTINUOUS_TICK * 1e9);
+    // how far a board can fall behind the clock before it stops trying to catch up
+    private static final long MAX_LAG_NANOS = 50000000;
+
+    /**
+     * Make a board for a world, with no step scheduled
+     * @param board the board
+     * @param world the world that plays it
+     */
+    WorldBoard(Board board, BoardWorld world) {
+        this.name = board.getName();
+        this.board = board;
+        this.world = world;
+        this.feed = new SpectatorFeed(board.getId(), this.name);
+    }
+
+    /**
+     * Get the name of the board
+     * @return name
+     */
+    String getName() {
+        return this.name;
+    }
+
+    /**
+     * Get the board. Only safe to call once the world is closed, or from a step.
+     * @return the board
+     */
+    Board getBoard() {
+        return this.board;
+    }
+
+    /**
+     * Hand a ball that left a neighboring board to this board
+     * @param ball the ball, at the position it enters this board at
+     * @param crossedAt System.nanoTime() when it crossed
+     */
+    void receive(Ball ball, long crossedAt) {
+        this.arrivals.add(new Crossing(ball.getName(), ball.getX(), ball.getY(), ball.getVelocity().x(),
+                ball.getVelocity().y(), crossedAt));
+        wake();
+    }
+
+    /**
+     * Change one of the walls of the board
+     * @param change MERGE wall neighborName, or WALL wall to make the wall solid again
+     */
+    void changeWall(String change) {
+        this.walls.add(change);
+        wake();
+    }
+
+    /**
+     * See if the board is shown to anyone, so its steps take snapshots of it
+     * @return true if the board has viewers or spectators
+     */
+    boolean isWatched() {
+        return !this.viewers.isEmpty() || this.feed.isWatched();
+    }
+
+    /**
+     * Schedule a step of the board right away, unless one is already scheduled
+     */
+    void wake() {
+        if (this.scheduled.compareAndSet(false, true)) {
+            this.nextStep = System.nanoTime();
+            this.world.schedule(this, 0);
+        }
+    }
+
+    /**
+     * Play one step of the board, and schedule the next one unless the board is resting
+     * Implemented by: sdrammis
+     */
+    @Override
+    public void run() {
+        drain();
+        if (this.board.isResting()) {
+            this.board.newGadgetPositions(PingballClient.FLIPPER_TURN_TIME);
+            if (isWatched()) { this.latest.set(this.board.snapshot()); }
+            this.scheduled.set(false);
+            // a ball may have arrived after the drain, and seen the step still scheduled
+            if (!this.arrivals.isEmpty() || !this.walls.isEmpty()) { wake(); }
+            return;
+        }
+        this.board.newGadgetPositions(PingballClient.CONTINUOUS_TICK);
+        Map<String, List<Ball>> departures = this.board.advance(PingballClient.CONTINUOUS_TICK);
+        long now = System.nanoTime();
+        for (String wall : departures.keySet()) {
+            for (Ball ball : departures.get(wall)) {
+                WorldBoard neighbor = this.world.getBoard(this.board.getNeighbor(wall));
+                long crossedAt = now - Math.round(this.board.getTimeSinceDeparture(ball) * 1e9);
+                if (neighbor != null) { neighbor.receive(ball, crossedAt); }
+            }
+        }
+        if (isWatched()) { this.latest.set(this.board.snapshot()); }
+        this.nextStep += STEP_NANOS;
+        long delay = this.nextStep - System.nanoTime();
+        if (delay < -MAX_LAG_NANOS) {
+            // we fell behind, don't try to catch up in a burst
+            this.nextStep = System.nanoTime();
+        }
+        this.world.schedule(this, Math.max(0, delay));
+    }
+
+    /**
+     * Apply the changes to the walls, then put in the balls that arrived, moved on for the time since they crossed
+     */
+    private void drain() {
+        String change;
+        while ((change = this.walls.poll()) != null) {
+            String[] tokens = change.split(" ");
+            if (tokens[0].equals("MERGE")) {
+                this.board.merge(tokens[1], tokens[2]);
+            } else {
+                this.board.removeInvisibleWall(tokens[1]);
+            }
+        }
+        Crossing crossing;
+        long now = System.nanoTime();
+        while ((crossing = this.arrivals.poll()) != null) {
+            double age = Math.max(0, Math.min(InboundRing.MAX_AGE, (now - crossing.crossedAt) / 1e9));
+            this.board.addBall(crossing.name, crossing.x, crossing.y, crossing.xVel, crossing.yVel, age);
+        }
+    }
+
+    /**
+     * A ball on its way from a neighboring board, as it was when it crossed
+     */
+    private static class Crossing {
+        private final String name;
+        private final double x;
+        private final double y;
+        private final double xVel;
+        private final double yVel;
+        private final long crossedAt; //System.nanoTime() when the ball crossed
+
+        private Crossing(String name, double x, double y, double xVel, double yVel, long crossedAt) {
+            this.name = name;
+            this.x = x;
+            this.y = y;
+            this.xVel = xVel;
+            this.yVel = yVel;
+            this.crossedAt = crossedAt;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.awt.geom.Rectangle2D;
 import java.util.*;
 import java.util.concurrent.*;
 
+import pingballClient.Board;
 import physics.*;
 import physics.Geometry.DoublePair;
 
@@ -19,8 +20,8 @@ import physics.Geometry.DoublePair;
  * An Absorber can be self-triggering, meaning that when a ball collides with the absorber, it can be redirected
  * and the released straight upwards from the bottom right-hand corner of the Absorber.
  *
- *Rep invariant: rectangular-shape, 0<width<=20, 0<height<=20. All corners of the absorber have x,y such
- * that 0<=x<=20, 0<=y<=20 so that the entire shape is contained within the board.
+ *Rep invariant: rectangular-shape, 0<width<=Board.MAX_SIZE, 0<height<=Board.MAX_SIZE. All corners of the absorber
+ * have x,y such that 0<=x<=Board.MAX_SIZE, 0<=y<=Board.MAX_SIZE so that the entire shape can be contained within a board.
  * The only objects that are valid for triggerForAction are Absorber and Flipper.
  * hasStoredBall must be false if blockingQueue is empty.
  * 
@@ -50,7 +51,8 @@ public class Absorber implements Gadget {
     private final Rectangle2D.Double absorberArea;
     //Coordinate from which a ball is released from the absorber
     private final DoublePair launchSite;
-    private static BlockingQueue<Ball> ballsInAbs;
+    //balls held by this absorber, added by the thread that waits out the delay
+    private final BlockingQueue<Ball> ballsInAbs;
     private boolean selfTrigger;
     private double delayTime;
     
@@ -59,8 +61,8 @@ public class Absorber implements Gadget {
     /** Constructs an absorber from its name, dimensions, and the coordinate for its top left corner. Also
      * specifies whether or not this absorber triggers any actions, including itself.
      * 
-     * @param width double width<=20; specifies width of the board
-     * @param height double height<=20; specifies height of the board
+     * @param width double width<=Board.MAX_SIZE; specifies width of the absorber
+     * @param height double height<=Board.MAX_SIZE; specifies height of the absorber
      * @param topLeftCorner DoublePair x,y-coordinate for the top left corner of the rectangular Absorber
      * @param name String name for the Absorber
      * @param selfTrigger true if the Absorber is self-triggering
@@ -75,7 +77,7 @@ public class Absorber implements Gadget {
         this.name = name;
         this.selfTrigger = selfTrigger;
 
-        Absorber.ballsInAbs = new ArrayBlockingQueue<Ball>(100);
+        this.ballsInAbs = new ArrayBlockingQueue<Ball>(100);
         
         this.launchSite = new DoublePair((this.topLeftX + this.width - 0.26), (this.topLeftY - 0.26)); // ball leaves absorber here
         
@@ -127,14 +129,14 @@ public class Absorber implements Gadget {
     public double getTimeUntilCollision(Ball ball) {
         double minTime = Double.POSITIVE_INFINITY;
         for (LineSegment side : sides) {
-            double timeUntilCollision = Geometry.timeUntilWallCollision(side, ball.getBall(), ball.getVelocity());
+            double timeUntilCollision = GeometryKernel.timeUntilWallCollision(side, ball);
             if (timeUntilCollision < minTime) {
                 minTime = timeUntilCollision;
             }
         }
         
         for (Circle corner : corners) {
-            double timeUntilCollision = Geometry.timeUntilCircleCollision(corner, ball.getBall(), ball.getVelocity());
+            double timeUntilCollision = GeometryKernel.timeUntilCircleCollision(corner, ball);
             if (timeUntilCollision < minTime) {
                 minTime = timeUntilCollision;
             }
@@ -174,7 +176,7 @@ public class Absorber implements Gadget {
                     try {
                         Thread.sleep((long) delayTime);
                     } catch (InterruptedException e) { e.printStackTrace(); }
-                    Absorber.ballsInAbs.add(ball);
+                    ballsInAbs.add(ball);
                 }
             });
             delay.start();
@@ -198,16 +200,16 @@ public class Absorber implements Gadget {
      */
     @Override
     public void respondToTrigger(double time) {
-        if (! Absorber.ballsInAbs.isEmpty() ){
-            Ball launchBall = Absorber.ballsInAbs.poll();
+        if (! this.ballsInAbs.isEmpty() ){
+            Ball launchBall = this.ballsInAbs.poll();
             launchBall.setInAbsorber(false);
             launchBall.setCoord(this.launchSite.d1, this.launchSite.d2);
             launchBall.setVelocity(new Vect(0, -50));
         }
     }
 
-    /**Rep invariant: rectangular-shape, 0<width<=20, 0<height<=20. All corners of the absorber have x,y such
-     * that 0<=x<=20, 0<=y<=20 so that the entire shape is contained within the board.
+    /**Rep invariant: rectangular-shape, 0<width<=Board.MAX_SIZE, 0<height<=Board.MAX_SIZE. All corners of the absorber
+     * have x,y such that 0<=x<=Board.MAX_SIZE, 0<=y<=Board.MAX_SIZE so that the entire shape can be contained within a board.
      * The only objects that are valid for triggerForAction are Absorber and Flipper.
      * hasStoredBall must be false if blockingQueue is empty.
      * 
@@ -216,7 +218,7 @@ public class Absorber implements Gadget {
      */
     @Override
     public void checkRep(){
-        Rectangle2D.Double border = new Rectangle2D.Double(0,0,20,20);
+        Rectangle2D.Double border = new Rectangle2D.Double(0,0,Board.MAX_SIZE,Board.MAX_SIZE);
         boolean containsShape = (border.contains(topLeftX, topLeftY, width, height));
         boolean validCorners = true;
         for (Vect coord: coords){
@@ -269,6 +271,76 @@ public class Absorber implements Gadget {
     public double getY() {
         return this.topLeftY;
     }
+
+    /**
+     * Get what kind of gadget this is
+     * @return ABSORBER
+     * @author asolei
+     */
+    @Override
+    public GadgetKind getKind() {
+        return GadgetKind.ABSORBER;
+    }
+
+    /**
+     * Get the width of the bounding box
+     * @return width in L
+     * @author asolei
+     */
+    @Override
+    public int getWidth() {
+        return (int) this.width;
+    }
+
+    /**
+     * Get the height of the bounding box
+     * @return height in L
+     * @author asolei
+     */
+    @Override
+    public int getHeight() {
+        return (int) this.height;
+    }
+
+    /**
+     * Get the orientation
+     * @return 0, an absorber has no orientation
+     * @author asolei
+     */
+    @Override
+    public int getOrientation() {
+        return 0;
+    }
+
+    /**
+     * See if the gadget is drawn flipped
+     * @return false, it is not a flipper
+     * @author asolei
+     */
+    @Override
+    public boolean isFlipped() {
+        return false;
+    }
+
+    /**
+     * Get how far the gadget has turned from its original state
+     * @return 0, it is not a flipper
+     * @author asolei
+     */
+    @Override
+    public double getAngle() {
+        return 0;
+    }
+
+    /**
+     * See how many balls the gadget holds
+     * @return number of balls waiting in the absorber to be shot out
+     * @author asolei
+     */
+    @Override
+    public int getBallsHeld() {
+        return this.ballsInAbs.size();
+    }
     
     /**
      * An absorber cannot move. Assert the rep invariant. 
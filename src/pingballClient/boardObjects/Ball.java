@@ -1,5 +1,8 @@
 package pingballClient.boardObjects;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import physics.*;
 import physics.Geometry.*;
 
@@ -9,27 +12,47 @@ import physics.Geometry.*;
  * @author asolei
  * 
  * Thread Safety: a ball instance is always contained within a board. Each board is only manipulated by one
- * thread, so although the ball is mutable, it is confined and therefore thread-safe. The mutability is protected
- * because all of the getter methods that access the representation return copies.
+ * thread, so although the ball is mutable, it is confined and therefore thread-safe, and so is the store it
+ * lives in. The mutability is protected because all of the getter methods that access the representation return
+ * copies.
  * 
  * Rep invariant:
- *      name, ball, velocity, position, speed, DELTA all not null
+ *      name, DELTA, store not null
+ *      the ball lives at slot of store, see BallStore
  *      radius is 0.25L
+ *      id: >= 0, no two balls made in this process have the same id
  * @author nwallace
  */
 
 public class Ball {
 
+    //what the ball is called, only shown to people: two balls can have the same name
     private final String name;
-    private Circle ball;
-    private Vect velocity;
-    private DoublePair position;
-    private double speed;
+    //what the ball is known as in this process, unlike its name no other ball has it
+    private final int id;
+    //where the ball is and how fast it goes are kept at this slot of this store: the store of the board the
+    //ball is on, or a store of its own
+    BallStore store;
+    int slot;
     //DELTA = frame update rate
     private final double DELTA = .001;
     private final double mass = 1.0;
     //flags whether or not the ball is stored in an absorber gadget
     private boolean inAbsorber;
+    //flags whether or not the ball is asleep: the board leaves it where it is until something wakes it
+    private boolean asleep = false;
+    //how long the ball has been slow and lying on something that doesn't move, in seconds
+    private double restingTime = 0;
+    
+    //the id of the next ball made
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+    //tells this process apart from the others a ball can be sent between, never 0
+    private static final int PROCESS = ThreadLocalRandom.current().nextInt() | 1;
+    
+    //the key of no ball, see getKey
+    public static final long NO_KEY = 0;
+    //the radius of every ball, in L
+    private static final double RADIUS = 0.25;
     
     /**
      * Construct a new ball with radius 0.25 centered at x, y, with specified velocity. 
@@ -40,12 +63,12 @@ public class Ball {
      */
 
     public Ball(String name, double x, double y, Vect velocity){
+        this.id = NEXT_ID.getAndIncrement();
         this.name = name;
-        this.ball = new Circle(x, y, 0.25);
-        // calculate the speed be getting the magnitude of the vector
-        this.speed = Math.sqrt(Math.pow(velocity.x(), 2) + Math.pow(velocity.y(), 2));
-        this.velocity = velocity;
-        this.position = new DoublePair(x, y);
+        this.store = new BallStore(1);
+        this.store.put(0, this);
+        setCoord(x, y);
+        setVelocity(velocity.x(), velocity.y());
         this.inAbsorber = false;
     }
     
@@ -56,8 +79,19 @@ public class Ball {
      * Implemented by: asolei
      */
     public void setVelocity(Vect velocity){
-        this.velocity = velocity;
-        this.speed = Math.sqrt(Math.pow(velocity.x(), 2) + Math.pow(velocity.y(), 2));
+        setVelocity(velocity.x(), velocity.y());
+    }
+    
+    /**
+     * Set the velocity of the ball, without making a vector for it
+     * @param xVel x component of the velocity
+     * @param yVel y component of the velocity
+     */
+    public void setVelocity(double xVel, double yVel){
+        this.store.xVel[this.slot] = xVel;
+        this.store.yVel[this.slot] = yVel;
+        // calculate the speed be getting the magnitude of the vector
+        this.store.speed[this.slot] = Math.sqrt(Math.pow(xVel, 2) + Math.pow(yVel, 2));
     }
     
     /**
@@ -68,8 +102,8 @@ public class Ball {
      * Implemented by: asolei
      */
     public void setCoord(double x, double y){
-        this.position = new DoublePair(x, y);
-        this.ball = new Circle(x, y, 0.25);
+        this.store.x[this.slot] = x;
+        this.store.y[this.slot] = y;
     }
     
     /**
@@ -78,6 +112,7 @@ public class Ball {
      */
     public void setInAbsorber(boolean set){
         this.inAbsorber = set;
+        this.store.still[this.slot] = this.asleep || this.inAbsorber;
     }
     
     /**
@@ -89,13 +124,65 @@ public class Ball {
     }
     
     /**
-     * Get the name of the ball. 
-     * Returns a new copy.
+     * Set whether or not the Ball is asleep. A ball that is put to sleep keeps its velocity, and goes on with it
+     *    when it is woken up. A ball that is woken up has not been resting for any time.
+     * @param set what to set it to
+     */
+    public void setAsleep(boolean set){
+        this.asleep = set;
+        this.store.still[this.slot] = this.asleep || this.inAbsorber;
+        this.restingTime = 0;
+    }
+    
+    /**
+     * Get asleep
+     * @return asleep
+     */
+    public boolean getAsleep(){
+        return this.asleep;
+    }
+    
+    /**
+     * Set how long the ball has been resting
+     * @param time in seconds, >= 0
+     */
+    public void setRestingTime(double time){
+        this.restingTime = time;
+    }
+    
+    /**
+     * Get how long the ball has been resting
+     * @return time in seconds
+     */
+    public double getRestingTime(){
+        return this.restingTime;
+    }
+    
+    /**
+     * Get the name of the ball, to show. Balls on a board are told apart by their ids, see getId.
      * @return name 
      * @author asolei
      */
     public String getName(){
-        return new String(name);
+        return name;
+    }
+    
+    /**
+     * Get the id of the ball
+     * @return id, different from the id of every other ball made in this process
+     */
+    public int getId(){
+        return this.id;
+    }
+    
+    /**
+     * Get the key the ball is sent to a neighboring board with, so the neighbor can tell which of the balls it
+     * was announced is this one, see Board.expectBall
+     * @return key, different from the key of every other ball made in this process, and with high probability 
+     *      from the keys of the balls made in other processes, never NO_KEY
+     */
+    public long getKey(){
+        return ((long) PROCESS << 32) | (this.id & 0xffffffffL);
     }
     
     /**
@@ -105,7 +192,7 @@ public class Ball {
      * @author asolei
      */
     public double getX(){
-        return new Double(position.d1);
+        return this.store.x[this.slot];
     }
     
     /**
@@ -115,7 +202,7 @@ public class Ball {
      * @author asolei
      */
     public double getY(){
-        return new Double(position.d2);
+        return this.store.y[this.slot];
     }
     
     /**
@@ -124,7 +211,7 @@ public class Ball {
      * @author asolei
      */
     public Vect getXdirection(){
-        return velocity.X_HAT;
+        return Vect.X_HAT;
     }
     
     /**
@@ -133,7 +220,7 @@ public class Ball {
      * @author asolei
      */
     public Vect getYdirection(){
-        return velocity.Y_HAT;
+        return Vect.Y_HAT;
     }
     
     /**
@@ -142,7 +229,7 @@ public class Ball {
      * @author asolei
      */
     public Circle getBall() {
-        return new Circle(this.ball.getCenter(), this.ball.getRadius());
+        return new Circle(getX(), getY(), RADIUS);
     }
     
     /**
@@ -152,7 +239,31 @@ public class Ball {
      * @author asolei
      */
     public Vect getVelocity() {
-        return new Vect(velocity.x(), velocity.y());
+        return new Vect(getVelocityX(), getVelocityY());
+    }
+    
+    /**
+     * Get the x component of the velocity of the ball, without making a copy of the velocity
+     * @return x velocity
+     */
+    public double getVelocityX() {
+        return this.store.xVel[this.slot];
+    }
+    
+    /**
+     * Get the y component of the velocity of the ball, without making a copy of the velocity
+     * @return y velocity
+     */
+    public double getVelocityY() {
+        return this.store.yVel[this.slot];
+    }
+    
+    /**
+     * Get the radius of the ball
+     * @return radius, 0.25L
+     */
+    public double getRadius() {
+        return RADIUS;
     }
     
     /**
@@ -161,7 +272,7 @@ public class Ball {
      * @author asolei
      */
     public double getSpeed(){
-        return new Double(this.speed);
+        return this.store.speed[this.slot];
     }
     
     /**
@@ -171,7 +282,7 @@ public class Ball {
      * @author asolei
      */
     public Vect getPosition() {
-        return new Vect(position.d1, position.d2);
+        return new Vect(getX(), getY());
     }
 
     /**
@@ -189,7 +300,8 @@ public class Ball {
      * @author sdrammis
      */
     public double getTimeUntilCollision(Ball ball) {
-        return Geometry.timeUntilBallBallCollision(this.getBall(), this.getVelocity(), ball.getBall(), ball.getVelocity());
+        return GeometryKernel.timeUntilBallBallCollision(getX(), getY(), RADIUS, getVelocityX(), getVelocityY(), 
+                ball.getX(), ball.getY(), RADIUS, ball.getVelocityX(), ball.getVelocityY());
     }
     
     /**
@@ -199,8 +311,9 @@ public class Ball {
      * @author sdrammis
      */
     public void reflect(Ball otherBall) {
-        VectPair newVects = Geometry.reflectBalls(this.getPosition(), this.getMass(), this.getVelocity(),
-                                                    otherBall.getPosition(), otherBall.getMass(), otherBall.getVelocity());
+        VectPair newVects = GeometryKernel.reflectBalls(getX(), getY(), this.mass, getVelocityX(), getVelocityY(), 
+                otherBall.getX(), otherBall.getY(), otherBall.mass, otherBall.getVelocityX(), 
+                otherBall.getVelocityY());
         this.setVelocity(newVects.v1);
         otherBall.setVelocity(newVects.v2);
     }
@@ -219,38 +332,30 @@ public class Ball {
     }
     
     /**
-     * Determine if a given object is observationally equal to this. The condition for observational
-     *   equality is: the other object must be a Ball, must have the same name, x and y coordinates,
-     *   the Circle objects corresponding to the ball must be equal, the same mass, the same velocity vector,
-     *   and the same speed. 
+     * Determine if a given object is the same ball as this. A ball moves and changes velocity, and two balls can 
+     *   have the same name, so the condition is: the other object must be a Ball with the same key, see getKey.
      * @param obj 
-     * @return whether or not observationally equal
+     * @return whether or not the same ball
      * @author asolei, sdrammis
      */
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof Ball) {
             Ball that = (Ball) obj;
-            return this.getName().equals(that.getName()) &&
-                   this.getX() == that.getX() &&
-                   this.getY() == that.getY() &&
-                   this.getMass() == that.getMass() &&
-                   this.getBall().equals(that.getBall()) &&
-                   this.getVelocity().equals(that.getVelocity()) &&
-                   this.getSpeed() == that.getSpeed();
+            return this.getKey() == that.getKey();
         }
         return false;
         
     }
     
     /**
-     * Compute hashCode for this, generated by considering the name of the Ball
+     * Compute hashCode for this, generated by considering the key of the Ball
      * @return int hashCode
      * @author asolei
      */
     @Override
     public int hashCode() {
-        return this.name.hashCode();
+        return Long.hashCode(this.getKey());
         
     }
     
@@ -266,12 +371,14 @@ public class Ball {
     
     /**Rep invariant:
      *      radius is 0.25L, represented by a Circle
-     *      name, ball, velocity, position, speed, DELTA all not null
+     *      name, DELTA, store not null
+     *      the ball lives at slot of store
+     *      id >= 0
      * 
      * @author nwallace
      */
     protected void checkRep(){
-        boolean validRadius = (this.ball.getRadius()==0.25);
-        assert(validRadius);
+        boolean validRadius = (RADIUS==0.25);
+        assert(validRadius && this.id >= 0 && this.store.holds(this.slot, this));
     }
 }
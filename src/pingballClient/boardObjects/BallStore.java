@@ -0,0 +1,209 @@
+package pingballClient.boardObjects;
+
+import java.util.Arrays;
+
+/**
+ * Where the positions and velocities of balls are kept: one array for each of x, y, x velocity, y velocity and
+ * speed, with a slot for each ball. A Ball is a handle to the slot it lives at.
+ *
+ * A board keeps its balls in one store, in the same order as its list of balls, so friction, gravity and
+ * moving the balls along are loops over arrays of doubles rather than calls on every Ball. A ball that is not
+ * on a board lives on its own, in a store with only its slot.
+ *
+ * Thread Safety Argument:
+ *      a store is confined to the thread that plays the board its balls are on, like the balls themselves
+ *
+ * @author nwallace
+ */
+public final class BallStore {
+
+    /* Rep invariant:
+     *      x, y, xVel, yVel, speed, still, owners all have the same length >= size
+     *      a ball lives at slot when ball.store == this and ball.slot == slot, and then slot < size and
+     *          owners[slot] == ball
+     *      for slot < size where a ball lives: speed[slot] is the length of (xVel[slot], yVel[slot]), and
+     *          still[slot] is whether that ball is asleep or in an absorber
+     *      for slot >= size: owners[slot] == null
+     */
+
+    //where each ball is and how fast it goes, by slot
+    double[] x;
+    double[] y;
+    double[] xVel;
+    double[] yVel;
+    double[] speed;
+    //whether the ball at each slot is left where it is, because it is asleep or in an absorber
+    boolean[] still;
+    //the ball at each slot, or a ball that used to be there and now lives somewhere else, or null
+    private Ball[] owners;
+    //how many slots are in use
+    private int size;
+
+    //how many slots a new board store starts with
+    private static final int CAPACITY = 16;
+
+    /**
+     * Make an empty store
+     */
+    public BallStore() {
+        this(CAPACITY);
+    }
+
+    /**
+     * Make an empty store with room for some balls before it has to grow
+     * @param capacity how many balls, > 0
+     */
+    BallStore(int capacity) {
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.xVel = new double[capacity];
+        this.yVel = new double[capacity];
+        this.speed = new double[capacity];
+        this.still = new boolean[capacity];
+        this.owners = new Ball[capacity];
+    }
+
+    /**
+     * Get how many slots are in use
+     * @return size, >= 0
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Check whether a ball lives at a slot of this store
+     * @param slot slot, >= 0
+     * @param ball ball
+     * @return whether ball lives at slot
+     */
+    public boolean holds(int slot, Ball ball) {
+        return ball.store == this && ball.slot == slot;
+    }
+
+    /**
+     * Make a ball live at a slot, keeping where it is and how fast it goes. The ball that lived at the slot
+     *   before, if any, goes on to live on its own.
+     * @param slot slot, <= size: putting a ball at size uses one more slot
+     * @param ball ball, moved here from wherever it lived
+     */
+    public void put(int slot, Ball ball) {
+        if (slot > this.size || slot < 0) {
+            throw new IndexOutOfBoundsException("slot " + slot + " of " + this.size);
+        }
+        if (slot == this.size) {
+            if (slot == this.owners.length) {
+                grow(2 * slot);
+            }
+            this.size++;
+        }
+        Ball previous = this.owners[slot];
+        if (previous != null && previous != ball && holds(slot, previous)) {
+            release(previous);
+        }
+        BallStore from = ball.store;
+        int at = ball.slot;
+        this.x[slot] = from.x[at];
+        this.y[slot] = from.y[at];
+        this.xVel[slot] = from.xVel[at];
+        this.yVel[slot] = from.yVel[at];
+        this.speed[slot] = from.speed[at];
+        this.still[slot] = from.still[at];
+        this.owners[slot] = ball;
+        ball.store = this;
+        ball.slot = slot;
+    }
+
+    /**
+     * Let a ball that lives in this store live on its own, keeping where it is and how fast it goes. Does nothing
+     *   to a ball that lives elsewhere.
+     * @param ball ball
+     */
+    public void release(Ball ball) {
+        if (ball.store != this) {
+            return;
+        }
+        int slot = ball.slot;
+        new BallStore(1).put(0, ball);
+        this.owners[slot] = null;
+    }
+
+    /**
+     * Stop using the slots from a given one on. The balls living there go on to live on their own.
+     * @param size how many slots to keep, <= size()
+     */
+    public void truncate(int size) {
+        for (int slot = size; slot < this.size; slot++) {
+            Ball owner = this.owners[slot];
+            if (owner != null && holds(slot, owner)) {
+                release(owner);
+            }
+            this.owners[slot] = null;
+        }
+        this.size = Math.min(size, this.size);
+    }
+
+    /**
+     * Apply friction and gravity to every ball that is not asleep or in an absorber
+     * @param time how long, in seconds
+     * @param gravity in L/sec^2, pulling toward larger y
+     * @param mu friction per second
+     * @param mu2 friction per L
+     */
+    public void accelerate(double time, double gravity, double mu, double mu2) {
+        for (int slot = 0; slot < this.size; slot++) {
+            if (this.still[slot]) {
+                continue;
+            }
+            double scale = 1 - (mu * time) - (mu2 * this.speed[slot] * time);
+            double xv = this.xVel[slot] * scale;
+            double yv = this.yVel[slot] * scale + (gravity * time);
+            this.xVel[slot] = xv;
+            this.yVel[slot] = yv;
+            this.speed[slot] = Math.sqrt(Math.pow(xv, 2) + Math.pow(yv, 2));
+        }
+    }
+
+    /**
+     * Move every ball that is not asleep or in an absorber along its velocity
+     * @param time how long, in seconds
+     */
+    public void move(double time) {
+        for (int slot = 0; slot < this.size; slot++) {
+            if (!this.still[slot]) {
+                this.x[slot] = this.x[slot] + time * this.xVel[slot];
+                this.y[slot] = this.y[slot] + time * this.yVel[slot];
+            }
+        }
+    }
+
+    /**
+     * Move every ball that is not asleep or in an absorber, and has had fewer than some number of impacts,
+     *   along its velocity
+     * @param time how long, in seconds
+     * @param impacts how many impacts the ball at each slot has had, length >= size
+     * @param limit balls with this many impacts or more are left where they are
+     */
+    public void move(double time, int[] impacts, int limit) {
+        for (int slot = 0; slot < this.size; slot++) {
+            if (!this.still[slot] && impacts[slot] < limit) {
+                this.x[slot] = this.x[slot] + time * this.xVel[slot];
+                this.y[slot] = this.y[slot] + time * this.yVel[slot];
+            }
+        }
+    }
+
+    /**
+     * Make room for more balls
+     * @param capacity how many, > size
+     */
+    private void grow(int capacity) {
+        this.x = Arrays.copyOf(this.x, capacity);
+        this.y = Arrays.copyOf(this.y, capacity);
+        this.xVel = Arrays.copyOf(this.xVel, capacity);
+        this.yVel = Arrays.copyOf(this.yVel, capacity);
+        this.speed = Arrays.copyOf(this.speed, capacity);
+        this.still = Arrays.copyOf(this.still, capacity);
+        this.owners = Arrays.copyOf(this.owners, capacity);
+    }
+}
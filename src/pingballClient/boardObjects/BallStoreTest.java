@@ -0,0 +1,206 @@
+package pingballClient.boardObjects;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import physics.*;
+
+import org.junit.Test;
+
+/**
+ * BallStore testing strategy:
+ *      put
+ *          a ball that lives on its own, a ball that lives at another slot of the same store
+ *          the slot is at size, below size
+ *          the slot holds another ball --> that ball keeps where it is and how fast it goes
+ *          more balls than the store starts with
+ *      release, truncate
+ *          the ball keeps where it is and how fast it goes, and no longer moves with the store
+ *          a ball that lives in another store is left alone
+ *      accelerate, move
+ *          gravity and friction 0, > 0
+ *          balls asleep, in an absorber, with too many impacts are left alone
+ *          matches applying friction and gravity to one Ball at a time, to the bit
+ * @author nwallace
+ */
+public class BallStoreTest {
+
+    private static final double GRAVITY = 25;
+    private static final double MU = 0.025;
+    private static final double MU2 = 0.025;
+    private static final double STEP = 0.001;
+
+    // test put
+
+    @Test
+    public void testPutKeepsBall(){
+        BallStore store = new BallStore();
+        Ball ball = new Ball("ball", 3, 4, new Vect(5, -6));
+        store.put(0, ball);
+        assertEquals(1, store.size());
+        assertTrue(store.holds(0, ball));
+        assertEquals(3, ball.getX(), 0);
+        assertEquals(4, ball.getY(), 0);
+        assertEquals(new Vect(5, -6), ball.getVelocity());
+        assertEquals(Math.sqrt(61), ball.getSpeed(), 1e-12);
+    }
+
+    @Test
+    public void testPutOverAnotherBall(){
+        BallStore store = new BallStore();
+        Ball first = new Ball("first", 1, 1, new Vect(1, 0));
+        Ball second = new Ball("second", 2, 2, new Vect(0, 2));
+        store.put(0, first);
+        store.put(1, second);
+        //like a board taking a ball off: the last ball moves into the place of the first
+        store.put(0, second);
+        store.truncate(1);
+        assertEquals(1, store.size());
+        assertTrue(store.holds(0, second));
+        assertFalse(store.holds(0, first));
+        assertEquals(1, first.getX(), 0);
+        assertEquals(new Vect(1, 0), first.getVelocity());
+        assertEquals(2, second.getX(), 0);
+        assertEquals(new Vect(0, 2), second.getVelocity());
+        store.move(1);
+        assertEquals(1, first.getY(), 0);
+        assertEquals(4, second.getY(), 0);
+    }
+
+    @Test
+    public void testPutManyBalls(){
+        BallStore store = new BallStore();
+        List<Ball> balls = new ArrayList<Ball>();
+        for (int i = 0; i < 100; i++) {
+            Ball ball = new Ball("ball" + i, i, 2 * i, new Vect(-i, 1));
+            balls.add(ball);
+            store.put(i, ball);
+        }
+        assertEquals(100, store.size());
+        for (int i = 0; i < 100; i++) {
+            assertTrue(store.holds(i, balls.get(i)));
+            assertEquals(i, balls.get(i).getX(), 0);
+            assertEquals(2 * i, balls.get(i).getY(), 0);
+            assertEquals(new Vect(-i, 1), balls.get(i).getVelocity());
+        }
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testPutPastSize(){
+        new BallStore().put(1, new Ball("ball", 0, 0, Vect.ZERO));
+    }
+
+    // test release, truncate
+
+    @Test
+    public void testRelease(){
+        BallStore store = new BallStore();
+        Ball ball = new Ball("ball", 3, 4, new Vect(5, 6));
+        store.put(0, ball);
+        store.release(ball);
+        assertFalse(store.holds(0, ball));
+        assertEquals(3, ball.getX(), 0);
+        assertEquals(new Vect(5, 6), ball.getVelocity());
+        store.move(1);
+        assertEquals(3, ball.getX(), 0);
+        ball.setCoord(7, 8);
+        assertEquals(7, ball.getX(), 0);
+    }
+
+    @Test
+    public void testReleaseBallOfAnotherStore(){
+        BallStore store = new BallStore();
+        BallStore other = new BallStore();
+        Ball ball = new Ball("ball", 3, 4, new Vect(5, 6));
+        other.put(0, ball);
+        store.release(ball);
+        assertTrue(other.holds(0, ball));
+    }
+
+    @Test
+    public void testTruncate(){
+        BallStore store = new BallStore();
+        Ball kept = new Ball("kept", 1, 1, new Vect(1, 1));
+        Ball dropped = new Ball("dropped", 2, 2, new Vect(2, 2));
+        store.put(0, kept);
+        store.put(1, dropped);
+        store.truncate(1);
+        assertEquals(1, store.size());
+        store.move(1);
+        assertEquals(2, kept.getX(), 0);
+        assertEquals(2, dropped.getX(), 0);
+        assertEquals(new Vect(2, 2), dropped.getVelocity());
+    }
+
+    // test accelerate, move
+
+    @Test
+    public void testNoGravityNoFriction(){
+        BallStore store = new BallStore();
+        Ball ball = new Ball("ball", 1, 1, new Vect(3, -4));
+        store.put(0, ball);
+        store.accelerate(1, 0, 0, 0);
+        store.move(0.5);
+        assertEquals(new Vect(3, -4), ball.getVelocity());
+        assertEquals(2.5, ball.getX(), 0);
+        assertEquals(-1, ball.getY(), 0);
+    }
+
+    @Test
+    public void testStillBallsLeftAlone(){
+        BallStore store = new BallStore();
+        Ball asleep = new Ball("asleep", 1, 1, new Vect(1, 1));
+        Ball absorbed = new Ball("absorbed", 2, 2, new Vect(2, 2));
+        Ball bounced = new Ball("bounced", 3, 3, new Vect(3, 3));
+        Ball moving = new Ball("moving", 4, 4, new Vect(4, 4));
+        store.put(0, asleep);
+        store.put(1, absorbed);
+        store.put(2, bounced);
+        store.put(3, moving);
+        asleep.setAsleep(true);
+        absorbed.setInAbsorber(true);
+        store.accelerate(1, GRAVITY, MU, MU2);
+        store.move(1, new int[] {0, 0, 5, 0}, 5);
+        assertEquals(new Vect(1, 1), asleep.getVelocity());
+        assertEquals(1, asleep.getX(), 0);
+        assertEquals(new Vect(2, 2), absorbed.getVelocity());
+        assertEquals(2, absorbed.getX(), 0);
+        assertEquals(3, bounced.getX(), 0);
+        assertTrue(bounced.getVelocityY() != 3);
+        assertTrue(moving.getX() != 4);
+        asleep.setAsleep(false);
+        store.move(1);
+        assertEquals(2, asleep.getX(), 0);
+    }
+
+    @Test
+    public void testMatchesOneBallAtATime(){
+        Random random = new Random(3);
+        BallStore store = new BallStore();
+        List<Ball> balls = new ArrayList<Ball>();
+        List<Ball> expected = new ArrayList<Ball>();
+        for (int i = 0; i < 100; i++) {
+            Ball ball = new Ball("ball" + i, random.nextDouble() * 20, random.nextDouble() * 20,
+                    new Vect(random.nextDouble() * 60 - 30, random.nextDouble() * 60 - 30));
+            expected.add(new Ball(ball.getName(), ball.getX(), ball.getY(), ball.getVelocity()));
+            store.put(i, ball);
+            balls.add(ball);
+        }
+        for (int step = 0; step < 50; step++) {
+            store.accelerate(STEP, GRAVITY, MU, MU2);
+            store.move(STEP);
+            for (Ball ball : expected) {
+                double scale = 1 - (MU * STEP) - (MU2 * ball.getSpeed() * STEP);
+                ball.setVelocity(ball.getVelocityX() * scale, ball.getVelocityY() * scale + (GRAVITY * STEP));
+                ball.setCoord(ball.getX() + STEP * ball.getVelocityX(), ball.getY() + STEP * ball.getVelocityY());
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(expected.get(i).getX(), balls.get(i).getX(), 0);
+            assertEquals(expected.get(i).getY(), balls.get(i).getY(), 0);
+            assertEquals(expected.get(i).getVelocity(), balls.get(i).getVelocity());
+            assertEquals(expected.get(i).getSpeed(), balls.get(i).getSpeed(), 0);
+        }
+    }
+}
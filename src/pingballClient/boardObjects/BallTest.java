@@ -14,12 +14,15 @@ import org.junit.Test;
  *          reflect two balls
  *      add
  *      equals
- *          equal balls
+ *          the same ball
  *          --> test hashCode
  *          unequal balls
+ *              alike in everything but their key
  *              different name
  *              different x/y
  *              different velocity
+ *      getId
+ *          balls with the same name and position have different ids
  * @author asolei
  */
 public class BallTest {
@@ -51,11 +54,21 @@ public class BallTest {
     
     @Test
     public void testBallEqualsAndHashCode(){
+        Ball ball1 = new Ball("ball1", 0, 0, new Vect(10,10));
+        assertTrue(ball1.equals(ball1));
+        assertTrue(ball1.hashCode() == ball1.hashCode());
+        // still the same ball once it has moved
+        ball1.setCoord(1, 1);
+        ball1.setVelocity(new Vect(-10, 10));
+        assertTrue(ball1.equals(ball1));
+    }
+    
+    @Test
+    public void testBallEqualsSameEverythingButKey(){
         Ball ball1 = new Ball("ball1", 0, 0, new Vect(10,10));
         Ball ball2 = new Ball("ball1", 0, 0, new Vect(10,10));
-        assertTrue(ball1.equals(ball2));
-        assertTrue(ball2.equals(ball1));
-        assertTrue(ball1.hashCode() == ball2.hashCode());
+        assertFalse(ball1.equals(ball2));
+        assertFalse(ball2.equals(ball1));
     }
     
     @Test
@@ -79,4 +92,15 @@ public class BallTest {
         assertFalse(ball1.equals(ball2));
     }
 
+    
+    // test getId
+    
+    @Test
+    public void testBallIds(){
+        Ball ball1 = new Ball("ball1", 0, 0, new Vect(10,10));
+        Ball ball2 = new Ball("ball1", 0, 0, new Vect(10,10));
+        assertTrue(ball1.getId() >= 0);
+        assertTrue(ball1.getId() != ball2.getId());
+        assertEquals("ball1", ball2.getName());
+    }
 }
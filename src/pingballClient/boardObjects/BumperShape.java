@@ -0,0 +1,193 @@
+package pingballClient.boardObjects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import physics.*;
+
+/**
+ * The shape of a bumper: the sides a ball bounces off, the circles at its corners a ball bounces off, and the
+ * corners themselves.
+ *
+ * A shape never changes, so all the bumpers of the same kind, orientation and position share one, even bumpers on
+ * different boards. Boards loaded from the same few board files then hold one copy of the geometry between them.
+ * What can change about a bumper, like the gadgets it triggers, is kept in the bumper.
+ *
+ * Thread Safety Argument:
+ *      a shape is immutable: its fields are final, its lists are unmodifiable, and LineSegment, Circle and Vect
+ *          are immutable
+ *      shapes are shared through a ConcurrentHashMap, so a shape one thread puts in is seen whole by every thread
+ *          that gets it out
+ *      two threads that make the same shape at once both make it, but only the first one put in is ever used
+ *
+ * @author nwallace
+ */
+final class BumperShape {
+    /**
+     * Rep invariant:
+     *      sides, corners, coords: unmodifiable, not null
+     *      SHAPES: each shape is stored under the key of its kind, orientation and position, see key()
+     * @author nwallace
+     */
+    private final List<LineSegment> sides;
+    private final List<Circle> corners;
+    private final List<Vect> coords;
+
+    // every shape made so far
+    private static final ConcurrentMap<String, BumperShape> SHAPES = new ConcurrentHashMap<String, BumperShape>();
+
+    private BumperShape(List<LineSegment> sides, List<Circle> corners, List<Vect> coords) {
+        this.sides = Collections.unmodifiableList(sides);
+        this.corners = Collections.unmodifiableList(corners);
+        this.coords = Collections.unmodifiableList(coords);
+    }
+
+    /**
+     * Get the shape of a 1Lx1L square bumper
+     * @param x x of the top left corner
+     * @param y y of the top left corner
+     * @return the shape, with the sides going clockwise from the top left corner and no corner circles:
+     *      a ball that hits a corner bounces off one of the sides that meet there
+     */
+    static BumperShape square(double x, double y) {
+        String key = key("square", 0, x, y);
+        BumperShape shape = SHAPES.get(key);
+        if (shape != null) { return shape; }
+
+        List<Vect> coords = Arrays.asList(new Vect(x, y), new Vect(x+1, y), new Vect(x+1, y+1), new Vect(x, y+1));
+        List<LineSegment> sides = new ArrayList<LineSegment>();
+        for (int i = 0; i < 4; i++) {
+            sides.add(new LineSegment(coords.get(i), coords.get((i + 1) % 4)));
+        }
+        return share(key, new BumperShape(sides, new ArrayList<Circle>(), coords));
+    }
+
+    /**
+     * Get the shape of a right isosceles triangle bumper, with legs of 1L
+     * @param x x of the top left corner of its bounding box
+     * @param y y of the top left corner of its bounding box
+     * @param orientation where the right angle is: 0 NW, 90 NE, 180 SE, 270 SW
+     * @return the shape, with no sides or corners if the orientation is not one of those
+     */
+    static BumperShape triangle(double x, double y, int orientation) {
+        String key = key("triangle", orientation, x, y);
+        BumperShape shape = SHAPES.get(key);
+        if (shape != null) { return shape; }
+
+        int[][] cornerConstruct;
+        List<LineSegment> sides = new ArrayList<LineSegment>();
+        switch (orientation) {
+            case 0:
+                cornerConstruct = new int[][] {{0,0},{1,0},{0,1}};
+                sides.add(new LineSegment(x, y, x+1, y));
+                sides.add(new LineSegment(x+1, y, x, y+1));
+                sides.add(new LineSegment(x, y+1, x, y));
+                break;
+            case 90:
+                cornerConstruct = new int[][] {{0,0},{1,0},{1,1}};
+                sides.add(new LineSegment(x, y, x+1, y));
+                sides.add(new LineSegment(x+1, y, x+1, y+1));
+                sides.add(new LineSegment(x+1, y+1, x, y));
+                break;
+            case 180:
+                cornerConstruct = new int[][] {{1,0},{1,1},{0,1}};
+                sides.add(new LineSegment(x+1, y, x+1, y+1));
+                sides.add(new LineSegment(x+1, y+1, x, y+1));
+                sides.add(new LineSegment(x, y+1, x+1, y));
+                break;
+            case 270:
+                cornerConstruct = new int[][] {{0,0},{1,1},{0,1}};
+                sides.add(new LineSegment(x, y, x+1, y+1));
+                sides.add(new LineSegment(x+1, y+1, x, y+1));
+                sides.add(new LineSegment(x, y+1, x, y));
+                break;
+            // should never get here by File parsing and rep invariant
+            default:
+                cornerConstruct = new int[0][];
+                break;
+        }
+        List<Circle> corners = new ArrayList<Circle>();
+        List<Vect> coords = new ArrayList<Vect>();
+        for (int[] newCorner : cornerConstruct) {
+            Circle corner = new Circle(x+newCorner[0], y+newCorner[1], 0);
+            corners.add(corner);
+            coords.add(corner.getCenter());
+        }
+        return share(key, new BumperShape(sides, corners, coords));
+    }
+
+    /**
+     * Get the shape of a circle bumper of diameter 1L
+     * @param x x of the top left corner of its bounding box
+     * @param y y of the top left corner of its bounding box
+     * @return the shape, with no sides, the circle as its one corner and its center as its one coordinate
+     */
+    static BumperShape circle(double x, double y) {
+        String key = key("circle", 0, x, y);
+        BumperShape shape = SHAPES.get(key);
+        if (shape != null) { return shape; }
+
+        Vect center = new Vect(x+0.5, y+0.5);
+        return share(key, new BumperShape(new ArrayList<LineSegment>(),
+                Arrays.asList(new Circle(center.x(), center.y(), 0.5)), Arrays.asList(center)));
+    }
+
+    /**
+     * Get the sides a ball bounces off
+     * @return unmodifiable list of sides
+     */
+    List<LineSegment> sides() {
+        return this.sides;
+    }
+
+    /**
+     * Get the circles at the corners a ball bounces off
+     * @return unmodifiable list of circles
+     */
+    List<Circle> corners() {
+        return this.corners;
+    }
+
+    /**
+     * Get the corners of the shape
+     * @return unmodifiable list of corners
+     */
+    List<Vect> coords() {
+        return this.coords;
+    }
+
+    /**
+     * Get how many different shapes have been made, for tests
+     * @return number of shapes
+     */
+    static int count() {
+        return SHAPES.size();
+    }
+
+    /**
+     * Make the key a shape is stored under
+     * @param kind "square", "triangle" or "circle"
+     * @param orientation orientation of the shape, 0 if it has none
+     * @param x x of the top left corner of its bounding box
+     * @param y y of the top left corner of its bounding box
+     * @return the key
+     */
+    private static String key(String kind, int orientation, double x, double y) {
+        return kind + " " + orientation + " " + x + " " + y;
+    }
+
+    /**
+     * Store a shape unless another thread stored the same one first
+     * @param key key of the shape
+     * @param shape the shape
+     * @return the shape stored under key
+     */
+    private static BumperShape share(String key, BumperShape shape) {
+        BumperShape raced = SHAPES.putIfAbsent(key, shape);
+        return raced == null ? shape : raced;
+    }
+}
@@ -0,0 +1,52 @@
+package pingballClient.boardObjects;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import physics.*;
+import physics.Geometry.DoublePair;
+
+/**
+ * TESTING STRATEGY
+ *
+ * square(), triangle(), circle():
+ *      same kind and position, shared by bumpers of different boards
+ *      same kind, different position or orientation
+ *      different kind, same position
+ *      lists can't be changed
+ *
+ * @author nwallace
+ */
+public class BumperShapeTest {
+
+    @Test
+    public void testSamePlaceShared() {
+        SquareBumper first = new SquareBumper("first", new DoublePair(3, 4), new ArrayList<Gadget>());
+        SquareBumper second = new SquareBumper("second", new DoublePair(3, 4), new ArrayList<Gadget>());
+        assertSame(BumperShape.square(3, 4), BumperShape.square(3, 4));
+        assertSame(BumperShape.triangle(3, 4, 90), BumperShape.triangle(3, 4, 90));
+        assertSame(BumperShape.circle(3, 4), BumperShape.circle(3, 4));
+        // a ball bounces off both the same way
+        Ball ball = new Ball("ball", 3.5, 2, new Vect(0, 10));
+        assertEquals(first.getTimeUntilCollision(ball), second.getTimeUntilCollision(ball), 0);
+        assertEquals(0.175, first.getTimeUntilCollision(ball), 1e-9);
+    }
+
+    @Test
+    public void testDifferentShapes() {
+        assertNotSame(BumperShape.square(3, 4), BumperShape.square(4, 3));
+        assertNotSame(BumperShape.triangle(3, 4, 0), BumperShape.triangle(3, 4, 180));
+        assertNotSame(BumperShape.square(5, 5), BumperShape.circle(5, 5));
+        assertEquals(new Vect(4, 4), BumperShape.square(3, 4).coords().get(1));
+        assertEquals(new LineSegment(4, 4, 3, 5), BumperShape.triangle(3, 4, 0).sides().get(1));
+        assertEquals(new Circle(5.5, 5.5, 0.5), BumperShape.circle(5, 5).corners().get(0));
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testUnmodifiable() {
+        BumperShape.triangle(1, 1, 270).sides().clear();
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 
+import pingballClient.Board;
 import physics.Geometry.DoublePair;
 import physics.*;
 
@@ -43,9 +44,11 @@ public class CircleBumper implements Gadget {
         this.selfTriggering = false;
         this.topLeftX = topLeftCorner.d1;
         this.topLeftY = topLeftCorner.d2;
-        this.center = new Vect(topLeftX+0.5, topLeftY+0.5);
+        // the circle is shared with every circle bumper at the same place
+        BumperShape shape = BumperShape.circle(topLeftX, topLeftY);
+        this.center = shape.coords().get(0);
         this.name = name;
-        this.bumper = new Circle(center.x(), center.y(), 0.5);
+        this.bumper = shape.corners().get(0);
         
         // initialize list of Gadgets the bumper triggers
         this.triggerForAction = actions;
@@ -62,7 +65,7 @@ public class CircleBumper implements Gadget {
     @Override
     public double getTimeUntilCollision(Ball ball) {
         // determine time until collision
-        double collisionTime = Geometry.timeUntilCircleCollision(bumper, ball.getBall(), ball.getVelocity());
+        double collisionTime = GeometryKernel.timeUntilCircleCollision(bumper, ball);
         return collisionTime;
     }
 
@@ -81,7 +84,7 @@ public class CircleBumper implements Gadget {
 
     public void reflectBall(Ball ball, double time){
 
-        Vect newVel = Geometry.reflectCircle(this.bumper.getCenter(), ball.getPosition(), ball.getVelocity(), REFLECT_COEFF);
+        Vect newVel = GeometryKernel.reflectCircle(this.bumper.getCenter(), ball, REFLECT_COEFF);
         ball.setVelocity(newVel);
         
         // make sure the Gadgets that this triggers respond to the reflection
@@ -138,6 +141,76 @@ public class CircleBumper implements Gadget {
     public double getY() {
         return this.topLeftY;
     }
+
+    /**
+     * Get what kind of gadget this is
+     * @return CIRCLE_BUMPER
+     * @author asolei
+     */
+    @Override
+    public GadgetKind getKind() {
+        return GadgetKind.CIRCLE_BUMPER;
+    }
+
+    /**
+     * Get the width of the bounding box
+     * @return width in L
+     * @author asolei
+     */
+    @Override
+    public int getWidth() {
+        return 1;
+    }
+
+    /**
+     * Get the height of the bounding box
+     * @return height in L
+     * @author asolei
+     */
+    @Override
+    public int getHeight() {
+        return 1;
+    }
+
+    /**
+     * Get the orientation
+     * @return 0, a circle has no orientation
+     * @author asolei
+     */
+    @Override
+    public int getOrientation() {
+        return 0;
+    }
+
+    /**
+     * See if the gadget is drawn flipped
+     * @return false, it is not a flipper
+     * @author asolei
+     */
+    @Override
+    public boolean isFlipped() {
+        return false;
+    }
+
+    /**
+     * Get how far the gadget has turned from its original state
+     * @return 0, it is not a flipper
+     * @author asolei
+     */
+    @Override
+    public double getAngle() {
+        return 0;
+    }
+
+    /**
+     * See how many balls the gadget holds
+     * @return 0, it is not an absorber
+     * @author asolei
+     */
+    @Override
+    public int getBallsHeld() {
+        return 0;
+    }
     
     /**
      * Getter method for the Circle corresponding to the CircleBumper 
@@ -173,7 +246,7 @@ public class CircleBumper implements Gadget {
     public void checkRep(){
         boolean circleType = (this.bumper instanceof Circle);
         
-        Rectangle2D.Double border = new Rectangle2D.Double(0,0,20,20);
+        Rectangle2D.Double border = new Rectangle2D.Double(0,0,Board.MAX_SIZE,Board.MAX_SIZE);
         boolean allCornersInBorder =(border.contains(topLeftX, topLeftY, 2, 2));
         assert(circleType&&allCornersInBorder);
     }
@@ -75,9 +75,58 @@ public interface Gadget {
      * @author nwallace
      */
     public double getY();
-    
+
+    /**
+     * Get what kind of gadget this is
+     * @return kind of the gadget
+     * @author asolei
+     */
+    public GadgetKind getKind();
+
+    /**
+     * Get the width of the bounding box of the gadget
+     * @return width in L, 0 across an outer wall
+     * @author asolei
+     */
+    public int getWidth();
+
+    /**
+     * Get the height of the bounding box of the gadget
+     * @return height in L, 0 across an outer wall
+     * @author asolei
+     */
+    public int getHeight();
+
+    /**
+     * Get the orientation the gadget was made with
+     * @return 0|90|180|270, 0 for gadgets that have no orientation
+     * @author asolei
+     */
+    public int getOrientation();
+
+    /**
+     * See if a flipper is drawn flipped: fully flipped, or more than halfway there from its original state
+     * @return true if the gadget is a flipper drawn flipped, false for gadgets that are not flippers
+     * @author asolei
+     */
+    public boolean isFlipped();
+
+    /**
+     * Get how far a flipper has turned from its original state
+     * @return angle in radians between 0 (original state) and PI/2 (fully flipped), 0 for gadgets that are not flippers
+     * @author asolei
+     */
+    public double getAngle();
+
+    /**
+     * See how many balls an absorber is holding
+     * @return number of balls held, 0 for gadgets that are not absorbers
+     * @author asolei
+     */
+    public int getBallsHeld();
+
     /**
-     * Return Gadgets that this triggers. 
+     * Return Gadgets that this triggers.
      * @return
      */
     public List<Gadget> getTriggers();
@@ -0,0 +1,38 @@
+package pingballClient.boardObjects;
+
+/**
+ * What kind of gadget a Gadget is, so a board can decide how to treat a gadget without looking at its string.
+ *
+ * Thread Safety Argument:
+ *      an enum is immutable
+ *
+ * @author asolei
+ */
+public enum GadgetKind {
+    SQUARE_BUMPER, CIRCLE_BUMPER, TRIANGLE_BUMPER, LEFT_FLIPPER, RIGHT_FLIPPER, ABSORBER, OUTER_WALL;
+
+    // the side of its bounding box a flipper lies along, by orientation / 90, in its original state then flipped
+    private static final char[][] LEFT_SIDES = {{'L', 'T'}, {'T', 'R'}, {'R', 'B'}, {'B', 'L'}};
+    private static final char[][] RIGHT_SIDES = {{'R', 'T'}, {'B', 'R'}, {'L', 'B'}, {'T', 'L'}};
+
+    /**
+     * See if gadgets of this kind are flippers, which move and whose picture changes as they move
+     * @return true for LEFT_FLIPPER and RIGHT_FLIPPER
+     */
+    public boolean isFlipper() {
+        return this == LEFT_FLIPPER || this == RIGHT_FLIPPER;
+    }
+
+    /**
+     * Get the side of its 2Lx2L bounding box a flipper of this kind lies along, which is where it is drawn
+     * @param orientation orientation of the flipper, 0|90|180|270
+     * @param flipped whether the flipper is drawn flipped, see Gadget.isFlipped()
+     * @return 'L', 'R', 'T' or 'B' for the left, right, top or bottom side,
+     *      ' ' if this is not a flipper kind or the orientation is not one of those
+     */
+    public char flipperSide(int orientation, boolean flipped) {
+        if (! isFlipper() || orientation < 0 || orientation > 270 || orientation % 90 != 0) { return ' '; }
+        char[][] sides = this == LEFT_FLIPPER ? LEFT_SIDES : RIGHT_SIDES;
+        return sides[orientation / 90][flipped ? 1 : 0];
+    }
+}
@@ -0,0 +1,109 @@
+package pingballClient.boardObjects;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import physics.Geometry.DoublePair;
+
+/**
+ * GadgetKind testing strategy:
+ *      isFlipper: flipper kinds, other kinds
+ *      flipperSide:
+ *          left and right flippers, every orientation, original and flipped
+ *          a kind that is not a flipper, an orientation that is not 0|90|180|270
+ *      getKind, getWidth, getHeight, getOrientation, isFlipped on every gadget:
+ *          1Lx1L bumpers, absorber wider than tall, flippers, triangle with orientation
+ *          flipper: original, less than halfway flipped, more than halfway, fully flipped
+ *      flipperSide agrees with toString for flippers
+ * @author asolei
+ */
+public class GadgetKindTest {
+
+    @Test
+    public void testIsFlipper() {
+        assertTrue(GadgetKind.LEFT_FLIPPER.isFlipper());
+        assertTrue(GadgetKind.RIGHT_FLIPPER.isFlipper());
+        for (GadgetKind kind : new GadgetKind[] {GadgetKind.SQUARE_BUMPER, GadgetKind.CIRCLE_BUMPER,
+                GadgetKind.TRIANGLE_BUMPER, GadgetKind.ABSORBER, GadgetKind.OUTER_WALL}) {
+            assertFalse(kind.isFlipper());
+        }
+    }
+
+    @Test
+    public void testFlipperSide() {
+        assertEquals('L', GadgetKind.LEFT_FLIPPER.flipperSide(0, false));
+        assertEquals('T', GadgetKind.LEFT_FLIPPER.flipperSide(0, true));
+        assertEquals('B', GadgetKind.LEFT_FLIPPER.flipperSide(270, false));
+        assertEquals('R', GadgetKind.RIGHT_FLIPPER.flipperSide(0, false));
+        assertEquals('B', GadgetKind.RIGHT_FLIPPER.flipperSide(90, false));
+        assertEquals('L', GadgetKind.RIGHT_FLIPPER.flipperSide(270, true));
+        assertEquals(' ', GadgetKind.SQUARE_BUMPER.flipperSide(0, false));
+        assertEquals(' ', GadgetKind.LEFT_FLIPPER.flipperSide(45, false));
+        assertEquals(' ', GadgetKind.LEFT_FLIPPER.flipperSide(360, false));
+    }
+
+    @Test
+    public void testBumpersAndAbsorber() {
+        Gadget square = new SquareBumper("square", new DoublePair(1, 2), new ArrayList<Gadget>());
+        Gadget circle = new CircleBumper("circle", new DoublePair(3, 4), new ArrayList<Gadget>());
+        Gadget triangle = new TriangleBumper("triangle", new DoublePair(5, 6), 270, new ArrayList<Gadget>());
+        Gadget absorber = new Absorber(5, 2, new DoublePair(0, 10), "abs", false, new ArrayList<Gadget>());
+
+        assertEquals(GadgetKind.SQUARE_BUMPER, square.getKind());
+        assertEquals(GadgetKind.CIRCLE_BUMPER, circle.getKind());
+        assertEquals(GadgetKind.TRIANGLE_BUMPER, triangle.getKind());
+        assertEquals(GadgetKind.ABSORBER, absorber.getKind());
+        for (Gadget bumper : new Gadget[] {square, circle, triangle}) {
+            assertEquals(1, bumper.getWidth());
+            assertEquals(1, bumper.getHeight());
+            assertFalse(bumper.isFlipped());
+        }
+        assertEquals(0, square.getOrientation());
+        assertEquals(270, triangle.getOrientation());
+        assertEquals(5, absorber.getWidth());
+        assertEquals(2, absorber.getHeight());
+        assertFalse(absorber.isFlipped());
+    }
+
+    @Test
+    public void testFlippers() {
+        for (int orientation = 0; orientation < 360; orientation += 90) {
+            Gadget left = new LeftFlipper("left", new DoublePair(0, 0), orientation, false, new ArrayList<Gadget>());
+            Gadget right = new RightFlipper("right", new DoublePair(0, 0), orientation, false, new ArrayList<Gadget>());
+            for (Gadget flipper : new Gadget[] {left, right}) {
+                assertEquals(2, flipper.getWidth());
+                assertEquals(2, flipper.getHeight());
+                assertEquals(orientation, flipper.getOrientation());
+                assertFalse(flipper.isFlipped());
+                assertSideMatchesString(flipper);
+
+                //less than halfway, then more than halfway, then all the way
+                flipper.respondToTrigger(1);
+                flipper.move(0.02);
+                assertFalse(flipper.isFlipped());
+                assertSideMatchesString(flipper);
+                flipper.move(0.04);
+                assertTrue(flipper.isFlipped());
+                assertSideMatchesString(flipper);
+                flipper.move(1);
+                assertTrue(flipper.isFlipped());
+                assertSideMatchesString(flipper);
+            }
+            assertEquals(GadgetKind.LEFT_FLIPPER, left.getKind());
+            assertEquals(GadgetKind.RIGHT_FLIPPER, right.getKind());
+        }
+    }
+
+    /**
+     * Assert that the side GadgetKind gives for a flipper is the one its toString names
+     * @param flipper a flipper
+     */
+    private static void assertSideMatchesString(Gadget flipper) {
+        char side = flipper.getKind().flipperSide(flipper.getOrientation(), flipper.isFlipped());
+        String string = flipper.toString();
+        assertEquals(string.charAt(string.length() - 1), side);
+    }
+}
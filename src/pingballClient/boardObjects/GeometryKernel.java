@@ -0,0 +1,460 @@
+package pingballClient.boardObjects;
+
+import physics.*;
+import physics.Geometry.VectPair;
+
+/**
+ * The collision math the gadgets and balls use on every step, over plain doubles.
+ *
+ * physics.Geometry takes LineSegment, Circle and Vect objects, and makes several new Vects and Angles inside
+ * every call, so each collision check on the board makes garbage. The methods here work on coordinates,
+ * make nothing while looking for collisions, and only make the one Vect a ball keeps when it is reflected.
+ *
+ * Every method does the same arithmetic in the same order as physics.Geometry, including the angle arithmetic of
+ * physics.Angle, so it gives exactly the same answer, to the bit, for the same coordinates. Boards play exactly
+ * the same with the kernel as with physics.Geometry.
+ *
+ * Rotating walls and circles, used for flippers that are hit while they move, are still left to physics.Geometry.
+ *
+ * Thread Safety Argument:
+ *      no state, every method only uses its arguments
+ *
+ * @author nwallace
+ */
+public final class GeometryKernel {
+
+    private GeometryKernel() {
+        // only static methods
+    }
+
+    /**
+     * Find when a ball hits a line segment, like Geometry.timeUntilWallCollision
+     * @param x1 x of the first end of the segment
+     * @param y1 y of the first end of the segment
+     * @param x2 x of the second end of the segment
+     * @param y2 y of the second end of the segment
+     * @param a x of the center of the ball
+     * @param b y of the center of the ball
+     * @param radius radius of the ball, >= 0
+     * @param va x velocity of the ball
+     * @param vb y velocity of the ball
+     * @return time until the ball hits the segment, POSITIVE_INFINITY if it never does
+     */
+    public static double timeUntilWallCollision(double x1, double y1, double x2, double y2,
+            double a, double b, double radius, double va, double vb) {
+        double width = x2 - x1;
+        double height = y2 - y1;
+        double F = ((va * height) - (vb * width));
+        double G = ((a * height) - (b * width) + ((x2 * y1) - (x1 * y2)));
+        double H = ((width * width) + (height * height));
+        double A = F * F;
+        double B = 2.0 * F * G;
+        double C = G * G;
+        double Cprime = C - (radius * radius * H);
+
+        double collisionTime = minQuadraticSolution(A, B, Cprime);
+        if (Double.isNaN(collisionTime)) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        // where the center of the ball is when it hits the line, has to be beside the segment
+        double cX = a + (collisionTime * va);
+        double cY = b + (collisionTime * vb);
+        double minS = ((width * (cX - x1)) + (height * (cY - y1))) / ((width * width) + (height * height));
+        if ((0.0 <= minS) && (minS < 1.0)) {
+            if (collisionTime > 0) {
+                return collisionTime;
+            }
+            // the ball already overlaps the segment, it hits it now if it is moving toward it
+            double impactX = x1 + minS * width;
+            double impactY = y1 + minS * height;
+            if (va * (a - impactX) + vb * (b - impactY) >= 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return 0;
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Find when a ball hits a circle that doesn't move, like Geometry.timeUntilCircleCollision
+     * @param x x of the center of the circle
+     * @param y y of the center of the circle
+     * @param radius1 radius of the circle, >= 0
+     * @param a x of the center of the ball
+     * @param b y of the center of the ball
+     * @param radius2 radius of the ball, >= 0
+     * @param va x velocity of the ball
+     * @param vb y velocity of the ball
+     * @return time until the ball hits the circle, POSITIVE_INFINITY if it never does
+     */
+    public static double timeUntilCircleCollision(double x, double y, double radius1,
+            double a, double b, double radius2, double va, double vb) {
+        double distance = radius1 + radius2;
+        double width = a - x;
+        double height = b - y;
+        double A = ((va * va) + (vb * vb));
+        double B = 2.0 * ((va * width) + (vb * height));
+        double C = (width * width) + (height * height) - (distance * distance);
+
+        double ans = minQuadraticSolution(A, B, C);
+        if (Double.isNaN(ans)) {
+            return Double.POSITIVE_INFINITY;
+        } else if (ans <= 0) {
+            // the ball already overlaps the circle, it hits it now if it is moving toward it
+            if ((a - x) * va + (b - y) * vb >= 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return 0;
+        }
+        return ans;
+    }
+
+    /**
+     * Find when two balls hit each other, like Geometry.timeUntilBallBallCollision
+     * @param x1 x of the center of the first ball
+     * @param y1 y of the center of the first ball
+     * @param radius1 radius of the first ball, >= 0
+     * @param vx1 x velocity of the first ball
+     * @param vy1 y velocity of the first ball
+     * @param x2 x of the center of the second ball
+     * @param y2 y of the center of the second ball
+     * @param radius2 radius of the second ball, >= 0
+     * @param vx2 x velocity of the second ball
+     * @param vy2 y velocity of the second ball
+     * @return time until the balls hit, POSITIVE_INFINITY if they never do
+     */
+    public static double timeUntilBallBallCollision(double x1, double y1, double radius1, double vx1, double vy1,
+            double x2, double y2, double radius2, double vx2, double vy2) {
+        double sizes = radius1 + radius2;
+        double initPosXDelta = x1 - x2;
+        double initPosYDelta = y1 - y2;
+        double velXDelta = vx1 - vx2;
+        double velYDelta = vy1 - vy2;
+        double sizes2 = sizes * sizes;
+        double initPosXDelta2 = initPosXDelta * initPosXDelta;
+        double initPosYDelta2 = initPosYDelta * initPosYDelta;
+        double initGap2 = initPosXDelta2 + initPosYDelta2 - sizes2;
+
+        if (initGap2 <= 0.0) {
+            // the balls already overlap, they hit now if they are moving toward each other
+            if (velXDelta * initPosXDelta + velYDelta * initPosYDelta < 0.0) {
+                return 0.0;
+            }
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double a = velXDelta * velXDelta + velYDelta * velYDelta;
+        double b = 2 * initPosXDelta * velXDelta + 2 * initPosYDelta * velYDelta;
+        double c = initPosXDelta2 + initPosYDelta2 - sizes2;
+        double t = minQuadraticSolution(a, b, c);
+        if (t > 0) {
+            return t;
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Reflect a velocity off a line segment, like Geometry.reflectWall
+     * @param x1 x of the first end of the segment
+     * @param y1 y of the first end of the segment
+     * @param x2 x of the second end of the segment, not the same point as the first end
+     * @param y2 y of the second end of the segment
+     * @param vx x velocity
+     * @param vy y velocity
+     * @param reflectionCoeff how much of the velocity is kept, 1 keeps all of it
+     * @return the reflected velocity
+     */
+    public static Vect reflectWall(double x1, double y1, double x2, double y2, double vx, double vy,
+            double reflectionCoeff) {
+        double length = Math.sqrt((vx * vx) + (vy * vy));
+        if (length == 0.0) {
+            return applyReflectionCoeff(vx, vy, vx, vy, reflectionCoeff);
+        }
+        // angle of the wall
+        double thetaCos = cos(x2 - x1, y2 - y1);
+        double thetaSin = sin(x2 - x1, y2 - y1);
+        return reflectAbout(thetaCos, thetaSin, vx, vy, length, reflectionCoeff);
+    }
+
+    /**
+     * Reflect the velocity of a ball off a circle that doesn't move, like Geometry.reflectCircle
+     * @param x x of the center of the circle
+     * @param y y of the center of the circle
+     * @param bx x of the center of the ball
+     * @param by y of the center of the ball
+     * @param vx x velocity of the ball
+     * @param vy y velocity of the ball
+     * @param reflectionCoeff how much of the velocity is kept, 1 keeps all of it
+     * @return the reflected velocity
+     */
+    public static Vect reflectCircle(double x, double y, double bx, double by, double vx, double vy,
+            double reflectionCoeff) {
+        double length = Math.sqrt((vx * vx) + (vy * vy));
+        if (length == 0.0) {
+            return applyReflectionCoeff(vx, vy, vx, vy, reflectionCoeff);
+        }
+        // the ball bounces as if off a wall at right angles to the line between the centers
+        double incidenceX = x - bx;
+        double incidenceY = y - by;
+        double incidenceCos = 1.0;
+        double incidenceSin = 0.0;
+        if (Math.sqrt((incidenceX * incidenceX) + (incidenceY * incidenceY)) != 0.0) {
+            incidenceCos = cos(incidenceX, incidenceY);
+            incidenceSin = sin(incidenceX, incidenceY);
+        }
+        // plus a right angle
+        double rawCos = (incidenceCos * 0.0) - (incidenceSin * 1.0);
+        double rawSin = (incidenceSin * 0.0) + (incidenceCos * 1.0);
+        return reflectAbout(cos(rawCos, rawSin), sin(rawCos, rawSin), vx, vy, length, reflectionCoeff);
+    }
+
+    /**
+     * Reflect the velocities of two balls off each other, like Geometry.reflectBalls
+     * @param x1 x of the center of the first ball
+     * @param y1 y of the center of the first ball
+     * @param mass1 mass of the first ball, > 0
+     * @param vx1 x velocity of the first ball
+     * @param vy1 y velocity of the first ball
+     * @param x2 x of the center of the second ball
+     * @param y2 y of the center of the second ball
+     * @param mass2 mass of the second ball, > 0
+     * @param vx2 x velocity of the second ball
+     * @param vy2 y velocity of the second ball
+     * @return the new velocities of the first and the second ball
+     */
+    public static VectPair reflectBalls(double x1, double y1, double mass1, double vx1, double vy1,
+            double x2, double y2, double mass2, double vx2, double vy2) {
+        double m1 = mass1;
+        double m2 = mass2;
+        double m = m1/m2;
+
+        // unit vector from the second ball to the first
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        double tCos = 1.0;
+        double tSin = 0.0;
+        if (Math.sqrt((dx * dx) + (dy * dy)) != 0.0) {
+            tCos = cos(dx, dy);
+            tSin = sin(dx, dy);
+        }
+        double tx = 1.0 * tCos;
+        double ty = 1.0 * tSin;
+
+        double gamma = (-2 * (vx1*tx*m1 + vy1*ty*m1 - vx2*tx*m*m2 - vy2*ty*m*m2)) /
+                (tx*tx*m1 + ty*ty*m1 + m*m*tx*tx*m2 + m*m*ty*ty*m2);
+
+        return new VectPair(new Vect(vx1 + tx * gamma, vy1 + ty * gamma),
+                new Vect(vx2 + -tx * (gamma*m), vy2 + -ty * (gamma*m)));
+    }
+
+    /**
+     * Rotate a point around another, like Geometry.rotateAround
+     * @param px x of the point
+     * @param py y of the point
+     * @param corX x of the center of rotation
+     * @param corY y of the center of rotation
+     * @param cos cosine of the angle to rotate by
+     * @param sin sine of the angle to rotate by
+     * @return the rotated point
+     */
+    public static Vect rotateAround(double px, double py, double corX, double corY, double cos, double sin) {
+        double originalX = px - corX;
+        double originalY = py - corY;
+        double length = Math.sqrt((originalX * originalX) + (originalY * originalY));
+        if (length == 0.0) {
+            return new Vect(corX + 0.0, corY + 0.0);
+        }
+        double thetaCos = cos(originalX, originalY);
+        double thetaSin = sin(originalX, originalY);
+        double rawCos = (thetaCos * cos) - (thetaSin * sin);
+        double rawSin = (thetaSin * cos) + (thetaCos * sin);
+        return new Vect(corX + polarX(cos(rawCos, rawSin), sin(rawCos, rawSin), length),
+                corY + polarY(cos(rawCos, rawSin), sin(rawCos, rawSin), length));
+    }
+
+    /**
+     * Find when a ball hits a line segment
+     * @param line the segment
+     * @param ball the ball
+     * @return time until the ball hits the segment, POSITIVE_INFINITY if it never does
+     */
+    static double timeUntilWallCollision(LineSegment line, Ball ball) {
+        return timeUntilWallCollision(line.p1().x(), line.p1().y(), line.p2().x(), line.p2().y(),
+                ball.getX(), ball.getY(), ball.getRadius(), ball.getVelocityX(), ball.getVelocityY());
+    }
+
+    /**
+     * Find when a ball hits a circle that doesn't move
+     * @param circle the circle
+     * @param ball the ball
+     * @return time until the ball hits the circle, POSITIVE_INFINITY if it never does
+     */
+    static double timeUntilCircleCollision(Circle circle, Ball ball) {
+        return timeUntilCircleCollision(circle.getCenter().x(), circle.getCenter().y(), circle.getRadius(),
+                ball.getX(), ball.getY(), ball.getRadius(), ball.getVelocityX(), ball.getVelocityY());
+    }
+
+    /**
+     * Reflect the velocity of a ball off a line segment
+     * @param line the segment, longer than 0
+     * @param ball the ball
+     * @param reflectionCoeff how much of the velocity is kept, 1 keeps all of it
+     * @return the reflected velocity
+     */
+    static Vect reflectWall(LineSegment line, Ball ball, double reflectionCoeff) {
+        return reflectWall(line.p1().x(), line.p1().y(), line.p2().x(), line.p2().y(),
+                ball.getVelocityX(), ball.getVelocityY(), reflectionCoeff);
+    }
+
+    /**
+     * Reflect the velocity of a ball off a circle that doesn't move
+     * @param center center of the circle
+     * @param ball the ball
+     * @param reflectionCoeff how much of the velocity is kept, 1 keeps all of it
+     * @return the reflected velocity
+     */
+    static Vect reflectCircle(Vect center, Ball ball, double reflectionCoeff) {
+        return reflectCircle(center.x(), center.y(), ball.getX(), ball.getY(),
+                ball.getVelocityX(), ball.getVelocityY(), reflectionCoeff);
+    }
+
+    /**
+     * Rotate a line segment around a point
+     * @param line the segment
+     * @param cor center of rotation
+     * @param angle angle to rotate by
+     * @return the rotated segment
+     */
+    static LineSegment rotateAround(LineSegment line, Vect cor, Angle angle) {
+        return new LineSegment(
+                rotateAround(line.p1().x(), line.p1().y(), cor.x(), cor.y(), angle.cos(), angle.sin()),
+                rotateAround(line.p2().x(), line.p2().y(), cor.x(), cor.y(), angle.cos(), angle.sin()));
+    }
+
+    /**
+     * Rotate a circle around a point
+     * @param circle the circle
+     * @param cor center of rotation
+     * @param angle angle to rotate by
+     * @return the rotated circle
+     */
+    static Circle rotateAround(Circle circle, Vect cor, Angle angle) {
+        return new Circle(rotateAround(circle.getCenter().x(), circle.getCenter().y(), cor.x(), cor.y(),
+                angle.cos(), angle.sin()), circle.getRadius());
+    }
+
+    /**
+     * Reflect a velocity off a wall at an angle, keeping part of it
+     * @param thetaCos cosine of the angle of the wall, a unit angle
+     * @param thetaSin sine of the angle of the wall
+     * @param vx x velocity, not 0 if vy is 0
+     * @param vy y velocity
+     * @param length length of the velocity, > 0
+     * @param reflectionCoeff how much of the velocity is kept, 1 keeps all of it
+     * @return the reflected velocity
+     */
+    private static Vect reflectAbout(double thetaCos, double thetaSin, double vx, double vy, double length,
+            double reflectionCoeff) {
+        // angle of the velocity
+        double alphaCos = cos(vx, vy);
+        double alphaSin = sin(vx, vy);
+        // the angle of incidence is alpha-theta, so the angle of reflection is 2 theta - alpha
+        double doubleCos = (thetaCos * thetaCos) - (thetaSin * thetaSin);
+        double doubleSin = (thetaSin * thetaCos) + (thetaCos * thetaSin);
+        double twiceCos = cos(doubleCos, doubleSin);
+        double twiceSin = sin(doubleCos, doubleSin);
+        double rawCos = (twiceCos * alphaCos) + (twiceSin * alphaSin);
+        double rawSin = (twiceSin * alphaCos) - (twiceCos * alphaSin);
+        double phiCos = cos(rawCos, rawSin);
+        double phiSin = sin(rawCos, rawSin);
+        return applyReflectionCoeff(vx, vy, polarX(phiCos, phiSin, length), polarY(phiCos, phiSin, length),
+                reflectionCoeff);
+    }
+
+    /**
+     * Keep part of a reflection, like Geometry.applyReflectionCoeff
+     * @return incident + (reflected - incident) * (0.5 + 0.5 * reflectionCoeff)
+     */
+    private static Vect applyReflectionCoeff(double incidentX, double incidentY, double reflectedX, double reflectedY,
+            double reflectionCoeff) {
+        double scale = 0.5 + 0.5 * reflectionCoeff;
+        return new Vect(incidentX + (reflectedX - incidentX) * scale, incidentY + (reflectedY - incidentY) * scale);
+    }
+
+    /**
+     * Get the x of a vector given by an angle and a length that may be negative, like new Vect(angle, length).x()
+     * @param cos cosine of the angle, a unit angle
+     * @param sin sine of the angle
+     * @param length length
+     * @return x
+     */
+    private static double polarX(double cos, double sin, double length) {
+        if (length == 0.0) {
+            return 0.0;
+        } else if (length > 0.0) {
+            return length * cos;
+        }
+        // a negative length points the other way
+        return -length * cos((cos * -1.0) - (sin * 0.0), (sin * -1.0) + (cos * 0.0));
+    }
+
+    /**
+     * Get the y of a vector given by an angle and a length that may be negative, like new Vect(angle, length).y()
+     * @param cos cosine of the angle, a unit angle
+     * @param sin sine of the angle
+     * @param length length
+     * @return y
+     */
+    private static double polarY(double cos, double sin, double length) {
+        if (length == 0.0) {
+            return 0.0;
+        } else if (length > 0.0) {
+            return length * sin;
+        }
+        return -length * sin((cos * -1.0) - (sin * 0.0), (sin * -1.0) + (cos * 0.0));
+    }
+
+    /**
+     * Get the cosine of the angle from the x axis to a point, like new Angle(x, y).cos()
+     * @param x x of the point
+     * @param y y of the point, not both 0
+     * @return cosine
+     */
+    private static double cos(double x, double y) {
+        return x / Math.sqrt((x * x) + (y * y));
+    }
+
+    /**
+     * Get the sine of the angle from the x axis to a point, like new Angle(x, y).sin()
+     * @param x x of the point
+     * @param y y of the point, not both 0
+     * @return sine
+     */
+    private static double sin(double x, double y) {
+        return y / Math.sqrt((x * x) + (y * y));
+    }
+
+    /**
+     * Get the smaller root of a x^2 + b x + c, like Geometry.minQuadraticSolution
+     * @return the smaller root, the only root if a is 0, NaN if there is none
+     */
+    private static double minQuadraticSolution(double a, double b, double c) {
+        if (a == 0.0) {
+            if (b == 0.0) {
+                return Double.NaN;
+            }
+            return -c/b;
+        }
+        double discriminant = (b * b) - (4.0 * a * c);
+        if (discriminant < 0.0) {
+            return Double.NaN;
+        }
+        double sqrt = Math.sqrt(discriminant);
+        double twoA = 2.0 * a;
+        if (a > 0) {
+            return (-b - sqrt)/twoA;
+        }
+        return (-b + sqrt)/twoA;
+    }
+}
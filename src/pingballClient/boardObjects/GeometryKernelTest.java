@@ -0,0 +1,185 @@
+package pingballClient.boardObjects;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import physics.*;
+import physics.Geometry.VectPair;
+
+/**
+ * TESTING STRATEGY
+ *
+ * every method:
+ *      gives exactly the same bits as physics.Geometry, for many random cases, seeded so a failure plays again
+ *      ball far from, touching, overlapping what it hits
+ *      ball moving toward, away from, along what it hits, not moving
+ *      segments at any angle, axis aligned like the sides of gadgets
+ *      reflection coefficient 0.95, 1
+ *      rotation by any angle, by a right angle, of a point at the center of rotation
+ * adapters for shapes and balls:
+ *      same as physics.Geometry on the shapes of a gadget
+ *
+ * @author nwallace
+ */
+public class GeometryKernelTest {
+
+    private static final int CASES = 20000;
+    private static final double RADIUS = 0.25;
+
+    /**
+     * Check that two doubles are the same to the bit
+     */
+    private static void assertSameBits(String what, double expected, double actual) {
+        if (Double.doubleToLongBits(expected) != Double.doubleToLongBits(actual)) {
+            fail(what + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    /**
+     * Pick a coordinate: mostly anywhere on a board, sometimes a whole number like gadget corners
+     */
+    private static double coordinate(Random random) {
+        return random.nextInt(4) == 0 ? random.nextInt(20) : random.nextDouble() * 20;
+    }
+
+    /**
+     * Pick a velocity component: sometimes 0, otherwise up to 200 L/s either way
+     */
+    private static double velocity(Random random) {
+        return random.nextInt(8) == 0 ? 0 : random.nextDouble() * 400 - 200;
+    }
+
+    @Test
+    public void testTimeUntilWallCollision() {
+        Random random = new Random(1);
+        for (int i = 0; i < CASES; i++) {
+            double x1 = coordinate(random), y1 = coordinate(random);
+            // half the segments are axis aligned, like the sides of bumpers
+            double x2 = random.nextBoolean() ? x1 : coordinate(random);
+            double y2 = x2 == x1 ? coordinate(random) : (random.nextBoolean() ? y1 : coordinate(random));
+            if (x1 == x2 && y1 == y2) { continue; }
+            double a = coordinate(random), b = coordinate(random), va = velocity(random), vb = velocity(random);
+            double expected = Geometry.timeUntilWallCollision(new LineSegment(x1, y1, x2, y2),
+                    new Circle(a, b, RADIUS), new Vect(va, vb));
+            assertSameBits("case " + i, expected,
+                    GeometryKernel.timeUntilWallCollision(x1, y1, x2, y2, a, b, RADIUS, va, vb));
+        }
+    }
+
+    @Test
+    public void testTimeUntilCircleCollision() {
+        Random random = new Random(2);
+        for (int i = 0; i < CASES; i++) {
+            double x = coordinate(random), y = coordinate(random);
+            double radius = random.nextBoolean() ? 0 : 0.5;
+            // some balls start near the circle, so they touch or overlap it
+            double a = random.nextBoolean() ? coordinate(random) : x + random.nextDouble() - 0.5;
+            double b = random.nextBoolean() ? coordinate(random) : y + random.nextDouble() - 0.5;
+            double va = velocity(random), vb = velocity(random);
+            double expected = Geometry.timeUntilCircleCollision(new Circle(x, y, radius), new Circle(a, b, RADIUS),
+                    new Vect(va, vb));
+            assertSameBits("case " + i, expected,
+                    GeometryKernel.timeUntilCircleCollision(x, y, radius, a, b, RADIUS, va, vb));
+        }
+    }
+
+    @Test
+    public void testTimeUntilBallBallCollision() {
+        Random random = new Random(3);
+        for (int i = 0; i < CASES; i++) {
+            double x1 = coordinate(random), y1 = coordinate(random);
+            double x2 = random.nextBoolean() ? coordinate(random) : x1 + random.nextDouble() - 0.5;
+            double y2 = random.nextBoolean() ? coordinate(random) : y1 + random.nextDouble() - 0.5;
+            double vx1 = velocity(random), vy1 = velocity(random), vx2 = velocity(random), vy2 = velocity(random);
+            double expected = Geometry.timeUntilBallBallCollision(new Circle(x1, y1, RADIUS), new Vect(vx1, vy1),
+                    new Circle(x2, y2, RADIUS), new Vect(vx2, vy2));
+            assertSameBits("case " + i, expected,
+                    GeometryKernel.timeUntilBallBallCollision(x1, y1, RADIUS, vx1, vy1, x2, y2, RADIUS, vx2, vy2));
+        }
+    }
+
+    @Test
+    public void testReflectWall() {
+        Random random = new Random(4);
+        for (int i = 0; i < CASES; i++) {
+            double x1 = coordinate(random), y1 = coordinate(random), x2 = coordinate(random), y2 = coordinate(random);
+            if (x1 == x2 && y1 == y2) { continue; }
+            double vx = velocity(random), vy = velocity(random);
+            double coeff = random.nextBoolean() ? 1.0 : 0.95;
+            Vect expected = Geometry.reflectWall(new LineSegment(x1, y1, x2, y2), new Vect(vx, vy), coeff);
+            Vect actual = GeometryKernel.reflectWall(x1, y1, x2, y2, vx, vy, coeff);
+            assertSameBits("x of case " + i, expected.x(), actual.x());
+            assertSameBits("y of case " + i, expected.y(), actual.y());
+        }
+    }
+
+    @Test
+    public void testReflectCircle() {
+        Random random = new Random(5);
+        for (int i = 0; i < CASES; i++) {
+            double x = coordinate(random), y = coordinate(random);
+            // sometimes the ball is right on the center
+            double bx = random.nextInt(50) == 0 ? x : coordinate(random);
+            double by = bx == x ? y : coordinate(random);
+            double vx = velocity(random), vy = velocity(random);
+            double coeff = random.nextBoolean() ? 1.0 : 0.95;
+            Vect expected = Geometry.reflectCircle(new Vect(x, y), new Vect(bx, by), new Vect(vx, vy), coeff);
+            Vect actual = GeometryKernel.reflectCircle(x, y, bx, by, vx, vy, coeff);
+            assertSameBits("x of case " + i, expected.x(), actual.x());
+            assertSameBits("y of case " + i, expected.y(), actual.y());
+        }
+    }
+
+    @Test
+    public void testReflectBalls() {
+        Random random = new Random(6);
+        for (int i = 0; i < CASES; i++) {
+            double x1 = coordinate(random), y1 = coordinate(random);
+            double x2 = random.nextInt(50) == 0 ? x1 : x1 + random.nextDouble() - 0.5;
+            double y2 = x2 == x1 ? y1 : y1 + random.nextDouble() - 0.5;
+            double vx1 = velocity(random), vy1 = velocity(random), vx2 = velocity(random), vy2 = velocity(random);
+            VectPair expected = Geometry.reflectBalls(new Vect(x1, y1), 1.0, new Vect(vx1, vy1),
+                    new Vect(x2, y2), 1.0, new Vect(vx2, vy2));
+            VectPair actual = GeometryKernel.reflectBalls(x1, y1, 1.0, vx1, vy1, x2, y2, 1.0, vx2, vy2);
+            assertSameBits("x1 of case " + i, expected.v1.x(), actual.v1.x());
+            assertSameBits("y1 of case " + i, expected.v1.y(), actual.v1.y());
+            assertSameBits("x2 of case " + i, expected.v2.x(), actual.v2.x());
+            assertSameBits("y2 of case " + i, expected.v2.y(), actual.v2.y());
+        }
+    }
+
+    @Test
+    public void testRotateAround() {
+        Random random = new Random(7);
+        for (int i = 0; i < CASES; i++) {
+            double corX = coordinate(random), corY = coordinate(random);
+            double px = random.nextInt(50) == 0 ? corX : coordinate(random);
+            double py = px == corX ? corY : coordinate(random);
+            Angle angle = random.nextBoolean() ? new Angle(Math.PI / 2 * (random.nextBoolean() ? 1 : -1))
+                    : new Angle(random.nextDouble() * 2 * Math.PI - Math.PI);
+            Vect expected = Geometry.rotateAround(new Vect(px, py), new Vect(corX, corY), angle);
+            Vect actual = GeometryKernel.rotateAround(px, py, corX, corY, angle.cos(), angle.sin());
+            assertSameBits("x of case " + i, expected.x(), actual.x());
+            assertSameBits("y of case " + i, expected.y(), actual.y());
+        }
+    }
+
+    @Test
+    public void testBallAndGadgetShapes() {
+        Ball ball = new Ball("ball", 3, 2.5, new Vect(4, -7));
+        LineSegment side = new LineSegment(1, 1, 5, 1);
+        Circle corner = new Circle(5, 1, 0);
+        assertSameBits("wall", Geometry.timeUntilWallCollision(side, ball.getBall(), ball.getVelocity()),
+                GeometryKernel.timeUntilWallCollision(side, ball));
+        assertSameBits("corner", Geometry.timeUntilCircleCollision(corner, ball.getBall(), ball.getVelocity()),
+                GeometryKernel.timeUntilCircleCollision(corner, ball));
+        assertEquals(Geometry.reflectWall(side, ball.getVelocity(), 1.0), GeometryKernel.reflectWall(side, ball, 1.0));
+        assertEquals(Geometry.rotateAround(side, new Vect(1, 1), new Angle(0.3)),
+                GeometryKernel.rotateAround(side, new Vect(1, 1), new Angle(0.3)));
+        assertEquals(Geometry.rotateAround(corner, new Vect(1, 1), new Angle(0.3)),
+                GeometryKernel.rotateAround(corner, new Vect(1, 1), new Angle(0.3)));
+    }
+}
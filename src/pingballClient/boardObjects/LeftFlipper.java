@@ -8,6 +8,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import pingballClient.Board;
 import physics.Angle;
 import physics.Circle;
 import physics.Geometry;
@@ -15,7 +16,7 @@ import physics.LineSegment;
 import physics.Geometry.DoublePair;
 import physics.Vect;
 
-/**Rep invariant: the entire 2Lx2L square that the flipper can occupy is within the 20Lx20L grid. Orientation must be an
+/**Rep invariant: the entire 2Lx2L square that the flipper can occupy is within the largest board. Orientation must be an
  * integer equal to 0, 90, 180 or 270. All gadgets that are triggered by this flipper must be instance of LeftFlipper, RightFlipper or
  * Absorber. Assert that 0<=rotatedState<=Math.PI/2
  * 
@@ -155,10 +156,10 @@ public class LeftFlipper implements Gadget {
     @Override
     public double getTimeUntilCollision(Ball ball) {
         
-        double collisionTimeSide = Geometry.timeUntilWallCollision(flipper, ball.getBall(), ball.getVelocity());
-        double collisionTimeEndPoint0 = Geometry.timeUntilCircleCollision(endPoints.get(0), ball.getBall(), ball.getVelocity());
-        double collisionTimeEndPoint1 = Geometry.timeUntilCircleCollision(endPoints.get(1), ball.getBall(), ball.getVelocity());
-        double minTime = Collections.min(Arrays.asList(collisionTimeSide, collisionTimeEndPoint0, collisionTimeEndPoint1));
+        double collisionTimeSide = GeometryKernel.timeUntilWallCollision(flipper, ball);
+        double collisionTimeEndPoint0 = GeometryKernel.timeUntilCircleCollision(endPoints.get(0), ball);
+        double collisionTimeEndPoint1 = GeometryKernel.timeUntilCircleCollision(endPoints.get(1), ball);
+        double minTime = Math.min(collisionTimeSide, Math.min(collisionTimeEndPoint0, collisionTimeEndPoint1));
 
         return minTime;
 
@@ -180,22 +181,13 @@ public class LeftFlipper implements Gadget {
         double minCollisionTime = getTimeUntilCollision(ball);
         
        
-        double collisionTimeSide = Geometry.timeUntilWallCollision(flipper, ball.getBall(), ball.getVelocity());
-        double collisionTimeEndPoint0 = Geometry.timeUntilCircleCollision(endPoints.get(0), ball.getBall(), ball.getVelocity());
-        double collisionTimeEndPoint1 = Geometry.timeUntilCircleCollision(endPoints.get(1), ball.getBall(), ball.getVelocity());
-        
-        Vect newVel=null;
-        
-        //determine which component that ball collided with, and reflect the ball off of that component appropriately
-        if (minCollisionTime==collisionTimeSide){
-            newVel = Geometry.reflectRotatingWall(flipper, cor, ANGULAR_VELOCITY, ball.getBall(), ball.getVelocity(), REFLECT_COEFF);
-        } else if (minCollisionTime==collisionTimeEndPoint0){
-            newVel = Geometry.reflectRotatingCircle(endPoints.get(0), cor, ANGULAR_VELOCITY, ball.getBall(), ball.getVelocity(), REFLECT_COEFF);
-        } else if (minCollisionTime==collisionTimeEndPoint1){
-            newVel = Geometry.reflectRotatingCircle(endPoints.get(1), cor, ANGULAR_VELOCITY, ball.getBall(), ball.getVelocity(), REFLECT_COEFF);
-        } 
-        
-        ball.setVelocity(newVel);
+        //a flipper that isn't turning is a still wall, one that is turning pushes the ball along
+        double spin = angularVelocity();
+        ball.setVelocity(reflectOff(ball, spin));
+        //a ball the flipper turns away from would still be moving into it, it bounces off it as off a still wall
+        if (spin != 0 && getTimeUntilCollision(ball) <= 0) {
+            ball.setVelocity(reflectOff(ball, 0));
+        }
         
         //when this flipper reflects a ball, it triggers the actions of all other gadgets that it is connected to
         for (Gadget action: triggerForAction){
@@ -208,6 +200,35 @@ public class LeftFlipper implements Gadget {
         }
     }
 
+    /**
+     * Find the velocity of a ball reflected off the part of the flipper it hits first
+     * @param ball ball touching the flipper
+     * @param spin angular velocity of the flipper, in the direction it turns, 0 if it isn't turning
+     * @return the reflected velocity
+     */
+    private Vect reflectOff(Ball ball, double spin) {
+        double minCollisionTime = getTimeUntilCollision(ball);
+        double collisionTimeSide = GeometryKernel.timeUntilWallCollision(flipper, ball);
+        double collisionTimeEndPoint0 = GeometryKernel.timeUntilCircleCollision(endPoints.get(0), ball);
+
+        //determine which component that ball collided with, and reflect the ball off of that component appropriately
+        if (minCollisionTime==collisionTimeSide){
+            return Geometry.reflectRotatingWall(flipper, cor, spin, ball.getBall(), ball.getVelocity(), REFLECT_COEFF);
+        } else if (minCollisionTime==collisionTimeEndPoint0){
+            return Geometry.reflectRotatingCircle(endPoints.get(0), cor, spin, ball.getBall(), ball.getVelocity(), REFLECT_COEFF);
+        }
+        return Geometry.reflectRotatingCircle(endPoints.get(1), cor, spin, ball.getBall(), ball.getVelocity(), REFLECT_COEFF);
+    }
+
+    /**
+     * Get how fast the flipper turns, with the sign of the angles it is rotated by in rotateFlipper
+     * @return angular velocity in radians per second, 0 if the flipper isn't turning
+     */
+    private double angularVelocity() {
+        if (!this.canRotate) { return 0; }
+        return this.fullyFlipped ? ANGULAR_VELOCITY : -ANGULAR_VELOCITY;
+    }
+
     /**A LeftFlipper sweeps about its center of rotation, within the bounding box, when triggered 
      *      (counterclockwise if original state, clockwise if already flipped).
      * Mutator method that updates the flipper after this rotation. If the flipper is already in
@@ -248,93 +269,24 @@ public class LeftFlipper implements Gadget {
      * 
      * Implemented by: asolei
      */
-    private void rotateFlipper(double time){   
-        
-
-        // if not fully flipped, we rotate counterclockwise
-        if (! fullyFlipped ){
-            double rotateValue = -1 * this.ANGULAR_VELOCITY * time;
-            // check if we are going to make a full rotation or leave the bounding box
-            if (rotateValue <= (-Math.PI/2)){
-                // rotate the flipper's line segment 90 degrees, and set fullyFlipped to true
-                Angle angle90Counter = new Angle(-Math.PI/2);
-                LineSegment newFlipper = Geometry.rotateAround(this.flipper, getCOR(), angle90Counter);
-                // rotate the endpoint
-                Circle oldEndpoint = this.endPoints.remove(1);
-                Circle newEndpoint = Geometry.rotateAround(oldEndpoint, getCOR(), angle90Counter);
-                // mutate the flipper. we have stopped rotating
-                this.flipper = newFlipper;
-                this.endPoints.add(newEndpoint);
-                this.fullyFlipped = true;
-                this.canRotate = false;
-                this.rotatedState = 0.0;
-            } 
-            // otherwise we are going to make a partial rotation
-            else {
-                Angle rotateCounter = new Angle(rotateValue);
-                // rotate the flipper's line segment the specified amount about the center point
-                LineSegment newFlipper = Geometry.rotateAround(this.flipper, getCOR(), rotateCounter);
-                // rotate the endpoint
-                Circle oldEndpoint = this.endPoints.remove(1);
-                Circle newEndpoint = Geometry.rotateAround(oldEndpoint, getCOR(), rotateCounter);
-                // mutate the flipper
-                this.flipper = newFlipper;
-                this.endPoints.add(newEndpoint);
-                // check how far it will be rotating from it's current state, if that's greater than 90 deg
-                //      it will be fullyFlipped, and set the rotated state to 0. this also means that we 
-                //      have stopped rotating
-                if ((this.rotatedState + (-1 * rotateValue)) >= Math.PI/2){
-                    this.fullyFlipped = true;
-                    this.canRotate = false;
-                    this.rotatedState = 0.0;
-                } // otherwise it's still not fully flipped, add the rotation value to rotatedState
-                else {
-                    this.rotatedState += -1 * rotateValue;
-                }
-            }
-        } // if it is fully flipped we rotate clockwise
-        else if (fullyFlipped){
-            double rotateValue = this.ANGULAR_VELOCITY * time;
-            // check if we are going to make a full rotation or leave the bounding box
-            if (rotateValue >= (Math.PI/2)){
-                // rotate the flipper's line segment 90 degrees, and set fullyFlipped to false
-                Angle angle90Clock = new Angle(Math.PI/2);
-                LineSegment newFlipper = Geometry.rotateAround(this.flipper, getCOR(), angle90Clock);
-                // rotate the endpoint
-                Circle oldEndpoint = this.endPoints.remove(1);
-                Circle newEndpoint = Geometry.rotateAround(oldEndpoint, getCOR(), angle90Clock);
-                // mutate the flipper. we have also stopped rotating at this point.
-                this.flipper = newFlipper;
-                this.endPoints.add(newEndpoint);
-                this.fullyFlipped = false;
-                this.canRotate = false;
-                this.rotatedState = 0.0;
-            }
-            // otherwise we are going to make a partial rotation clockwise
-            else {
-                Angle rotateClock = new Angle(rotateValue);
-                // rotate the flipper's line segment the specified amount about the center point
-                LineSegment newFlipper = Geometry.rotateAround(this.flipper, getCOR(), rotateClock);
-                // rotate the endpoint
-                Circle oldEndpoint = this.endPoints.remove(1);
-                Circle newEndpoint = Geometry.rotateAround(oldEndpoint, getCOR(), rotateClock);
-                // mutate the flipper
-                this.flipper = newFlipper;
-                this.endPoints.add(newEndpoint);
-                // check how far it will be rotating from it's current state, if that's greater than 90 deg
-                //      it will go bact to not fullyFlipped. set the rotated state to 0. this also means that we 
-                //      have stopped rotating
-                if ((this.rotatedState + (rotateValue)) >= Math.PI/2){
-                    this.fullyFlipped = false;
-                    this.canRotate = false;
-                    this.rotatedState = 0.0;
-                } // otherwise add the rotation value to rotatedState
-                else {
-                    this.rotatedState += rotateValue;
-                }
-            }
+    private void rotateFlipper(double time){
+        // never turn further than the rest of the 90 degrees, so the flipper stays inside its bounding box
+        double turn = Math.min(this.ANGULAR_VELOCITY * time, Math.PI/2 - this.rotatedState);
+        boolean finished = turn >= Math.PI/2 - this.rotatedState;
+        // counterclockwise if not fully flipped, clockwise back to the original state if it is
+        Angle angle = new Angle(this.fullyFlipped ? turn : -turn);
+        // rotate the flipper's line segment and its endpoint about the center point
+        this.flipper = GeometryKernel.rotateAround(this.flipper, getCOR(), angle);
+        Circle oldEndpoint = this.endPoints.remove(1);
+        this.endPoints.add(GeometryKernel.rotateAround(oldEndpoint, getCOR(), angle));
+        // once it has turned 90 degrees it is flipped the other way, and has stopped rotating
+        if (finished){
+            this.fullyFlipped = !this.fullyFlipped;
+            this.canRotate = false;
+            this.rotatedState = 0.0;
+        } else {
+            this.rotatedState += turn;
         }
-
     }
 
 
@@ -352,51 +304,16 @@ public class LeftFlipper implements Gadget {
      */
     @Override
     public String toString() {
-        String verticalL = "FLIPPER | L";
-        String verticalR = "FLIPPER | R";
-        String horizontalT = "FLIPPER - T";
-        String horizontalB = "FLIPPER - B";
-        
-        //Determine value of closeToFlipped using rotatedState, which effectively represents how far the flipper has 
-        //  moved through the bounding box
-        boolean closeToFlipped = false;
-        if (fullyFlipped){
-            closeToFlipped = true;
-        }
-        if (! closeToFlipped){
-            if (rotatedState < Math.PI/4){
-                closeToFlipped = false;
-            } else {
-                closeToFlipped = true;
-            }
-        }
-        
-        //Return the appropriate vertical or horizontal representation of the flipper
-        switch (orientation){
-            case 0:
-                if (closeToFlipped){
-                    return horizontalT;
-                } else {
-                    return verticalL;
-                }
-            case 90:
-                if (closeToFlipped){
-                    return verticalR;
-                } else {
-                    return horizontalT;
-                }
-            case 180:
-                if (closeToFlipped){
-                    return horizontalB;
-                } else {
-                    return verticalR;
-                }
-            case 270:
-                if (closeToFlipped){
-                    return verticalL;
-                } else {
-                    return horizontalB;
-                }
+        //Return the vertical or horizontal representation of the side of the bounding box the flipper lies along
+        switch (GadgetKind.LEFT_FLIPPER.flipperSide(orientation, isFlipped())){
+            case 'L':
+                return "FLIPPER | L";
+            case 'R':
+                return "FLIPPER | R";
+            case 'T':
+                return "FLIPPER - T";
+            case 'B':
+                return "FLIPPER - B";
             // should never get here by rep invariant
             default:
                 return "";
@@ -422,6 +339,76 @@ public class LeftFlipper implements Gadget {
     public double getY() {
         return this.topLeftY;
     }
+
+    /**
+     * Get what kind of gadget this is
+     * @return LEFT_FLIPPER
+     * @author asolei
+     */
+    @Override
+    public GadgetKind getKind() {
+        return GadgetKind.LEFT_FLIPPER;
+    }
+
+    /**
+     * Get the width of the bounding box
+     * @return width in L
+     * @author asolei
+     */
+    @Override
+    public int getWidth() {
+        return 2;
+    }
+
+    /**
+     * Get the height of the bounding box
+     * @return height in L
+     * @author asolei
+     */
+    @Override
+    public int getHeight() {
+        return 2;
+    }
+
+    /**
+     * Get the orientation
+     * @return orientation, 0|90|180|270
+     * @author asolei
+     */
+    @Override
+    public int getOrientation() {
+        return this.orientation;
+    }
+
+    /**
+     * See if the gadget is drawn flipped
+     * @return true if fully flipped, or more than halfway there from the original state
+     * @author asolei
+     */
+    @Override
+    public boolean isFlipped() {
+        return this.fullyFlipped || this.rotatedState >= Math.PI/4;
+    }
+
+    /**
+     * Get how far the flipper has turned from its original state
+     * @return angle in radians, 0 in the original state and PI/2 fully flipped
+     * @author asolei
+     */
+    @Override
+    public double getAngle() {
+        return this.fullyFlipped ? Math.PI/2 - this.rotatedState : this.rotatedState;
+    }
+
+    /**
+     * See how many balls the gadget holds
+     * @return 0, it is not an absorber
+     * @author asolei
+     */
+    @Override
+    public int getBallsHeld() {
+        return 0;
+    }
     
     /**
      * Get the center of rotation of the LeftFlipper within it's bounding box. 
@@ -432,7 +419,7 @@ public class LeftFlipper implements Gadget {
         return this.cor;
     }
     
-    /**Rep invariant: the entire 2Lx2L square that the flipper can occupy is within the 20Lx20L grid. Orientation must be an
+    /**Rep invariant: the entire 2Lx2L square that the flipper can occupy is within the largest board. Orientation must be an
      * integer equal to 0, 90, 180 or 270. All gadgets that are triggered by this flipper must be instance of LeftFlipper, RightFlipper or
      * Absorber. Assert that 0<=rotatedState<=Math.PI/2
      * @author nwallace
@@ -440,7 +427,7 @@ public class LeftFlipper implements Gadget {
      * Implemented by: nwallace
      */
     public void checkRep(){
-        Rectangle2D.Double border = new Rectangle2D.Double(0,0,20,20);
+        Rectangle2D.Double border = new Rectangle2D.Double(0,0,Board.MAX_SIZE,Board.MAX_SIZE);
         boolean containsCorner = (border.contains(topLeftX, topLeftY,2,2));
         boolean validOrientation = ((orientation==0)||(orientation==90)||(orientation==180)||(orientation==270));
 
@@ -33,7 +33,9 @@ import physics.Geometry.DoublePair;
  *              completely flipped
  *              rotated < 45
  *              rotated > 45
+ *          flipped in steps that don't add up to 90 degrees: stops at exactly 90 degrees
  *      reflectBall
+ *          flipper not turning, ball touching it and moving into it: ball moves away from it
  *      constructor tests
  * @author asolei, nwallace
  */
@@ -229,6 +231,29 @@ public class LeftFlipperTest {
         }
     }
 
+    @Test
+    public void lflip270FlippedInSmallSteps() {
+        LeftFlipper lflip270 = new LeftFlipper("lflip270", new DoublePair(0,0), 270, false, new ArrayList<Gadget>());
+        lflip270.respondToTrigger(.001);
+        for (int i = 0; i < 100; i++) {
+            lflip270.move(.0013);
+        }
+        assertEquals("FLIPPER | L", lflip270.toString());
+        //the flipper lies along x=0, it hasn't turned past it
+        Ball ball = new Ball("ball", -0.3, 1, new Vect(1,0));
+        assertEquals(0.05, lflip270.getTimeUntilCollision(ball), 1e-9);
+    }
+
+    @Test
+    public void lflip0ReflectWhileStill(){
+        LeftFlipper lflip0 = new LeftFlipper("lflip0", new DoublePair(0,0), 0, false, new ArrayList<Gadget>());
+        Ball ball = new Ball("ball", 0.25, 1, new Vect(-1,0.5));
+        assertEquals(0, lflip0.getTimeUntilCollision(ball), 0);
+        lflip0.reflectBall(ball, .001);
+        assertEquals(0.95, ball.getVelocityX(), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, lflip0.getTimeUntilCollision(ball), 0);
+    }
+
 //--------test multiplying by positive infinity----------------///
     @Test
     public void testMultiplyInfinity(){
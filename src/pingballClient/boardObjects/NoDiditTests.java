@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import org.junit.Test;
 
 import physics.Geometry.DoublePair;
+import pingballClient.Board;
 
 /** Contains all constructor tests that are dependent on assertions being enabled, since assertions are not enabled
  * on Didit
@@ -24,12 +25,12 @@ public class NoDiditTests {
     
     //Circle
     public void failForTopLeftOutsideBoardC() {
-        CircleBumper invalidCircle = new CircleBumper("invalid", new DoublePair(25, 25), new ArrayList<Gadget>()); 
+        CircleBumper invalidCircle = new CircleBumper("invalid", new DoublePair(Board.MAX_SIZE + 5, Board.MAX_SIZE + 5), new ArrayList<Gadget>()); 
     }
     
     @Test(expected = AssertionError.class)
     public void failForTopLeftOutsideBoardLF() {
-        LeftFlipper invalid1 = new LeftFlipper("invalid1", new DoublePair(25, 25), 90, false, new ArrayList<Gadget>()); 
+        LeftFlipper invalid1 = new LeftFlipper("invalid1", new DoublePair(Board.MAX_SIZE + 5, Board.MAX_SIZE + 5), 90, false, new ArrayList<Gadget>()); 
     }
     
     //Left flipper
@@ -44,7 +45,7 @@ public class NoDiditTests {
     //Right flipper
     @Test(expected = AssertionError.class)
     public void failForTopLeftOutsideBoardRF() {
-        RightFlipper invalid1 = new RightFlipper("invalid1", new DoublePair(25, 25), 90, false, new ArrayList<Gadget>()); 
+        RightFlipper invalid1 = new RightFlipper("invalid1", new DoublePair(Board.MAX_SIZE + 5, Board.MAX_SIZE + 5), 90, false, new ArrayList<Gadget>()); 
     }
     
     @Test(expected = AssertionError.class)
@@ -58,7 +59,7 @@ public class NoDiditTests {
     //Square
     @Test(expected = AssertionError.class)
     public void failForTopLeftOutsideBoardSQ() {
-        SquareBumper invalidSquare = new SquareBumper("invalid", new DoublePair(25, 25), new ArrayList<Gadget>()); 
+        SquareBumper invalidSquare = new SquareBumper("invalid", new DoublePair(Board.MAX_SIZE + 5, Board.MAX_SIZE + 5), new ArrayList<Gadget>()); 
     }
     
     //Triangle
@@ -72,7 +73,7 @@ public class NoDiditTests {
     
     @Test(expected = AssertionError.class)
     public void failForTopLeftOutsideBoardTRI() {
-        TriangleBumper invalidSquare = new TriangleBumper("invalid", new DoublePair(25, 25),0, new ArrayList<Gadget>()); 
+        TriangleBumper invalidSquare = new TriangleBumper("invalid", new DoublePair(Board.MAX_SIZE + 5, Board.MAX_SIZE + 5),0, new ArrayList<Gadget>()); 
     }
 
 }
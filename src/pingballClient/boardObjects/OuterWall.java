@@ -10,9 +10,9 @@ import physics.*;
 /** Represents the outer edges of a board that can either be solid (reflective) or invisible if the board 
  * is adjacent to another board on that edge.
  * 
- * Rep invariant:The length of the wall must be 20.0<length<20.1, since walls are placed just outside 
+ * Rep invariant:The wall runs along one whole side of a width x height board, just outside 
  * of the board region. The wall must be labelled as "T", "B", "L" or "R", for "top", "bottom", "left" or "right". 
- * All endpoint coordinate components of the wall should be equal to -0.01 or 20.01.
+ * All endpoint coordinate components of the wall should be equal to -0.01, width+0.01 or height+0.01.
  * 
  * @author nwallace
  *
@@ -25,9 +25,12 @@ public class OuterWall implements Gadget {
     private final double REFLECT_COEFF;
     //Must be "T", "B", "L", "R" for top/bottom/left/right
     private final String name;
+    //size of the board the wall is around
+    private final int width;
+    private final int height;
     
     
-    /**Initializes a wall that will be just outside the grid of the pingball board. These walls can be connected
+    /**Initializes a wall that will be just outside the grid of a 20 by 20 pingball board. These walls can be connected
      * and made invisible when boards are merged.
      * 
      * @param startPoint Vect to represent the beginning of the wall
@@ -35,19 +38,34 @@ public class OuterWall implements Gadget {
      * @author nwallace
      */
     public OuterWall(Vect startPoint, Vect endPoint) {
+        this(startPoint, endPoint, 20, 20);
+    }
+    
+    /**Initializes a wall that will be just outside the grid of a width by height pingball board. These walls can be 
+     * connected and made invisible when boards are merged.
+     * 
+     * @param startPoint Vect to represent the beginning of the wall
+     * @param endPoint Vect to represent the end of the wall
+     * @param width width of the board, > 0
+     * @param height height of the board, > 0
+     * @author nwallace
+     */
+    public OuterWall(Vect startPoint, Vect endPoint, int width, int height) {
         wall = new LineSegment(startPoint, endPoint);
         REFLECT_COEFF = 1.0;
+        this.width = width;
+        this.height = height;
         // construct an OuterWall based on the startPoint and endPoint vectors
-        if ((int) startPoint.x()==0&&(int) endPoint.x()==20&&(int) startPoint.y()==0){
+        if ((int) startPoint.x()==0&&(int) endPoint.x()==width&&(int) startPoint.y()==0){
             name = "T";
         }
         else if ((int) startPoint.x()==0&&(int) endPoint.x()==0){
             name = "L";
         }
-        else if ((int) startPoint.x()==20&&((int) endPoint.x()==20)){
+        else if ((int) startPoint.x()==width&&((int) endPoint.x()==width)){
             name = "R";
         }
-        else if ((int) startPoint.x()==0&&(int) endPoint.x()==20&&(int) startPoint.y()==20){
+        else if ((int) startPoint.x()==0&&(int) endPoint.x()==width&&(int) startPoint.y()==height){
             name = "B";
         } else {
             //should never get here --> checkRep
@@ -66,7 +84,7 @@ public class OuterWall implements Gadget {
      */
     @Override
     public double getTimeUntilCollision(Ball ball) {
-        return Geometry.timeUntilWallCollision(this.wall, ball.getBall(), ball.getVelocity());
+        return GeometryKernel.timeUntilWallCollision(this.wall, ball);
     }
     
     /**Updates the velocity vector of the ball when it collides with the wall.
@@ -80,15 +98,16 @@ public class OuterWall implements Gadget {
     public void reflectBall(Ball ball, double time) {
         if (invisible.get()){ 
             //Return the coordinates of what the ball would be as it enters the edge of the new board
+            //if the new board is smaller it moves the ball inside itself when the ball arrives
             switch(name){
                 case "T": 
-                    ball.setCoord(ball.getX(), 19);
+                    ball.setCoord(ball.getX(), height - 1);
                     break;
                 case "B":
                     ball.setCoord(ball.getX(), 1);
                     break;
                 case "L":
-                    ball.setCoord(19, ball.getY());
+                    ball.setCoord(width - 1, ball.getY());
                     break;
                 case "R":
                     ball.setCoord(1,  ball.getY()); 
@@ -100,7 +119,7 @@ public class OuterWall implements Gadget {
             }
         } else {
             //get the new velocity from the reflection
-            Vect newVel = Geometry.reflectWall(wall, ball.getVelocity(), REFLECT_COEFF);
+            Vect newVel = GeometryKernel.reflectWall(wall, ball, REFLECT_COEFF);
             //create a new ball with new velocity
             ball.setVelocity(newVel);
 
@@ -144,15 +163,16 @@ public class OuterWall implements Gadget {
     }
     
     /**Rep invariant: asserts that is an instance of LineSegment so that the
-     * reflect methods in the physics package can be called on it.The length of the wall must be
-     * 20.0<length<20.1, since walls are placed just outside of the board region. The wall must be
+     * reflect methods in the physics package can be called on it. The wall runs along one whole side of the
+     * board, just outside of the board region. The wall must be
      * labelled as "T", "B", "L" or "R". All endpoint coordinate components
-     * of the wall should be equal to -0.01 or 20.01
+     * of the wall should be equal to -0.01, width+0.01 or height+0.01
      * @author nwallace
      */
     public void checkRep(){
         boolean correctName = (name.equals("T")||name.equals("B")||name.equals("L")||name.equals("R"));
-        List<Vect> coords = new ArrayList<Vect>(Arrays.asList(new Vect(-0.01,-0.01), new Vect(-0.01, 20.01), new Vect(20.01, -0.01), new Vect(20.01, 20.01)));
+        List<Vect> coords = new ArrayList<Vect>(Arrays.asList(new Vect(-0.01,-0.01), new Vect(-0.01, height + 0.01), 
+                new Vect(width + 0.01, -0.01), new Vect(width + 0.01, height + 0.01)));
         boolean validEndpoints = coords.contains(wall.p1())&&coords.contains(wall.p2()); 
         assert(correctName&&validEndpoints);
     }
@@ -185,7 +205,8 @@ public class OuterWall implements Gadget {
     @Override
     public String toString() {
         String output = "";
-        for (int i=0; i<20; i++){
+        int length = (name.equals("L")||name.equals("R")) ? height : width;
+        for (int i=0; i<length; i++){
             if (name.equals("L")||name.equals("R")){
                 output+=".\n";
             } else if (name.equals("T")||name.equals("B")){
@@ -212,6 +233,76 @@ public class OuterWall implements Gadget {
     public double getY() {
         return 0;
     }
+
+    /**
+     * Get what kind of gadget this is
+     * @return OUTER_WALL
+     * @author asolei
+     */
+    @Override
+    public GadgetKind getKind() {
+        return GadgetKind.OUTER_WALL;
+    }
+
+    /**
+     * Get the width of the bounding box
+     * @return width in L, 0 for the left and right walls
+     * @author asolei
+     */
+    @Override
+    public int getWidth() {
+        return (name.equals("L")||name.equals("R")) ? 0 : width;
+    }
+
+    /**
+     * Get the height of the bounding box
+     * @return height in L, 0 for the top and bottom walls
+     * @author asolei
+     */
+    @Override
+    public int getHeight() {
+        return (name.equals("L")||name.equals("R")) ? height : 0;
+    }
+
+    /**
+     * Get the orientation
+     * @return 0, a wall has no orientation
+     * @author asolei
+     */
+    @Override
+    public int getOrientation() {
+        return 0;
+    }
+
+    /**
+     * See if the gadget is drawn flipped
+     * @return false, it is not a flipper
+     * @author asolei
+     */
+    @Override
+    public boolean isFlipped() {
+        return false;
+    }
+
+    /**
+     * Get how far the gadget has turned from its original state
+     * @return 0, it is not a flipper
+     * @author asolei
+     */
+    @Override
+    public double getAngle() {
+        return 0;
+    }
+
+    /**
+     * See how many balls the gadget holds
+     * @return 0, it is not an absorber
+     * @author asolei
+     */
+    @Override
+    public int getBallsHeld() {
+        return 0;
+    }
     
     /**
      * An OuterWall cannot move. Assert the rep invariant
@@ -8,6 +8,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import pingballClient.Board;
 import physics.Angle;
 import physics.Circle;
 import physics.Geometry;
@@ -15,7 +16,7 @@ import physics.LineSegment;
 import physics.Geometry.DoublePair;
 import physics.Vect;
 
-/**Rep invariant: the entire 2Lx2L square that the flipper can occupy is within the 20Lx20L grid. Orientation must be an
+/**Rep invariant: the entire 2Lx2L square that the flipper can occupy is within the largest board. Orientation must be an
  * integer equal to 0 or 90. All gadgets that are triggered by this flipper must be instance of LeftFlipper, RightFlipper or
  * Absorber. Assert that 0<=rotatedState<=Math.PI/2. If isRotating is true, rotatedState must be equal to 0.
  * 
@@ -155,10 +156,10 @@ public class RightFlipper implements Gadget {
     @Override
     public double getTimeUntilCollision(Ball ball) {
         
-        double collisionTimeSide = Geometry.timeUntilWallCollision(flipper, ball.getBall(), ball.getVelocity());
-        double collisionTimeEndPoint0 = Geometry.timeUntilCircleCollision(endPoints.get(0), ball.getBall(), ball.getVelocity());
-        double collisionTimeEndPoint1 = Geometry.timeUntilCircleCollision(endPoints.get(1), ball.getBall(), ball.getVelocity());
-        double minTime = Collections.min(Arrays.asList(collisionTimeSide, collisionTimeEndPoint0, collisionTimeEndPoint1));
+        double collisionTimeSide = GeometryKernel.timeUntilWallCollision(flipper, ball);
+        double collisionTimeEndPoint0 = GeometryKernel.timeUntilCircleCollision(endPoints.get(0), ball);
+        double collisionTimeEndPoint1 = GeometryKernel.timeUntilCircleCollision(endPoints.get(1), ball);
+        double minTime = Math.min(collisionTimeSide, Math.min(collisionTimeEndPoint0, collisionTimeEndPoint1));
         
         return minTime;
     }
@@ -177,27 +178,13 @@ public class RightFlipper implements Gadget {
     @Override
     public void reflectBall(Ball ball, double time) {
 
-        double minCollisionTime = getTimeUntilCollision(ball);
-       
-        double collisionTimeSide = Geometry.timeUntilWallCollision(flipper, ball.getBall(), ball.getVelocity());
-        double collisionTimeEndPoint0 = Geometry.timeUntilCircleCollision(endPoints.get(0), ball.getBall(), ball.getVelocity());
-        double collisionTimeEndPoint1 = Geometry.timeUntilCircleCollision(endPoints.get(1), ball.getBall(), ball.getVelocity());
-        
-        Vect newVel=null;
-        
-        //determine which component that ball collided with, and reflect the ball off of that component appropriately
-        if (minCollisionTime==collisionTimeSide){
-            newVel = Geometry.reflectRotatingWall(flipper, cor, ANGULAR_VELOCITY, ball.getBall(), ball.getVelocity(), REFLECT_COEFF);
-        } else if (minCollisionTime==collisionTimeEndPoint0){
-            newVel = Geometry.reflectRotatingCircle(endPoints.get(0), cor, ANGULAR_VELOCITY, ball.getBall(), ball.getVelocity(), REFLECT_COEFF);
-        } else if (minCollisionTime==collisionTimeEndPoint1){
-            newVel = Geometry.reflectRotatingCircle(endPoints.get(1), cor, ANGULAR_VELOCITY, ball.getBall(), ball.getVelocity(), REFLECT_COEFF);
-        } 
-        
-        // can not begin rotating the flipper until the next time step
-        // use a boolean to keep track of this
-        
-        ball.setVelocity(newVel);
+        //a flipper that isn't turning is a still wall, one that is turning pushes the ball along
+        double spin = angularVelocity();
+        ball.setVelocity(reflectOff(ball, spin));
+        //a ball the flipper turns away from would still be moving into it, it bounces off it as off a still wall
+        if (spin != 0 && getTimeUntilCollision(ball) <= 0) {
+            ball.setVelocity(reflectOff(ball, 0));
+        }
         
         //When this flipper reflects a ball, it triggers the actions of all other gadgets that it is connected to
         for (Gadget action: triggerForAction){
@@ -210,6 +197,35 @@ public class RightFlipper implements Gadget {
         }
     }
 
+    /**
+     * Find the velocity of a ball reflected off the part of the flipper it hits first
+     * @param ball ball touching the flipper
+     * @param spin angular velocity of the flipper, in the direction it turns, 0 if it isn't turning
+     * @return the reflected velocity
+     */
+    private Vect reflectOff(Ball ball, double spin) {
+        double minCollisionTime = getTimeUntilCollision(ball);
+        double collisionTimeSide = GeometryKernel.timeUntilWallCollision(flipper, ball);
+        double collisionTimeEndPoint0 = GeometryKernel.timeUntilCircleCollision(endPoints.get(0), ball);
+
+        //determine which component that ball collided with, and reflect the ball off of that component appropriately
+        if (minCollisionTime==collisionTimeSide){
+            return Geometry.reflectRotatingWall(flipper, cor, spin, ball.getBall(), ball.getVelocity(), REFLECT_COEFF);
+        } else if (minCollisionTime==collisionTimeEndPoint0){
+            return Geometry.reflectRotatingCircle(endPoints.get(0), cor, spin, ball.getBall(), ball.getVelocity(), REFLECT_COEFF);
+        }
+        return Geometry.reflectRotatingCircle(endPoints.get(1), cor, spin, ball.getBall(), ball.getVelocity(), REFLECT_COEFF);
+    }
+
+    /**
+     * Get how fast the flipper turns, with the sign of the angles it is rotated by in rotateFlipper
+     * @return angular velocity in radians per second, 0 if the flipper isn't turning
+     */
+    private double angularVelocity() {
+        if (!this.canRotate) { return 0; }
+        return this.fullyFlipped ? -ANGULAR_VELOCITY : ANGULAR_VELOCITY;
+    }
+
     /**A flipper rotates 90 degrees when triggered (counterclockwise if original state, clockwise if already flipped).
      * Mutator method that updates the edges of the flipper after this rotation. If the flipper is already in
      * its rotated state, then it rotates in the opposite direction back to its original state.
@@ -231,91 +247,24 @@ public class RightFlipper implements Gadget {
      * 
      * Implemented by: asolei
      */
-    private void rotateFlipper(double time){    
-
-        // if not fully flipped, we rotate clockwise
-        if (! fullyFlipped){
-            double rotateValue = this.ANGULAR_VELOCITY * time;
-            // check if we are going to make a full rotation or leave the bounding box
-            if (rotateValue >= (Math.PI/2)){
-                // rotate the flipper's line segment 90 degrees, and set fullyFlipped to true
-                Angle angle90Clock = new Angle(Math.PI/2);
-                LineSegment newFlipper = Geometry.rotateAround(this.flipper, getCOR(), angle90Clock);
-                // rotate the endpoint
-                Circle oldEndpoint = this.endPoints.remove(1);
-                Circle newEndpoint = Geometry.rotateAround(oldEndpoint, getCOR(), angle90Clock);
-                // mutate the flipper
-                this.flipper = newFlipper;
-                this.endPoints.add(newEndpoint);
-                this.fullyFlipped = true;
-                this.canRotate = false;
-                this.rotatedState = 0.0;
-            }
-            // otherwise we are going to make a partial rotation
-            else {
-                Angle rotateClock = new Angle(rotateValue);
-                // rotate the flipper's line segment the specified amount about the center point
-                LineSegment newFlipper = Geometry.rotateAround(this.flipper, getCOR(), rotateClock);
-                // rotate the endpoint
-                Circle oldEndpoint = this.endPoints.remove(1);
-                Circle newEndpoint = Geometry.rotateAround(oldEndpoint, getCOR(), rotateClock);
-                // mutate the flipper
-                this.flipper = newFlipper;
-                this.endPoints.add(newEndpoint);
-                // check how far it will be rotating from it's current state, if that's greater than 90 deg
-                //      it will be fullyFlipped, and set the rotated state to 0
-                if ((this.rotatedState + rotateValue) >= Math.PI/2){
-                    this.fullyFlipped = true;
-                    this.canRotate = false;
-                    this.rotatedState = 0.0;
-                } // otherwise it's still not fully flipped
-                else {
-                    this.rotatedState += rotateValue;
-                }
-            }
-        } // if it is fully flipped we rotate counterclockwise
-        else if (fullyFlipped){
-            double rotateValue = -1 * this.ANGULAR_VELOCITY * time;
-            // check if we are going to make a full rotation or leave the bounding box
-            if (rotateValue <= (-Math.PI/2)){
-                // rotate the flipper's line segment 90 degrees, and set fullyFlipped to false
-                Angle angle90Counter = new Angle(-Math.PI/2);
-                LineSegment newFlipper = Geometry.rotateAround(this.flipper, getCOR(), angle90Counter);
-                // rotate the endpoint
-                Circle oldEndpoint = this.endPoints.remove(1);
-                Circle newEndpoint = Geometry.rotateAround(oldEndpoint, getCOR(), angle90Counter);
-                // mutate the flipper
-                this.flipper = newFlipper;
-                this.endPoints.add(newEndpoint);
-                this.fullyFlipped = false;
-                this.canRotate = false;
-                this.rotatedState = 0.0;
-            }
-            // otherwise we are going to make a partial rotation counterclockwise
-            else {
-                Angle rotateCounter = new Angle(rotateValue);
-                // rotate the flipper's line segment the specified amount about the center of rotation
-                LineSegment newFlipper = Geometry.rotateAround(this.flipper, getCOR(), rotateCounter);
-                // rotate the endpoint
-                Circle oldEndpoint = this.endPoints.remove(1);
-                Circle newEndpoint = Geometry.rotateAround(oldEndpoint, getCOR(), rotateCounter);
-                // mutate the flipper
-                this.flipper = newFlipper;
-                this.endPoints.add(newEndpoint);
-                // check how far it will be rotating from it's current state, if that's greater than 90 deg
-                //      it will go bact to not fullyFlipped. set the rotated state to 0
-                if ((this.rotatedState + (-1 * rotateValue)) >= Math.PI/2){
-                    this.fullyFlipped = false;
-                    this.canRotate = false;
-                    this.rotatedState = 0.0;
-                } // otherwise it's still flipped
-                else {
-                    this.rotatedState += -1 * rotateValue;
-                }
-                        
-            }
+    private void rotateFlipper(double time){
+        // never turn further than the rest of the 90 degrees, so the flipper stays inside its bounding box
+        double turn = Math.min(this.ANGULAR_VELOCITY * time, Math.PI/2 - this.rotatedState);
+        boolean finished = turn >= Math.PI/2 - this.rotatedState;
+        // clockwise if not fully flipped, counterclockwise back to the original state if it is
+        Angle angle = new Angle(this.fullyFlipped ? -turn : turn);
+        // rotate the flipper's line segment and its endpoint about the center point
+        this.flipper = GeometryKernel.rotateAround(this.flipper, getCOR(), angle);
+        Circle oldEndpoint = this.endPoints.remove(1);
+        this.endPoints.add(GeometryKernel.rotateAround(oldEndpoint, getCOR(), angle));
+        // once it has turned 90 degrees it is flipped the other way, and has stopped rotating
+        if (finished){
+            this.fullyFlipped = !this.fullyFlipped;
+            this.canRotate = false;
+            this.rotatedState = 0.0;
+        } else {
+            this.rotatedState += turn;
         }
-
     }
 
     /**Determines how to represent a flipper based on what state it is -- original position or fully flipped. If the
@@ -329,57 +278,20 @@ public class RightFlipper implements Gadget {
      */
     @Override
     public String toString() {
-        String verticalL = "FLIPPER | L";
-        String verticalR = "FLIPPER | R";
-        String horizontalT = "FLIPPER - T";
-        String horizontalB = "FLIPPER - B";
-        
-        //Determine value of closeToFlipped using rotatedState, which effectively represents how far the flipper has 
-        //moved through the bounding box
-        boolean closeToFlipped = false;
-        if (fullyFlipped){
-            closeToFlipped = true;
-        }
-        if (! closeToFlipped){
-            if (rotatedState < Math.PI/4){
-                closeToFlipped = false;
-            } else {
-                closeToFlipped = true;
-            }
-        }
-
-        //Return the appropriate vertical or horizontal representation of the flipper
-        switch (orientation){
-            case 0:
-                if (closeToFlipped){
-                    return horizontalT;
-                } else {
-                    return verticalR;
-                }
-            case 90:
-                if (closeToFlipped){
-                    return verticalR;
-                } else {
-                    return horizontalB;
-                }
-            case 180:
-                if (closeToFlipped){
-                    return horizontalB;
-                } else {
-                    return verticalL;
-                }
-            case 270:
-                if (closeToFlipped){
-                    return verticalL;
-                } else {
-                    return horizontalT;
-                }
-             // should never get here by rep invariant
+        //Return the vertical or horizontal representation of the side of the bounding box the flipper lies along
+        switch (GadgetKind.RIGHT_FLIPPER.flipperSide(orientation, isFlipped())){
+            case 'L':
+                return "FLIPPER | L";
+            case 'R':
+                return "FLIPPER | R";
+            case 'T':
+                return "FLIPPER - T";
+            case 'B':
+                return "FLIPPER - B";
+            // should never get here by rep invariant
             default:
-               
                 return "";
         }
-        
     }
 
     /**
@@ -399,6 +311,76 @@ public class RightFlipper implements Gadget {
     public double getY() {
         return this.topLeftY;
     }
+
+    /**
+     * Get what kind of gadget this is
+     * @return RIGHT_FLIPPER
+     * @author asolei
+     */
+    @Override
+    public GadgetKind getKind() {
+        return GadgetKind.RIGHT_FLIPPER;
+    }
+
+    /**
+     * Get the width of the bounding box
+     * @return width in L
+     * @author asolei
+     */
+    @Override
+    public int getWidth() {
+        return 2;
+    }
+
+    /**
+     * Get the height of the bounding box
+     * @return height in L
+     * @author asolei
+     */
+    @Override
+    public int getHeight() {
+        return 2;
+    }
+
+    /**
+     * Get the orientation
+     * @return orientation, 0|90|180|270
+     * @author asolei
+     */
+    @Override
+    public int getOrientation() {
+        return this.orientation;
+    }
+
+    /**
+     * See if the gadget is drawn flipped
+     * @return true if fully flipped, or more than halfway there from the original state
+     * @author asolei
+     */
+    @Override
+    public boolean isFlipped() {
+        return this.fullyFlipped || this.rotatedState >= Math.PI/4;
+    }
+
+    /**
+     * Get how far the flipper has turned from its original state
+     * @return angle in radians, 0 in the original state and PI/2 fully flipped
+     * @author asolei
+     */
+    @Override
+    public double getAngle() {
+        return this.fullyFlipped ? Math.PI/2 - this.rotatedState : this.rotatedState;
+    }
+
+    /**
+     * See how many balls the gadget holds
+     * @return 0, it is not an absorber
+     * @author asolei
+     */
+    @Override
+    public int getBallsHeld() {
+        return 0;
+    }
     
     /**
      * get the position of the point about which the flipper rotates.
@@ -454,7 +436,7 @@ public class RightFlipper implements Gadget {
         
     }
     
-    /**Rep invariant: the entire 2Lx2L square that the flipper can occupy is within the 20Lx20L grid. Orientation must be an
+    /**Rep invariant: the entire 2Lx2L square that the flipper can occupy is within the largest board. Orientation must be an
      * integer equal to 0 or 90. All gadgets that are triggered by this flipper must be instance of LeftFlipper, RightFlipper or
      * Absorber. Assert that 0<=rotatedState<=Math.PI/2. If isRotating is true, rotatedState must be equal to 0.
      * @author nwallace
@@ -463,7 +445,7 @@ public class RightFlipper implements Gadget {
      */
     public void checkRep(){
 
-        boolean topLeftInBoard = (0<=topLeftX)&&(0<=topLeftY)&&(topLeftX<=18)&&(topLeftY<=18);
+        boolean topLeftInBoard = (0<=topLeftX)&&(0<=topLeftY)&&(topLeftX<=Board.MAX_SIZE-2)&&(topLeftY<=Board.MAX_SIZE-2);
         boolean validOrientation = ((orientation==0)||(orientation==90)||(orientation==180)||(orientation==270));
         boolean validRotatedState = (0<=rotatedState)&&(rotatedState<=Math.PI/2);
         
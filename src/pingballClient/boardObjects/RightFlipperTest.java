@@ -36,7 +36,9 @@ import physics.Geometry.DoublePair;
  *              completely flipped
  *              rotated < 45
  *              rotated > 45
+ *          flipped in steps that don't add up to 90 degrees: stops at exactly 90 degrees
  *      reflectBall
+ *          flipper not turning, ball touching it and moving into it: ball moves away from it
  *      constructor tests
  * @author asolei, nwallace
  */
@@ -251,4 +253,27 @@ public class RightFlipperTest {
         LineSegment rotated2 = Geometry.rotateAround(initial, new Vect(0,1), new Angle(Math.PI/4));
     }
 
+    @Test
+    public void rflip270FlippedInSmallSteps() {
+        RightFlipper rflip270 = new RightFlipper("rflip270", new DoublePair(0,0), 270, false, new ArrayList<Gadget>());
+        rflip270.respondToTrigger(.001);
+        for (int i = 0; i < 100; i++) {
+            rflip270.move(.0013);
+        }
+        assertEquals("FLIPPER | L", rflip270.toString());
+        //the flipper lies along x=0, it hasn't turned past it
+        Ball ball = new Ball("ball", -0.3, 1, new Vect(1,0));
+        assertEquals(0.05, rflip270.getTimeUntilCollision(ball), 1e-9);
+    }
+
+    @Test
+    public void rflip0ReflectWhileStill(){
+        RightFlipper rflip0 = new RightFlipper("rflip0", new DoublePair(0,0), 0, false, new ArrayList<Gadget>());
+        Ball ball = new Ball("ball", 1.75, 1, new Vect(1,0.5));
+        assertEquals(0, rflip0.getTimeUntilCollision(ball), 0);
+        rflip0.reflectBall(ball, .001);
+        assertEquals(-0.95, ball.getVelocityX(), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, rflip0.getTimeUntilCollision(ball), 0);
+    }
+
 }
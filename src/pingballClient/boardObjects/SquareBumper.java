@@ -8,12 +8,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
+import pingballClient.Board;
 import physics.Geometry.DoublePair;
 import physics.*;
 import warmup.BallWarmup;
 
 /**Rep invariant: all sides must be of length one, and there is a Circle at the end of each side for
- * the corners, 0<=(topLeftX and topLeftY)<=19 so that the entire square is contained within the board
+ * the corners, 0<=(topLeftX and topLeftY)<=Board.MAX_SIZE-1 so that the entire square can be contained within a board
  * 
  * Thread safety argument: all gadgets are kept in a board, and each board is only touched by one thread, so this
  * datatype is threadsafe by confinement and encapsulation.
@@ -46,38 +47,23 @@ public class SquareBumper implements Gadget {
         this.topLeftX = topLeftCorner.d1;
         this.topLeftY = topLeftCorner.d2;
         
-        Vect topLeft = new Vect(topLeftCorner.d1, topLeftCorner.d2);
-        Vect topRight = new Vect(topLeftCorner.d1+1, topLeftCorner.d2);
-        Vect bottomLeft = new Vect(topLeftCorner.d1, topLeftCorner.d2+1);
-        Vect bottomRight = new Vect(topLeftCorner.d1+1, topLeftCorner.d2+1);
-        coords = new ArrayList<Vect>(Arrays.asList(topLeft, topRight, bottomRight, bottomLeft));
+        // the sides and corners are shared with every square bumper at the same place
+        BumperShape shape = BumperShape.square(topLeftX, topLeftY);
+        this.coords = shape.coords();
+        this.sides = shape.sides();
+        this.corners = shape.corners();
         
         REFLECT_COEFF = 1.0;
         
-        this.sides = new ArrayList<LineSegment>();
-        this.corners = new ArrayList<Circle>();
-        
         // if the bumper is not linked to anything, prevent a nullPointerException by instantiating an empty array
         this.triggerForAction = action;
         
-        //Creates line segments for the edges of the square by going around clockwise between the corners
-        for (int i=0; i<4; i++){
-            LineSegment side;
-            if (i!=3){
-                side = new LineSegment(coords.get(i), coords.get(i+1));
-                sides.add(side);
-            } else {
-                side = new LineSegment(coords.get(i), coords.get(0));
-                sides.add(side);
-            }
-            Circle corner = new Circle(coords.get(i).x(), coords.get(i).y(), 0);
-        }
         checkRep();
         
     }
     
     /**Rep invariant: all sides must be of length one, and there is a Circle at the end of each side for
-     * the corners, 0<=(topLeftX and topLeftY)<=19
+     * the corners, 0<=(topLeftX and topLeftY)<=Board.MAX_SIZE-1
      * @author nwallace
      * Implemented by: nwallace
      */
@@ -104,7 +90,7 @@ public class SquareBumper implements Gadget {
             }
         }
 
-        boolean topLeftInBoard = (0<=topLeftX)&&(0<=topLeftY)&&(topLeftX<=19)&&(topLeftY<=19);
+        boolean topLeftInBoard = (0<=topLeftX)&&(0<=topLeftY)&&(topLeftX<=Board.MAX_SIZE-1)&&(topLeftY<=Board.MAX_SIZE-1);
         
         assert(allSidesSame&&lineSegmentEndCoords&&topLeftInBoard&&validCorners);
     }
@@ -121,7 +107,7 @@ public class SquareBumper implements Gadget {
         double minTime = Double.POSITIVE_INFINITY;
         // consider the sides. if time for a particular side is less than minTime, reset minTime
         for (LineSegment side : sides) {
-            double timeUntilCollision = Geometry.timeUntilWallCollision(side, ball.getBall(), ball.getVelocity());
+            double timeUntilCollision = GeometryKernel.timeUntilWallCollision(side, ball);
             if (timeUntilCollision <= minTime) {
                 minTime = timeUntilCollision;
             }
@@ -129,7 +115,7 @@ public class SquareBumper implements Gadget {
         
         // consider the corners. if time for a particular corner is less than minTime, reset minTime
         for (Circle corner : corners) {
-            double timeUntilCollision = Geometry.timeUntilCircleCollision(corner, ball.getBall(), ball.getVelocity());
+            double timeUntilCollision = GeometryKernel.timeUntilCircleCollision(corner, ball);
             if (timeUntilCollision <= minTime) {
                 minTime = timeUntilCollision;
             }
@@ -149,7 +135,6 @@ public class SquareBumper implements Gadget {
     @Override
 
     public void reflectBall(Ball ball, double time){
-        Vect startVel = ball.getVelocity();
         double startX = ball.getX();
         double startY = ball.getY();
         
@@ -162,7 +147,7 @@ public class SquareBumper implements Gadget {
         
         // determine if the ball will collide with any of the sides
         for (LineSegment side : sides) {
-            double timeUntilCollision = Geometry.timeUntilWallCollision(side, ball.getBall(), startVel);
+            double timeUntilCollision = GeometryKernel.timeUntilWallCollision(side, ball);
             if (timeUntilCollision <= minTimeSide) {
                 minTimeSide = timeUntilCollision;
                 wallForCollision = side;
@@ -171,7 +156,7 @@ public class SquareBumper implements Gadget {
         
         // determine if the ball will collide with any of the corners
         for (Circle corner: corners) {
-            double timeUntilCollision = Geometry.timeUntilCircleCollision(corner, ball.getBall(), startVel);
+            double timeUntilCollision = GeometryKernel.timeUntilCircleCollision(corner, ball);
             if (timeUntilCollision <= minCollisionTime) {
                 minTimeCorner = timeUntilCollision;
                 cornerForCollision = corner;
@@ -187,11 +172,11 @@ public class SquareBumper implements Gadget {
         // check if it is going to reflect off a side
         Vect newVel=new Vect(0,0);
         if(minTimeSide<minTimeCorner){
-            newVel = Geometry.reflectWall(wallForCollision, ball.getVelocity(), REFLECT_COEFF);
+            newVel = GeometryKernel.reflectWall(wallForCollision, ball, REFLECT_COEFF);
         } 
         // otherwise reflect off the corner
         else {
-            newVel = Geometry.reflectCircle(cornerForCollision.getCenter(), ball.getPosition(), ball.getVelocity(), REFLECT_COEFF);
+            newVel = GeometryKernel.reflectCircle(cornerForCollision.getCenter(), ball, REFLECT_COEFF);
         }
         // return the Balls that result from the reflection
         
@@ -252,6 +237,76 @@ public class SquareBumper implements Gadget {
         return this.topLeftY;
     }
 
+    /**
+     * Get what kind of gadget this is
+     * @return SQUARE_BUMPER
+     * @author asolei
+     */
+    @Override
+    public GadgetKind getKind() {
+        return GadgetKind.SQUARE_BUMPER;
+    }
+
+    /**
+     * Get the width of the bounding box
+     * @return width in L
+     * @author asolei
+     */
+    @Override
+    public int getWidth() {
+        return 1;
+    }
+
+    /**
+     * Get the height of the bounding box
+     * @return height in L
+     * @author asolei
+     */
+    @Override
+    public int getHeight() {
+        return 1;
+    }
+
+    /**
+     * Get the orientation
+     * @return 0, a square has no orientation
+     * @author asolei
+     */
+    @Override
+    public int getOrientation() {
+        return 0;
+    }
+
+    /**
+     * See if the gadget is drawn flipped
+     * @return false, it is not a flipper
+     * @author asolei
+     */
+    @Override
+    public boolean isFlipped() {
+        return false;
+    }
+
+    /**
+     * Get how far the gadget has turned from its original state
+     * @return 0, it is not a flipper
+     * @author asolei
+     */
+    @Override
+    public double getAngle() {
+        return 0;
+    }
+
+    /**
+     * See how many balls the gadget holds
+     * @return 0, it is not an absorber
+     * @author asolei
+     */
+    @Override
+    public int getBallsHeld() {
+        return 0;
+    }
+
     /**
      * A SquareBumper cannot move. Assert the rep invariant
      * @param time
@@ -8,13 +8,14 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
+import pingballClient.Board;
 import physics.*;
 import physics.Geometry.DoublePair;
 
 /**Rep invariant: all side lengths are equal to 1 or math.sqrt(2).
  * The only objects that are valid for triggerForAction are Absorber and Flipper.
  * Orientation must be an int {0,90,180,270}
- * 0<=(topLeftX and topLeftY)<=19 so that the entire triangle is contained within the board.
+ * 0<=(topLeftX and topLeftY)<=Board.MAX_SIZE-1 so that the entire triangle can be contained within a board.
  * 
  * Thread safety argument: all triangles are kept in a board, and each board is only touched by one thread, so this
  * datatype is threadsafe by confinement and encapsulation.
@@ -56,60 +57,15 @@ public class TriangleBumper implements Gadget {
         this.topLeftX = corner.d1;
         this.topLeftY = corner.d2;
         this.name = name;
-        this.corners = Collections.synchronizedList(new ArrayList<Circle>());
-        this.sides = Collections.synchronizedList(new ArrayList<LineSegment>());
-
         this.orientation = orientation;
         
         REFLECT_COEFF = 1.0;
         
-        // Initialize appropriate representation
-        switch (orientation){
-            case 0:
-                int[][] cornerConstruct0 = {{0,0},{1,0},{0,1}};
-                for (int[] newCorner: cornerConstruct0){
-                    corners.add(new Circle(topLeftX+newCorner[0], topLeftY+newCorner[1], 0));
-                }
-                sides.add(new LineSegment(topLeftX, topLeftY, topLeftX+1, topLeftY));
-                sides.add(new LineSegment(topLeftX+1, topLeftY, topLeftX, topLeftY+1));
-                sides.add(new LineSegment(topLeftX, topLeftY+1, topLeftX, topLeftY));
-                break;
-            case 90:
-                int[][] cornerConstruct90 = {{0,0},{1,0},{1,1}};
-                for (int[] newCorner: cornerConstruct90){
-                    corners.add(new Circle(topLeftX+newCorner[0], topLeftY+newCorner[1], 0));
-                }
-                sides.add(new LineSegment(topLeftX, topLeftY, topLeftX+1, topLeftY));
-                sides.add(new LineSegment(topLeftX+1, topLeftY, topLeftX+1, topLeftY+1));
-                sides.add(new LineSegment(topLeftX+1, topLeftY+1, topLeftX, topLeftY));
-                break;
-            case 180:
-                int[][] cornerConstruct180 = {{1,0},{1,1},{0,1}};
-                for (int[] newCorner: cornerConstruct180){
-                    corners.add(new Circle(corner.d1+newCorner[0], corner.d2+newCorner[1], 0));
-                }
-                sides.add(new LineSegment(topLeftX+1, topLeftY, topLeftX+1, topLeftY+1));
-                sides.add(new LineSegment(topLeftX+1, topLeftY+1, topLeftX, topLeftY+1));
-                sides.add(new LineSegment(topLeftX, topLeftY+1, topLeftX+1, topLeftY));
-                break;
-            case 270:
-                int[][] cornerConstruct270 = {{0,0},{1,1},{0,1}};
-                for (int[] newCorner: cornerConstruct270){
-                    corners.add(new Circle(corner.d1+newCorner[0], corner.d2+newCorner[1], 0));
-                }
-                sides.add(new LineSegment(topLeftX, topLeftY, topLeftX+1, topLeftY+1));
-                sides.add(new LineSegment(topLeftX+1, topLeftY+1, topLeftX, topLeftY+1));
-                sides.add(new LineSegment(topLeftX, topLeftY+1, topLeftX, topLeftY));
-                break;
-            // should never get here by File parsing and rep invariant
-            default: 
-                break;
-        }
-            
-        coords = new ArrayList<Vect>();
-        for (Circle cornerCircle: corners){
-            coords.add(cornerCircle.getCenter());
-        }
+        // the sides and corners are shared with every triangle bumper at the same place with the same orientation
+        BumperShape shape = BumperShape.triangle(topLeftX, topLeftY, orientation);
+        this.corners = shape.corners();
+        this.sides = shape.sides();
+        this.coords = shape.coords();
         
         // if the bumper is not linked to anything, prevent a null pointer exception by initializing triggerForAction
         //      to an empty array
@@ -130,7 +86,7 @@ public class TriangleBumper implements Gadget {
         double minTime = Double.POSITIVE_INFINITY;
         // check the sides of the triangle. if time for a particular side is less than minTime, reset minTime
         for (LineSegment side : sides) {
-            double timeUntilCollision = Geometry.timeUntilWallCollision(side, ball.getBall(), ball.getVelocity());
+            double timeUntilCollision = GeometryKernel.timeUntilWallCollision(side, ball);
             if (timeUntilCollision <= minTime) {
                 minTime = timeUntilCollision;
             }
@@ -138,7 +94,7 @@ public class TriangleBumper implements Gadget {
         
         // check the corners. if time for a particular corner is less than minTime, reset minTime
         for (Circle corner : corners) {
-            double timeUntilCollision = Geometry.timeUntilCircleCollision(corner, ball.getBall(), ball.getVelocity());
+            double timeUntilCollision = GeometryKernel.timeUntilCircleCollision(corner, ball);
             if (timeUntilCollision <= minTime) {
                 minTime = timeUntilCollision;
             }
@@ -170,7 +126,7 @@ public class TriangleBumper implements Gadget {
         
         // determine if the ball will collide with any of the sides
         for (LineSegment side : sides) {
-            double timeUntilCollision = Geometry.timeUntilWallCollision(side, ball.getBall(), ball.getVelocity());
+            double timeUntilCollision = GeometryKernel.timeUntilWallCollision(side, ball);
             if (timeUntilCollision <= minTimeSide) {
                 minTimeSide = timeUntilCollision;
                 wallForCollision = side;
@@ -179,7 +135,7 @@ public class TriangleBumper implements Gadget {
         
         // determine if the ball will collide with any of the corners
         for (Circle corner: corners) {
-            double timeUntilCollision = Geometry.timeUntilCircleCollision(corner, ball.getBall(), ball.getVelocity());
+            double timeUntilCollision = GeometryKernel.timeUntilCircleCollision(corner, ball);
             if (timeUntilCollision <= minCollisionTime) {
                 minTimeCorner = timeUntilCollision;
                 cornerForCollision = corner;
@@ -197,11 +153,11 @@ public class TriangleBumper implements Gadget {
 
         // if it will collide with a side before a corner, reflect off the side
         if (minTimeSide<=minTimeCorner) {
-            newVel = Geometry.reflectWall(wallForCollision, ball.getVelocity(), REFLECT_COEFF);
+            newVel = GeometryKernel.reflectWall(wallForCollision, ball, REFLECT_COEFF);
         } 
         // otherwise reflect off the corner
         else {
-            newVel = Geometry.reflectCircle(cornerForCollision.getCenter(), ball.getPosition(), ball.getVelocity(), REFLECT_COEFF);
+            newVel = GeometryKernel.reflectCircle(cornerForCollision.getCenter(), ball, REFLECT_COEFF);
         }
 
         ball.setVelocity(newVel);
@@ -271,6 +227,76 @@ public class TriangleBumper implements Gadget {
     public double getY() {
         return this.topLeftY;
     }
+
+    /**
+     * Get what kind of gadget this is
+     * @return TRIANGLE_BUMPER
+     * @author asolei
+     */
+    @Override
+    public GadgetKind getKind() {
+        return GadgetKind.TRIANGLE_BUMPER;
+    }
+
+    /**
+     * Get the width of the bounding box
+     * @return width in L
+     * @author asolei
+     */
+    @Override
+    public int getWidth() {
+        return 1;
+    }
+
+    /**
+     * Get the height of the bounding box
+     * @return height in L
+     * @author asolei
+     */
+    @Override
+    public int getHeight() {
+        return 1;
+    }
+
+    /**
+     * Get the orientation
+     * @return orientation, 0|90|180|270
+     * @author asolei
+     */
+    @Override
+    public int getOrientation() {
+        return this.orientation;
+    }
+
+    /**
+     * See if the gadget is drawn flipped
+     * @return false, it is not a flipper
+     * @author asolei
+     */
+    @Override
+    public boolean isFlipped() {
+        return false;
+    }
+
+    /**
+     * Get how far the gadget has turned from its original state
+     * @return 0, it is not a flipper
+     * @author asolei
+     */
+    @Override
+    public double getAngle() {
+        return 0;
+    }
+
+    /**
+     * See how many balls the gadget holds
+     * @return 0, it is not an absorber
+     * @author asolei
+     */
+    @Override
+    public int getBallsHeld() {
+        return 0;
+    }
     
     /**
      * Getter for the value of the orientation of the TriangleBumper
@@ -303,7 +329,7 @@ public class TriangleBumper implements Gadget {
     /**Rep invariant: all side lengths are equal to 1 or math.sqrt(2).
      * The only objects that are valid for triggerForAction are Absorber and Flipper.
      * Orientation must be an int {0,90,180,270}
-     * 0<=(topLeftX and topLeftY)<=19
+     * 0<=(topLeftX and topLeftY)<=Board.MAX_SIZE-1
      * 
      * @author nwallace
      * Implemented by: nwallace
@@ -313,7 +339,7 @@ public class TriangleBumper implements Gadget {
         boolean correctSideLength=true;
         boolean validCoords = true;
         boolean validCorners=true;
-        boolean topLeftInBoard = (0<=topLeftX)&&(0<=topLeftY)&&(topLeftX<=19)&&(topLeftY<=19);
+        boolean topLeftInBoard = (0<=topLeftX)&&(0<=topLeftY)&&(topLeftX<=Board.MAX_SIZE-1)&&(topLeftY<=Board.MAX_SIZE-1);
 
         if(validOrientation){
             // check the sides 
@@ -3,7 +3,7 @@ grammar Board;
 // A grammar that specifies the format of an input file from which a Board can be created. 
 // Impelemented by: asolei
 @header {
-package pingball.parser;
+package pingballClient.parser;
 }
 
 // This adds code to the generated lexer and parser.
@@ -73,7 +73,7 @@ package pingball.parser;
  * Implemented by: asolei
  */
  file : board attribute+ EOF ;
- board : BOARD NAMEVAL GRAVITY? FRICTION1? FRICTION2? NEWLINE*;
+ board : BOARD NAMEVAL GRAVITY? FRICTION1? FRICTION2? WIDTH? HEIGHT? NEWLINE*;
  
  attribute : ball | bumper | actions | fire;
  ball : BALL NAMEVAL XVAL YVAL XVEL YVEL NEWLINE*;
@@ -9,41 +9,41 @@ import org.antlr.v4.runtime.tree.TerminalNode;
 import org.antlr.v4.runtime.tree.ErrorNode;
 
 public class BoardBaseListener implements BoardListener {
-	@Override public void enterAbsorber(BoardParser.AbsorberContext ctx) { }
-	@Override public void exitAbsorber(BoardParser.AbsorberContext ctx) { }
-
 	@Override public void enterBall(BoardParser.BallContext ctx) { }
 	@Override public void exitBall(BoardParser.BallContext ctx) { }
 
-	@Override public void enterTriangle(BoardParser.TriangleContext ctx) { }
-	@Override public void exitTriangle(BoardParser.TriangleContext ctx) { }
+	@Override public void enterSquare(BoardParser.SquareContext ctx) { }
+	@Override public void exitSquare(BoardParser.SquareContext ctx) { }
 
 	@Override public void enterFile(BoardParser.FileContext ctx) { }
 	@Override public void exitFile(BoardParser.FileContext ctx) { }
 
-	@Override public void enterAttribute(BoardParser.AttributeContext ctx) { }
-	@Override public void exitAttribute(BoardParser.AttributeContext ctx) { }
-
 	@Override public void enterFlipper(BoardParser.FlipperContext ctx) { }
 	@Override public void exitFlipper(BoardParser.FlipperContext ctx) { }
 
+	@Override public void enterAbsorber(BoardParser.AbsorberContext ctx) { }
+	@Override public void exitAbsorber(BoardParser.AbsorberContext ctx) { }
+
+	@Override public void enterFire(BoardParser.FireContext ctx) { }
+	@Override public void exitFire(BoardParser.FireContext ctx) { }
+
+	@Override public void enterAttribute(BoardParser.AttributeContext ctx) { }
+	@Override public void exitAttribute(BoardParser.AttributeContext ctx) { }
+
 	@Override public void enterCircle(BoardParser.CircleContext ctx) { }
 	@Override public void exitCircle(BoardParser.CircleContext ctx) { }
 
-	@Override public void enterSquare(BoardParser.SquareContext ctx) { }
-	@Override public void exitSquare(BoardParser.SquareContext ctx) { }
-
 	@Override public void enterBumper(BoardParser.BumperContext ctx) { }
 	@Override public void exitBumper(BoardParser.BumperContext ctx) { }
 
+	@Override public void enterActions(BoardParser.ActionsContext ctx) { }
+	@Override public void exitActions(BoardParser.ActionsContext ctx) { }
+
 	@Override public void enterBoard(BoardParser.BoardContext ctx) { }
 	@Override public void exitBoard(BoardParser.BoardContext ctx) { }
 
-	@Override public void enterFire(BoardParser.FireContext ctx) { }
-	@Override public void exitFire(BoardParser.FireContext ctx) { }
-
-	@Override public void enterActions(BoardParser.ActionsContext ctx) { }
-	@Override public void exitActions(BoardParser.ActionsContext ctx) { }
+	@Override public void enterTriangle(BoardParser.TriangleContext ctx) { }
+	@Override public void exitTriangle(BoardParser.TriangleContext ctx) { }
 
 	@Override public void enterEveryRule(ParserRuleContext ctx) { }
 	@Override public void exitEveryRule(ParserRuleContext ctx) { }
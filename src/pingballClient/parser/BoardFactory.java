@@ -88,6 +88,8 @@ public class BoardFactory {
         private double boardGravity;
         private double boardFriction1;
         private double boardFriction2;
+        private int boardWidth = Board.DEFAULT_SIZE;
+        private int boardHeight = Board.DEFAULT_SIZE;
         
         // default values for gravity and friction
         private static double GRAVITY = 25;
@@ -109,7 +111,7 @@ public class BoardFactory {
          * Determines if a Ball with a given name, center and velocity represents a valid ball within an input file.
          * The condition for a valid ball is as follows:
          *      within the file the name must be unique
-         *      the center of the ball must be contained within the dimension of the 20x20 board
+         *      the center of the ball must be contained within the dimension of the board
          *      the speed (magnitude of the velocity vector) of the ball is >= 0 and <= 200
          * @param name the name of the ball 
          * @param x the x coordinate of the ball's center
@@ -122,7 +124,7 @@ public class BoardFactory {
             // check if the name is unique
             boolean validName = !names.contains(name);
             // valid locations for a Ball in the board
-            boolean validCoords = (0 <= x && x < 20 && 0 <= y && y < 20);
+            boolean validCoords = (0 <= x && x < boardWidth && 0 <= y && y < boardHeight);
             double speed = Math.sqrt(Math.pow(velocity.x(), 2) + Math.pow(velocity.y(), 2));
             // the bounds on speed as specified in the pset prompt
             boolean validVelocity = (0 <= speed && speed <= 200);
@@ -134,8 +136,8 @@ public class BoardFactory {
          * a valid gadget within an input file. 
          * The condition for a valid bumper is as follows:
          *      within the file the name must be unique
-         *      the top-left corner must represent a valid placement for a gadget within the 20x20 board, where the farthest
-         *        from the origin that a gadget can be placed is the location (19, 19)
+         *      the top-left corner must represent a valid placement for a gadget within the board, where the farthest
+         *        from the origin that a gadget can be placed is the location (width - 1, height - 1)
          * @param name
          * @param xVal
          * @param yVal
@@ -147,8 +149,8 @@ public class BoardFactory {
             double y = Double.parseDouble(yVal);     
             // check if the name is unique
             boolean validName = !names.contains(name);
-            // furthest possible location for a gadget with 1Lx1L bounding box is (19,19)
-            boolean validCoords = (0 <= x && x < 20 && 0 <= y && y < 20);
+            // furthest possible location for a gadget with 1Lx1L bounding box is (width - 1, height - 1)
+            boolean validCoords = (0 <= x && x < boardWidth && 0 <= y && y < boardHeight);
             return (validName && validCoords);   
         }
         
@@ -157,7 +159,7 @@ public class BoardFactory {
          * a valid Absorber within an input file.
          * The condition for a valid Absorber is as follows:
          *      within the file the name must be unique
-         *      the top-left corner must represent a valid placement for a gadget within the 20x20 board
+         *      the top-left corner must represent a valid placement for a gadget within the board
          *      the Absorber must not extend off the board in any direction
          * @param name
          * @param xVal
@@ -175,13 +177,13 @@ public class BoardFactory {
             // check if name is unique
             boolean validName = !names.contains(name);
             // check if top left corner is within the board
-            boolean validCoords = (0 <= x && x < 20 && 0 <= y && y < 20);
+            boolean validCoords = (0 <= x && x < boardWidth && 0 <= y && y < boardHeight);
             // check if the Absorber is extending off the board in the vertical direction
-            if ((y + height) > 20){
+            if ((y + height) > boardHeight){
                 return false;
             }
             // check if the Absorber is extending off the board in the horizontal direction
-            if ((x + width) > 20){
+            if ((x + width) > boardWidth){
                 return false;
             } 
             // now we can return the value of validName AND validCoords 
@@ -207,7 +209,7 @@ public class BoardFactory {
             // check if names is unique
             boolean validName = !names.contains(name);
             // check if bounding box will be contained within the board based on the top left corner
-            boolean validFlipperCoords = (0 <= x && x <= 18 && 0 <= y && y <= 18);
+            boolean validFlipperCoords = (0 <= x && x <= boardWidth - 2 && 0 <= y && y <= boardHeight - 2);
             return (validName && validFlipperCoords);
         }
         
@@ -279,6 +281,17 @@ public class BoardFactory {
             } else {
                 boardFriction2 = FRICTION2;
             } 
+            // extract and set the size of the board. if a value is not specified,
+            //      the board is 20L in that direction
+            if (ctx.WIDTH() != null){
+                boardWidth = Integer.parseInt(extractVal(ctx.WIDTH()));
+            }
+            if (ctx.HEIGHT() != null){
+                boardHeight = Integer.parseInt(extractVal(ctx.HEIGHT()));
+            }
+            if (boardWidth <= 0 || boardHeight <= 0 || boardWidth > Board.MAX_SIZE || boardHeight > Board.MAX_SIZE){
+                throw new IllegalArgumentException("Invalid board size in input file.");
+            }
         }
         
         /**
@@ -586,7 +599,8 @@ public class BoardFactory {
          */
         public Board getBoard(){
             // create a new Board from everything we have extracted
-            return new Board(gadgets, balls, boardName, boardGravity, boardFriction1, boardFriction2);
+            return new Board(gadgets, balls, boardName, boardGravity, boardFriction1, boardFriction2, 
+                    boardWidth, boardHeight);
         }
     }
     
@@ -22,6 +22,7 @@ import org.junit.Test;
  *          parsing of sampleBoard3 generates Board w things in the right place
  *          parsing of sampleBoard4 generates Board w things in the right place
  *          board with a lot of whitespace in between tokens generates Board w things in the right place
+ *          board with a width and height other than 20 puts gadgets anywhere inside it
  *      --> proper behavior, i.e. testing that flippers flip when triggered, absorbers release when 
  *             triggerd cannot be tested here, this was tested by "playing" on various board files.
  *      invalid files:
@@ -281,6 +282,21 @@ public class BoardFactoryTest {
 //    }
 //    
     
+    @Test
+    public void testLargeBoard() throws IOException {
+        Board createdBoard = BoardFactory.parse(new File("./src/largeBoard.pb.txt"));
+        assertEquals(200, createdBoard.getWidth());
+        assertEquals(120, createdBoard.getHeight());
+        String[] rows = createdBoard.toString().split("\n");
+        // walls above and below
+        assertEquals(122, rows.length);
+        assertEquals(202, rows[0].length());
+        // row 10 is line 11, square bumper at column 150
+        assertEquals('#', rows[11].charAt(1 + 150));
+        assertEquals('0', rows[120].charAt(1 + 199));
+        assertEquals(2, createdBoard.getBallCopy().size());
+    }
+    
     // invalid files: meet the grammar
     
     @Test (expected=IllegalArgumentException.class)
@@ -72,6 +72,9 @@ public class BoardParser extends Parser {
 		_interp = new ParserATNSimulator(this,_ATN,_decisionToDFA,_sharedContextCache);
 	}
 	public static class FileContext extends ParserRuleContext {
+		public AttributeContext attribute(int i) {
+			return getRuleContext(AttributeContext.class,i);
+		}
 		public List<AttributeContext> attribute() {
 			return getRuleContexts(AttributeContext.class);
 		}
@@ -79,9 +82,6 @@ public class BoardParser extends Parser {
 		public BoardContext board() {
 			return getRuleContext(BoardContext.class,0);
 		}
-		public AttributeContext attribute(int i) {
-			return getRuleContext(AttributeContext.class,i);
-		}
 		public FileContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -132,15 +132,17 @@ public class BoardParser extends Parser {
 	}
 
 	public static class BoardContext extends ParserRuleContext {
-		public TerminalNode FRICTION2() { return getToken(BoardParser.FRICTION2, 0); }
-		public TerminalNode NAMEVAL() { return getToken(BoardParser.NAMEVAL, 0); }
-		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
-		public TerminalNode GRAVITY() { return getToken(BoardParser.GRAVITY, 0); }
 		public TerminalNode BOARD() { return getToken(BoardParser.BOARD, 0); }
 		public TerminalNode NEWLINE(int i) {
 			return getToken(BoardParser.NEWLINE, i);
 		}
 		public TerminalNode FRICTION1() { return getToken(BoardParser.FRICTION1, 0); }
+		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
+		public TerminalNode NAMEVAL() { return getToken(BoardParser.NAMEVAL, 0); }
+		public TerminalNode WIDTH() { return getToken(BoardParser.WIDTH, 0); }
+		public TerminalNode FRICTION2() { return getToken(BoardParser.FRICTION2, 0); }
+		public TerminalNode HEIGHT() { return getToken(BoardParser.HEIGHT, 0); }
+		public TerminalNode GRAVITY() { return getToken(BoardParser.GRAVITY, 0); }
 		public BoardContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -188,16 +190,32 @@ public class BoardParser extends Parser {
 				}
 			}
 
-			setState(46);
+			setState(44);
+			_la = _input.LA(1);
+			if (_la==WIDTH) {
+				{
+				setState(43); match(WIDTH);
+				}
+			}
+
+			setState(47);
+			_la = _input.LA(1);
+			if (_la==HEIGHT) {
+				{
+				setState(46); match(HEIGHT);
+				}
+			}
+
+			setState(52);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
 			while (_la==NEWLINE) {
 				{
 				{
-				setState(43); match(NEWLINE);
+				setState(49); match(NEWLINE);
 				}
 				}
-				setState(48);
+				setState(54);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			}
@@ -218,12 +236,12 @@ public class BoardParser extends Parser {
 		public BallContext ball() {
 			return getRuleContext(BallContext.class,0);
 		}
-		public BumperContext bumper() {
-			return getRuleContext(BumperContext.class,0);
-		}
 		public FireContext fire() {
 			return getRuleContext(FireContext.class,0);
 		}
+		public BumperContext bumper() {
+			return getRuleContext(BumperContext.class,0);
+		}
 		public ActionsContext actions() {
 			return getRuleContext(ActionsContext.class,0);
 		}
@@ -245,12 +263,12 @@ public class BoardParser extends Parser {
 		AttributeContext _localctx = new AttributeContext(_ctx, getState());
 		enterRule(_localctx, 4, RULE_attribute);
 		try {
-			setState(53);
+			setState(59);
 			switch (_input.LA(1)) {
 			case BALL:
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(49); ball();
+				setState(55); ball();
 				}
 				break;
 			case SQUARE:
@@ -258,7 +276,7 @@ public class BoardParser extends Parser {
 			case CIRCLE:
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(50); bumper();
+				setState(56); bumper();
 				}
 				break;
 			case LEFT:
@@ -266,13 +284,13 @@ public class BoardParser extends Parser {
 			case ABS:
 				enterOuterAlt(_localctx, 3);
 				{
-				setState(51); actions();
+				setState(57); actions();
 				}
 				break;
 			case FIRE:
 				enterOuterAlt(_localctx, 4);
 				{
-				setState(52); fire();
+				setState(58); fire();
 				}
 				break;
 			default:
@@ -291,15 +309,15 @@ public class BoardParser extends Parser {
 	}
 
 	public static class BallContext extends ParserRuleContext {
-		public TerminalNode NAMEVAL() { return getToken(BoardParser.NAMEVAL, 0); }
-		public TerminalNode XVEL() { return getToken(BoardParser.XVEL, 0); }
-		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
-		public TerminalNode BALL() { return getToken(BoardParser.BALL, 0); }
+		public TerminalNode XVAL() { return getToken(BoardParser.XVAL, 0); }
 		public TerminalNode NEWLINE(int i) {
 			return getToken(BoardParser.NEWLINE, i);
 		}
+		public TerminalNode BALL() { return getToken(BoardParser.BALL, 0); }
 		public TerminalNode YVAL() { return getToken(BoardParser.YVAL, 0); }
-		public TerminalNode XVAL() { return getToken(BoardParser.XVAL, 0); }
+		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
+		public TerminalNode NAMEVAL() { return getToken(BoardParser.NAMEVAL, 0); }
+		public TerminalNode XVEL() { return getToken(BoardParser.XVEL, 0); }
 		public TerminalNode YVEL() { return getToken(BoardParser.YVEL, 0); }
 		public BallContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
@@ -322,22 +340,22 @@ public class BoardParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(55); match(BALL);
-			setState(56); match(NAMEVAL);
-			setState(57); match(XVAL);
-			setState(58); match(YVAL);
-			setState(59); match(XVEL);
-			setState(60); match(YVEL);
-			setState(64);
+			setState(61); match(BALL);
+			setState(62); match(NAMEVAL);
+			setState(63); match(XVAL);
+			setState(64); match(YVAL);
+			setState(65); match(XVEL);
+			setState(66); match(YVEL);
+			setState(70);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
 			while (_la==NEWLINE) {
 				{
 				{
-				setState(61); match(NEWLINE);
+				setState(67); match(NEWLINE);
 				}
 				}
-				setState(66);
+				setState(72);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			}
@@ -355,14 +373,14 @@ public class BoardParser extends Parser {
 	}
 
 	public static class BumperContext extends ParserRuleContext {
-		public TriangleContext triangle() {
-			return getRuleContext(TriangleContext.class,0);
+		public SquareContext square() {
+			return getRuleContext(SquareContext.class,0);
 		}
 		public CircleContext circle() {
 			return getRuleContext(CircleContext.class,0);
 		}
-		public SquareContext square() {
-			return getRuleContext(SquareContext.class,0);
+		public TriangleContext triangle() {
+			return getRuleContext(TriangleContext.class,0);
 		}
 		public BumperContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
@@ -382,24 +400,24 @@ public class BoardParser extends Parser {
 		BumperContext _localctx = new BumperContext(_ctx, getState());
 		enterRule(_localctx, 8, RULE_bumper);
 		try {
-			setState(70);
+			setState(76);
 			switch (_input.LA(1)) {
 			case SQUARE:
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(67); square();
+				setState(73); square();
 				}
 				break;
 			case CIRCLE:
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(68); circle();
+				setState(74); circle();
 				}
 				break;
 			case TRIANGLE:
 				enterOuterAlt(_localctx, 3);
 				{
-				setState(69); triangle();
+				setState(75); triangle();
 				}
 				break;
 			default:
@@ -418,14 +436,14 @@ public class BoardParser extends Parser {
 	}
 
 	public static class SquareContext extends ParserRuleContext {
-		public TerminalNode NAMEVAL() { return getToken(BoardParser.NAMEVAL, 0); }
-		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
-		public TerminalNode SQUARE() { return getToken(BoardParser.SQUARE, 0); }
+		public TerminalNode XVAL() { return getToken(BoardParser.XVAL, 0); }
 		public TerminalNode NEWLINE(int i) {
 			return getToken(BoardParser.NEWLINE, i);
 		}
 		public TerminalNode YVAL() { return getToken(BoardParser.YVAL, 0); }
-		public TerminalNode XVAL() { return getToken(BoardParser.XVAL, 0); }
+		public TerminalNode SQUARE() { return getToken(BoardParser.SQUARE, 0); }
+		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
+		public TerminalNode NAMEVAL() { return getToken(BoardParser.NAMEVAL, 0); }
 		public SquareContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -447,20 +465,20 @@ public class BoardParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(72); match(SQUARE);
-			setState(73); match(NAMEVAL);
-			setState(74); match(XVAL);
-			setState(75); match(YVAL);
-			setState(79);
+			setState(78); match(SQUARE);
+			setState(79); match(NAMEVAL);
+			setState(80); match(XVAL);
+			setState(81); match(YVAL);
+			setState(85);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
 			while (_la==NEWLINE) {
 				{
 				{
-				setState(76); match(NEWLINE);
+				setState(82); match(NEWLINE);
 				}
 				}
-				setState(81);
+				setState(87);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			}
@@ -478,14 +496,14 @@ public class BoardParser extends Parser {
 	}
 
 	public static class CircleContext extends ParserRuleContext {
-		public TerminalNode NAMEVAL() { return getToken(BoardParser.NAMEVAL, 0); }
-		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
-		public TerminalNode CIRCLE() { return getToken(BoardParser.CIRCLE, 0); }
+		public TerminalNode XVAL() { return getToken(BoardParser.XVAL, 0); }
 		public TerminalNode NEWLINE(int i) {
 			return getToken(BoardParser.NEWLINE, i);
 		}
 		public TerminalNode YVAL() { return getToken(BoardParser.YVAL, 0); }
-		public TerminalNode XVAL() { return getToken(BoardParser.XVAL, 0); }
+		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
+		public TerminalNode NAMEVAL() { return getToken(BoardParser.NAMEVAL, 0); }
+		public TerminalNode CIRCLE() { return getToken(BoardParser.CIRCLE, 0); }
 		public CircleContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -507,20 +525,20 @@ public class BoardParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(82); match(CIRCLE);
-			setState(83); match(NAMEVAL);
-			setState(84); match(XVAL);
-			setState(85); match(YVAL);
-			setState(89);
+			setState(88); match(CIRCLE);
+			setState(89); match(NAMEVAL);
+			setState(90); match(XVAL);
+			setState(91); match(YVAL);
+			setState(95);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
 			while (_la==NEWLINE) {
 				{
 				{
-				setState(86); match(NEWLINE);
+				setState(92); match(NEWLINE);
 				}
 				}
-				setState(91);
+				setState(97);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			}
@@ -538,15 +556,15 @@ public class BoardParser extends Parser {
 	}
 
 	public static class TriangleContext extends ParserRuleContext {
-		public TerminalNode NAMEVAL() { return getToken(BoardParser.NAMEVAL, 0); }
-		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
+		public TerminalNode XVAL() { return getToken(BoardParser.XVAL, 0); }
 		public TerminalNode NEWLINE(int i) {
 			return getToken(BoardParser.NEWLINE, i);
 		}
 		public TerminalNode YVAL() { return getToken(BoardParser.YVAL, 0); }
 		public TerminalNode TRIANGLE() { return getToken(BoardParser.TRIANGLE, 0); }
+		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
 		public TerminalNode ORI() { return getToken(BoardParser.ORI, 0); }
-		public TerminalNode XVAL() { return getToken(BoardParser.XVAL, 0); }
+		public TerminalNode NAMEVAL() { return getToken(BoardParser.NAMEVAL, 0); }
 		public TriangleContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -568,21 +586,21 @@ public class BoardParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(92); match(TRIANGLE);
-			setState(93); match(NAMEVAL);
-			setState(94); match(XVAL);
-			setState(95); match(YVAL);
-			setState(96); match(ORI);
-			setState(100);
+			setState(98); match(TRIANGLE);
+			setState(99); match(NAMEVAL);
+			setState(100); match(XVAL);
+			setState(101); match(YVAL);
+			setState(102); match(ORI);
+			setState(106);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
 			while (_la==NEWLINE) {
 				{
 				{
-				setState(97); match(NEWLINE);
+				setState(103); match(NEWLINE);
 				}
 				}
-				setState(102);
+				setState(108);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			}
@@ -600,12 +618,12 @@ public class BoardParser extends Parser {
 	}
 
 	public static class ActionsContext extends ParserRuleContext {
-		public AbsorberContext absorber() {
-			return getRuleContext(AbsorberContext.class,0);
-		}
 		public FlipperContext flipper() {
 			return getRuleContext(FlipperContext.class,0);
 		}
+		public AbsorberContext absorber() {
+			return getRuleContext(AbsorberContext.class,0);
+		}
 		public ActionsContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -624,19 +642,19 @@ public class BoardParser extends Parser {
 		ActionsContext _localctx = new ActionsContext(_ctx, getState());
 		enterRule(_localctx, 16, RULE_actions);
 		try {
-			setState(105);
+			setState(111);
 			switch (_input.LA(1)) {
 			case LEFT:
 			case RIGHT:
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(103); flipper();
+				setState(109); flipper();
 				}
 				break;
 			case ABS:
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(104); absorber();
+				setState(110); absorber();
 				}
 				break;
 			default:
@@ -655,16 +673,16 @@ public class BoardParser extends Parser {
 	}
 
 	public static class FlipperContext extends ParserRuleContext {
-		public TerminalNode RIGHT() { return getToken(BoardParser.RIGHT, 0); }
-		public TerminalNode NAMEVAL() { return getToken(BoardParser.NAMEVAL, 0); }
-		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
+		public TerminalNode XVAL() { return getToken(BoardParser.XVAL, 0); }
 		public TerminalNode NEWLINE(int i) {
 			return getToken(BoardParser.NEWLINE, i);
 		}
 		public TerminalNode YVAL() { return getToken(BoardParser.YVAL, 0); }
 		public TerminalNode LEFT() { return getToken(BoardParser.LEFT, 0); }
+		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
 		public TerminalNode ORI() { return getToken(BoardParser.ORI, 0); }
-		public TerminalNode XVAL() { return getToken(BoardParser.XVAL, 0); }
+		public TerminalNode NAMEVAL() { return getToken(BoardParser.NAMEVAL, 0); }
+		public TerminalNode RIGHT() { return getToken(BoardParser.RIGHT, 0); }
 		public FlipperContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -686,26 +704,26 @@ public class BoardParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(107);
+			setState(113);
 			_la = _input.LA(1);
 			if ( !(_la==LEFT || _la==RIGHT) ) {
 			_errHandler.recoverInline(this);
 			}
 			consume();
-			setState(108); match(NAMEVAL);
-			setState(109); match(XVAL);
-			setState(110); match(YVAL);
-			setState(111); match(ORI);
-			setState(115);
+			setState(114); match(NAMEVAL);
+			setState(115); match(XVAL);
+			setState(116); match(YVAL);
+			setState(117); match(ORI);
+			setState(121);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
 			while (_la==NEWLINE) {
 				{
 				{
-				setState(112); match(NEWLINE);
+				setState(118); match(NEWLINE);
 				}
 				}
-				setState(117);
+				setState(123);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			}
@@ -723,16 +741,16 @@ public class BoardParser extends Parser {
 	}
 
 	public static class AbsorberContext extends ParserRuleContext {
-		public TerminalNode ABS() { return getToken(BoardParser.ABS, 0); }
-		public TerminalNode NAMEVAL() { return getToken(BoardParser.NAMEVAL, 0); }
-		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
-		public TerminalNode HEIGHT() { return getToken(BoardParser.HEIGHT, 0); }
+		public TerminalNode XVAL() { return getToken(BoardParser.XVAL, 0); }
 		public TerminalNode NEWLINE(int i) {
 			return getToken(BoardParser.NEWLINE, i);
 		}
 		public TerminalNode YVAL() { return getToken(BoardParser.YVAL, 0); }
-		public TerminalNode XVAL() { return getToken(BoardParser.XVAL, 0); }
+		public TerminalNode ABS() { return getToken(BoardParser.ABS, 0); }
+		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
+		public TerminalNode NAMEVAL() { return getToken(BoardParser.NAMEVAL, 0); }
 		public TerminalNode WIDTH() { return getToken(BoardParser.WIDTH, 0); }
+		public TerminalNode HEIGHT() { return getToken(BoardParser.HEIGHT, 0); }
 		public AbsorberContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -754,22 +772,22 @@ public class BoardParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(118); match(ABS);
-			setState(119); match(NAMEVAL);
-			setState(120); match(XVAL);
-			setState(121); match(YVAL);
-			setState(122); match(WIDTH);
-			setState(123); match(HEIGHT);
-			setState(127);
+			setState(124); match(ABS);
+			setState(125); match(NAMEVAL);
+			setState(126); match(XVAL);
+			setState(127); match(YVAL);
+			setState(128); match(WIDTH);
+			setState(129); match(HEIGHT);
+			setState(133);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
 			while (_la==NEWLINE) {
 				{
 				{
-				setState(124); match(NEWLINE);
+				setState(130); match(NEWLINE);
 				}
 				}
-				setState(129);
+				setState(135);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			}
@@ -787,13 +805,13 @@ public class BoardParser extends Parser {
 	}
 
 	public static class FireContext extends ParserRuleContext {
-		public TerminalNode FIRE() { return getToken(BoardParser.FIRE, 0); }
-		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
 		public TerminalNode NEWLINE(int i) {
 			return getToken(BoardParser.NEWLINE, i);
 		}
 		public TerminalNode ACTION() { return getToken(BoardParser.ACTION, 0); }
+		public TerminalNode FIRE() { return getToken(BoardParser.FIRE, 0); }
 		public TerminalNode TRIGGER() { return getToken(BoardParser.TRIGGER, 0); }
+		public List<TerminalNode> NEWLINE() { return getTokens(BoardParser.NEWLINE); }
 		public FireContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -815,19 +833,19 @@ public class BoardParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(130); match(FIRE);
-			setState(131); match(TRIGGER);
-			setState(132); match(ACTION);
-			setState(136);
+			setState(136); match(FIRE);
+			setState(137); match(TRIGGER);
+			setState(138); match(ACTION);
+			setState(142);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
 			while (_la==NEWLINE) {
 				{
 				{
-				setState(133); match(NEWLINE);
+				setState(139); match(NEWLINE);
 				}
 				}
-				setState(138);
+				setState(144);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			}
@@ -845,42 +863,44 @@ public class BoardParser extends Parser {
 	}
 
 	public static final String _serializedATN =
-		"\2\3\33\u008e\4\2\t\2\4\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b"+
+		"\2\3\33\u0094\4\2\t\2\4\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b"+
 		"\4\t\t\t\4\n\t\n\4\13\t\13\4\f\t\f\4\r\t\r\3\2\3\2\6\2\35\n\2\r\2\16\2"+
-		"\36\3\2\3\2\3\3\3\3\3\3\5\3&\n\3\3\3\5\3)\n\3\3\3\5\3,\n\3\3\3\7\3/\n"+
-		"\3\f\3\16\3\62\13\3\3\4\3\4\3\4\3\4\5\48\n\4\3\5\3\5\3\5\3\5\3\5\3\5\3"+
-		"\5\7\5A\n\5\f\5\16\5D\13\5\3\6\3\6\3\6\5\6I\n\6\3\7\3\7\3\7\3\7\3\7\7"+
-		"\7P\n\7\f\7\16\7S\13\7\3\b\3\b\3\b\3\b\3\b\7\bZ\n\b\f\b\16\b]\13\b\3\t"+
-		"\3\t\3\t\3\t\3\t\3\t\7\te\n\t\f\t\16\th\13\t\3\n\3\n\5\nl\n\n\3\13\3\13"+
-		"\3\13\3\13\3\13\3\13\7\13t\n\13\f\13\16\13w\13\13\3\f\3\f\3\f\3\f\3\f"+
-		"\3\f\3\f\7\f\u0080\n\f\f\f\16\f\u0083\13\f\3\r\3\r\3\r\3\r\7\r\u0089\n"+
-		"\r\f\r\16\r\u008c\13\r\3\r\2\16\2\4\6\b\n\f\16\20\22\24\26\30\2\3\3\22"+
-		"\23\u0093\2\32\3\2\2\2\4\"\3\2\2\2\6\67\3\2\2\2\b9\3\2\2\2\nH\3\2\2\2"+
-		"\fJ\3\2\2\2\16T\3\2\2\2\20^\3\2\2\2\22k\3\2\2\2\24m\3\2\2\2\26x\3\2\2"+
-		"\2\30\u0084\3\2\2\2\32\34\5\4\3\2\33\35\5\6\4\2\34\33\3\2\2\2\35\36\3"+
-		"\2\2\2\36\34\3\2\2\2\36\37\3\2\2\2\37 \3\2\2\2 !\7\1\2\2!\3\3\2\2\2\""+
-		"#\7\r\2\2#%\7\f\2\2$&\7\t\2\2%$\3\2\2\2%&\3\2\2\2&(\3\2\2\2\')\7\7\2\2"+
-		"(\'\3\2\2\2()\3\2\2\2)+\3\2\2\2*,\7\b\2\2+*\3\2\2\2+,\3\2\2\2,\60\3\2"+
-		"\2\2-/\7\32\2\2.-\3\2\2\2/\62\3\2\2\2\60.\3\2\2\2\60\61\3\2\2\2\61\5\3"+
-		"\2\2\2\62\60\3\2\2\2\638\5\b\5\2\648\5\n\6\2\658\5\22\n\2\668\5\30\r\2"+
-		"\67\63\3\2\2\2\67\64\3\2\2\2\67\65\3\2\2\2\67\66\3\2\2\28\7\3\2\2\29:"+
-		"\7\16\2\2:;\7\f\2\2;<\7\3\2\2<=\7\4\2\2=>\7\5\2\2>B\7\6\2\2?A\7\32\2\2"+
-		"@?\3\2\2\2AD\3\2\2\2B@\3\2\2\2BC\3\2\2\2C\t\3\2\2\2DB\3\2\2\2EI\5\f\7"+
-		"\2FI\5\16\b\2GI\5\20\t\2HE\3\2\2\2HF\3\2\2\2HG\3\2\2\2I\13\3\2\2\2JK\7"+
-		"\17\2\2KL\7\f\2\2LM\7\3\2\2MQ\7\4\2\2NP\7\32\2\2ON\3\2\2\2PS\3\2\2\2Q"+
-		"O\3\2\2\2QR\3\2\2\2R\r\3\2\2\2SQ\3\2\2\2TU\7\21\2\2UV\7\f\2\2VW\7\3\2"+
-		"\2W[\7\4\2\2XZ\7\32\2\2YX\3\2\2\2Z]\3\2\2\2[Y\3\2\2\2[\\\3\2\2\2\\\17"+
-		"\3\2\2\2][\3\2\2\2^_\7\20\2\2_`\7\f\2\2`a\7\3\2\2ab\7\4\2\2bf\7\30\2\2"+
-		"ce\7\32\2\2dc\3\2\2\2eh\3\2\2\2fd\3\2\2\2fg\3\2\2\2g\21\3\2\2\2hf\3\2"+
-		"\2\2il\5\24\13\2jl\5\26\f\2ki\3\2\2\2kj\3\2\2\2l\23\3\2\2\2mn\t\2\2\2"+
-		"no\7\f\2\2op\7\3\2\2pq\7\4\2\2qu\7\30\2\2rt\7\32\2\2sr\3\2\2\2tw\3\2\2"+
-		"\2us\3\2\2\2uv\3\2\2\2v\25\3\2\2\2wu\3\2\2\2xy\7\24\2\2yz\7\f\2\2z{\7"+
-		"\3\2\2{|\7\4\2\2|}\7\n\2\2}\u0081\7\13\2\2~\u0080\7\32\2\2\177~\3\2\2"+
-		"\2\u0080\u0083\3\2\2\2\u0081\177\3\2\2\2\u0081\u0082\3\2\2\2\u0082\27"+
-		"\3\2\2\2\u0083\u0081\3\2\2\2\u0084\u0085\7\25\2\2\u0085\u0086\7\26\2\2"+
-		"\u0086\u008a\7\27\2\2\u0087\u0089\7\32\2\2\u0088\u0087\3\2\2\2\u0089\u008c"+
-		"\3\2\2\2\u008a\u0088\3\2\2\2\u008a\u008b\3\2\2\2\u008b\31\3\2\2\2\u008c"+
-		"\u008a\3\2\2\2\21\36%(+\60\67BHQ[fku\u0081\u008a";
+		"\36\3\2\3\2\3\3\3\3\3\3\5\3&\n\3\3\3\5\3)\n\3\3\3\5\3,\n\3\3\3\5\3/\n"+
+		"\3\3\3\5\3\62\n\3\3\3\7\3\65\n\3\f\3\16\38\13\3\3\4\3\4\3\4\3\4\5\4>\n"+
+		"\4\3\5\3\5\3\5\3\5\3\5\3\5\3\5\7\5G\n\5\f\5\16\5J\13\5\3\6\3\6\3\6\5\6"+
+		"O\n\6\3\7\3\7\3\7\3\7\3\7\7\7V\n\7\f\7\16\7Y\13\7\3\b\3\b\3\b\3\b\3\b"+
+		"\7\b`\n\b\f\b\16\bc\13\b\3\t\3\t\3\t\3\t\3\t\3\t\7\tk\n\t\f\t\16\tn\13"+
+		"\t\3\n\3\n\5\nr\n\n\3\13\3\13\3\13\3\13\3\13\3\13\7\13z\n\13\f\13\16\13"+
+		"}\13\13\3\f\3\f\3\f\3\f\3\f\3\f\3\f\7\f\u0086\n\f\f\f\16\f\u0089\13\f"+
+		"\3\r\3\r\3\r\3\r\7\r\u008f\n\r\f\r\16\r\u0092\13\r\3\r\2\16\2\4\6\b\n"+
+		"\f\16\20\22\24\26\30\2\3\3\22\23\u009b\2\32\3\2\2\2\4\"\3\2\2\2\6=\3\2"+
+		"\2\2\b?\3\2\2\2\nN\3\2\2\2\fP\3\2\2\2\16Z\3\2\2\2\20d\3\2\2\2\22q\3\2"+
+		"\2\2\24s\3\2\2\2\26~\3\2\2\2\30\u008a\3\2\2\2\32\34\5\4\3\2\33\35\5\6"+
+		"\4\2\34\33\3\2\2\2\35\36\3\2\2\2\36\34\3\2\2\2\36\37\3\2\2\2\37 \3\2\2"+
+		"\2 !\7\1\2\2!\3\3\2\2\2\"#\7\r\2\2#%\7\f\2\2$&\7\t\2\2%$\3\2\2\2%&\3\2"+
+		"\2\2&(\3\2\2\2\')\7\7\2\2(\'\3\2\2\2()\3\2\2\2)+\3\2\2\2*,\7\b\2\2+*\3"+
+		"\2\2\2+,\3\2\2\2,.\3\2\2\2-/\7\n\2\2.-\3\2\2\2./\3\2\2\2/\61\3\2\2\2\60"+
+		"\62\7\13\2\2\61\60\3\2\2\2\61\62\3\2\2\2\62\66\3\2\2\2\63\65\7\32\2\2"+
+		"\64\63\3\2\2\2\658\3\2\2\2\66\64\3\2\2\2\66\67\3\2\2\2\67\5\3\2\2\28\66"+
+		"\3\2\2\29>\5\b\5\2:>\5\n\6\2;>\5\22\n\2<>\5\30\r\2=9\3\2\2\2=:\3\2\2\2"+
+		"=;\3\2\2\2=<\3\2\2\2>\7\3\2\2\2?@\7\16\2\2@A\7\f\2\2AB\7\3\2\2BC\7\4\2"+
+		"\2CD\7\5\2\2DH\7\6\2\2EG\7\32\2\2FE\3\2\2\2GJ\3\2\2\2HF\3\2\2\2HI\3\2"+
+		"\2\2I\t\3\2\2\2JH\3\2\2\2KO\5\f\7\2LO\5\16\b\2MO\5\20\t\2NK\3\2\2\2NL"+
+		"\3\2\2\2NM\3\2\2\2O\13\3\2\2\2PQ\7\17\2\2QR\7\f\2\2RS\7\3\2\2SW\7\4\2"+
+		"\2TV\7\32\2\2UT\3\2\2\2VY\3\2\2\2WU\3\2\2\2WX\3\2\2\2X\r\3\2\2\2YW\3\2"+
+		"\2\2Z[\7\21\2\2[\\\7\f\2\2\\]\7\3\2\2]a\7\4\2\2^`\7\32\2\2_^\3\2\2\2`"+
+		"c\3\2\2\2a_\3\2\2\2ab\3\2\2\2b\17\3\2\2\2ca\3\2\2\2de\7\20\2\2ef\7\f\2"+
+		"\2fg\7\3\2\2gh\7\4\2\2hl\7\30\2\2ik\7\32\2\2ji\3\2\2\2kn\3\2\2\2lj\3\2"+
+		"\2\2lm\3\2\2\2m\21\3\2\2\2nl\3\2\2\2or\5\24\13\2pr\5\26\f\2qo\3\2\2\2"+
+		"qp\3\2\2\2r\23\3\2\2\2st\t\2\2\2tu\7\f\2\2uv\7\3\2\2vw\7\4\2\2w{\7\30"+
+		"\2\2xz\7\32\2\2yx\3\2\2\2z}\3\2\2\2{y\3\2\2\2{|\3\2\2\2|\25\3\2\2\2}{"+
+		"\3\2\2\2~\177\7\24\2\2\177\u0080\7\f\2\2\u0080\u0081\7\3\2\2\u0081\u0082"+
+		"\7\4\2\2\u0082\u0083\7\n\2\2\u0083\u0087\7\13\2\2\u0084\u0086\7\32\2\2"+
+		"\u0085\u0084\3\2\2\2\u0086\u0089\3\2\2\2\u0087\u0085\3\2\2\2\u0087\u0088"+
+		"\3\2\2\2\u0088\27\3\2\2\2\u0089\u0087\3\2\2\2\u008a\u008b\7\25\2\2\u008b"+
+		"\u008c\7\26\2\2\u008c\u0090\7\27\2\2\u008d\u008f\7\32\2\2\u008e\u008d"+
+		"\3\2\2\2\u008f\u0092\3\2\2\2\u0090\u008e\3\2\2\2\u0090\u0091\3\2\2\2\u0091"+
+		"\31\3\2\2\2\u0092\u0090\3\2\2\2\23\36%(+.\61\66=HNWalq{\u0087\u0090";
 	public static final ATN _ATN =
 		ATNSimulator.deserialize(_serializedATN.toCharArray());
 	static {